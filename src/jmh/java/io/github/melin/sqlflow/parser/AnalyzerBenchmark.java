@@ -0,0 +1,31 @@
+package io.github.melin.sqlflow.parser;
+
+import io.github.melin.sqlflow.tree.statement.Statement;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@code StatementAnalyzer.analyze} over the parsed corpus, against the in-memory {@link CorpusMetadataService}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AnalyzerBenchmark {
+
+    @Benchmark
+    public void analyze(BenchmarkCorpus corpus, Blackhole blackhole) {
+        for (Statement statement : corpus.statements) {
+            blackhole.consume(corpus.analyze(statement));
+        }
+    }
+}
@@ -0,0 +1,109 @@
+package io.github.melin.sqlflow.parser;
+
+import io.github.melin.sqlflow.analyzer.Analysis;
+import io.github.melin.sqlflow.analyzer.Output;
+import io.github.melin.sqlflow.analyzer.StatementAnalyzer;
+import io.github.melin.sqlflow.metadata.MetadataService;
+import io.github.melin.sqlflow.tree.statement.Statement;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.io.Resources;
+import org.antlr.v4.runtime.ParserRuleContext;
+import org.antlr.v4.runtime.atn.PredictionMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * The statements every benchmark runs over, prepared up to the phase before the measured one. Statements
+ * that the parser or the analyzer rejects are left out and reported on stderr, so all phases measure the
+ * same statements.
+ */
+@State(Scope.Benchmark)
+public class BenchmarkCorpus {
+
+    private static final ImmutableMap<String, ImmutableList<String>> CORPORA = ImmutableMap.of(
+            "readme", ImmutableList.of("benchmark/readme.sql"),
+            "case-heavy", ImmutableList.of("benchmark/case_heavy.sql"),
+            "flink-examples", ImmutableList.of(
+                    "examples/flink/createView.sql",
+                    "examples/flink/flink.sql",
+                    "examples/flink/insertFromSelectQueries.sql",
+                    "examples/flink/selectAggregation.sql",
+                    "examples/flink/selectDistinct.sql",
+                    "examples/flink/selectJoin.sql",
+                    "examples/flink/selectPatternRecognition.sql",
+                    "examples/flink/selectWhere.sql",
+                    "examples/flink/selectWindowTVF.sql",
+                    "examples/flink/selectWithClause.sql"));
+
+    @Param({"readme", "case-heavy", "flink-examples"})
+    public String corpus;
+
+    final SqlFlowParser parser = new SqlFlowParser((lexer, sqlFlowParser) -> {}, false);
+
+    MetadataService metadataService;
+    List<String> sqls;
+    List<ParserRuleContext> trees;
+    List<Statement> statements;
+    List<Output> outputs;
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        ImmutableList.Builder<String> sqls = ImmutableList.builder();
+        StringBuilder script = new StringBuilder();
+        for (String resource : CORPORA.get(corpus)) {
+            String text = Resources.toString(Resources.getResource(resource), UTF_8);
+            script.append(text).append('\n');
+            sqls.addAll(StatementSplitter.split(text));
+        }
+        metadataService = new CorpusMetadataService(script.toString());
+
+        this.sqls = new ArrayList<>();
+        trees = new ArrayList<>();
+        statements = new ArrayList<>();
+        outputs = new ArrayList<>();
+        int skipped = 0;
+        for (String sql : sqls.build()) {
+            try {
+                ParserRuleContext tree = parse(sql, PredictionMode.SLL);
+                Statement statement = parser.createStatement(sql);
+                Analysis analysis = analyze(statement);
+                this.sqls.add(sql);
+                trees.add(tree);
+                statements.add(statement);
+                analysis.getTarget().ifPresent(outputs::add);
+            } catch (RuntimeException | StackOverflowError e) {
+                skipped++;
+            }
+        }
+        if (this.sqls.isEmpty()) {
+            throw new IllegalStateException("No statement of corpus " + corpus + " can be analyzed");
+        }
+        if (skipped > 0) {
+            System.err.println("corpus " + corpus + ": skipped " + skipped + " of " + (skipped + this.sqls.size()) + " statements");
+        }
+    }
+
+    ParserRuleContext parse(String sql, PredictionMode predictionMode) {
+        io.github.melin.sqlflow.parser.antlr4.SqlFlowParser sqlFlowParser = parser.createParser(sql);
+        sqlFlowParser.getInterpreter().setPredictionMode(predictionMode);
+        return sqlFlowParser.singleStatement();
+    }
+
+    Analysis analyze(Statement statement) {
+        Analysis analysis = new Analysis(statement, Collections.emptyMap());
+        new StatementAnalyzer(analysis, metadataService, parser).analyze(statement, Optional.empty());
+        return analysis;
+    }
+}
@@ -0,0 +1,58 @@
+package io.github.melin.sqlflow.parser;
+
+import io.github.melin.sqlflow.metadata.MetadataService;
+import io.github.melin.sqlflow.metadata.QualifiedObjectName;
+import io.github.melin.sqlflow.metadata.SchemaTable;
+import io.github.melin.sqlflow.metadata.ViewDefinition;
+import io.github.melin.sqlflow.tree.QualifiedName;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * In-memory metadata for the benchmark corpus: every table exists and has one column per plain identifier
+ * of the statement, so the analyzer resolves the whole statement without a catalog behind it.
+ */
+class CorpusMetadataService implements MetadataService {
+
+    private static final ImmutableSet<String> AGGREGATIONS = ImmutableSet.of("sum", "count", "avg", "max", "min");
+
+    private final List<String> columns;
+
+    CorpusMetadataService(String sql) {
+        ImmutableList.Builder<String> builder = ImmutableList.builder();
+        for (String name : SqlIdentifiers.extract(sql, false)) {
+            if (!name.equals(SqlIdentifiers.ASTERISK) && name.indexOf('.') < 0) {
+                builder.add(name);
+            }
+        }
+        this.columns = builder.build();
+    }
+
+    @Override
+    public Optional<String> getSchema() {
+        return Optional.of("default");
+    }
+
+    @Override
+    public Optional<String> getCatalog() {
+        return Optional.empty();
+    }
+
+    @Override
+    public boolean isAggregationFunction(QualifiedName name) {
+        return AGGREGATIONS.contains(name.toString().toLowerCase());
+    }
+
+    @Override
+    public Optional<SchemaTable> getTableSchema(QualifiedObjectName table) {
+        return Optional.of(new SchemaTable(table.getObjectName(), columns));
+    }
+
+    @Override
+    public Optional<ViewDefinition> getView(QualifiedObjectName viewName) {
+        return Optional.empty();
+    }
+}
@@ -0,0 +1,42 @@
+package io.github.melin.sqlflow.parser;
+
+import io.github.melin.sqlflow.analyzer.Output;
+import io.github.melin.sqlflow.lineage.LineageJson;
+import io.github.melin.sqlflow.util.JsonUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JSON output of the lineage of the corpus, through the streaming {@link LineageJson} writer and through the
+ * pretty printed {@link JsonUtils#toJSONString} used by the examples.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LineageJsonBenchmark {
+
+    @Benchmark
+    public void lineageJson(BenchmarkCorpus corpus, Blackhole blackhole) throws IOException {
+        for (Output output : corpus.outputs) {
+            blackhole.consume(LineageJson.toJson(output));
+        }
+    }
+
+    @Benchmark
+    public void prettyJson(BenchmarkCorpus corpus, Blackhole blackhole) throws IOException {
+        for (Output output : corpus.outputs) {
+            blackhole.consume(JsonUtils.toJSONString(output));
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package io.github.melin.sqlflow.parser;
+
+import io.github.melin.sqlflow.parser.antlr4.SqlFlowLexer;
+import org.antlr.v4.runtime.CharStreams;
+import org.antlr.v4.runtime.CommonTokenStream;
+import org.antlr.v4.runtime.ParserRuleContext;
+import org.antlr.v4.runtime.atn.PredictionMode;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+import static io.github.melin.sqlflow.parser.ParsingOptions.DecimalLiteralTreatment.AS_DECIMAL;
+
+/**
+ * The phases of {@link SqlFlowParser#createStatement}, each timed over the whole corpus: lexing alone, the
+ * SLL parse tried first, the LL parse it falls back to, and the conversion of the parse tree to the AST.
+ * The ANTLR caches are kept between operations, as a long running service would.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ParserBenchmark {
+
+    @Benchmark
+    public void lex(BenchmarkCorpus corpus, Blackhole blackhole) {
+        for (String sql : corpus.sqls) {
+            CommonTokenStream tokenStream = new CommonTokenStream(new SqlFlowLexer(new UpperCaseCharStream(CharStreams.fromString(sql))));
+            tokenStream.fill();
+            blackhole.consume(tokenStream.size());
+        }
+    }
+
+    @Benchmark
+    public void parseSll(BenchmarkCorpus corpus, Blackhole blackhole) {
+        for (String sql : corpus.sqls) {
+            blackhole.consume(corpus.parse(sql, PredictionMode.SLL));
+        }
+    }
+
+    @Benchmark
+    public void parseLl(BenchmarkCorpus corpus, Blackhole blackhole) {
+        for (String sql : corpus.sqls) {
+            blackhole.consume(corpus.parse(sql, PredictionMode.LL));
+        }
+    }
+
+    @Benchmark
+    public void buildAst(BenchmarkCorpus corpus, Blackhole blackhole) {
+        for (ParserRuleContext tree : corpus.trees) {
+            blackhole.consume(new AstBuilder(new ParsingOptions(AS_DECIMAL)).visit(tree));
+        }
+    }
+
+    @Benchmark
+    public void createStatement(BenchmarkCorpus corpus, Blackhole blackhole) {
+        for (String sql : corpus.sqls) {
+            blackhole.consume(corpus.parser.createStatement(sql));
+        }
+    }
+}
@@ -0,0 +1,34 @@
+package io.github.melin.sqlflow.parser;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Runs the benchmarks with the GC profiler, so every phase reports its allocation rate next to its time, and
+ * writes the results to {@code target/jmh-sqlflow-<version>.json} for comparing releases. Accepts the usual
+ * JMH command line, e.g. {@code mvn -Pbenchmark test-compile exec:exec -Djmh.args="ParserBenchmark -p corpus=readme"}.
+ */
+public final class SqlFlowBenchmarks {
+
+    private SqlFlowBenchmarks() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        CommandLineOptions commandLine = new CommandLineOptions(args);
+        ChainedOptionsBuilder options = new OptionsBuilder()
+                .parent(commandLine)
+                .addProfiler(GCProfiler.class);
+        if (commandLine.getIncludes().isEmpty()) {
+            options.include(SqlFlowBenchmarks.class.getPackage().getName() + "\\..*Benchmark");
+        }
+        if (!commandLine.getResult().hasValue()) {
+            options.resultFormat(ResultFormatType.JSON)
+                    .result("target/jmh-sqlflow-" + System.getProperty("sqlflow.version", "dev") + ".json");
+        }
+        new Runner(options.build()).run();
+    }
+}
@@ -1,6 +1,8 @@
 package io.github.melin.sqlflow.analyzer;
 
 import io.github.melin.sqlflow.metadata.QualifiedObjectName;
+import io.github.melin.sqlflow.metadata.SchemaTable;
+import io.github.melin.sqlflow.parser.SqlFingerprint;
 import io.github.melin.sqlflow.tree.*;
 import io.github.melin.sqlflow.tree.expression.*;
 import io.github.melin.sqlflow.tree.join.Join;
@@ -8,10 +10,15 @@ import io.github.melin.sqlflow.tree.relation.QuerySpecification;
 import io.github.melin.sqlflow.tree.relation.Relation;
 import io.github.melin.sqlflow.tree.relation.Table;
 import io.github.melin.sqlflow.tree.relation.Unnest;
+import io.github.melin.sqlflow.tree.statement.CreateMaterializedView;
+import io.github.melin.sqlflow.tree.statement.CreateTableAsSelect;
+import io.github.melin.sqlflow.tree.statement.CreateView;
 import io.github.melin.sqlflow.tree.statement.Query;
 import io.github.melin.sqlflow.tree.statement.Statement;
 import io.github.melin.sqlflow.tree.window.WindowFrame;
 import io.github.melin.sqlflow.type.Type;
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonProperty;
 import com.google.common.collect.*;
 import io.github.melin.sqlflow.tree.*;
 import io.github.melin.sqlflow.tree.expression.*;
@@ -21,6 +28,8 @@ import javax.annotation.concurrent.Immutable;
 import java.util.*;
 
 import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkState;
+import static com.google.common.collect.ImmutableList.toImmutableList;
 import static com.google.common.collect.ImmutableMap.toImmutableMap;
 import static com.google.common.collect.ImmutableSet.toImmutableSet;
 import static java.lang.Boolean.FALSE;
@@ -35,6 +44,8 @@ public class Analysis {
 
     private final Statement root;
 
+    private final AnalysisProfile profile;
+
     private String updateType;
 
     private Optional<UpdateTarget> target = Optional.empty();
@@ -51,8 +62,18 @@ public class Analysis {
 
     private final Map<NodeRef<AllColumns>, List<Field>> selectAllResultFields = new LinkedHashMap<>();
 
+    private final Map<NodeRef<AllColumns>, List<Field>> selectAllRelationFields = new LinkedHashMap<>();
+
     private final Multimap<Field, SourceColumn> originColumnDetails = ArrayListMultimap.create();
 
+    // fields deriving from the same source columns as another field, e.g. the columns of a subquery, resolved
+    // when read instead of copied on every level of nesting
+    private final Map<Field, Field> sourceColumnReferences = new HashMap<>();
+    // fields other fields refer to, their source columns can no longer change
+    private final Set<Field> referencedSourceFields = new HashSet<>();
+    // source columns of fields resolved through a chain of references, see sourceColumns
+    private final Map<Field, Set<SourceColumn>> resolvedSourceColumns = new HashMap<>();
+
     private final Map<NodeRef<Relation>, QualifiedName> relationNames = new LinkedHashMap<>();
 
     private final Set<NodeRef<Relation>> aliasedRelations = new LinkedHashSet<>();
@@ -92,15 +113,226 @@ public class Analysis {
     // for recursive view detection
     private final Deque<Table> tablesForView = new ArrayDeque<>();
 
+    private Optional<ViewCache> viewCache = Optional.empty();
+
+    private Optional<SqlFingerprint> fingerprint = Optional.empty();
+
+    // tables and views read or written, whose metadata the analysis depends on
+    private final Set<QualifiedObjectName> dependencies = new LinkedHashSet<>();
+
+    // predicate columns of views taken from the view cache instead of being analyzed
+    private final Set<SourceColumn> viewWhereColumns = new LinkedHashSet<>();
+    private final Set<SourceColumn> viewJoinColumns = new LinkedHashSet<>();
+
+    // one capture per view being analyzed, innermost last
+    private final Deque<ViewCapture> viewCaptures = new ArrayDeque<>();
+
+    // expression analyzers done with their expression, reused by the next one until the analysis ends
+    private final Deque<ExpressionAnalyzer> idleExpressionAnalyzers = new ArrayDeque<>();
+
+    // nesting of the analyzers sharing this analysis, only the outermost one reports metrics
+    private int analyzerDepth;
+    private int createdFields;
+
+    private long estimatedBytes;
+    private long memoryLimit = Long.MAX_VALUE;
+    // ASTs only estimated when the footprint is requested, walking them is not needed without a memory limit
+    private final List<Node> unestimatedAsts = new ArrayList<>();
+
+    private AnalysisBudget budget = AnalysisBudget.UNLIMITED;
+    private long totalFields;
+    private long deadline;
+
     public Analysis(@Nullable Statement root, Map<NodeRef<Parameter>, Expression> parameters) {
+        this(root, parameters, AnalysisProfile.FULL);
+    }
+
+    public Analysis(@Nullable Statement root, Map<NodeRef<Parameter>, Expression> parameters, AnalysisProfile profile) {
         this.root = root;
         this.parameters = ImmutableMap.copyOf(requireNonNull(parameters, "parameters is null"));
+        this.profile = requireNonNull(profile, "profile is null");
     }
 
     public Statement getStatement() {
         return root;
     }
 
+    public AnalysisProfile getProfile() {
+        return profile;
+    }
+
+    public Optional<ViewCache> getViewCache() {
+        return viewCache;
+    }
+
+    public void setViewCache(ViewCache viewCache) {
+        this.viewCache = Optional.of(requireNonNull(viewCache, "viewCache is null"));
+    }
+
+    public Optional<SqlFingerprint> getFingerprint() {
+        return fingerprint;
+    }
+
+    /**
+     * Fingerprint of the statement text, reported with the flight recorder event of the analysis.
+     */
+    public void setFingerprint(SqlFingerprint fingerprint) {
+        this.fingerprint = Optional.of(requireNonNull(fingerprint, "fingerprint is null"));
+    }
+
+    /**
+     * Returns true when called by the outermost analyzer of the statement.
+     */
+    boolean enterAnalyzer() {
+        if (analyzerDepth++ != 0) {
+            return false;
+        }
+        budget.getTimeout().ifPresent(timeout -> deadline = System.nanoTime() + timeout.toNanos());
+        return true;
+    }
+
+    void exitAnalyzer() {
+        if (--analyzerDepth == 0) {
+            idleExpressionAnalyzers.clear();
+        }
+    }
+
+    Deque<ExpressionAnalyzer> getIdleExpressionAnalyzers() {
+        return idleExpressionAnalyzers;
+    }
+
+    void addCreatedFields(int count) {
+        createdFields += count;
+        totalFields += count;
+        if (totalFields > budget.getMaxFields()) {
+            throw new AnalysisBudgetExceededException(AnalysisBudget.Limit.FIELDS,
+                    format("Analysis created more than %s fields", budget.getMaxFields()));
+        }
+        reserveMemory((long) count * StatementFootprint.BYTES_PER_FIELD);
+    }
+
+    public AnalysisBudget getBudget() {
+        return budget;
+    }
+
+    public void setBudget(AnalysisBudget budget) {
+        this.budget = requireNonNull(budget, "budget is null");
+    }
+
+    /**
+     * Fails the analysis once its thread was interrupted or the deadline of the budget passed. Called for
+     * every relation and expression node analyzed.
+     */
+    void checkBudget() {
+        if (Thread.currentThread().isInterrupted()) {
+            throw new AnalysisBudgetExceededException(AnalysisBudget.Limit.INTERRUPTED, "Analysis was interrupted");
+        }
+        if (budget.getTimeout().isPresent() && System.nanoTime() - deadline > 0) {
+            throw new AnalysisBudgetExceededException(AnalysisBudget.Limit.TIME,
+                    format("Analysis took longer than %sms", budget.getTimeout().get().toMillis()));
+        }
+    }
+
+    private void checkSourceColumns(Field field) {
+        if (budget.getMaxSourceColumns() != Integer.MAX_VALUE && sourceColumns(field).size() > budget.getMaxSourceColumns()) {
+            throw new AnalysisBudgetExceededException(AnalysisBudget.Limit.SOURCE_COLUMNS,
+                    format("Column %s derives from more than %s source columns", field.getName().orElse("<anonymous>"), budget.getMaxSourceColumns()));
+        }
+    }
+
+    /**
+     * Estimated heap retained by the ASTs and the analysis state of the statement so far, see
+     * {@link StatementFootprint}.
+     */
+    public long getEstimatedBytes() {
+        for (Node node : unestimatedAsts) {
+            estimatedBytes += StatementFootprint.estimateAst(node);
+        }
+        unestimatedAsts.clear();
+        return estimatedBytes;
+    }
+
+    public long getMemoryLimit() {
+        return memoryLimit;
+    }
+
+    /**
+     * Aborts the analysis with an {@link ExceededMemoryLimitException} once {@link #getEstimatedBytes()}
+     * exceeds the limit, so one huge statement cannot exhaust the heap of a service analyzing many.
+     */
+    public void setMemoryLimit(long memoryLimit) {
+        checkArgument(memoryLimit > 0, "memoryLimit must be positive");
+        this.memoryLimit = memoryLimit;
+    }
+
+    void reserveMemory(long bytes) {
+        estimatedBytes += bytes;
+        if (estimatedBytes > memoryLimit) {
+            throw new ExceededMemoryLimitException(memoryLimit, estimatedBytes);
+        }
+    }
+
+    /**
+     * Adds the estimate of the AST to the footprint. Without a memory limit the AST is only walked when
+     * {@link #getEstimatedBytes()} is called.
+     */
+    void reserveAst(Node node) {
+        if (memoryLimit == Long.MAX_VALUE) {
+            unestimatedAsts.add(node);
+            return;
+        }
+        reserveMemory(StatementFootprint.estimateAst(node));
+    }
+
+    private void reserveEntries(int count) {
+        reserveMemory((long) count * StatementFootprint.BYTES_PER_ENTRY);
+    }
+
+    /**
+     * Returns the number of fields created since the last call.
+     */
+    int takeCreatedFields() {
+        int count = createdFields;
+        createdFields = 0;
+        return count;
+    }
+
+    /**
+     * Extracts the target lineage and the columns used by WHERE and JOIN criteria into an immutable
+     * result that does not reference any AST node, field or scope of this analysis.
+     */
+    public LineageResult toLineageResult() {
+        ImmutableSet.Builder<SourceColumn> whereColumns = ImmutableSet.builder();
+        for (Field field : where.keySet()) {
+            whereColumns.addAll(sourceColumns(field));
+        }
+        whereColumns.addAll(viewWhereColumns);
+
+        ImmutableSet.Builder<SourceColumn> joinColumns = ImmutableSet.builder();
+        for (Expression criteria : joins.values()) {
+            joinColumns.addAll(getExpressionSourceColumns(criteria));
+        }
+        joinColumns.addAll(viewJoinColumns);
+
+        return new LineageResult(Optional.ofNullable(updateType), getTarget(), whereColumns.build(), joinColumns.build());
+    }
+
+    /**
+     * Describes the table or view created by a CTAS, CREATE VIEW or CREATE MATERIALIZED VIEW statement,
+     * so that later statements of the same script can resolve it.
+     */
+    public Optional<SchemaTable> getCreatedTable() {
+        if (!(root instanceof CreateTableAsSelect || root instanceof CreateView || root instanceof CreateMaterializedView)) {
+            return Optional.empty();
+        }
+        return target.filter(target -> target.getColumns().isPresent() && !target.getColumns().get().isEmpty())
+                .map(target -> new SchemaTable(
+                        target.getName().getCatalogName(),
+                        target.getName().getSchemaName(),
+                        target.getName().getObjectName(),
+                        target.getColumns().get().stream().map(OutputColumn::getColumn).collect(toImmutableList())));
+    }
+
     public String getUpdateType() {
         return updateType;
     }
@@ -118,6 +350,19 @@ public class Analysis {
 
     public void setUpdateTarget(QualifiedObjectName targetName, Optional<Table> targetTable, Optional<List<OutputColumn>> targetColumns) {
         this.target = Optional.of(new UpdateTarget(targetName, targetTable, targetColumns));
+        addDependency(targetName);
+    }
+
+    public void addDependency(QualifiedObjectName name) {
+        dependencies.add(requireNonNull(name, "name is null"));
+        viewCaptures.forEach(capture -> capture.dependencies.add(name));
+    }
+
+    /**
+     * Tables and views the statement reads or writes, including the ones behind views.
+     */
+    public Set<QualifiedObjectName> getDependencies() {
+        return ImmutableSet.copyOf(dependencies);
     }
 
     public boolean isUpdateTarget(Table table) {
@@ -137,6 +382,7 @@ public class Analysis {
         requireNonNull(query, "query is null");
 
         namedQueries.put(NodeRef.of(tableReference), query);
+        reserveEntries(1);
     }
 
     public Map<NodeRef<Parameter>, Expression> getParameters() {
@@ -145,10 +391,15 @@ public class Analysis {
 
     public void setScope(Node node, Scope scope) {
         scopes.put(NodeRef.of(node), scope);
+        reserveMemory(StatementFootprint.BYTES_PER_SCOPE);
     }
 
     public void addTypes(Map<NodeRef<Expression>, Type> types) {
+        if (!profile.recordsPlanningState()) {
+            return;
+        }
         this.types.putAll(types);
+        reserveEntries(types.size());
     }
 
     public Map<NodeRef<Expression>, Type> getTypes() {
@@ -156,7 +407,11 @@ public class Analysis {
     }
 
     public void setSelectExpressions(Node node, List<SelectExpression> expressions) {
+        if (!profile.recordsPlanningState()) {
+            return;
+        }
         selectExpressions.put(NodeRef.of(node), ImmutableList.copyOf(expressions));
+        reserveEntries(1 + expressions.size());
     }
 
     public List<SelectExpression> getSelectExpressions(Node node) {
@@ -165,46 +420,194 @@ public class Analysis {
 
     public void setSelectAllResultFields(AllColumns node, List<Field> expressions) {
         selectAllResultFields.put(NodeRef.of(node), ImmutableList.copyOf(expressions));
+        reserveEntries(1);
     }
 
+    /**
+     * Returns the fields of {@code *} or {@code t.*}, creating them on first use when the expansion was
+     * recorded with {@link #setSelectAllRelationFields}.
+     */
     public List<Field> getSelectAllResultFields(AllColumns node) {
-        return selectAllResultFields.get(NodeRef.of(node));
+        List<Field> fields = selectAllResultFields.get(NodeRef.of(node));
+        if (fields == null && selectAllRelationFields.containsKey(NodeRef.of(node))) {
+            fields = expandAllColumns(node, selectAllRelationFields.get(NodeRef.of(node)));
+            setSelectAllResultFields(node, fields);
+        }
+        return fields;
+    }
+
+    /**
+     * Records the fields of the relation selected by {@code *} or {@code t.*} without expanding them: the
+     * list is referenced, not copied, and the result fields are only created when
+     * {@link #getSelectAllResultFields} is called.
+     */
+    public void setSelectAllRelationFields(AllColumns node, List<Field> relationFields) {
+        selectAllRelationFields.put(NodeRef.of(node), relationFields);
+        reserveEntries(1);
+    }
+
+    /**
+     * Returns the fields of the relation selected by {@code *} or {@code t.*}, or null when the select item
+     * expands a row typed expression.
+     */
+    public List<Field> getSelectAllRelationFields(AllColumns node) {
+        return selectAllRelationFields.get(NodeRef.of(node));
+    }
+
+    private List<Field> expandAllColumns(AllColumns node, List<Field> relationFields) {
+        List<Identifier> aliases = node.getAliases();
+        ImmutableList.Builder<Field> fields = ImmutableList.builderWithExpectedSize(relationFields.size());
+        for (int i = 0; i < relationFields.size(); i++) {
+            Field field = relationFields.get(i);
+            Optional<String> alias = aliases.isEmpty() ? field.getName() : Optional.of(aliases.get(i).getValue());
+            Field newField = new Field(field.getRelationAlias(), alias, field.getOriginTable(),
+                    field.getOriginColumnName(), !aliases.isEmpty() || field.isAliased());
+            newField.setLocation(field.getLocation());
+            addSourceColumns(newField, field);
+            fields.add(newField);
+        }
+        return fields.build();
     }
 
     public void addSourceColumns(Field field, Set<SourceColumn> sourceColumn) {
+        if (sourceColumn.isEmpty()) {
+            return;
+        }
+        checkSourceColumnsMutable(field);
         originColumnDetails.putAll(field, sourceColumn);
+        reserveEntries(sourceColumn.size());
+        checkSourceColumns(field);
+    }
+
+    /**
+     * Records that the field derives from the same source columns as the source field, without copying them.
+     * Source columns can no longer be added to the source field afterwards.
+     */
+    public void addSourceColumns(Field field, Field source) {
+        // point at the field owning the columns, so chains of references do not grow with the nesting
+        Field target = source;
+        Field next;
+        while (!originColumnDetails.containsKey(target) && (next = sourceColumnReferences.get(target)) != null) {
+            target = next;
+        }
+        if (target == field) {
+            return;
+        }
+        if (sourceColumnReferences.containsKey(field)) {
+            addSourceColumns(field, getSourceColumns(target));
+            return;
+        }
+        sourceColumnReferences.put(field, target);
+        referencedSourceFields.add(target);
+        reserveEntries(1);
     }
 
     public Set<SourceColumn> getSourceColumns(Field field) {
-        return ImmutableSet.copyOf(originColumnDetails.get(field));
+        return ImmutableSet.copyOf(sourceColumns(field));
+    }
+
+    private Collection<SourceColumn> sourceColumns(Field field) {
+        Field source = sourceColumnReferences.get(field);
+        if (source == null) {
+            return originColumnDetails.get(field);
+        }
+        if (!originColumnDetails.containsKey(field) && !sourceColumnReferences.containsKey(source)) {
+            // the common case, the field refers to the field owning its columns
+            return originColumnDetails.get(source);
+        }
+        // the fields of the chain are referenced and cannot change, only the field itself can
+        return resolvedSourceColumns.computeIfAbsent(field, this::resolveSourceColumns);
+    }
+
+    private Set<SourceColumn> resolveSourceColumns(Field field) {
+        // referenced columns first, as if they had been copied when the field was created
+        Deque<Field> fields = new ArrayDeque<>();
+        for (Field current = field; current != null; current = sourceColumnReferences.get(current)) {
+            fields.push(current);
+        }
+        ImmutableSet.Builder<SourceColumn> sourceColumns = ImmutableSet.builder();
+        for (Field current : fields) {
+            sourceColumns.addAll(originColumnDetails.get(current));
+        }
+        return sourceColumns.build();
+    }
+
+    private void checkSourceColumnsMutable(Field field) {
+        checkState(!referencedSourceFields.contains(field), "Source columns of field %s are referenced by other fields", field);
+        resolvedSourceColumns.remove(field);
+    }
+
+    /**
+     * Records the union of the source columns of all input fields, e.g. the same column of every UNION branch,
+     * in a single pass without copying the intermediate sets.
+     */
+    public void mergeSourceColumns(Field field, List<Field> inputFields) {
+        Set<SourceColumn> sourceColumns = new LinkedHashSet<>();
+        for (Field inputField : inputFields) {
+            sourceColumns.addAll(sourceColumns(inputField));
+        }
+        if (sourceColumns.isEmpty()) {
+            return;
+        }
+        checkSourceColumnsMutable(field);
+        originColumnDetails.putAll(field, sourceColumns);
+        reserveEntries(sourceColumns.size());
+        checkSourceColumns(field);
     }
 
     public void setRelationName(Relation relation, QualifiedName name) {
+        if (!profile.recordsPlanningState()) {
+            return;
+        }
         relationNames.put(NodeRef.of(relation), name);
     }
 
     public void addAliased(Relation relation) {
+        if (!profile.recordsPlanningState()) {
+            return;
+        }
         aliasedRelations.add(NodeRef.of(relation));
     }
 
     public void addOriginField(SourceColumn sourceColumn, NodeLocation location) {
+        // only fields resolved through a scope get the location of the reference
+        if (!profile.recordsPlanningState() || location == null) {
+            return;
+        }
         originFields.put(sourceColumn, location);
+        reserveEntries(1);
     }
 
     public Set<NodeLocation> getOriginField(SourceColumn sourceColumn) {
         return ImmutableSet.copyOf(originFields.get(sourceColumn));
     }
 
+    /**
+     * Locations of every resolved column reference, recorded by the {@link AnalysisProfile#FULL full} profile.
+     */
+    public Multimap<SourceColumn, NodeLocation> getOriginFields() {
+        return Multimaps.unmodifiableMultimap(originFields);
+    }
+
     public void addOriginTable(QualifiedObjectName name, NodeLocation location) {
+        if (!profile.recordsPlanningState()) {
+            return;
+        }
         originTables.put(name, location);
+        reserveEntries(1);
     }
 
     public Set<NodeLocation> getOriginTable(QualifiedObjectName name) {
         return ImmutableSet.copyOf(originTables.get(name));
     }
+
+    public Multimap<QualifiedObjectName, NodeLocation> getOriginTables() {
+        return Multimaps.unmodifiableMultimap(originTables);
+    }
     
     public void addExpressionFields(Expression expression, Collection<Field> fields) {
         fieldLineage.putAll(NodeRef.of(expression), fields);
+        reserveEntries(fields.size());
     }
 
     public Set<SourceColumn> getExpressionSourceColumns(Expression expression) {
@@ -214,6 +617,9 @@ public class Analysis {
     }
 
     public void setWindow(Node node, ResolvedWindow window) {
+        if (!profile.recordsPlanningState()) {
+            return;
+        }
         windows.put(NodeRef.of(node), window);
     }
 
@@ -226,6 +632,9 @@ public class Analysis {
     }
 
     public void setHaving(QuerySpecification node, Expression expression) {
+        if (!profile.recordsPlanningState()) {
+            return;
+        }
         having.put(NodeRef.of(node), expression);
     }
 
@@ -244,6 +653,9 @@ public class Analysis {
     }
 
     public void setGroupingOperations(QuerySpecification querySpecification, List<GroupingOperation> groupingOperations) {
+        if (!profile.recordsPlanningState()) {
+            return;
+        }
         this.groupingOperations.put(NodeRef.of(querySpecification), ImmutableList.copyOf(groupingOperations));
     }
 
@@ -253,6 +665,9 @@ public class Analysis {
     }
 
     public void setAggregates(QuerySpecification node, List<FunctionCall> aggregates) {
+        if (!profile.recordsPlanningState()) {
+            return;
+        }
         this.aggregates.put(NodeRef.of(node), ImmutableList.copyOf(aggregates));
     }
 
@@ -261,6 +676,9 @@ public class Analysis {
     }
 
     public void setOrderByAggregates(OrderBy node, List<Expression> aggregates) {
+        if (!profile.recordsPlanningState()) {
+            return;
+        }
         this.orderByAggregates.put(NodeRef.of(node), ImmutableList.copyOf(aggregates));
     }
 
@@ -296,10 +714,15 @@ public class Analysis {
 
     public void addColumnReferences(Map<NodeRef<Expression>, ResolvedField> columnReferences) {
         this.columnReferences.putAll(columnReferences);
+        reserveEntries(columnReferences.size());
     }
 
     public void registerTableForView(Table tableReference) {
         tablesForView.push(requireNonNull(tableReference, "tableReference is null"));
+        if (tablesForView.size() > budget.getMaxViewDepth()) {
+            throw new AnalysisBudgetExceededException(AnalysisBudget.Limit.VIEW_DEPTH,
+                    format("Views are nested more than %s deep", budget.getMaxViewDepth()));
+        }
     }
 
     public void unregisterTableForView() {
@@ -308,6 +731,10 @@ public class Analysis {
 
     public void setJoinCriteria(Join node, Expression criteria) {
         joins.put(NodeRef.of(node), criteria);
+        if (!viewCaptures.isEmpty()) {
+            Set<SourceColumn> sourceColumns = getExpressionSourceColumns(criteria);
+            viewCaptures.forEach(capture -> capture.joinColumns.addAll(sourceColumns));
+        }
     }
 
     public Expression getJoinCriteria(Join join) {
@@ -315,6 +742,9 @@ public class Analysis {
     }
 
     public void setJoinUsing(Join node, JoinUsingAnalysis analysis) {
+        if (!profile.recordsPlanningState()) {
+            return;
+        }
         joinUsing.put(NodeRef.of(node), analysis);
     }
 
@@ -323,11 +753,19 @@ public class Analysis {
     }
 
     public void setUnnest(Unnest node, UnnestAnalysis analysis) {
+        if (!profile.recordsPlanningState()) {
+            return;
+        }
         unnestAnalysis.put(NodeRef.of(node), analysis);
     }
 
     public void setWhere(Field field, Expression expression) {
         where.put(field, expression);
+        reserveEntries(1);
+        if (!viewCaptures.isEmpty()) {
+            Collection<SourceColumn> sourceColumns = sourceColumns(field);
+            viewCaptures.forEach(capture -> capture.whereColumns.addAll(sourceColumns));
+        }
     }
 
     public Multimap<Field, Expression> getWhere() {
@@ -335,6 +773,9 @@ public class Analysis {
     }
 
     public void setOrderByExpressions(Node node, List<Expression> items) {
+        if (!profile.recordsPlanningState()) {
+            return;
+        }
         orderByExpressions.put(NodeRef.of(node), ImmutableList.copyOf(items));
     }
 
@@ -343,6 +784,9 @@ public class Analysis {
     }
 
     public void setGroupingSets(QuerySpecification node, GroupingSetAnalysis groupingSets) {
+        if (!profile.recordsPlanningState()) {
+            return;
+        }
         this.groupingSets.put(NodeRef.of(node), groupingSets);
     }
 
@@ -358,6 +802,31 @@ public class Analysis {
         return tablesForView.contains(tableReference);
     }
 
+    /**
+     * Starts collecting the WHERE and JOIN columns of a view about to be analyzed, for the view cache.
+     */
+    void beginViewCapture() {
+        viewCaptures.addLast(new ViewCapture());
+    }
+
+    ViewCapture endViewCapture() {
+        return viewCaptures.removeLast();
+    }
+
+    /**
+     * Records the WHERE and JOIN columns and the dependencies of a view taken from the view cache, as if
+     * it had been analyzed.
+     */
+    void addCachedView(ViewCache.CachedView view) {
+        viewWhereColumns.addAll(view.getWhereColumns());
+        viewJoinColumns.addAll(view.getJoinColumns());
+        view.getDependencies().forEach(this::addDependency);
+        viewCaptures.forEach(capture -> {
+            capture.whereColumns.addAll(view.getWhereColumns());
+            capture.joinColumns.addAll(view.getJoinColumns());
+        });
+    }
+
     public RelationType getOutputDescriptor(Node node) {
         return getScope(node).getRelationType();
     }
@@ -432,7 +901,8 @@ public class Analysis {
         private final QualifiedObjectName tableName;
         private final String columnName;
 
-        public SourceColumn(QualifiedObjectName tableName, String columnName) {
+        @JsonCreator
+        public SourceColumn(@JsonProperty("tableName") QualifiedObjectName tableName, @JsonProperty("columnName") String columnName) {
             this.tableName = requireNonNull(tableName, "tableName is null");
             this.columnName = requireNonNull(columnName, "columnName is null");
         }
@@ -464,6 +934,12 @@ public class Analysis {
         }
     }
 
+    static final class ViewCapture {
+        final Set<SourceColumn> whereColumns = new LinkedHashSet<>();
+        final Set<SourceColumn> joinColumns = new LinkedHashSet<>();
+        final Set<QualifiedObjectName> dependencies = new LinkedHashSet<>();
+    }
+
     private static class UpdateTarget {
         private final QualifiedObjectName name;
         private final Optional<Table> table;
@@ -0,0 +1,124 @@
+package io.github.melin.sqlflow.analyzer;
+
+import java.time.Duration;
+import java.util.Optional;
+
+import static com.google.common.base.MoreObjects.toStringHelper;
+import static com.google.common.base.Preconditions.checkArgument;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Limits on the work of analyzing one statement, set with {@link Analysis#setBudget(AnalysisBudget)}. The
+ * analyzers check them as they go, each relation and expression node they visit checks the deadline, and
+ * fail with an {@link AnalysisBudgetExceededException}; {@link TableLineageAnalyzer} then still gives the
+ * tables the statement reads and writes.
+ */
+public final class AnalysisBudget {
+
+    public static final AnalysisBudget UNLIMITED = builder().build();
+
+    private final long maxFields;
+    private final int maxSourceColumns;
+    private final int maxViewDepth;
+    private final Optional<Duration> timeout;
+
+    private AnalysisBudget(Builder builder) {
+        this.maxFields = builder.maxFields;
+        this.maxSourceColumns = builder.maxSourceColumns;
+        this.maxViewDepth = builder.maxViewDepth;
+        this.timeout = builder.timeout;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Fields the analysis may create for its relations, including those of subqueries and views.
+     */
+    public long getMaxFields() {
+        return maxFields;
+    }
+
+    /**
+     * Source columns a single field may derive from.
+     */
+    public int getMaxSourceColumns() {
+        return maxSourceColumns;
+    }
+
+    /**
+     * Views that may be expanded inside each other.
+     */
+    public int getMaxViewDepth() {
+        return maxViewDepth;
+    }
+
+    public Optional<Duration> getTimeout() {
+        return timeout;
+    }
+
+    @Override
+    public String toString() {
+        return toStringHelper(this)
+                .add("maxFields", maxFields)
+                .add("maxSourceColumns", maxSourceColumns)
+                .add("maxViewDepth", maxViewDepth)
+                .add("timeout", timeout.orElse(null))
+                .omitNullValues()
+                .toString();
+    }
+
+    public enum Limit {
+        FIELDS,
+        SOURCE_COLUMNS,
+        VIEW_DEPTH,
+        TIME,
+        /**
+         * The analyzing thread was interrupted.
+         */
+        INTERRUPTED,
+    }
+
+    public static final class Builder {
+        private long maxFields = Long.MAX_VALUE;
+        private int maxSourceColumns = Integer.MAX_VALUE;
+        private int maxViewDepth = Integer.MAX_VALUE;
+        private Optional<Duration> timeout = Optional.empty();
+
+        private Builder() {
+        }
+
+        public Builder withMaxFields(long maxFields) {
+            checkArgument(maxFields > 0, "maxFields must be positive");
+            this.maxFields = maxFields;
+            return this;
+        }
+
+        public Builder withMaxSourceColumns(int maxSourceColumns) {
+            checkArgument(maxSourceColumns > 0, "maxSourceColumns must be positive");
+            this.maxSourceColumns = maxSourceColumns;
+            return this;
+        }
+
+        public Builder withMaxViewDepth(int maxViewDepth) {
+            checkArgument(maxViewDepth >= 0, "maxViewDepth is negative");
+            this.maxViewDepth = maxViewDepth;
+            return this;
+        }
+
+        /**
+         * Wall-clock time the analysis of a statement may take, from the start of its outermost analyzer.
+         */
+        public Builder withTimeout(Duration timeout) {
+            requireNonNull(timeout, "timeout is null");
+            checkArgument(!timeout.isNegative() && !timeout.isZero(), "timeout must be positive");
+            this.timeout = Optional.of(timeout);
+            return this;
+        }
+
+        public AnalysisBudget build() {
+            return new AnalysisBudget(this);
+        }
+    }
+}
@@ -0,0 +1,23 @@
+package io.github.melin.sqlflow.analyzer;
+
+import io.github.melin.sqlflow.SqlFlowException;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Thrown when the analysis of a statement exceeds a limit of its {@link AnalysisBudget}, or its thread is
+ * interrupted. The analysis is abandoned, the statement itself is not invalid.
+ */
+public class AnalysisBudgetExceededException extends SqlFlowException {
+
+    private final AnalysisBudget.Limit limit;
+
+    public AnalysisBudgetExceededException(AnalysisBudget.Limit limit, String message) {
+        super(message);
+        this.limit = requireNonNull(limit, "limit is null");
+    }
+
+    public AnalysisBudget.Limit getLimit() {
+        return limit;
+    }
+}
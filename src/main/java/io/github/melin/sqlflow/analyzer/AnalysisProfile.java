@@ -0,0 +1,21 @@
+package io.github.melin.sqlflow.analyzer;
+
+/**
+ * Controls how much of the Trino planning state {@link Analysis} keeps.
+ */
+public enum AnalysisProfile {
+    /**
+     * Record everything, including windows, grouping sets, aggregates, order by and select expressions.
+     */
+    FULL,
+    /**
+     * Record only what column lineage needs: scopes, source columns, the update target and
+     * the columns referenced by WHERE and JOIN criteria. Windows, grouping, HAVING and ORDER BY
+     * are not analyzed at all, and the locations of table and column references are not recorded.
+     */
+    LINEAGE;
+
+    public boolean recordsPlanningState() {
+        return this == FULL;
+    }
+}
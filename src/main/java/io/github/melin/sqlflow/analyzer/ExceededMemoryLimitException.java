@@ -0,0 +1,30 @@
+package io.github.melin.sqlflow.analyzer;
+
+import io.github.melin.sqlflow.SqlFlowException;
+
+import static java.lang.String.format;
+
+/**
+ * Thrown when the estimated heap footprint of a statement's AST and analysis grows past the limit set with
+ * {@link Analysis#setMemoryLimit(long)}. The analysis is abandoned, the statement itself is not invalid.
+ */
+public class ExceededMemoryLimitException extends SqlFlowException {
+
+    private final long limitBytes;
+    private final long estimatedBytes;
+
+    public ExceededMemoryLimitException(long limitBytes, long estimatedBytes) {
+        super(format("Statement is too large to analyze: estimated memory %s exceeds the limit of %s",
+                StatementFootprint.toString(estimatedBytes), StatementFootprint.toString(limitBytes)));
+        this.limitBytes = limitBytes;
+        this.estimatedBytes = estimatedBytes;
+    }
+
+    public long getLimitBytes() {
+        return limitBytes;
+    }
+
+    public long getEstimatedBytes() {
+        return estimatedBytes;
+    }
+}
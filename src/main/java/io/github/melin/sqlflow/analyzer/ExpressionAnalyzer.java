@@ -19,6 +19,8 @@ import io.github.melin.sqlflow.type.RowType;
 import io.github.melin.sqlflow.type.Type;
 import com.google.common.collect.HashMultimap;
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Multimap;
 
 import javax.annotation.Nullable;
@@ -45,11 +47,13 @@ import static java.util.Objects.requireNonNull;
  */
 public class ExpressionAnalyzer {
 
-    private final Analysis analysis;
+    // clearing the collections of an analyzer that saw a large expression costs more than allocating new ones
+    private static final int MAX_REUSED_EXPRESSION_COUNT = 256;
 
-    private final MetadataService metadataService;
+    private final Analysis analysis;
 
-    private final SqlFlowParser sqlFlowParser;
+    // analyzes the subqueries of the expressions, with the settings of the statement they belong to
+    private final StatementAnalyzer statementAnalyzer;
 
     private final Map<NodeRef<Expression>, Type> expressionTypes = new LinkedHashMap<>();
 
@@ -109,21 +113,19 @@ public class ExpressionAnalyzer {
         return unmodifiableSet(windowFunctions);
     }
 
-    private ExpressionAnalyzer(Analysis analysis, MetadataService metadataService, SqlFlowParser sqlFlowParser) {
-        this(analysis, metadataService, sqlFlowParser,
+    private ExpressionAnalyzer(Analysis analysis, StatementAnalyzer statementAnalyzer) {
+        this(analysis, statementAnalyzer,
                 analysis.getParameters(),
                 analysis::getWindow);
     }
 
     ExpressionAnalyzer(
             Analysis analysis,
-            MetadataService metadataService,
-            SqlFlowParser sqlFlowParser,
+            StatementAnalyzer statementAnalyzer,
             Map<NodeRef<Parameter>, Expression> parameters,
             Function<Node, Analysis.ResolvedWindow> getResolvedWindow) {
         this.analysis = requireNonNull(analysis, "analysis is null");
-        this.metadataService = requireNonNull(metadataService, "analysis is null");
-        this.sqlFlowParser = requireNonNull(sqlFlowParser, "sqlParser is null");
+        this.statementAnalyzer = requireNonNull(statementAnalyzer, "statementAnalyzer is null");
         this.parameters = requireNonNull(parameters, "parameters is null");
         this.getResolvedWindow = requireNonNull(getResolvedWindow, "getResolvedWindow is null");
     }
@@ -176,6 +178,39 @@ public class ExpressionAnalyzer {
         return sourceFields;
     }
 
+    /**
+     * Takes an idle analyzer of the analysis, nested subqueries take their own while the outer one is busy.
+     */
+    private static ExpressionAnalyzer acquire(Analysis analysis, StatementAnalyzer statementAnalyzer) {
+        ExpressionAnalyzer analyzer = analysis.getIdleExpressionAnalyzers().pollLast();
+        if (analyzer != null && analyzer.statementAnalyzer == statementAnalyzer) {
+            return analyzer;
+        }
+        return new ExpressionAnalyzer(analysis, statementAnalyzer);
+    }
+
+    private void release() {
+        boolean reusable = expressionTypes.size() <= MAX_REUSED_EXPRESSION_COUNT;
+        expressionTypes.clear();
+        subqueries.clear();
+        existsSubqueries.clear();
+        expressionCoercions.clear();
+        typeOnlyCoercions.clear();
+        subqueryInPredicates.clear();
+        columnReferences.clear();
+        quantifiedComparisons.clear();
+        windowFunctions.clear();
+        lambdaArgumentReferences.clear();
+        tableColumnReferences.clear();
+        patternRecognitionFunctions.clear();
+        referencedFields.clear();
+        labelDereferences.clear();
+        sourceFields.clear();
+        if (reusable) {
+            analysis.getIdleExpressionAnalyzers().addLast(this);
+        }
+    }
+
     private class Visitor
             extends AstVisitor<Type, Context> {
         // Used to resolve FieldReferences (e.g. during local execution planning)
@@ -187,6 +222,7 @@ public class ExpressionAnalyzer {
 
         @Override
         public Type process(Node node, @Nullable Context context) {
+            analysis.checkBudget();
             if (node instanceof Expression) {
                 // don't double process a node
                 Type type = expressionTypes.get(NodeRef.of(((Expression) node)));
@@ -398,6 +434,11 @@ public class ExpressionAnalyzer {
 
         @Override
         public Type visitWindowOperation(WindowOperation node, Context context) {
+            if (!analysis.getProfile().recordsPlanningState()) {
+                // windows are not resolved in the lineage profile and a measure has no column lineage of its own
+                return setExpressionType(node, UNKNOWN);
+            }
+
             Analysis.ResolvedWindow window = getResolvedWindow.apply(node);
             checkState(window != null, "no resolved window for: " + node);
 
@@ -587,7 +628,7 @@ public class ExpressionAnalyzer {
             for (Expression argument : arguments) {
                 if (argument instanceof LambdaExpression || argument instanceof BindExpression) {
                     ExpressionAnalyzer innerExpressionAnalyzer = new ExpressionAnalyzer(
-                            analysis, metadataService, sqlFlowParser,
+                            analysis, statementAnalyzer,
                             parameters,
                             getResolvedWindow);
                     if (context.isInLambda()) {
@@ -633,15 +674,17 @@ public class ExpressionAnalyzer {
                 }
             }
 
-            if (field.getOriginTable().isPresent() && field.getOriginColumnName().isPresent()) {
-                tableColumnReferences.put(field.getOriginTable().get(), field.getOriginColumnName().get());
-            }
-
             sourceFields.add(field);
 
-            fieldId.getRelationId()
-                    .getSourceNode()
-                    .ifPresent(source -> referencedFields.put(NodeRef.of(source), field));
+            if (analysis.getProfile().recordsPlanningState()) {
+                if (field.getOriginTable().isPresent() && field.getOriginColumnName().isPresent()) {
+                    tableColumnReferences.put(field.getOriginTable().get(), field.getOriginColumnName().get());
+                }
+
+                fieldId.getRelationId()
+                        .getSourceNode()
+                        .ifPresent(source -> referencedFields.put(NodeRef.of(source), field));
+            }
 
             ResolvedField previous = columnReferences.put(NodeRef.of(node), resolvedField);
             checkState(previous == null, "%s already known to refer to %s", node, previous);
@@ -887,7 +930,22 @@ public class ExpressionAnalyzer {
 
         @Override
         public Type visitArithmeticBinary(ArithmeticBinaryExpression node, Context context) {
-            return getOperator(context, node, OperatorType.valueOf(node.getOperator().name()), node.getLeft(), node.getRight());
+            // long generated chains (a + b - c + ...) are left-deep, analyze the left spine with a loop instead of recursion
+            Deque<ArithmeticBinaryExpression> spine = new ArrayDeque<>();
+            Expression current = node;
+            while (current instanceof ArithmeticBinaryExpression && (current == node || !expressionTypes.containsKey(NodeRef.of(current)))) {
+                ArithmeticBinaryExpression binary = (ArithmeticBinaryExpression) current;
+                spine.push(binary);
+                current = binary.getLeft();
+            }
+
+            process(current, context);
+            Type type = UNKNOWN;
+            while (!spine.isEmpty()) {
+                ArithmeticBinaryExpression binary = spine.pop();
+                type = getOperator(context, binary, OperatorType.valueOf(binary.getOperator().name()), binary.getRight());
+            }
+            return type;
         }
 
         @Override
@@ -982,11 +1040,10 @@ public class ExpressionAnalyzer {
         if (context.isInLambda()) {
             throw semanticException(node, "Lambda expression cannot contain subqueries");
         }
-        StatementAnalyzer analyzer = new StatementAnalyzer(analysis, metadataService, sqlFlowParser);
         Scope subqueryScope = Scope.builder()
                 .withParent(context.getScope())
                 .build();
-        Scope queryScope = analyzer.analyze(node.getQuery(), subqueryScope);
+        Scope queryScope = statementAnalyzer.analyze(node.getQuery(), subqueryScope);
 
         ImmutableList.Builder<RowType.Field> fields = ImmutableList.builder();
         for (int i = 0; i < queryScope.getRelationType().getAllFieldCount(); i++) {
@@ -1005,14 +1062,34 @@ public class ExpressionAnalyzer {
     public static ExpressionAnalysis analyzeExpression(
             Scope scope,
             Analysis analysis,
-            MetadataService metadataService,
-            SqlFlowParser sqlFlowParser,
+            StatementAnalyzer statementAnalyzer,
             Expression expression) {
-        ExpressionAnalyzer analyzer = new ExpressionAnalyzer(analysis, metadataService, sqlFlowParser);
+        ExpressionAnalyzer analyzer = acquire(analysis, statementAnalyzer);
+        try {
+            return analyzeExpression(analyzer, analysis, scope, expression);
+        } finally {
+            analyzer.release();
+        }
+    }
+
+    private static ExpressionAnalysis analyzeExpression(ExpressionAnalyzer analyzer, Analysis analysis, Scope scope, Expression expression) {
         analyzer.analyze(expression, scope);
 
         updateAnalysis(analysis, analyzer);
         analysis.addExpressionFields(expression, analyzer.getSourceFields());
+        if (!analysis.getProfile().recordsPlanningState()) {
+            return new ExpressionAnalysis(
+                    ImmutableMap.of(),
+                    ImmutableMap.of(),
+                    ImmutableSet.of(),
+                    ImmutableSet.of(),
+                    ImmutableSet.of(),
+                    analyzer.getColumnReferences(),
+                    ImmutableSet.of(),
+                    ImmutableSet.of(),
+                    ImmutableSet.of());
+        }
+
         analyzer.getSourceFields().forEach(field -> {
             if (field.getOriginTable().isPresent() && field.getOriginColumnName().isPresent()) {
                 Analysis.SourceColumn sourceColumn = new Analysis.SourceColumn(field.getOriginTable().get(),
@@ -1037,7 +1114,7 @@ public class ExpressionAnalyzer {
                                                         Iterable<Expression> expressions,
                                                         Map<NodeRef<Parameter>, Expression> parameters) {
         Analysis analysis = new Analysis(null, parameters);
-        ExpressionAnalyzer analyzer = new ExpressionAnalyzer(analysis, metadataService, sqlFlowParser);
+        ExpressionAnalyzer analyzer = new ExpressionAnalyzer(analysis, new StatementAnalyzer(analysis, metadataService, sqlFlowParser));
         for (Expression expression : expressions) {
             analyzer.analyze(
                     expression,
@@ -1066,7 +1143,7 @@ public class ExpressionAnalyzer {
             CorrelationSupport correlationSupport,
             Analysis.ResolvedWindow window,
             Node originalNode) {
-        ExpressionAnalyzer analyzer = new ExpressionAnalyzer(analysis, metadataService, sqlFlowParser);
+        ExpressionAnalyzer analyzer = new ExpressionAnalyzer(analysis, new StatementAnalyzer(analysis, metadataService, sqlFlowParser));
         analyzer.analyzeWindow(window, scope, originalNode, correlationSupport);
 
         updateAnalysis(analysis, analyzer);
@@ -6,9 +6,12 @@ import io.github.melin.sqlflow.tree.Node;
 import io.github.melin.sqlflow.tree.NodeLocation;
 import io.github.melin.sqlflow.tree.QualifiedName;
 import io.github.melin.sqlflow.tree.expression.*;
+import io.github.melin.sqlflow.tree.literal.Literal;
 import com.google.common.collect.ImmutableList;
 import io.github.melin.sqlflow.tree.expression.*;
 
+import java.util.ArrayDeque;
+import java.util.Deque;
 import java.util.List;
 import java.util.Optional;
 import java.util.function.Predicate;
@@ -65,15 +68,17 @@ public final class ExpressionTreeUtils {
         requireNonNull(clazz, "clazz is null");
         requireNonNull(predicate, "predicate is null");
 
+        // packed IN lists hold nothing but literals, so they are only expanded when literals are looked for
+        boolean includeLiterals = Literal.class.isAssignableFrom(clazz) || clazz.isAssignableFrom(Literal.class);
         return stream(nodes)
-                .flatMap(node -> linearizeNodes(node).stream())
+                .flatMap(node -> linearizeNodes(node, includeLiterals).stream())
                 .filter(clazz::isInstance)
                 .map(clazz::cast)
                 .filter(predicate)
                 .collect(toImmutableList());
     }
 
-    private static List<Node> linearizeNodes(Node node) {
+    private static List<Node> linearizeNodes(Node node, boolean includeLiterals) {
         ImmutableList.Builder<Node> nodes = ImmutableList.builder();
         new DefaultExpressionTraversalVisitor<Void>() {
             @Override
@@ -82,6 +87,35 @@ public final class ExpressionTreeUtils {
                 nodes.add(node);
                 return null;
             }
+
+            @Override
+            public Void visitArithmeticBinary(ArithmeticBinaryExpression node, Void context) {
+                // same post order as the recursive traversal, but the left-deep spine of long chains is walked with a loop
+                Deque<ArithmeticBinaryExpression> spine = new ArrayDeque<>();
+                Expression current = node;
+                while (current instanceof ArithmeticBinaryExpression) {
+                    spine.push((ArithmeticBinaryExpression) current);
+                    current = ((ArithmeticBinaryExpression) current).getLeft();
+                }
+
+                process(current, context);
+                while (!spine.isEmpty()) {
+                    ArithmeticBinaryExpression binary = spine.pop();
+                    process(binary.getRight(), context);
+                    if (binary != node) {
+                        nodes.add(binary);
+                    }
+                }
+                return null;
+            }
+
+            @Override
+            public Void visitInListExpression(InListExpression node, Void context) {
+                if (!includeLiterals && node instanceof LiteralInListExpression) {
+                    return null;
+                }
+                return super.visitInListExpression(node, context);
+            }
         }.process(node, null);
         return nodes.build();
     }
@@ -120,11 +120,23 @@ public class Field {
             return false;
         }
 
+        return canResolve(name.getPrefix(), name.getSuffix(), caseSensitive);
+    }
+
+    /**
+     * {@link #canResolve(QualifiedName, boolean)} with the prefix and suffix of the name split once by the
+     * caller, which checks every field of a relation against the same name.
+     */
+    public boolean canResolve(Optional<QualifiedName> prefix, String suffix, boolean caseSensitive) {
+        if (!this.name.isPresent()) {
+            return false;
+        }
+
         // TODO: need to know whether the qualified name and the name of this field were quoted
         if (caseSensitive) {
-            return matchesPrefix(name.getPrefix()) && this.name.get().equals(name.getSuffix());
+            return matchesPrefix(prefix) && this.name.get().equals(suffix);
         } else {
-            return matchesPrefix(name.getPrefix()) && this.name.get().equalsIgnoreCase(name.getSuffix());
+            return matchesPrefix(prefix) && this.name.get().equalsIgnoreCase(suffix);
         }
     }
 
@@ -0,0 +1,92 @@
+package io.github.melin.sqlflow.analyzer;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.google.common.collect.ImmutableSet;
+
+import javax.annotation.concurrent.Immutable;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Lineage of one statement, detached from the {@link Analysis} it was extracted from
+ * so that the analysis and the AST can be dropped as soon as it is built.
+ */
+@Immutable
+public final class LineageResult {
+    private final Optional<String> updateType;
+    private final Optional<Output> target;
+    private final Set<Analysis.SourceColumn> whereColumns;
+    private final Set<Analysis.SourceColumn> joinColumns;
+
+    @JsonCreator
+    public LineageResult(
+            @JsonProperty("updateType") Optional<String> updateType,
+            @JsonProperty("target") Optional<Output> target,
+            @JsonProperty("whereColumns") Set<Analysis.SourceColumn> whereColumns,
+            @JsonProperty("joinColumns") Set<Analysis.SourceColumn> joinColumns) {
+        this.updateType = requireNonNull(updateType, "updateType is null");
+        this.target = requireNonNull(target, "target is null");
+        this.whereColumns = ImmutableSet.copyOf(requireNonNull(whereColumns, "whereColumns is null"));
+        this.joinColumns = ImmutableSet.copyOf(requireNonNull(joinColumns, "joinColumns is null"));
+    }
+
+    @JsonProperty
+    public Optional<String> getUpdateType() {
+        return updateType;
+    }
+
+    @JsonProperty
+    public Optional<Output> getTarget() {
+        return target;
+    }
+
+    /**
+     * Source columns referenced by WHERE clauses anywhere in the statement.
+     */
+    @JsonProperty
+    public Set<Analysis.SourceColumn> getWhereColumns() {
+        return whereColumns;
+    }
+
+    /**
+     * Source columns referenced by JOIN criteria anywhere in the statement.
+     */
+    @JsonProperty
+    public Set<Analysis.SourceColumn> getJoinColumns() {
+        return joinColumns;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        LineageResult that = (LineageResult) o;
+        return Objects.equals(updateType, that.updateType) &&
+                Objects.equals(target, that.target) &&
+                Objects.equals(whereColumns, that.whereColumns) &&
+                Objects.equals(joinColumns, that.joinColumns);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(updateType, target, whereColumns, joinColumns);
+    }
+
+    @Override
+    public String toString() {
+        return "LineageResult{" +
+                "updateType=" + updateType +
+                ", target=" + target +
+                ", whereColumns=" + whereColumns +
+                ", joinColumns=" + joinColumns +
+                '}';
+    }
+}
@@ -2,11 +2,13 @@ package io.github.melin.sqlflow.analyzer;
 
 import io.github.melin.sqlflow.tree.QualifiedName;
 import com.google.common.collect.ImmutableList;
-import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
 
 import javax.annotation.concurrent.Immutable;
+import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
@@ -23,7 +25,7 @@ public class RelationType {
     private final List<Field> visibleFields;
     private final List<Field> allFields;
 
-    private final Map<Field, Integer> fieldIndexes;
+    private final FieldStore store;
 
     public RelationType(Field... fields) {
         this(ImmutableList.copyOf(fields));
@@ -31,16 +33,24 @@ public class RelationType {
 
     public RelationType(List<Field> fields) {
         requireNonNull(fields, "fields is null");
-        this.allFields = ImmutableList.copyOf(fields);
-        this.visibleFields = fields.stream()
-                .collect(toImmutableList());
-
-        int index = 0;
-        ImmutableMap.Builder<Field, Integer> builder = ImmutableMap.builder();
-        for (Field field : fields) {
-            builder.put(field, index++);
+        Field[] array = fields.toArray(new Field[0]);
+        for (Field field : array) {
+            requireNonNull(field, "field is null");
         }
-        fieldIndexes = builder.build();
+        this.store = new FieldStore(array);
+        this.allFields = view(array, array.length);
+        // there are no hidden fields
+        this.visibleFields = allFields;
+    }
+
+    private RelationType(FieldStore store, Field[] fields, int size) {
+        this.store = store;
+        this.allFields = view(fields, size);
+        this.visibleFields = allFields;
+    }
+
+    private static List<Field> view(Field[] fields, int size) {
+        return Collections.unmodifiableList(Arrays.asList(fields).subList(0, size));
     }
 
     /**
@@ -50,8 +60,8 @@ public class RelationType {
      */
     public int indexOf(Field field) {
         requireNonNull(field, "field cannot be null");
-        Integer index = fieldIndexes.get(field);
-        checkArgument(index != null, "Field '%s' not found", field);
+        int index = store.indexOf(field, allFields.size());
+        checkArgument(index >= 0, "Field '%s' not found", field);
         return index;
     }
 
@@ -104,8 +114,10 @@ public class RelationType {
      * Gets the index of all columns matching the specified name
      */
     public List<Field> resolveFields(QualifiedName name, boolean caseSensitive) {
+        Optional<QualifiedName> prefix = name.getPrefix();
+        String suffix = name.getSuffix();
         return allFields.stream()
-                .filter(input -> input.canResolve(name, caseSensitive))
+                .filter(input -> input.canResolve(prefix, suffix, caseSensitive))
                 .collect(toImmutableList());
     }
 
@@ -114,12 +126,16 @@ public class RelationType {
      * and all fields from the specified tuple descriptor.
      */
     public RelationType joinWith(RelationType other) {
-        List<Field> fields = ImmutableList.<Field>builder()
+        int size = allFields.size();
+        Field[] fields = store.append(size, other.allFields);
+        if (fields != null) {
+            return new RelationType(store, fields, size + other.allFields.size());
+        }
+
+        return new RelationType(ImmutableList.<Field>builder()
                 .addAll(this.allFields)
                 .addAll(other.allFields)
-                .build();
-
-        return new RelationType(fields);
+                .build());
     }
 
     /**
@@ -176,4 +192,49 @@ public class RelationType {
     public String toString() {
         return allFields.toString();
     }
+
+    /**
+     * Fields shared by a relation and the relations joined onto it. Joining appends the fields of the right
+     * relation after those of the left one instead of copying both, so a chain of joins stays linear in the
+     * number of fields. A relation only reads the first fields of the store, which never change once written;
+     * the array is replaced when it grows, the relations holding the old one still find their fields in it.
+     */
+    private static final class FieldStore {
+        private Field[] fields;
+        private int size;
+
+        private final Map<Field, Integer> indexes = new HashMap<>();
+        private int indexedSize;
+
+        FieldStore(Field[] fields) {
+            this.fields = fields;
+            this.size = fields.length;
+        }
+
+        /**
+         * Appends the fields if the relation of the given size is the longest one using the store, and returns
+         * the array holding them. Returns null when another relation has appended already.
+         */
+        synchronized Field[] append(int relationSize, List<Field> newFields) {
+            if (relationSize != size) {
+                return null;
+            }
+            int newSize = size + newFields.size();
+            if (newSize > fields.length) {
+                fields = Arrays.copyOf(fields, Math.max(newSize, fields.length * 2));
+            }
+            for (Field field : newFields) {
+                fields[size++] = field;
+            }
+            return fields;
+        }
+
+        synchronized int indexOf(Field field, int relationSize) {
+            for (; indexedSize < size; indexedSize++) {
+                indexes.putIfAbsent(fields[indexedSize], indexedSize);
+            }
+            Integer index = indexes.get(field);
+            return index != null && index < relationSize ? index : -1;
+        }
+    }
 }
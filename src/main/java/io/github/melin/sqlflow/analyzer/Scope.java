@@ -33,6 +33,12 @@ import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.collect.Iterables.getOnlyElement;
 import static java.util.Objects.requireNonNull;
 
+/**
+ * Scopes form a chain through their parents, split into queries by query boundaries. The position of a
+ * scope in that chain is computed when it is built, so finding its query boundary scope or outer query
+ * parent and rejecting a scope that is not a local ancestor take constant time however deeply queries
+ * are nested.
+ */
 @Immutable
 public class Scope {
     private final Optional<Scope> parent;
@@ -42,6 +48,12 @@ public class Scope {
     private final Map<String, WithQuery> namedQueries;
     private final boolean caseSensitive;
 
+    // derived from the parent chain
+    private final Scope queryBoundaryScope;
+    private final Optional<Scope> outerQueryParent;
+    private final int localDepth;
+    private final int localScopeFieldCount;
+
     public static Scope create() {
         return builder().build();
     }
@@ -63,6 +75,20 @@ public class Scope {
         this.relation = requireNonNull(relation, "relation is null");
         this.namedQueries = ImmutableMap.copyOf(requireNonNull(namedQueries, "namedQueries is null"));
         this.caseSensitive = caseSensitive;
+
+        Optional<Scope> localParent = getLocalParent();
+        if (localParent.isPresent()) {
+            Scope local = localParent.get();
+            this.queryBoundaryScope = local.queryBoundaryScope;
+            this.outerQueryParent = local.outerQueryParent;
+            this.localDepth = local.localDepth + 1;
+            this.localScopeFieldCount = local.localScopeFieldCount + relation.getAllFieldCount();
+        } else {
+            this.queryBoundaryScope = this;
+            this.outerQueryParent = parent;
+            this.localDepth = 0;
+            this.localScopeFieldCount = relation.getAllFieldCount();
+        }
     }
 
     public Scope withRelationType(RelationType relationType) {
@@ -70,25 +96,26 @@ public class Scope {
     }
 
     public Scope getQueryBoundaryScope() {
-        Scope scope = this;
-        Optional<Scope> parent = scope.getLocalParent();
-        while (parent.isPresent()) {
-            scope = parent.get();
-            parent = scope.getLocalParent();
-        }
-        return scope;
+        return queryBoundaryScope;
     }
 
     public Optional<Scope> getOuterQueryParent() {
+        return outerQueryParent;
+    }
+
+    /**
+     * Whether the scope is a strict ancestor of this one within the query boundary. Walks only the
+     * difference of the local depths, a scope of another query is rejected without walking.
+     */
+    public boolean hasLocalAncestor(Scope ancestor) {
+        if (ancestor.queryBoundaryScope != queryBoundaryScope || ancestor.localDepth >= localDepth) {
+            return false;
+        }
         Scope scope = this;
-        while (scope.parent.isPresent()) {
-            if (scope.queryBoundary) {
-                return scope.parent;
-            }
+        for (int depth = localDepth; depth > ancestor.localDepth; depth--) {
             scope = scope.parent.get();
         }
-
-        return Optional.empty();
+        return scope.equals(ancestor);
     }
 
     public boolean hasOuterParent(Scope parent) {
@@ -106,11 +133,7 @@ public class Scope {
     }
 
     public int getLocalScopeFieldCount() {
-        int parent = getLocalParent()
-                .map(Scope::getLocalScopeFieldCount)
-                .orElse(0);
-
-        return parent + getRelationType().getAllFieldCount();
+        return localScopeFieldCount;
     }
 
     public RelationId getRelationId() {
@@ -134,7 +157,7 @@ public class Scope {
             }
 
             Optional<Scope> parent = scope.getLocalParent();
-            if (parent == null) {
+            if (!parent.isPresent()) {
                 break;
             }
 
@@ -225,9 +248,7 @@ public class Scope {
         if (matches.size() > 1) {
             throw ambiguousAttributeException(node, name);
         } else if (matches.size() == 1) {
-            int parentFieldCount = getLocalParent()
-                    .map(Scope::getLocalScopeFieldCount)
-                    .orElse(0);
+            int parentFieldCount = localScopeFieldCount - relation.getAllFieldCount();
 
             Field field = getOnlyElement(matches);
             field.setLocation(node.getLocation().get());
@@ -247,9 +268,7 @@ public class Scope {
     }
 
     public ResolvedField getField(int index) {
-        int parentFieldCount = getLocalParent()
-                .map(Scope::getLocalScopeFieldCount)
-                .orElse(0);
+        int parentFieldCount = localScopeFieldCount - relation.getAllFieldCount();
 
         return asResolvedField(relation.getFieldByIndex(index), parentFieldCount, true);
     }
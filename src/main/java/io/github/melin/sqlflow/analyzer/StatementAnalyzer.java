@@ -2,7 +2,14 @@ package io.github.melin.sqlflow.analyzer;
 
 import io.github.melin.sqlflow.AstVisitor;
 import io.github.melin.sqlflow.metadata.*;
+import io.github.melin.sqlflow.metrics.FlightRecorder;
+import io.github.melin.sqlflow.metrics.MetadataLookupEvent;
+import io.github.melin.sqlflow.metrics.SqlFlowMetrics;
+import io.github.melin.sqlflow.metrics.SqlFlowMetrics.MetadataLookup;
+import io.github.melin.sqlflow.metrics.StatementAnalysisEvent;
+import io.github.melin.sqlflow.metrics.ViewExpansionEvent;
 import io.github.melin.sqlflow.parser.ParsingException;
+import io.github.melin.sqlflow.parser.SqlFingerprint;
 import io.github.melin.sqlflow.parser.SqlFlowParser;
 import io.github.melin.sqlflow.tree.*;
 import io.github.melin.sqlflow.tree.expression.*;
@@ -30,6 +37,7 @@ import java.util.stream.Stream;
 import static io.github.melin.sqlflow.analyzer.Scope.BasisType.TABLE;
 import static io.github.melin.sqlflow.analyzer.SemanticExceptions.semanticException;
 import static io.github.melin.sqlflow.tree.literal.BooleanLiteral.TRUE_LITERAL;
+import static io.github.melin.sqlflow.util.AstUtils.nodeCount;
 import static io.github.melin.sqlflow.util.AstUtils.preOrder;
 import static io.github.melin.sqlflow.util.NodeUtils.getSortItemsFromOrderBy;
 import static com.google.common.base.Preconditions.*;
@@ -54,11 +62,14 @@ public class StatementAnalyzer {
 
     private final boolean caseSensitive;
 
+    private final SqlFlowMetrics metrics;
+
     public StatementAnalyzer(Analysis analysis, MetadataService metadataService, SqlFlowParser sqlFlowParser) {
         this.analysis = requireNonNull(analysis, "analysis is null");
         this.metadataService = requireNonNull(metadataService, "metadata is null");
         this.sqlFlowParser = requireNonNull(sqlFlowParser, "sqlParser is null");
         this.caseSensitive = false;
+        this.metrics = sqlFlowParser.getMetrics();
     }
 
     public StatementAnalyzer(Analysis analysis, MetadataService metadataService, SqlFlowParser sqlFlowParser, boolean caseSensitive) {
@@ -66,6 +77,17 @@ public class StatementAnalyzer {
         this.metadataService = requireNonNull(metadataService, "metadata is null");
         this.sqlFlowParser = requireNonNull(sqlFlowParser, "sqlParser is null");
         this.caseSensitive = caseSensitive;
+        this.metrics = sqlFlowParser.getMetrics();
+    }
+
+    /**
+     * Analyzes the statement with the {@link AnalysisProfile#LINEAGE} profile and returns only its lineage,
+     * the analysis itself is not retained.
+     */
+    public static LineageResult analyzeLineage(Statement statement, MetadataService metadataService, SqlFlowParser sqlFlowParser) {
+        Analysis analysis = new Analysis(statement, ImmutableMap.of(), AnalysisProfile.LINEAGE);
+        new StatementAnalyzer(analysis, metadataService, sqlFlowParser).analyze(statement, Optional.empty());
+        return analysis.toLineageResult();
     }
 
     public Scope analyze(Node node, Scope outerQueryScope) {
@@ -73,7 +95,92 @@ public class StatementAnalyzer {
     }
 
     public Scope analyze(Node node, Optional<Scope> outerQueryScope) {
-        return new Visitor(outerQueryScope, Optional.empty()).process(node, Optional.empty());
+        // subqueries and views are analyzed by nested analyzers, their time is part of the statement's
+        if (!analysis.enterAnalyzer()) {
+            try {
+                return new Visitor(outerQueryScope, Optional.empty()).process(node, Optional.empty());
+            } finally {
+                analysis.exitAnalyzer();
+            }
+        }
+
+        boolean enabled = metrics.isEnabled();
+        long start = enabled ? System.nanoTime() : 0;
+        StatementAnalysisEvent event = FlightRecorder.newStatementAnalysisEvent();
+        event.begin();
+        boolean success = false;
+        try {
+            analysis.reserveMemory(StatementFootprint.BYTES_PER_ANALYSIS);
+            analysis.reserveAst(node);
+            Scope scope = new Visitor(outerQueryScope, Optional.empty()).process(node, Optional.empty());
+            success = true;
+            return scope;
+        } finally {
+            analysis.exitAnalyzer();
+            event.end();
+            Optional<List<OutputColumn>> outputColumns = analysis.getTarget().flatMap(Output::getColumns);
+            if (enabled || event.shouldCommit()) {
+                long footprint = analysis.getEstimatedBytes() + outputColumns.map(StatementFootprint::estimateOutputColumns).orElse(0L);
+                if (enabled) {
+                    metrics.recordAnalysis(System.nanoTime() - start);
+                    metrics.recordFieldsCreated(analysis.takeCreatedFields());
+                    metrics.recordFootprint(footprint);
+                    outputColumns.ifPresent(columns ->
+                            columns.forEach(column -> metrics.recordSourceColumns(column.getSourceColumns().size())));
+                }
+                if (event.shouldCommit()) {
+                    event.setFingerprint(analysis.getFingerprint().map(SqlFingerprint::toString).orElse(""));
+                    event.setStatementKind(node.getClass().getSimpleName());
+                    event.setNodeCount(nodeCount(node));
+                    event.setOutputColumns(outputColumns.map(List::size).orElse(0));
+                    event.setEstimatedBytes(footprint);
+                    event.setSuccess(success);
+                    event.commit();
+                }
+            }
+        }
+    }
+
+    private Optional<SchemaTable> getTableSchema(QualifiedObjectName name) {
+        MetadataLookupEvent event = FlightRecorder.newMetadataLookupEvent();
+        long start = metrics.isEnabled() ? System.nanoTime() : 0;
+        event.begin();
+        Optional<SchemaTable> schemaTable = Optional.empty();
+        try {
+            schemaTable = metadataService.getTableSchema(name);
+            return schemaTable;
+        } finally {
+            if (metrics.isEnabled()) {
+                metrics.recordMetadataLookup(MetadataLookup.TABLE_SCHEMA, System.nanoTime() - start);
+            }
+            commit(event, MetadataLookup.TABLE_SCHEMA, name, schemaTable.isPresent());
+        }
+    }
+
+    private Optional<ViewDefinition> getView(QualifiedObjectName name) {
+        MetadataLookupEvent event = FlightRecorder.newMetadataLookupEvent();
+        long start = metrics.isEnabled() ? System.nanoTime() : 0;
+        event.begin();
+        Optional<ViewDefinition> view = Optional.empty();
+        try {
+            view = metadataService.getView(name);
+            return view;
+        } finally {
+            if (metrics.isEnabled()) {
+                metrics.recordMetadataLookup(MetadataLookup.VIEW, System.nanoTime() - start);
+            }
+            commit(event, MetadataLookup.VIEW, name, view.isPresent());
+        }
+    }
+
+    private static void commit(MetadataLookupEvent event, MetadataLookup lookup, QualifiedObjectName name, boolean found) {
+        event.end();
+        if (event.shouldCommit()) {
+            event.setLookup(lookup.name());
+            event.setObjectName(name.toString());
+            event.setFound(found);
+            event.commit();
+        }
     }
 
     private Scope analyzeForUpdate(Table table, Optional<Scope> outerQueryScope, UpdateKind updateKind) {
@@ -96,9 +203,11 @@ public class StatementAnalyzer {
 
         @Override
         public Scope process(Node node, Optional<Scope> scope) {
+            analysis.checkBudget();
             Scope returnScope = super.process(node, scope);
-            checkState(returnScope.getOuterQueryParent().equals(outerQueryScope), "result scope should have outer query scope equal with parameter outer query scope");
-            scope.ifPresent(value -> checkState(hasScopeAsLocalParent(returnScope, value), "return scope should have context scope as one of its ancestors"));
+            // invariants of the analyzer itself, checked when assertions are enabled as in the tests
+            assert returnScope.getOuterQueryParent().equals(outerQueryScope) : "result scope should have outer query scope equal with parameter outer query scope";
+            assert !scope.isPresent() || returnScope.hasLocalAncestor(scope.get()) : "return scope should have context scope as one of its ancestors";
             return returnScope;
         }
 
@@ -117,7 +226,7 @@ public class StatementAnalyzer {
             QualifiedObjectName targetTable = MetadataUtil.createQualifiedObjectName(metadataService, insert, insert.getTarget());
             Scope queryScope = visitQuery(insert.getQuery(), Optional.of(withScope));
 
-            Optional<SchemaTable> tableSchema = metadataService.getTableSchema(targetTable);
+            Optional<SchemaTable> tableSchema = getTableSchema(targetTable);
 
             if (!tableSchema.isPresent()) {
                 throw new ParsingException("table " + targetTable + " metadata not exists");
@@ -161,7 +270,7 @@ public class StatementAnalyzer {
             // turn this into a query that has a new table writer node on top.
             QualifiedObjectName targetTable = MetadataUtil.createQualifiedObjectName(metadataService, node, node.getName());
 
-            Optional<SchemaTable> tableSchema = metadataService.getTableSchema(targetTable);
+            Optional<SchemaTable> tableSchema = getTableSchema(targetTable);
             if (tableSchema.isPresent()) {
                 if (node.isNotExists()) {
                     analysis.setUpdateType("CREATE TABLE");
@@ -200,9 +309,7 @@ public class StatementAnalyzer {
             QualifiedObjectName viewName = MetadataUtil.createQualifiedObjectName(metadataService, node, node.getName());
 
             // analyze the query that creates the view
-            StatementAnalyzer analyzer = new StatementAnalyzer(analysis, metadataService, sqlFlowParser);
-
-            Scope queryScope = analyzer.analyze(node.getQuery(), scope);
+            Scope queryScope = StatementAnalyzer.this.analyze(node.getQuery(), scope);
 
             analysis.setUpdateType("CREATE VIEW");
             analysis.setUpdateTarget(viewName, Optional.empty(), Optional.of(queryScope.getRelationType().getVisibleFields().stream().map(this::createOutputColumn).collect(toImmutableList())));
@@ -210,6 +317,19 @@ public class StatementAnalyzer {
             return createAndAssignScope(node, scope);
         }
 
+        @Override
+        public Scope visitCreateMaterializedView(CreateMaterializedView node, Optional<Scope> scope) {
+            QualifiedObjectName viewName = MetadataUtil.createQualifiedObjectName(metadataService, node, node.getName());
+
+            // analyze the query that creates the materialized view
+            Scope queryScope = StatementAnalyzer.this.analyze(node.getQuery(), scope);
+
+            analysis.setUpdateType("CREATE MATERIALIZED VIEW");
+            analysis.setUpdateTarget(viewName, Optional.empty(), Optional.of(queryScope.getRelationType().getVisibleFields().stream().map(this::createOutputColumn).collect(toImmutableList())));
+
+            return createAndAssignScope(node, scope);
+        }
+
         @Override
         public Scope visitTable(Table table, Optional<Scope> scope) {
             if (!table.getName().getPrefix().isPresent()) {
@@ -230,14 +350,15 @@ public class StatementAnalyzer {
             }
 
             QualifiedObjectName name = MetadataUtil.createQualifiedObjectName(metadataService, table, table.getName());
+            analysis.addDependency(name);
 
             // This could be a reference to a logical view or a table
-            Optional<ViewDefinition> optionalView = metadataService.getView(name);
+            Optional<ViewDefinition> optionalView = getView(name);
             if (optionalView.isPresent()) {
                 return createScopeForView(table, name, scope, optionalView.get());
             }
 
-            Optional<SchemaTable> schemaTable = metadataService.getTableSchema(name);
+            Optional<SchemaTable> schemaTable = getTableSchema(name);
             if (!schemaTable.isPresent()) {
                 throw new ParsingException("table " + name + " metadata not exists");
             }
@@ -291,7 +412,7 @@ public class StatementAnalyzer {
                     Field inputField = queryDescriptor.getFieldByIndex(i);
                     Field field = Field.newQualified(QualifiedName.of(table.getName().getSuffix()), Optional.of(aliases.next().getValue()), inputField.getOriginTable(), inputField.getOriginColumnName(), inputField.isAliased());
                     fieldBuilder.add(field);
-                    analysis.addSourceColumns(field, analysis.getSourceColumns(inputField));
+                    analysis.addSourceColumns(field, inputField);
                 }
                 fields = fieldBuilder.build();
             } else {
@@ -300,7 +421,7 @@ public class StatementAnalyzer {
                     Field inputField = queryDescriptor.getFieldByIndex(i);
                     Field field = Field.newQualified(QualifiedName.of(table.getName().getSuffix()), inputField.getName(), inputField.getOriginTable(), inputField.getOriginColumnName(), inputField.isAliased());
                     fieldBuilder.add(field);
-                    analysis.addSourceColumns(field, analysis.getSourceColumns(inputField));
+                    analysis.addSourceColumns(field, inputField);
                 }
                 fields = fieldBuilder.build();
             }
@@ -332,11 +453,44 @@ public class StatementAnalyzer {
                 throw semanticException(table, "View is recursive");
             }
 
-            Query query = parseView(originalSql, name, table);
-            analysis.registerNamedQuery(table, query);
-            analysis.registerTableForView(table);
-            analyzeView(query, name, catalog, schema, table);
-            analysis.unregisterTableForView();
+            ViewExpansionEvent event = FlightRecorder.newViewExpansionEvent();
+            event.begin();
+            // a full analysis keeps per-node state, so it analyzes a fresh parse of the view on every reference
+            boolean cacheable = !analysis.getProfile().recordsPlanningState();
+            Optional<ViewCache.CachedView> cachedView = cacheable
+                    ? analysis.getViewCache().flatMap(cache -> cache.get(name, originalSql, metadataService))
+                    : Optional.empty();
+            metrics.recordViewExpansion(cachedView.isPresent());
+            try {
+                if (cachedView.isPresent()) {
+                    // lineage only needs the predicate columns of the view, which do not change between references
+                    analysis.registerNamedQuery(table, cachedView.get().getQuery());
+                    analysis.addCachedView(cachedView.get());
+                } else {
+                    Query query = parseView(originalSql, name, table);
+                    analysis.reserveAst(query);
+                    analysis.registerNamedQuery(table, query);
+                    analysis.registerTableForView(table);
+                    analysis.beginViewCapture();
+                    Analysis.ViewCapture capture;
+                    try {
+                        analyzeView(query, name, catalog, schema, table);
+                    } finally {
+                        capture = analysis.endViewCapture();
+                        analysis.unregisterTableForView();
+                    }
+                    if (cacheable && analysis.getViewCache().isPresent()) {
+                        analysis.getViewCache().get().put(name, originalSql, createCachedView(name, query, capture));
+                    }
+                }
+            } finally {
+                event.end();
+                if (event.shouldCommit()) {
+                    event.setView(name.toString());
+                    event.setCached(cachedView.isPresent());
+                    event.commit();
+                }
+            }
 
             // Derive the type of the view from the stored definition, not from the analysis of the underlying query.
             // This is needed in case the underlying table(s) changed and the query in the view now produces types that
@@ -351,15 +505,21 @@ public class StatementAnalyzer {
 
         private RelationType analyzeView(Query query, QualifiedObjectName name, Optional<String> catalog, Optional<String> schema, Table node) {
             try {
-
-                StatementAnalyzer analyzer = new StatementAnalyzer(analysis, metadataService, sqlFlowParser);
-                Scope queryScope = analyzer.analyze(query, Scope.create());
+                Scope queryScope = StatementAnalyzer.this.analyze(query, Scope.create());
                 return queryScope.getRelationType().withAlias(name.getObjectName(), null);
+            } catch (AnalysisBudgetExceededException | ExceededMemoryLimitException e) {
+                throw e;
             } catch (RuntimeException e) {
                 throw semanticException(node, e, "Failed analyzing stored view '%s': %s", name, e.getMessage());
             }
         }
 
+        private ViewCache.CachedView createCachedView(QualifiedObjectName name, Query query, Analysis.ViewCapture capture) {
+            Set<QualifiedObjectName> dependencies = ImmutableSet.<QualifiedObjectName>builder().add(name).addAll(capture.dependencies).build();
+            return new ViewCache.CachedView(query, capture.whereColumns, capture.joinColumns,
+                    MetadataUtil.getVersions(metadataService, dependencies));
+        }
+
         private Query parseView(String view, QualifiedObjectName name, Node node) {
             try {
                 return (Query) sqlFlowParser.createStatement(view);
@@ -373,15 +533,17 @@ public class StatementAnalyzer {
             Scope withScope = analyzeWith(node.getWith(), scope);
             Scope queryBodyScope = process(node.getQueryBody(), withScope);
 
-            List<Expression> orderByExpressions = emptyList();
-            if (node.getOrderBy().isPresent()) {
-                orderByExpressions = analyzeOrderBy(node, getSortItemsFromOrderBy(node.getOrderBy()), queryBodyScope);
-            }
-            analysis.setOrderByExpressions(node, orderByExpressions);
+            if (analysis.getProfile().recordsPlanningState()) {
+                List<Expression> orderByExpressions = emptyList();
+                if (node.getOrderBy().isPresent()) {
+                    orderByExpressions = analyzeOrderBy(node, getSortItemsFromOrderBy(node.getOrderBy()), queryBodyScope);
+                }
+                analysis.setOrderByExpressions(node, orderByExpressions);
 
-            // Input fields == Output fields
-            analysis.setSelectExpressions(node, descriptorToFields(queryBodyScope).stream()
-                    .map(expression -> new Analysis.SelectExpression(expression, Optional.empty())).collect(toImmutableList()));
+                // Input fields == Output fields
+                analysis.setSelectExpressions(node, descriptorToFields(queryBodyScope).stream()
+                        .map(expression -> new Analysis.SelectExpression(expression, Optional.empty())).collect(toImmutableList()));
+            }
 
             Scope queryScope = Scope.builder()
                     .withParent(withScope)
@@ -412,8 +574,7 @@ public class StatementAnalyzer {
                 ExpressionAnalyzer.analyzeExpression(
                         orderByScope,
                         analysis,
-                        metadataService,
-                        sqlFlowParser,
+                        StatementAnalyzer.this,
                         expression);
 
                 orderByFieldsBuilder.add(expression);
@@ -430,7 +591,7 @@ public class StatementAnalyzer {
             for (Expression expression : node.getExpressions()) {
                 List<Field> expressionOutputs = new ArrayList<>();
 
-                ExpressionAnalyzer.analyzeExpression(createScope(scope), analysis, metadataService, sqlFlowParser, expression);
+                ExpressionAnalyzer.analyzeExpression(createScope(scope), analysis, StatementAnalyzer.this, expression);
                 expressionOutputs.add(Field.newUnqualified(Optional.empty()));
 
                 outputFields.addAll(expressionOutputs);
@@ -684,7 +845,7 @@ public class StatementAnalyzer {
             checkArgument(inputFields.size() == descriptor.getAllFieldCount(), "Expected %s fields, got %s", descriptor.getAllFieldCount(), inputFields.size());
 
             Streams.forEachPair(descriptor.getAllFields().stream(), inputFields.stream(),
-                    (newField, field) -> analysis.addSourceColumns(newField, analysis.getSourceColumns(field)));
+                    (newField, field) -> analysis.addSourceColumns(newField, field));
 
             return createAndAssignScope(relation, scope, descriptor);
         }
@@ -722,18 +883,58 @@ public class StatementAnalyzer {
                         oldField.isAliased());
                 outputDescriptorFields[i].setLocation(oldField.getLocation());
 
-                int index = i; // Variable used in Lambda should be final
-                analysis.addSourceColumns(
-                        outputDescriptorFields[index],
-                        childrenTypes.stream()
-                                .map(relationType -> relationType.getFieldByIndex(index))
-                                .flatMap(field -> analysis.getSourceColumns(field).stream())
-                                .collect(toImmutableSet()));
+                List<Field> branchFields = new ArrayList<>(childrenTypes.size());
+                for (RelationType childType : childrenTypes) {
+                    branchFields.add(childType.getFieldByIndex(i));
+                }
+                analysis.mergeSourceColumns(outputDescriptorFields[i], branchFields);
             }
 
             return createAndAssignScope(node, scope, outputDescriptorFields);
         }
 
+        @Override
+        public Scope visitValues(Values node, Optional<Scope> scope) {
+            checkState(!node.getRows().isEmpty());
+
+            if (node instanceof LiteralValues) {
+                // packed rows hold only literals, which have no lineage, so the rows are never materialized
+                int columnCount = ((LiteralValues) node).getColumnCount();
+                List<Field> fields = new ArrayList<>(columnCount);
+                for (int i = 0; i < columnCount; i++) {
+                    fields.add(Field.newUnqualified(Optional.empty()));
+                }
+                return createAndAssignScope(node, scope, fields);
+            }
+
+            Expression firstRow = node.getRows().get(0);
+            int columnCount = firstRow instanceof Row ? ((Row) firstRow).getItems().size() : 1;
+            List<Set<Analysis.SourceColumn>> columnSources = new ArrayList<>(columnCount);
+            for (int i = 0; i < columnCount; i++) {
+                columnSources.add(new LinkedHashSet<>());
+            }
+
+            for (Expression row : node.getRows()) {
+                List<Expression> items = row instanceof Row ? ((Row) row).getItems() : ImmutableList.of(row);
+                if (items.size() != columnCount) {
+                    throw semanticException(row, "Values rows have mismatched sizes: %s vs %s", columnCount, items.size());
+                }
+                for (int i = 0; i < columnCount; i++) {
+                    Expression item = items.get(i);
+                    ExpressionAnalyzer.analyzeExpression(createScope(scope), analysis, StatementAnalyzer.this, item);
+                    columnSources.get(i).addAll(analysis.getExpressionSourceColumns(item));
+                }
+            }
+
+            List<Field> fields = new ArrayList<>(columnCount);
+            for (Set<Analysis.SourceColumn> sourceColumns : columnSources) {
+                Field field = Field.newUnqualified(Optional.empty());
+                analysis.addSourceColumns(field, sourceColumns);
+                fields.add(field);
+            }
+            return createAndAssignScope(node, scope, fields);
+        }
+
         @Override
         public Scope visitJoin(Join node, Optional<Scope> scope) {
             JoinCriteria criteria = node.getCriteria().orElse(null);
@@ -784,7 +985,7 @@ public class StatementAnalyzer {
 
                 // Need to register coercions in case when join criteria requires coercion (e.g. join on char(1) = char(2))
                 // Correlations are only currently support in the join criteria for INNER joins
-                ExpressionAnalyzer.analyzeExpression(output, analysis, metadataService, sqlFlowParser, expression);
+                ExpressionAnalyzer.analyzeExpression(output, analysis, StatementAnalyzer.this, expression);
 
                 analysis.setJoinCriteria(node, expression);
             } else {
@@ -863,8 +1064,7 @@ public class StatementAnalyzer {
 
         @Override
         public Scope visitTableSubquery(TableSubquery node, Optional<Scope> scope) {
-            StatementAnalyzer analyzer = new StatementAnalyzer(analysis, metadataService, sqlFlowParser);
-            Scope queryScope = analyzer.analyze(node.getQuery(), scope);
+            Scope queryScope = StatementAnalyzer.this.analyze(node.getQuery(), scope);
             return createAndAssignScope(node, scope, queryScope.getRelationType());
         }
 
@@ -875,6 +1075,13 @@ public class StatementAnalyzer {
 
             Scope sourceScope = analyzeFrom(node, scope);
 
+            if (!analysis.getProfile().recordsPlanningState()) {
+                // GROUP BY, HAVING, WINDOW and ORDER BY never contribute to the lineage of the output fields
+                node.getWhere().ifPresent(where -> analyzeWhere(node, sourceScope, where));
+                analyzeSelect(node, sourceScope);
+                return computeAndAssignOutputScope(node, scope, sourceScope);
+            }
+
             analyzeWindowDefinitions(node, sourceScope);
             resolveFunctionCallAndMeasureWindows(node);
 
@@ -1079,7 +1286,7 @@ public class StatementAnalyzer {
                     throw semanticException(windowExpressions.get(0), "HAVING clause cannot contain window functions or row pattern measures");
                 }
 
-                ExpressionAnalyzer.analyzeExpression(scope, analysis, metadataService, sqlFlowParser, predicate);
+                ExpressionAnalyzer.analyzeExpression(scope, analysis, StatementAnalyzer.this, predicate);
 
                 analysis.setHaving(node, predicate);
             }
@@ -1107,7 +1314,7 @@ public class StatementAnalyzer {
                                 Analyzer.verifyNoAggregateWindowOrGroupingFunctions(metadataService, column, "GROUP BY clause");
                             } else {
                                 Analyzer.verifyNoAggregateWindowOrGroupingFunctions(metadataService, column, "GROUP BY clause");
-                                ExpressionAnalyzer.analyzeExpression(scope, analysis, metadataService, sqlFlowParser, column);
+                                ExpressionAnalyzer.analyzeExpression(scope, analysis, StatementAnalyzer.this, column);
                             }
 
                             ResolvedField field = analysis.getColumnReferenceFields().get(NodeRef.of(column));
@@ -1121,7 +1328,7 @@ public class StatementAnalyzer {
                         }
                     } else {
                         for (Expression column : groupingElement.getExpressions()) {
-                            ExpressionAnalyzer.analyzeExpression(scope, analysis, metadataService, sqlFlowParser, column);
+                            ExpressionAnalyzer.analyzeExpression(scope, analysis, StatementAnalyzer.this, column);
                             if (!analysis.getColumnReferences().contains(NodeRef.of(column))) {
                                 throw semanticException(column, "GROUP BY expression must be a column reference: %s", column);
                             }
@@ -1286,7 +1493,11 @@ public class StatementAnalyzer {
                 validateColumnAliasesCount(allColumns.getAliases(), fields.size());
             }
 
-            ImmutableList.Builder<Field> itemOutputFieldBuilder = ImmutableList.builder();
+            if (local && !analysis.getProfile().recordsPlanningState()) {
+                // the select expressions are only used for planning, the output fields derive from the relation fields
+                analysis.setSelectAllRelationFields(allColumns, fields);
+                return;
+            }
 
             for (int i = 0; i < fields.size(); i++) {
                 Field field = fields.get(i);
@@ -1300,28 +1511,17 @@ public class StatementAnalyzer {
                     checkState(field.getRelationAlias().isPresent(), "missing relation alias");
                     fieldExpression = new DereferenceExpression(DereferenceExpression.from(field.getRelationAlias().get()), new Identifier(field.getName().get()));
                 }
-                ExpressionAnalyzer.analyzeExpression(scope, analysis, metadataService, sqlFlowParser, fieldExpression);
+                ExpressionAnalyzer.analyzeExpression(scope, analysis, StatementAnalyzer.this, fieldExpression);
                 outputExpressionBuilder.add(fieldExpression);
                 selectExpressionBuilder.add(new Analysis.SelectExpression(fieldExpression, Optional.empty()));
-
-                Optional<String> alias = field.getName();
-                if (!allColumns.getAliases().isEmpty()) {
-                    alias = Optional.of((allColumns.getAliases().get(i)).getValue());
-                }
-
-                Field newField = new Field(field.getRelationAlias(), alias, field.getOriginTable(),
-                        field.getOriginColumnName(), !allColumns.getAliases().isEmpty() || field.isAliased());
-                newField.setLocation(field.getLocation());
-                itemOutputFieldBuilder.add(newField);
-                analysis.addSourceColumns(newField, analysis.getSourceColumns(field));
             }
-            analysis.setSelectAllResultFields(allColumns, itemOutputFieldBuilder.build());
+            analysis.setSelectAllRelationFields(allColumns, fields);
         }
 
         private void analyzeAllFieldsFromRowTypeExpression(Expression expression, AllColumns allColumns, QuerySpecification node, Scope scope, ImmutableList.Builder<Expression> outputExpressionBuilder, ImmutableList.Builder<Analysis.SelectExpression> selectExpressionBuilder) {
             ImmutableList.Builder<Field> itemOutputFieldBuilder = ImmutableList.builder();
 
-            ExpressionAnalysis expressionAnalysis = ExpressionAnalyzer.analyzeExpression(scope, analysis, metadataService, sqlFlowParser, expression);
+            ExpressionAnalysis expressionAnalysis = ExpressionAnalyzer.analyzeExpression(scope, analysis, StatementAnalyzer.this, expression);
             Type type = expressionAnalysis.getType(expression);
             if (!(type instanceof RowType)) {
                 throw semanticException(node.getSelect(), "expected expression of type Row");
@@ -1336,7 +1536,7 @@ public class StatementAnalyzer {
             for (int i = 0; i < referencedFieldsCount; i++) {
                 Expression outputExpression = new SubscriptExpression(expression, new LongLiteral("" + (i + 1)));
                 outputExpressionBuilder.add(outputExpression);
-                ExpressionAnalyzer.analyzeExpression(scope, analysis, metadataService, sqlFlowParser, outputExpression);
+                ExpressionAnalyzer.analyzeExpression(scope, analysis, StatementAnalyzer.this, outputExpression);
                 unfoldedExpressionsBuilder.add(outputExpression);
 
                 Optional<String> name = ((RowType) type).getFields().get(i).getName();
@@ -1351,7 +1551,7 @@ public class StatementAnalyzer {
 
         private void analyzeSelectSingleColumn(SingleColumn singleColumn, QuerySpecification node, Scope scope, ImmutableList.Builder<Expression> outputExpressionBuilder, ImmutableList.Builder<Analysis.SelectExpression> selectExpressionBuilder) {
             Expression expression = singleColumn.getExpression();
-            ExpressionAnalysis expressionAnalysis = ExpressionAnalyzer.analyzeExpression(scope, analysis, metadataService, sqlFlowParser, expression);
+            ExpressionAnalysis expressionAnalysis = ExpressionAnalyzer.analyzeExpression(scope, analysis, StatementAnalyzer.this, expression);
             //analysis.recordSubqueries(node, expressionAnalysis);
             outputExpressionBuilder.add(expression);
             selectExpressionBuilder.add(new Analysis.SelectExpression(expression, Optional.empty()));
@@ -1364,7 +1564,11 @@ public class StatementAnalyzer {
                 if (item instanceof AllColumns) {
                     AllColumns allColumns = (AllColumns) item;
 
-                    List<Field> fields = analysis.getSelectAllResultFields(allColumns);
+                    // derive from the relation fields directly, so that a lazy expansion is not materialized
+                    List<Field> fields = analysis.getSelectAllRelationFields(allColumns);
+                    if (fields == null) {
+                        fields = analysis.getSelectAllResultFields(allColumns);
+                    }
                     checkNotNull(fields, "output fields is null for select item %s", item);
                     for (int i = 0; i < fields.size(); i++) {
                         Field field = fields.get(i);
@@ -1377,7 +1581,7 @@ public class StatementAnalyzer {
                         }
 
                         Field newField = Field.newUnqualified(name, field.getOriginTable(), field.getOriginColumnName(), false);
-                        analysis.addSourceColumns(newField, analysis.getSourceColumns(field));
+                        analysis.addSourceColumns(newField, field);
                         outputFields.add(newField);
                     }
                 } else if (item instanceof SingleColumn) {
@@ -1434,7 +1638,7 @@ public class StatementAnalyzer {
         private void analyzeWhere(Node node, Scope scope, Expression predicate) {
             Analyzer.verifyNoAggregateWindowOrGroupingFunctions(metadataService, predicate, "WHERE clause");
 
-            ExpressionAnalysis expressionAnalysis = ExpressionAnalyzer.analyzeExpression(scope, analysis, metadataService, sqlFlowParser, predicate);
+            ExpressionAnalysis expressionAnalysis = ExpressionAnalyzer.analyzeExpression(scope, analysis, StatementAnalyzer.this, predicate);
             expressionAnalysis.getColumnReferences().values().forEach(resolvedField -> {
                 analysis.setWhere(resolvedField.getField(), predicate);
             });
@@ -1454,7 +1658,7 @@ public class StatementAnalyzer {
             for (int fieldIndex = 0; fieldIndex < scope.getRelationType().getAllFieldCount(); fieldIndex++) {
                 FieldReference expression = new FieldReference(fieldIndex);
                 builder.add(expression);
-                ExpressionAnalyzer.analyzeExpression(scope, analysis, metadataService, sqlFlowParser, expression);
+                ExpressionAnalyzer.analyzeExpression(scope, analysis, StatementAnalyzer.this, expression);
             }
             return builder.build();
         }
@@ -1464,10 +1668,12 @@ public class StatementAnalyzer {
         }
 
         private Scope createAndAssignScope(Node node, Optional<Scope> parentScope, Field... fields) {
+            analysis.addCreatedFields(fields.length);
             return createAndAssignScope(node, parentScope, new RelationType(fields));
         }
 
         private Scope createAndAssignScope(Node node, Optional<Scope> parentScope, List<Field> fields) {
+            analysis.addCreatedFields(fields.size());
             return createAndAssignScope(node, parentScope, new RelationType(fields));
         }
 
@@ -1500,16 +1706,4 @@ public class StatementAnalyzer {
             return new OutputColumn(field.getName().get(), analysis.getSourceColumns(field));
         }
     }
-
-    private static boolean hasScopeAsLocalParent(Scope root, Scope parent) {
-        Scope scope = root;
-        while (scope.getLocalParent().isPresent()) {
-            scope = scope.getLocalParent().get();
-            if (scope.equals(parent)) {
-                return true;
-            }
-        }
-
-        return false;
-    }
 }
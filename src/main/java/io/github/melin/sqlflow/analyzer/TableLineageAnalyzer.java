@@ -0,0 +1,102 @@
+package io.github.melin.sqlflow.analyzer;
+
+import io.github.melin.sqlflow.metadata.MetadataService;
+import io.github.melin.sqlflow.metadata.MetadataUtil;
+import io.github.melin.sqlflow.metadata.QualifiedObjectName;
+import io.github.melin.sqlflow.tree.LiteralValues;
+import io.github.melin.sqlflow.tree.Node;
+import io.github.melin.sqlflow.tree.QualifiedName;
+import io.github.melin.sqlflow.tree.WithQuery;
+import io.github.melin.sqlflow.tree.expression.LiteralInListExpression;
+import io.github.melin.sqlflow.tree.relation.Table;
+import io.github.melin.sqlflow.tree.statement.CreateMaterializedView;
+import io.github.melin.sqlflow.tree.statement.CreateTableAsSelect;
+import io.github.melin.sqlflow.tree.statement.CreateView;
+import io.github.melin.sqlflow.tree.statement.Insert;
+import io.github.melin.sqlflow.tree.statement.Statement;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+import static io.github.melin.sqlflow.util.AstUtils.visitPreOrder;
+import static java.util.Locale.ENGLISH;
+
+/**
+ * Table level lineage of a statement, computed from the AST alone without resolving any column. Used
+ * as a degraded result when the column level analysis exceeds its {@link AnalysisBudget} or memory limit:
+ * the target, if any, gets a single {@code *} column derived from {@code *} of every table the
+ * statement reads. Views are not expanded.
+ */
+public final class TableLineageAnalyzer {
+
+    public static final String ALL_COLUMNS = "*";
+
+    public static LineageResult analyze(Statement statement, MetadataService metadataService) {
+        // the WITH clause of an INSERT is not one of its children
+        List<Node> roots = new ArrayList<>();
+        roots.add(statement);
+        if (statement instanceof Insert) {
+            ((Insert) statement).getWith().ifPresent(roots::add);
+        }
+
+        Set<String> withQueries = new HashSet<>();
+        for (Node root : roots) {
+            visitPreOrder(root, node -> {
+                if (node instanceof WithQuery) {
+                    withQueries.add(((WithQuery) node).getName().getValue().toLowerCase(ENGLISH));
+                }
+                return !isPackedLiterals(node);
+            });
+        }
+
+        Set<Analysis.SourceColumn> sources = new LinkedHashSet<>();
+        for (Node root : roots) {
+            visitPreOrder(root, node -> {
+                if (node instanceof Table) {
+                    QualifiedName name = ((Table) node).getName();
+                    if (name.getPrefix().isPresent() || !withQueries.contains(name.getSuffix().toLowerCase(ENGLISH))) {
+                        sources.add(new Analysis.SourceColumn(MetadataUtil.createQualifiedObjectName(metadataService, node, name), ALL_COLUMNS));
+                    }
+                }
+                return !isPackedLiterals(node);
+            });
+        }
+
+        Optional<String> updateType = Optional.empty();
+        Optional<QualifiedName> target = Optional.empty();
+        if (statement instanceof Insert) {
+            updateType = Optional.of("INSERT");
+            target = Optional.of(((Insert) statement).getTarget());
+        } else if (statement instanceof CreateTableAsSelect) {
+            updateType = Optional.of("CREATE TABLE");
+            target = Optional.of(((CreateTableAsSelect) statement).getName());
+        } else if (statement instanceof CreateView) {
+            updateType = Optional.of("CREATE VIEW");
+            target = Optional.of(((CreateView) statement).getName());
+        } else if (statement instanceof CreateMaterializedView) {
+            updateType = Optional.of("CREATE MATERIALIZED VIEW");
+            target = Optional.of(((CreateMaterializedView) statement).getName());
+        }
+
+        Optional<Output> output = target.map(name -> {
+            QualifiedObjectName table = MetadataUtil.createQualifiedObjectName(metadataService, statement, name);
+            return new Output(table.getCatalogName(), table.getSchemaName(), table.getObjectName(),
+                    Optional.of(ImmutableList.of(new OutputColumn(ALL_COLUMNS, ImmutableSet.copyOf(sources)))));
+        });
+        return new LineageResult(updateType, output, ImmutableSet.of(), ImmutableSet.of());
+    }
+
+    // packed literals cannot contain a table, walking them would create every literal node
+    private static boolean isPackedLiterals(Node node) {
+        return node instanceof LiteralInListExpression || node instanceof LiteralValues;
+    }
+
+    private TableLineageAnalyzer() {
+    }
+}
@@ -0,0 +1,154 @@
+package io.github.melin.sqlflow.analyzer;
+
+import io.github.melin.sqlflow.metadata.MetadataService;
+import io.github.melin.sqlflow.metadata.MetadataUtil;
+import io.github.melin.sqlflow.metadata.QualifiedObjectName;
+import io.github.melin.sqlflow.tree.statement.Query;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.hash.HashCode;
+import com.google.common.hash.Hashing;
+
+import javax.annotation.concurrent.Immutable;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Thread-safe cache of parsed and analyzed views, shared by the analyses that set it with
+ * {@link Analysis#setViewCache(ViewCache)}. Only analyses that do not record planning state use it, a
+ * {@link AnalysisProfile#FULL full} analysis parses every referenced view again. Entries are keyed by the view name and a hash of its stored
+ * SQL, so a redefined view misses the cache on its own. Entries also depend on the metadata of the view
+ * and the tables it reads: an entry is dropped when one of their {@link MetadataService#getVersion versions}
+ * changes, unversioned metadata needs {@link #invalidate(QualifiedObjectName)} or {@link #invalidateAll()}.
+ */
+public class ViewCache {
+
+    private final Cache<Key, CachedView> cache;
+
+    public ViewCache(long maximumSize) {
+        this.cache = CacheBuilder.newBuilder().maximumSize(maximumSize).recordStats().build();
+    }
+
+    public Optional<CachedView> get(QualifiedObjectName name, String originalSql) {
+        return Optional.ofNullable(cache.getIfPresent(new Key(name, originalSql)));
+    }
+
+    /**
+     * Returns the cached view if the metadata versions of its dependencies are unchanged, otherwise
+     * drops every entry depending on a changed object.
+     */
+    public Optional<CachedView> get(QualifiedObjectName name, String originalSql, MetadataService metadataService) {
+        Optional<CachedView> view = get(name, originalSql);
+        if (view.isPresent()) {
+            Set<QualifiedObjectName> changed = MetadataUtil.findChangedObjects(metadataService, view.get().getDependencyVersions());
+            if (!changed.isEmpty()) {
+                changed.forEach(this::invalidate);
+                return Optional.empty();
+            }
+        }
+        return view;
+    }
+
+    public void put(QualifiedObjectName name, String originalSql, CachedView view) {
+        cache.put(new Key(name, originalSql), requireNonNull(view, "view is null"));
+    }
+
+    /**
+     * Drops every cached definition of the view and every view reading the given table or view.
+     */
+    public void invalidate(QualifiedObjectName name) {
+        requireNonNull(name, "name is null");
+        cache.asMap().entrySet().removeIf(entry -> entry.getKey().name.equals(name) || entry.getValue().getDependencies().contains(name));
+    }
+
+    public void invalidateAll() {
+        cache.invalidateAll();
+    }
+
+    public long size() {
+        return cache.size();
+    }
+
+    public CacheStats stats() {
+        return cache.stats();
+    }
+
+    /**
+     * A parsed view query together with the columns read by the WHERE and JOIN criteria of the view, nested
+     * views included, which is all a lineage analysis needs of a view it has already seen. Also records the
+     * metadata versions of the view and of every object it reads.
+     */
+    @Immutable
+    public static final class CachedView {
+        private final Query query;
+        private final Set<Analysis.SourceColumn> whereColumns;
+        private final Set<Analysis.SourceColumn> joinColumns;
+        private final Map<QualifiedObjectName, Optional<String>> dependencyVersions;
+
+        public CachedView(
+                Query query,
+                Set<Analysis.SourceColumn> whereColumns,
+                Set<Analysis.SourceColumn> joinColumns,
+                Map<QualifiedObjectName, Optional<String>> dependencyVersions) {
+            this.query = requireNonNull(query, "query is null");
+            this.whereColumns = ImmutableSet.copyOf(requireNonNull(whereColumns, "whereColumns is null"));
+            this.joinColumns = ImmutableSet.copyOf(requireNonNull(joinColumns, "joinColumns is null"));
+            this.dependencyVersions = ImmutableMap.copyOf(requireNonNull(dependencyVersions, "dependencyVersions is null"));
+        }
+
+        public Query getQuery() {
+            return query;
+        }
+
+        public Set<Analysis.SourceColumn> getWhereColumns() {
+            return whereColumns;
+        }
+
+        public Set<Analysis.SourceColumn> getJoinColumns() {
+            return joinColumns;
+        }
+
+        public Set<QualifiedObjectName> getDependencies() {
+            return dependencyVersions.keySet();
+        }
+
+        public Map<QualifiedObjectName, Optional<String>> getDependencyVersions() {
+            return dependencyVersions;
+        }
+    }
+
+    private static final class Key {
+        private final QualifiedObjectName name;
+        private final HashCode sqlHash;
+
+        private Key(QualifiedObjectName name, String originalSql) {
+            this.name = requireNonNull(name, "name is null");
+            this.sqlHash = Hashing.murmur3_128().hashString(requireNonNull(originalSql, "originalSql is null"), UTF_8);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (o == null || getClass() != o.getClass()) {
+                return false;
+            }
+            Key key = (Key) o;
+            return name.equals(key.name) && sqlHash.equals(key.sqlHash);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(name, sqlHash);
+        }
+    }
+}
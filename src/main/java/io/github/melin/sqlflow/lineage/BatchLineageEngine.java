@@ -0,0 +1,411 @@
+package io.github.melin.sqlflow.lineage;
+
+import io.github.melin.sqlflow.analyzer.Analysis;
+import io.github.melin.sqlflow.analyzer.AnalysisBudget;
+import io.github.melin.sqlflow.analyzer.AnalysisBudgetExceededException;
+import io.github.melin.sqlflow.analyzer.AnalysisProfile;
+import io.github.melin.sqlflow.analyzer.ExceededMemoryLimitException;
+import io.github.melin.sqlflow.analyzer.LineageResult;
+import io.github.melin.sqlflow.analyzer.StatementAnalyzer;
+import io.github.melin.sqlflow.analyzer.TableLineageAnalyzer;
+import io.github.melin.sqlflow.analyzer.ViewCache;
+import io.github.melin.sqlflow.metadata.CachingMetadataService;
+import io.github.melin.sqlflow.metadata.MetadataService;
+import io.github.melin.sqlflow.metadata.MetadataUtil;
+import io.github.melin.sqlflow.metadata.QualifiedObjectName;
+import io.github.melin.sqlflow.metadata.SessionMetadataService;
+import io.github.melin.sqlflow.parser.SqlFingerprint;
+import io.github.melin.sqlflow.parser.SqlFlowParser;
+import io.github.melin.sqlflow.parser.StatementSplitter;
+import io.github.melin.sqlflow.tree.statement.Statement;
+import com.google.common.collect.ImmutableMap;
+
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Parses and analyzes many statements in parallel and streams one {@link LineageRecord} per statement to a sink.
+ *
+ * <p>The parser keeps its ANTLR caches between statements and metadata lookups go through a shared
+ * {@link CachingMetadataService}. At most {@code maxPendingTasks} tasks are queued or running at any time,
+ * so the caller blocks instead of buffering a whole repository. A failing statement only produces a
+ * failure record, the rest of the batch continues. Statements that only differ from an already analyzed
+ * one in literals, whitespace and comments reuse its lineage from a {@link StatementCache}. A statement
+ * exceeding its {@link AnalysisBudget} or memory limit gets a degraded record with table level lineage.
+ *
+ * <p>Records only carry the {@link io.github.melin.sqlflow.analyzer.LineageResult}, not the locations of the
+ * references. {@link io.github.melin.sqlflow.lineage.usage.UsageIndex} and
+ * {@link io.github.melin.sqlflow.lineage.store.LineageStore} need them from an analysis of the
+ * {@link AnalysisProfile#FULL full} profile instead.
+ */
+public class BatchLineageEngine implements AutoCloseable {
+
+    private final SqlFlowParser sqlFlowParser;
+
+    private final MetadataService metadataService;
+
+    private final ViewCache viewCache;
+
+    private final Optional<StatementCache> statementCache;
+
+    private final ExecutorService executor;
+
+    private final boolean ownsExecutor;
+
+    private final int maxPendingTasks;
+
+    private final AnalysisProfile profile;
+
+    private final boolean caseSensitive;
+
+    private final Optional<Long> statementMemoryLimit;
+
+    private final AnalysisBudget budget;
+
+    private BatchLineageEngine(Builder builder) {
+        this.sqlFlowParser = builder.sqlFlowParser.orElseGet(() -> new SqlFlowParser((lexer, parser) -> {}, false));
+        this.metadataService = builder.metadataService instanceof CachingMetadataService || builder.metadataCacheSize == 0 ?
+                builder.metadataService :
+                new CachingMetadataService(builder.metadataService, builder.metadataCacheSize);
+        this.viewCache = builder.viewCache.orElseGet(() -> new ViewCache(builder.metadataCacheSize));
+        this.statementCache = builder.statementCache.isPresent() || builder.statementCacheBytes == 0 ?
+                builder.statementCache :
+                Optional.of(new StatementCache(builder.statementCacheBytes));
+        this.ownsExecutor = !builder.executor.isPresent();
+        this.executor = builder.executor.orElseGet(() -> new ForkJoinPool(builder.parallelism));
+        this.maxPendingTasks = builder.maxPendingTasks;
+        this.profile = builder.profile;
+        this.caseSensitive = builder.caseSensitive;
+        this.statementMemoryLimit = builder.statementMemoryLimit;
+        this.budget = builder.budget;
+    }
+
+    public static Builder builder(MetadataService metadataService) {
+        return new Builder(metadataService);
+    }
+
+    public MetadataService getMetadataService() {
+        return metadataService;
+    }
+
+    public ViewCache getViewCache() {
+        return viewCache;
+    }
+
+    public Optional<StatementCache> getStatementCache() {
+        return statementCache;
+    }
+
+    /**
+     * Analyzes every task and blocks until all records were delivered to the sink.
+     */
+    public BatchSummary analyze(Iterable<LineageTask> tasks, LineageSink sink) throws InterruptedException {
+        Batch batch = new Batch(sink);
+        for (LineageTask task : tasks) {
+            batch.submit(task.getSource(), task.getIndex(), () -> batch.deliver(analyze(task.getSource(), task.getIndex(), task.getSql())));
+        }
+        return batch.finish();
+    }
+
+    /**
+     * Reads, splits and analyzes every file. Each file is handled by a single task so the statements of
+     * a file are delivered in order, while different files are processed in parallel. Tables and views
+     * created by a file are visible to its later statements through a {@link SessionMetadataService}.
+     */
+    public BatchSummary analyzeFiles(Iterable<Path> files, Charset charset, LineageSink sink) throws InterruptedException {
+        requireNonNull(charset, "charset is null");
+        Batch batch = new Batch(sink);
+        for (Path file : files) {
+            String source = file.toString();
+            batch.submit(source, -1, () -> {
+                long start = System.nanoTime();
+                List<String> statements;
+                try {
+                    statements = StatementSplitter.split(new String(Files.readAllBytes(file), charset));
+                } catch (Exception | StackOverflowError e) {
+                    batch.deliver(LineageRecord.failure(source, -1, e, System.nanoTime() - start));
+                    return;
+                }
+                SessionMetadataService session = new SessionMetadataService(metadataService);
+                // an interrupt fails the statement being analyzed and cancels the rest of the file
+                for (int i = 0; i < statements.size() && !batch.isAborted() && !Thread.currentThread().isInterrupted(); i++) {
+                    batch.deliver(analyze(source, i, statements.get(i), session));
+                }
+            });
+        }
+        return batch.finish();
+    }
+
+    /**
+     * Analyzes a single statement on the calling thread.
+     */
+    public LineageRecord analyze(String source, int index, String sql) {
+        return analyze(source, index, sql, Optional.empty());
+    }
+
+    /**
+     * Analyzes one statement of a script on the calling thread. The statement is resolved against the
+     * session, normally layered over {@link #getMetadataService()}, and the table or view it creates is
+     * registered there for the following statements.
+     */
+    public LineageRecord analyze(String source, int index, String sql, SessionMetadataService session) {
+        return analyze(source, index, sql, Optional.of(session));
+    }
+
+    private LineageRecord analyze(String source, int index, String sql, Optional<SessionMetadataService> session) {
+        long start = System.nanoTime();
+        try {
+            // statements resolved against script local tables depend on more than their own text
+            Optional<SqlFingerprint> fingerprint = statementCache.isPresent() && !session.filter(SessionMetadataService::hasRegisteredTables).isPresent() ?
+                    Optional.of(SqlFingerprint.of(sql)) :
+                    Optional.empty();
+            MetadataService metadata = session.isPresent() ? session.get() : metadataService;
+            if (fingerprint.isPresent()) {
+                Optional<StatementCache.CachedStatement> cached = statementCache.get().get(fingerprint.get(), metadata, this::invalidate);
+                if (cached.isPresent()) {
+                    session.ifPresent(catalog -> cached.get().getCreatedTable().ifPresent(catalog::registerTable));
+                    return LineageRecord.success(source, index, cached.get().getResult(), System.nanoTime() - start);
+                }
+            }
+
+            Statement statement = sqlFlowParser.createStatement(sql);
+            Analysis analysis = new Analysis(statement, ImmutableMap.of(), profile);
+            analysis.setViewCache(viewCache);
+            fingerprint.ifPresent(analysis::setFingerprint);
+            statementMemoryLimit.ifPresent(analysis::setMemoryLimit);
+            analysis.setBudget(budget);
+            try {
+                new StatementAnalyzer(analysis, metadata, sqlFlowParser, caseSensitive).analyze(statement, Optional.empty());
+            } catch (AnalysisBudgetExceededException | ExceededMemoryLimitException e) {
+                if (e instanceof AnalysisBudgetExceededException && ((AnalysisBudgetExceededException) e).getLimit() == AnalysisBudget.Limit.INTERRUPTED) {
+                    throw e;
+                }
+                // degraded results are neither cached nor registered in the session
+                return LineageRecord.degraded(source, index, TableLineageAnalyzer.analyze(statement, metadata), e, System.nanoTime() - start);
+            }
+            session.ifPresent(catalog -> analysis.getCreatedTable().ifPresent(catalog::registerTable));
+            LineageResult result = analysis.toLineageResult();
+            fingerprint.ifPresent(key -> statementCache.get().put(key, result, analysis.getCreatedTable(),
+                    MetadataUtil.getVersions(metadata, analysis.getDependencies())));
+            return LineageRecord.success(source, index, result, System.nanoTime() - start);
+        } catch (Exception | StackOverflowError e) {
+            return LineageRecord.failure(source, index, e, System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * Drops everything cached about a table or view, e.g. after it was altered in a metadata store that
+     * does not expose {@link MetadataService#getVersion versions}.
+     */
+    public void invalidate(QualifiedObjectName name) {
+        if (metadataService instanceof CachingMetadataService) {
+            ((CachingMetadataService) metadataService).invalidate(name);
+        }
+        viewCache.invalidate(name);
+        statementCache.ifPresent(cache -> cache.invalidate(name));
+    }
+
+    @Override
+    public void close() {
+        if (ownsExecutor) {
+            executor.shutdown();
+        }
+    }
+
+    private final class Batch {
+        private final LineageSink sink;
+        private final Semaphore permits = new Semaphore(maxPendingTasks);
+        private final AtomicLong succeeded = new AtomicLong();
+        private final AtomicLong failed = new AtomicLong();
+        private final AtomicLong degraded = new AtomicLong();
+        private final AtomicReference<Throwable> sinkFailure = new AtomicReference<>();
+        private final long start = System.nanoTime();
+
+        private Batch(LineageSink sink) {
+            this.sink = requireNonNull(sink, "sink is null");
+        }
+
+        void submit(String source, int index, Runnable task) throws InterruptedException {
+            permits.acquire();
+            if (isAborted()) {
+                permits.release();
+                return;
+            }
+            try {
+                executor.execute(() -> {
+                    try {
+                        task.run();
+                    } finally {
+                        permits.release();
+                    }
+                });
+            } catch (RejectedExecutionException e) {
+                permits.release();
+                deliver(LineageRecord.failure(source, index, e, 0));
+            }
+        }
+
+        void deliver(LineageRecord record) {
+            (record.isSuccess() ? succeeded : failed).incrementAndGet();
+            if (record.isDegraded()) {
+                degraded.incrementAndGet();
+            }
+            synchronized (this) {
+                if (isAborted()) {
+                    return;
+                }
+                try {
+                    sink.accept(record);
+                } catch (Exception | Error e) {
+                    sinkFailure.set(e);
+                }
+            }
+        }
+
+        boolean isAborted() {
+            return sinkFailure.get() != null;
+        }
+
+        BatchSummary finish() throws InterruptedException {
+            // every running task holds a permit, so owning all of them means the batch is drained
+            permits.acquire(maxPendingTasks);
+            permits.release(maxPendingTasks);
+
+            Throwable failure = sinkFailure.get();
+            if (failure != null) {
+                throw new IllegalStateException("lineage sink failed, batch aborted", failure);
+            }
+            return new BatchSummary(succeeded.get(), failed.get(), degraded.get(), System.nanoTime() - start);
+        }
+    }
+
+    public static final class Builder {
+        private final MetadataService metadataService;
+        private Optional<SqlFlowParser> sqlFlowParser = Optional.empty();
+        private Optional<ExecutorService> executor = Optional.empty();
+        private Optional<ViewCache> viewCache = Optional.empty();
+        private Optional<StatementCache> statementCache = Optional.empty();
+        private long statementCacheBytes = 64L << 20;
+        private int parallelism = Runtime.getRuntime().availableProcessors();
+        private int maxPendingTasks = 4 * Runtime.getRuntime().availableProcessors();
+        private long metadataCacheSize = 100_000;
+        private AnalysisProfile profile = AnalysisProfile.LINEAGE;
+        private boolean caseSensitive;
+        private Optional<Long> statementMemoryLimit = Optional.empty();
+        private AnalysisBudget budget = AnalysisBudget.UNLIMITED;
+
+        private Builder(MetadataService metadataService) {
+            this.metadataService = requireNonNull(metadataService, "metadataService is null");
+        }
+
+        /**
+         * Parser shared by all workers, by default one that keeps its ANTLR caches between statements.
+         */
+        public Builder withParser(SqlFlowParser sqlFlowParser) {
+            this.sqlFlowParser = Optional.of(requireNonNull(sqlFlowParser, "sqlFlowParser is null"));
+            return this;
+        }
+
+        /**
+         * Runs tasks on the given executor, which is left open by {@link #close()}.
+         */
+        public Builder withExecutor(ExecutorService executor) {
+            this.executor = Optional.of(requireNonNull(executor, "executor is null"));
+            return this;
+        }
+
+        /**
+         * Size of the {@link ForkJoinPool} created when no executor is given.
+         */
+        public Builder withParallelism(int parallelism) {
+            checkArgument(parallelism > 0, "parallelism must be positive");
+            this.parallelism = parallelism;
+            return this;
+        }
+
+        public Builder withMaxPendingTasks(int maxPendingTasks) {
+            checkArgument(maxPendingTasks > 0, "maxPendingTasks must be positive");
+            this.maxPendingTasks = maxPendingTasks;
+            return this;
+        }
+
+        /**
+         * View cache shared with other engines, by default one sized like the metadata cache.
+         */
+        public Builder withViewCache(ViewCache viewCache) {
+            this.viewCache = Optional.of(requireNonNull(viewCache, "viewCache is null"));
+            return this;
+        }
+
+        /**
+         * Statement cache shared with other engines, by default one bounded by {@link #withStatementCacheBytes(long)}.
+         */
+        public Builder withStatementCache(StatementCache statementCache) {
+            this.statementCache = Optional.of(requireNonNull(statementCache, "statementCache is null"));
+            return this;
+        }
+
+        /**
+         * Estimated heap the default statement cache may retain, 0 disables it.
+         */
+        public Builder withStatementCacheBytes(long statementCacheBytes) {
+            checkArgument(statementCacheBytes >= 0, "statementCacheBytes is negative");
+            this.statementCacheBytes = statementCacheBytes;
+            return this;
+        }
+
+        /**
+         * Maximum number of tables, views and functions cached per kind, 0 disables the metadata cache.
+         */
+        public Builder withMetadataCacheSize(long metadataCacheSize) {
+            checkArgument(metadataCacheSize >= 0, "metadataCacheSize is negative");
+            this.metadataCacheSize = metadataCacheSize;
+            return this;
+        }
+
+        public Builder withProfile(AnalysisProfile profile) {
+            this.profile = requireNonNull(profile, "profile is null");
+            return this;
+        }
+
+        public Builder withCaseSensitive(boolean caseSensitive) {
+            this.caseSensitive = caseSensitive;
+            return this;
+        }
+
+        /**
+         * Estimated heap the AST and analysis of a single statement may use, a larger statement gets a degraded
+         * record with the {@link ExceededMemoryLimitException} as error. Unlimited by default.
+         */
+        public Builder withStatementMemoryLimit(long statementMemoryLimit) {
+            checkArgument(statementMemoryLimit > 0, "statementMemoryLimit must be positive");
+            this.statementMemoryLimit = Optional.of(statementMemoryLimit);
+            return this;
+        }
+
+        /**
+         * Limits applied to the analysis of every statement. A statement exceeding them gets a degraded record
+         * with table level lineage instead of failing, unless its thread was interrupted. Unlimited by default.
+         */
+        public Builder withAnalysisBudget(AnalysisBudget budget) {
+            this.budget = requireNonNull(budget, "budget is null");
+            return this;
+        }
+
+        public BatchLineageEngine build() {
+            return new BatchLineageEngine(this);
+        }
+    }
+}
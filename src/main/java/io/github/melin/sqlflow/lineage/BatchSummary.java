@@ -0,0 +1,58 @@
+package io.github.melin.sqlflow.lineage;
+
+import javax.annotation.concurrent.Immutable;
+
+/**
+ * Counters of a finished batch.
+ */
+@Immutable
+public final class BatchSummary {
+    private final long succeeded;
+    private final long failed;
+    private final long degraded;
+    private final long elapsedNanos;
+
+    public BatchSummary(long succeeded, long failed, long elapsedNanos) {
+        this(succeeded, failed, 0, elapsedNanos);
+    }
+
+    public BatchSummary(long succeeded, long failed, long degraded, long elapsedNanos) {
+        this.succeeded = succeeded;
+        this.failed = failed;
+        this.degraded = degraded;
+        this.elapsedNanos = elapsedNanos;
+    }
+
+    public long getStatements() {
+        return succeeded + failed;
+    }
+
+    public long getSucceeded() {
+        return succeeded;
+    }
+
+    public long getFailed() {
+        return failed;
+    }
+
+    /**
+     * Succeeded statements that only got table level lineage, see {@link LineageRecord#isDegraded()}.
+     */
+    public long getDegraded() {
+        return degraded;
+    }
+
+    public long getElapsedNanos() {
+        return elapsedNanos;
+    }
+
+    @Override
+    public String toString() {
+        return "BatchSummary{" +
+                "succeeded=" + succeeded +
+                ", failed=" + failed +
+                ", degraded=" + degraded +
+                ", elapsedMillis=" + elapsedNanos / 1_000_000 +
+                '}';
+    }
+}
@@ -0,0 +1,137 @@
+package io.github.melin.sqlflow.lineage;
+
+import io.github.melin.sqlflow.analyzer.Analysis;
+import io.github.melin.sqlflow.analyzer.LineageResult;
+import io.github.melin.sqlflow.analyzer.Output;
+import io.github.melin.sqlflow.analyzer.OutputColumn;
+import io.github.melin.sqlflow.util.JsonUtils;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.util.Optional;
+import java.util.Set;
+
+import static com.fasterxml.jackson.core.JsonEncoding.UTF8;
+
+/**
+ * Streams lineage as JSON through a {@link JsonGenerator}, without the bean introspection and intermediate
+ * strings of an object mapper. The documents have the same fields, in the same order, as those of
+ * {@link JsonUtils}, so either can read what the other wrote.
+ */
+public final class LineageJson {
+
+    private static final JsonFactory FACTORY = JsonUtils.getInstance().getFactory();
+
+    private LineageJson() {
+    }
+
+    /**
+     * Compact generator writing UTF-8 to the stream, closing the generator does not close the stream.
+     */
+    public static JsonGenerator createGenerator(OutputStream output) throws IOException {
+        return FACTORY.createGenerator(output, UTF8).disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+    }
+
+    /**
+     * Compact generator writing to the writer, closing the generator does not close the writer.
+     */
+    public static JsonGenerator createGenerator(Writer writer) throws IOException {
+        return FACTORY.createGenerator(writer).disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+    }
+
+    public static String toJson(Output output) throws IOException {
+        StringWriter writer = new StringWriter();
+        try (JsonGenerator generator = createGenerator(writer)) {
+            writeOutput(generator, output);
+        }
+        return writer.toString();
+    }
+
+    public static String toJson(LineageResult result) throws IOException {
+        StringWriter writer = new StringWriter();
+        try (JsonGenerator generator = createGenerator(writer)) {
+            writeLineageResult(generator, result);
+        }
+        return writer.toString();
+    }
+
+    public static void writeOutput(JsonGenerator generator, Output output) throws IOException {
+        generator.writeStartObject();
+        generator.writeStringField("catalogName", output.getCatalogName());
+        generator.writeStringField("schema", output.getSchema());
+        generator.writeStringField("table", output.getTable());
+        generator.writeFieldName("columns");
+        if (output.getColumns().isPresent()) {
+            generator.writeStartArray();
+            for (OutputColumn column : output.getColumns().get()) {
+                writeOutputColumn(generator, column);
+            }
+            generator.writeEndArray();
+        } else {
+            generator.writeNull();
+        }
+        generator.writeEndObject();
+    }
+
+    public static void writeOutputColumn(JsonGenerator generator, OutputColumn column) throws IOException {
+        generator.writeStartObject();
+        generator.writeStringField("column", column.getColumn());
+        generator.writeFieldName("sourceColumns");
+        writeSourceColumns(generator, column.getSourceColumns());
+        generator.writeEndObject();
+    }
+
+    public static void writeSourceColumn(JsonGenerator generator, Analysis.SourceColumn column) throws IOException {
+        generator.writeStartObject();
+        generator.writeStringField("tableName", column.getTableName().toString());
+        generator.writeStringField("columnName", column.getColumnName());
+        generator.writeEndObject();
+    }
+
+    public static void writeLineageResult(JsonGenerator generator, LineageResult result) throws IOException {
+        generator.writeStartObject();
+        generator.writeStringField("updateType", result.getUpdateType().orElse(null));
+        generator.writeFieldName("target");
+        Optional<Output> target = result.getTarget();
+        if (target.isPresent()) {
+            writeOutput(generator, target.get());
+        } else {
+            generator.writeNull();
+        }
+        generator.writeFieldName("whereColumns");
+        writeSourceColumns(generator, result.getWhereColumns());
+        generator.writeFieldName("joinColumns");
+        writeSourceColumns(generator, result.getJoinColumns());
+        generator.writeEndObject();
+    }
+
+    /**
+     * Writes a record as an object with its source, index and elapsed time, and either its result or its error.
+     */
+    public static void writeLineageRecord(JsonGenerator generator, LineageRecord record) throws IOException {
+        generator.writeStartObject();
+        generator.writeStringField("source", record.getSource());
+        generator.writeNumberField("index", record.getIndex());
+        generator.writeNumberField("elapsedNanos", record.getElapsedNanos());
+        if (record.getResult().isPresent()) {
+            generator.writeFieldName("result");
+            writeLineageResult(generator, record.getResult().get());
+        }
+        if (record.getError().isPresent()) {
+            generator.writeStringField("error", record.getError().get());
+        }
+        generator.writeEndObject();
+    }
+
+    private static void writeSourceColumns(JsonGenerator generator, Set<Analysis.SourceColumn> columns) throws IOException {
+        generator.writeStartArray();
+        for (Analysis.SourceColumn column : columns) {
+            writeSourceColumn(generator, column);
+        }
+        generator.writeEndArray();
+    }
+}
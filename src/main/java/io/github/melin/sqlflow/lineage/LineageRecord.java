@@ -0,0 +1,89 @@
+package io.github.melin.sqlflow.lineage;
+
+import io.github.melin.sqlflow.analyzer.LineageResult;
+
+import javax.annotation.concurrent.Immutable;
+import java.util.Optional;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Outcome of one statement of a batch: either its lineage or the reason it could not be analyzed.
+ * A {@link #isDegraded() degraded} record has both, the table level lineage computed after the column
+ * level analysis exceeded its budget and the reason. The index is -1 when the whole source failed
+ * before it could be split into statements.
+ */
+@Immutable
+public final class LineageRecord {
+    private final String source;
+    private final int index;
+    private final Optional<LineageResult> result;
+    private final Optional<String> error;
+    private final long elapsedNanos;
+
+    private LineageRecord(String source, int index, Optional<LineageResult> result, Optional<String> error, long elapsedNanos) {
+        checkArgument(result.isPresent() || error.isPresent(), "result or error must be present");
+        this.source = requireNonNull(source, "source is null");
+        this.index = index;
+        this.result = result;
+        this.error = error;
+        this.elapsedNanos = elapsedNanos;
+    }
+
+    public static LineageRecord success(String source, int index, LineageResult result, long elapsedNanos) {
+        return new LineageRecord(source, index, Optional.of(requireNonNull(result, "result is null")), Optional.empty(), elapsedNanos);
+    }
+
+    public static LineageRecord failure(String source, int index, Throwable failure, long elapsedNanos) {
+        return new LineageRecord(source, index, Optional.empty(), Optional.of(message(failure)), elapsedNanos);
+    }
+
+    public static LineageRecord degraded(String source, int index, LineageResult result, Throwable failure, long elapsedNanos) {
+        return new LineageRecord(source, index, Optional.of(requireNonNull(result, "result is null")), Optional.of(message(failure)), elapsedNanos);
+    }
+
+    private static String message(Throwable failure) {
+        requireNonNull(failure, "failure is null");
+        return failure.getClass().getName() + ": " + failure.getMessage();
+    }
+
+    public String getSource() {
+        return source;
+    }
+
+    public int getIndex() {
+        return index;
+    }
+
+    public boolean isSuccess() {
+        return result.isPresent();
+    }
+
+    /**
+     * True when the result is only the table level fallback, {@link #getError()} tells why.
+     */
+    public boolean isDegraded() {
+        return result.isPresent() && error.isPresent();
+    }
+
+    public Optional<LineageResult> getResult() {
+        return result;
+    }
+
+    public Optional<String> getError() {
+        return error;
+    }
+
+    public long getElapsedNanos() {
+        return elapsedNanos;
+    }
+
+    @Override
+    public String toString() {
+        if (isDegraded()) {
+            return source + "#" + index + " degraded: " + error.get() + " " + result.get();
+        }
+        return source + "#" + index + (isSuccess() ? " " + result.get() : " failed: " + error.get());
+    }
+}
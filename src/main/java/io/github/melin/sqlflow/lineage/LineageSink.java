@@ -0,0 +1,10 @@
+package io.github.melin.sqlflow.lineage;
+
+/**
+ * Receives the records of a batch as soon as each statement is done, in completion order.
+ * The engine never calls a sink concurrently, so implementations need no synchronization.
+ */
+@FunctionalInterface
+public interface LineageSink {
+    void accept(LineageRecord record) throws Exception;
+}
@@ -0,0 +1,40 @@
+package io.github.melin.sqlflow.lineage;
+
+import javax.annotation.concurrent.Immutable;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * One statement to analyze, identified by its source (e.g. a file name) and its position in that source.
+ */
+@Immutable
+public final class LineageTask {
+    private final String source;
+    private final int index;
+    private final String sql;
+
+    public LineageTask(String source, int index, String sql) {
+        checkArgument(index >= 0, "index is negative");
+        this.source = requireNonNull(source, "source is null");
+        this.index = index;
+        this.sql = requireNonNull(sql, "sql is null");
+    }
+
+    public String getSource() {
+        return source;
+    }
+
+    public int getIndex() {
+        return index;
+    }
+
+    public String getSql() {
+        return sql;
+    }
+
+    @Override
+    public String toString() {
+        return source + "#" + index;
+    }
+}
@@ -0,0 +1,55 @@
+package io.github.melin.sqlflow.lineage;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+
+import java.io.Closeable;
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.Writer;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Writes every record of a batch as one line of JSON (NDJSON), see {@link LineageJson#writeLineageRecord}.
+ * Records go through a single buffered generator, so thousands of results never build a document in
+ * memory. The target is flushed and closed with the sink.
+ */
+public class NdjsonLineageSink implements LineageSink, Flushable, Closeable {
+    private final JsonGenerator generator;
+    private final Closeable target;
+
+    public NdjsonLineageSink(OutputStream output) throws IOException {
+        this(LineageJson.createGenerator(requireNonNull(output, "output is null")), output);
+    }
+
+    public NdjsonLineageSink(Writer writer) throws IOException {
+        this(LineageJson.createGenerator(requireNonNull(writer, "writer is null")), writer);
+    }
+
+    private NdjsonLineageSink(JsonGenerator generator, Closeable target) {
+        // lines are separated explicitly, not by the space written between root values
+        this.generator = generator.setRootValueSeparator(null);
+        this.target = target;
+    }
+
+    @Override
+    public void accept(LineageRecord record) throws IOException {
+        LineageJson.writeLineageRecord(generator, record);
+        generator.writeRaw('\n');
+    }
+
+    @Override
+    public void flush() throws IOException {
+        generator.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            generator.close();
+        } finally {
+            target.close();
+        }
+    }
+}
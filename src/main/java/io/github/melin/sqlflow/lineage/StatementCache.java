@@ -0,0 +1,196 @@
+package io.github.melin.sqlflow.lineage;
+
+import io.github.melin.sqlflow.analyzer.LineageResult;
+import io.github.melin.sqlflow.analyzer.StatementFootprint;
+import io.github.melin.sqlflow.metadata.MetadataService;
+import io.github.melin.sqlflow.metadata.MetadataUtil;
+import io.github.melin.sqlflow.metadata.QualifiedObjectName;
+import io.github.melin.sqlflow.metadata.SchemaTable;
+import io.github.melin.sqlflow.parser.SqlFingerprint;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
+import com.google.common.collect.ImmutableMap;
+
+import javax.annotation.concurrent.Immutable;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static com.google.common.base.MoreObjects.toStringHelper;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Thread-safe cache from a {@link SqlFingerprint} to the lineage of a statement, so a statement whose shape
+ * was already analyzed skips parsing and analysis. The AST is not kept. The cache is bounded by an estimate
+ * of the retained heap, which is also exposed with the hit ratio.
+ *
+ * <p>The cached lineage is that of the first statement seen with the fingerprint. Lineage never depends on
+ * literal values, so the cached result is valid for every statement of the same shape as long as the
+ * metadata it was analyzed against is unchanged.
+ * Every entry records the {@link MetadataService#getVersion versions} of the tables and views it read or
+ * wrote and {@link #get(SqlFingerprint, MetadataService)} drops it once one of them changed. Entries
+ * depending on unversioned objects stay until {@link #invalidate(QualifiedObjectName)} is called.
+ */
+public class StatementCache {
+
+    private static final int BYTES_PER_ENTRY = 256;
+
+    private final Cache<SqlFingerprint, CachedStatement> cache;
+
+    private final AtomicLong staleCount = new AtomicLong();
+
+    public StatementCache(long maximumEstimatedBytes) {
+        this.cache = CacheBuilder.newBuilder()
+                .maximumWeight(maximumEstimatedBytes)
+                .<SqlFingerprint, CachedStatement>weigher((fingerprint, statement) -> (int) Math.min(Integer.MAX_VALUE, statement.getEstimatedBytes()))
+                .recordStats()
+                .build();
+    }
+
+    public Optional<CachedStatement> get(SqlFingerprint fingerprint) {
+        return Optional.ofNullable(cache.getIfPresent(fingerprint));
+    }
+
+    /**
+     * Returns the cached statement if the metadata versions of its dependencies are unchanged. Otherwise
+     * drops every entry depending on a changed object and returns the changed objects through the
+     * listener, so that metadata cached elsewhere can be refreshed before the statement is analyzed again.
+     */
+    public Optional<CachedStatement> get(SqlFingerprint fingerprint, MetadataService metadataService, ChangeListener listener) {
+        Optional<CachedStatement> statement = get(fingerprint);
+        if (statement.isPresent()) {
+            Set<QualifiedObjectName> changed = MetadataUtil.findChangedObjects(metadataService, statement.get().getDependencyVersions());
+            if (!changed.isEmpty()) {
+                staleCount.incrementAndGet();
+                changed.forEach(this::invalidate);
+                changed.forEach(listener::changed);
+                return Optional.empty();
+            }
+        }
+        return statement;
+    }
+
+    public Optional<CachedStatement> get(SqlFingerprint fingerprint, MetadataService metadataService) {
+        return get(fingerprint, metadataService, name -> {});
+    }
+
+    public CachedStatement put(
+            SqlFingerprint fingerprint,
+            LineageResult result,
+            Optional<SchemaTable> createdTable,
+            Map<QualifiedObjectName, Optional<String>> dependencyVersions) {
+        CachedStatement statement = new CachedStatement(result, createdTable, dependencyVersions, estimateBytes(result));
+        cache.put(fingerprint, statement);
+        return statement;
+    }
+
+    /**
+     * Drops every statement that read or wrote the table or view.
+     */
+    public void invalidate(QualifiedObjectName name) {
+        requireNonNull(name, "name is null");
+        cache.asMap().values().removeIf(statement -> statement.getDependencyVersions().containsKey(name));
+    }
+
+    public void invalidateAll() {
+        cache.invalidateAll();
+    }
+
+    public long size() {
+        return cache.size();
+    }
+
+    public CacheStats stats() {
+        return cache.stats();
+    }
+
+    /**
+     * Ratio of lookups that reused a current entry, stale entries count as misses.
+     */
+    public double getHitRatio() {
+        CacheStats stats = cache.stats();
+        if (stats.requestCount() == 0) {
+            return 1.0;
+        }
+        return (double) (stats.hitCount() - staleCount.get()) / stats.requestCount();
+    }
+
+    /**
+     * Number of lookups that found an entry made stale by a metadata change, counted as hits by {@link #stats()}.
+     */
+    public long getStaleCount() {
+        return staleCount.get();
+    }
+
+    /**
+     * Estimated heap retained by the cached statements and lineage results.
+     */
+    public long getEstimatedBytes() {
+        return cache.asMap().values().stream().mapToLong(CachedStatement::getEstimatedBytes).sum();
+    }
+
+    private static long estimateBytes(LineageResult result) {
+        return BYTES_PER_ENTRY + StatementFootprint.estimateLineage(result);
+    }
+
+    @Override
+    public String toString() {
+        CacheStats stats = cache.stats();
+        return toStringHelper(this)
+                .add("size", cache.size())
+                .add("hitCount", stats.hitCount())
+                .add("missCount", stats.missCount())
+                .add("staleCount", staleCount.get())
+                .add("hitRatio", getHitRatio())
+                .add("estimatedBytes", getEstimatedBytes())
+                .toString();
+    }
+
+    @Immutable
+    public static final class CachedStatement {
+        private final LineageResult result;
+        private final Optional<SchemaTable> createdTable;
+        private final Map<QualifiedObjectName, Optional<String>> dependencyVersions;
+        private final long estimatedBytes;
+
+        private CachedStatement(
+                LineageResult result,
+                Optional<SchemaTable> createdTable,
+                Map<QualifiedObjectName, Optional<String>> dependencyVersions,
+                long estimatedBytes) {
+            this.result = requireNonNull(result, "result is null");
+            this.createdTable = requireNonNull(createdTable, "createdTable is null");
+            this.dependencyVersions = ImmutableMap.copyOf(requireNonNull(dependencyVersions, "dependencyVersions is null"));
+            this.estimatedBytes = estimatedBytes;
+        }
+
+        public LineageResult getResult() {
+            return result;
+        }
+
+        /**
+         * Table or view created by the statement, see {@link io.github.melin.sqlflow.analyzer.Analysis#getCreatedTable()}.
+         */
+        public Optional<SchemaTable> getCreatedTable() {
+            return createdTable;
+        }
+
+        /**
+         * Metadata versions of the tables and views the statement read or wrote, when it was analyzed.
+         */
+        public Map<QualifiedObjectName, Optional<String>> getDependencyVersions() {
+            return dependencyVersions;
+        }
+
+        public long getEstimatedBytes() {
+            return estimatedBytes;
+        }
+    }
+
+    @FunctionalInterface
+    public interface ChangeListener {
+        void changed(QualifiedObjectName name);
+    }
+}
@@ -0,0 +1,117 @@
+package io.github.melin.sqlflow.lineage.graph;
+
+import io.github.melin.sqlflow.analyzer.Analysis;
+import io.github.melin.sqlflow.metadata.QualifiedObjectName;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Dictionary encoding of columns to dense int ids. Table names and column names are interned separately,
+ * column names such as {@code id} or {@code dt} repeat across most tables, and a column is the pair of
+ * both ids. Ids are never reused, so they stay valid for the life of the dictionary. Not thread-safe.
+ */
+final class ColumnDictionary {
+
+    private final Map<QualifiedObjectName, Integer> tableIds = new HashMap<>();
+    private final List<QualifiedObjectName> tables = new ArrayList<>();
+    private final List<IntArrayList> tableColumns = new ArrayList<>();
+
+    private final Map<String, Integer> nameIds = new HashMap<>();
+    private final List<String> names = new ArrayList<>();
+
+    // (table id, name id) -> column id
+    private final LongIntHashMap columnIds = new LongIntHashMap(1024);
+    private int[] columnTables = new int[1024];
+    private int[] columnNames = new int[1024];
+    private int columnCount;
+
+    int intern(QualifiedObjectName table, String column) {
+        requireNonNull(table, "table is null");
+        requireNonNull(column, "column is null");
+        Integer tableId = tableIds.get(table);
+        if (tableId == null) {
+            tableId = tables.size();
+            tableIds.put(table, tableId);
+            tables.add(table);
+            tableColumns.add(new IntArrayList());
+        }
+        Integer nameId = nameIds.get(column);
+        if (nameId == null) {
+            nameId = names.size();
+            nameIds.put(column, nameId);
+            names.add(column);
+        }
+        long key = LongIntHashMap.pack(tableId, nameId);
+        int columnId = columnIds.get(key, -1);
+        if (columnId < 0) {
+            columnId = columnCount++;
+            if (columnId == columnTables.length) {
+                columnTables = Arrays.copyOf(columnTables, columnId * 2);
+                columnNames = Arrays.copyOf(columnNames, columnId * 2);
+            }
+            columnTables[columnId] = tableId;
+            columnNames[columnId] = nameId;
+            columnIds.put(key, columnId);
+            tableColumns.get(tableId).add(columnId);
+        }
+        return columnId;
+    }
+
+    /**
+     * Returns the id of the column, or -1 if it was never interned.
+     */
+    int find(QualifiedObjectName table, String column) {
+        Integer tableId = tableIds.get(table);
+        Integer nameId = nameIds.get(column);
+        if (tableId == null || nameId == null) {
+            return -1;
+        }
+        return columnIds.get(LongIntHashMap.pack(tableId, nameId), -1);
+    }
+
+    /**
+     * Returns the ids of all interned columns of the table.
+     */
+    int[] columnsOf(QualifiedObjectName table) {
+        Integer tableId = tableIds.get(table);
+        if (tableId == null) {
+            return new int[0];
+        }
+        return tableColumns.get(tableId).toArray();
+    }
+
+    Analysis.SourceColumn column(int columnId) {
+        return new Analysis.SourceColumn(table(columnId), names.get(columnNames[columnId]));
+    }
+
+    QualifiedObjectName table(int columnId) {
+        if (columnId < 0 || columnId >= columnCount) {
+            throw new IllegalArgumentException("unknown column id: " + columnId);
+        }
+        return tables.get(columnTables[columnId]);
+    }
+
+    int columnCount() {
+        return columnCount;
+    }
+
+    int tableCount() {
+        return tables.size();
+    }
+
+    long estimatedBytes() {
+        // the names themselves are shared with the analysis results and not counted
+        long bytes = columnIds.estimatedBytes() + 4L * (columnTables.length + columnNames.length);
+        bytes += 48L * (tables.size() + names.size());
+        for (IntArrayList columns : tableColumns) {
+            bytes += columns.estimatedBytes();
+        }
+        return bytes;
+    }
+}
@@ -0,0 +1,610 @@
+package io.github.melin.sqlflow.lineage.graph;
+
+import io.github.melin.sqlflow.analyzer.Analysis;
+import io.github.melin.sqlflow.analyzer.LineageResult;
+import io.github.melin.sqlflow.analyzer.Output;
+import io.github.melin.sqlflow.analyzer.OutputColumn;
+import io.github.melin.sqlflow.lineage.LineageRecord;
+import io.github.melin.sqlflow.lineage.LineageSink;
+import io.github.melin.sqlflow.metadata.QualifiedObjectName;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.IntPredicate;
+import java.util.function.Predicate;
+
+import static com.google.common.base.MoreObjects.toStringHelper;
+import static com.google.common.base.Preconditions.checkArgument;
+import static io.github.melin.sqlflow.lineage.graph.LongIntHashMap.high;
+import static io.github.melin.sqlflow.lineage.graph.LongIntHashMap.low;
+import static io.github.melin.sqlflow.lineage.graph.LongIntHashMap.pack;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Column level lineage of many statements merged into one graph: an edge goes from every source column of
+ * an output column to the output column. Statements are added and replaced one at a time under an id
+ * chosen by the caller, e.g. the file and index of a {@link LineageRecord}.
+ *
+ * <p>Columns are {@link ColumnDictionary dictionary encoded} to int ids and the edges are kept in
+ * compressed sparse row arrays in both directions, with the number of statements contributing each edge.
+ * Replacing a statement only records the changed edge counts in a small overlay, which is merged into the
+ * arrays once it grows past a fraction of them. Besides the arrays, the graph keeps the edges of every
+ * statement as packed longs, so its footprint stays within a few ints per edge.
+ *
+ * <p>Thread-safe: traversals run concurrently, updates are exclusive.
+ */
+public class ColumnLineageGraph {
+
+    private static final int MIN_COMPACTION_THRESHOLD = 4096;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private final ColumnDictionary dictionary = new ColumnDictionary();
+
+    private final Map<String, long[]> statementEdges = new HashMap<>();
+    private long statementEdgeCount;
+    private long edgeCount;
+
+    // compressed rows indexed by column id, the columns interned after the last compaction have no row
+    private int compactedColumns;
+    private int[] downstreamOffsets = new int[1];
+    private int[] downstreamTargets = new int[0];
+    private int[] downstreamCounts = new int[0];
+    private int[] upstreamOffsets = new int[1];
+    private int[] upstreamSources = new int[0];
+    private int[] upstreamCounts = new int[0];
+
+    // changes since the last compaction: the statement count difference of an edge, and the edges missing from the rows
+    private final LongIntHashMap delta = new LongIntHashMap(1024);
+    private final Map<Integer, IntArrayList> addedDownstream = new HashMap<>();
+    private final Map<Integer, IntArrayList> addedUpstream = new HashMap<>();
+
+    private final List<EdgeListener> listeners = new CopyOnWriteArrayList<>();
+
+    /**
+     * Adds the edges of a statement, replacing those previously added under the same id.
+     */
+    public void putStatement(String statementId, Output output) {
+        requireNonNull(statementId, "statementId is null");
+        requireNonNull(output, "output is null");
+        lock.writeLock().lock();
+        try {
+            long[] edges = internEdges(output);
+            long[] previous = statementEdges.put(statementId, edges);
+            // add before removing, so the edges kept by the new lineage are never seen as removed
+            apply(edges, 1);
+            if (previous != null) {
+                apply(previous, -1);
+            }
+            if (delta.size() > Math.max(MIN_COMPACTION_THRESHOLD, downstreamTargets.length / 4)) {
+                compactLocked();
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Adds the edges of many statements, e.g. when reloading persisted lineage. A batch that is large
+     * compared to the graph rebuilds the adjacency arrays once instead of going through the overlay.
+     */
+    public void putStatements(Map<String, Output> outputs) {
+        requireNonNull(outputs, "outputs is null");
+        lock.writeLock().lock();
+        try {
+            long changed = 0;
+            Map<String, long[]> batch = new LinkedHashMap<>();
+            for (Map.Entry<String, Output> entry : outputs.entrySet()) {
+                long[] edges = internEdges(requireNonNull(entry.getValue(), "output is null"));
+                batch.put(requireNonNull(entry.getKey(), "statementId is null"), edges);
+                long[] previous = statementEdges.get(entry.getKey());
+                changed += edges.length + (previous == null ? 0 : previous.length);
+            }
+            if (changed <= Math.max(MIN_COMPACTION_THRESHOLD, downstreamTargets.length / 4)) {
+                for (Map.Entry<String, long[]> entry : batch.entrySet()) {
+                    long[] previous = statementEdges.put(entry.getKey(), entry.getValue());
+                    apply(entry.getValue(), 1);
+                    if (previous != null) {
+                        apply(previous, -1);
+                    }
+                }
+                return;
+            }
+            for (Map.Entry<String, long[]> entry : batch.entrySet()) {
+                long[] previous = statementEdges.put(entry.getKey(), entry.getValue());
+                statementEdgeCount += entry.getValue().length - (previous == null ? 0 : previous.length);
+            }
+            compactLocked();
+            for (EdgeListener listener : listeners) {
+                listener.rebuilt();
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Adds the edges of the statement target, a statement without target only removes the previous edges.
+     */
+    public void putStatement(String statementId, LineageResult result) {
+        Optional<Output> target = result.getTarget();
+        if (target.isPresent()) {
+            putStatement(statementId, target.get());
+        } else {
+            removeStatement(statementId);
+        }
+    }
+
+    public boolean removeStatement(String statementId) {
+        requireNonNull(statementId, "statementId is null");
+        lock.writeLock().lock();
+        try {
+            long[] previous = statementEdges.remove(statementId);
+            if (previous == null) {
+                return false;
+            }
+            apply(previous, -1);
+            return true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Removes the statements whose id matches, e.g. all statements of a file before it is analyzed again.
+     */
+    public int removeStatements(Predicate<String> filter) {
+        requireNonNull(filter, "filter is null");
+        lock.writeLock().lock();
+        try {
+            int removed = 0;
+            Iterator<Map.Entry<String, long[]>> iterator = statementEdges.entrySet().iterator();
+            while (iterator.hasNext()) {
+                Map.Entry<String, long[]> entry = iterator.next();
+                if (filter.test(entry.getKey())) {
+                    iterator.remove();
+                    apply(entry.getValue(), -1);
+                    removed++;
+                }
+            }
+            return removed;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public boolean containsStatement(String statementId) {
+        lock.readLock().lock();
+        try {
+            return statementEdges.containsKey(statementId);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Sink adding every successful record under {@link #statementId(String, int)}. A failed statement keeps
+     * the edges of its last successful analysis.
+     */
+    public LineageSink asSink() {
+        return record -> {
+            if (record.getResult().isPresent()) {
+                putStatement(statementId(record.getSource(), record.getIndex()), record.getResult().get());
+            }
+        };
+    }
+
+    public static String statementId(String source, int index) {
+        return source + "#" + index;
+    }
+
+    /**
+     * Columns the given column is derived from.
+     */
+    public TraversalResult upstream(Analysis.SourceColumn column, int maxDepth, int maxFanOut) {
+        return traverse(column, false, maxDepth, maxFanOut);
+    }
+
+    /**
+     * Columns derived from the given column.
+     */
+    public TraversalResult downstream(Analysis.SourceColumn column, int maxDepth, int maxFanOut) {
+        return traverse(column, true, maxDepth, maxFanOut);
+    }
+
+    /**
+     * Columns derived from any column of the table, i.e. those affected by a change of the table.
+     */
+    public TraversalResult impact(QualifiedObjectName table, int maxDepth, int maxFanOut) {
+        requireNonNull(table, "table is null");
+        lock.readLock().lock();
+        try {
+            return traverseLocked(dictionary.columnsOf(table), true, maxDepth, maxFanOut);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Merges the pending changes into the compressed rows.
+     */
+    public void compact() {
+        lock.writeLock().lock();
+        try {
+            compactLocked();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public int getStatementCount() {
+        lock.readLock().lock();
+        try {
+            return statementEdges.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int getColumnCount() {
+        lock.readLock().lock();
+        try {
+            return dictionary.columnCount();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Number of distinct edges, an edge contributed by several statements counts once.
+     */
+    public long getEdgeCount() {
+        lock.readLock().lock();
+        try {
+            return edgeCount;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Number of edges summed over the statements.
+     */
+    public long getStatementEdgeCount() {
+        lock.readLock().lock();
+        try {
+            return statementEdgeCount;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public long getEstimatedBytes() {
+        lock.readLock().lock();
+        try {
+            long bytes = dictionary.estimatedBytes() + delta.estimatedBytes();
+            bytes += 4L * (downstreamOffsets.length + downstreamTargets.length + downstreamCounts.length);
+            bytes += 4L * (upstreamOffsets.length + upstreamSources.length + upstreamCounts.length);
+            for (Map.Entry<String, long[]> entry : statementEdges.entrySet()) {
+                bytes += 64 + 2L * entry.getKey().length() + 16 + 8L * entry.getValue().length;
+            }
+            for (IntArrayList added : addedDownstream.values()) {
+                bytes += 48 + added.estimatedBytes();
+            }
+            for (IntArrayList added : addedUpstream.values()) {
+                bytes += 48 + added.estimatedBytes();
+            }
+            return bytes;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private TraversalResult traverse(Analysis.SourceColumn column, boolean downstream, int maxDepth, int maxFanOut) {
+        requireNonNull(column, "column is null");
+        lock.readLock().lock();
+        try {
+            int columnId = dictionary.find(column.getTableName(), column.getColumnName());
+            int[] start = columnId < 0 ? new int[0] : new int[] {columnId};
+            return traverseLocked(start, downstream, maxDepth, maxFanOut);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private TraversalResult traverseLocked(int[] start, boolean downstream, int maxDepth, int maxFanOut) {
+        checkArgument(maxDepth >= 0, "maxDepth is negative");
+        checkArgument(maxFanOut > 0, "maxFanOut must be positive");
+
+        BitSet visited = new BitSet(dictionary.columnCount());
+        IntArrayList frontier = new IntArrayList(start.length);
+        for (int columnId : start) {
+            if (!visited.get(columnId)) {
+                visited.set(columnId);
+                frontier.add(columnId);
+            }
+        }
+
+        Map<Analysis.SourceColumn, Integer> depths = new LinkedHashMap<>();
+        boolean truncated = false;
+        for (int depth = 1; !frontier.isEmpty(); depth++) {
+            if (depth > maxDepth) {
+                truncated = hasUnvisitedNeighbor(frontier, downstream, visited);
+                break;
+            }
+            int currentDepth = depth;
+            IntArrayList next = new IntArrayList();
+            for (int i = 0; i < frontier.size(); i++) {
+                int[] fanOut = {0};
+                boolean complete = forEachNeighbor(frontier.get(i), downstream, neighbor -> {
+                    if (fanOut[0]++ == maxFanOut) {
+                        return false;
+                    }
+                    if (!visited.get(neighbor)) {
+                        visited.set(neighbor);
+                        next.add(neighbor);
+                        depths.put(dictionary.column(neighbor), currentDepth);
+                    }
+                    return true;
+                });
+                truncated |= !complete;
+            }
+            frontier = next;
+        }
+        return new TraversalResult(depths, truncated);
+    }
+
+    private boolean hasUnvisitedNeighbor(IntArrayList frontier, boolean downstream, BitSet visited) {
+        for (int i = 0; i < frontier.size(); i++) {
+            if (!forEachNeighbor(frontier.get(i), downstream, neighbor -> visited.get(neighbor))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    void addListener(EdgeListener listener) {
+        listeners.add(requireNonNull(listener, "listener is null"));
+    }
+
+    void removeListener(EdgeListener listener) {
+        listeners.remove(listener);
+    }
+
+    /**
+     * The methods below read the graph without locking, callers hold this lock.
+     */
+    Lock readLock() {
+        return lock.readLock();
+    }
+
+    int findColumn(Analysis.SourceColumn column) {
+        return dictionary.find(column.getTableName(), column.getColumnName());
+    }
+
+    Analysis.SourceColumn column(int columnId) {
+        return dictionary.column(columnId);
+    }
+
+    int columnCount() {
+        return dictionary.columnCount();
+    }
+
+    long edgeCount() {
+        return edgeCount;
+    }
+
+    /**
+     * Calls the visitor with the live neighbors of the column until it returns false, returns whether all were visited.
+     */
+    boolean forEachNeighbor(int columnId, boolean downstream, IntPredicate visitor) {
+        boolean pending = delta.size() > 0;
+        if (columnId < compactedColumns) {
+            int[] offsets = downstream ? downstreamOffsets : upstreamOffsets;
+            int[] neighbors = downstream ? downstreamTargets : upstreamSources;
+            int[] counts = downstream ? downstreamCounts : upstreamCounts;
+            for (int i = offsets[columnId]; i < offsets[columnId + 1]; i++) {
+                int neighbor = neighbors[i];
+                if (pending && counts[i] + delta.get(edge(columnId, neighbor, downstream), 0) <= 0) {
+                    continue;
+                }
+                if (!visitor.test(neighbor)) {
+                    return false;
+                }
+            }
+        }
+        IntArrayList added = (downstream ? addedDownstream : addedUpstream).get(columnId);
+        if (added != null) {
+            for (int i = 0; i < added.size(); i++) {
+                int neighbor = added.get(i);
+                if (delta.get(edge(columnId, neighbor, downstream), 0) > 0 && !visitor.test(neighbor)) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    private static long edge(int columnId, int neighbor, boolean downstream) {
+        return downstream ? pack(columnId, neighbor) : pack(neighbor, columnId);
+    }
+
+    private long[] internEdges(Output output) {
+        QualifiedObjectName target = new QualifiedObjectName(output.getCatalogName(), output.getSchema(), output.getTable());
+        List<OutputColumn> columns = output.getColumns().orElse(null);
+        if (columns == null) {
+            return new long[0];
+        }
+        int size = 0;
+        for (OutputColumn column : columns) {
+            size += column.getSourceColumns().size();
+        }
+        long[] edges = new long[size];
+        int index = 0;
+        for (OutputColumn column : columns) {
+            int targetId = dictionary.intern(target, column.getColumn());
+            for (Analysis.SourceColumn sourceColumn : column.getSourceColumns()) {
+                edges[index++] = pack(dictionary.intern(sourceColumn.getTableName(), sourceColumn.getColumnName()), targetId);
+            }
+        }
+        Arrays.sort(edges);
+        int unique = 0;
+        for (int i = 0; i < edges.length; i++) {
+            if (i == 0 || edges[i] != edges[i - 1]) {
+                edges[unique++] = edges[i];
+            }
+        }
+        return unique == edges.length ? edges : Arrays.copyOf(edges, unique);
+    }
+
+    private void apply(long[] edges, int sign) {
+        statementEdgeCount += (long) sign * edges.length;
+        for (long edge : edges) {
+            int source = high(edge);
+            int target = low(edge);
+            int index = compactedIndex(source, target);
+            int compacted = index < 0 ? 0 : downstreamCounts[index];
+            int before = compacted + delta.get(edge, 0);
+            int after = before + sign;
+            if (after == compacted) {
+                delta.remove(edge);
+            } else {
+                delta.put(edge, after - compacted);
+            }
+
+            if (before == 0 && after > 0) {
+                edgeCount++;
+                if (index < 0) {
+                    addNeighbor(addedDownstream, source, target);
+                    addNeighbor(addedUpstream, target, source);
+                }
+                for (EdgeListener listener : listeners) {
+                    listener.added(source, target);
+                }
+            } else if (before > 0 && after == 0) {
+                edgeCount--;
+                for (EdgeListener listener : listeners) {
+                    listener.removed(source, target);
+                }
+            }
+        }
+    }
+
+    private int compactedIndex(int source, int target) {
+        if (source >= compactedColumns) {
+            return -1;
+        }
+        int index = Arrays.binarySearch(downstreamTargets, downstreamOffsets[source], downstreamOffsets[source + 1], target);
+        return index < 0 ? -1 : index;
+    }
+
+    private static void addNeighbor(Map<Integer, IntArrayList> added, int columnId, int neighbor) {
+        IntArrayList neighbors = added.computeIfAbsent(columnId, key -> new IntArrayList(2));
+        if (!neighbors.contains(neighbor)) {
+            neighbors.add(neighbor);
+        }
+    }
+
+    private void compactLocked() {
+        long[] all = new long[Math.toIntExact(statementEdgeCount)];
+        int size = 0;
+        for (long[] edges : statementEdges.values()) {
+            System.arraycopy(edges, 0, all, size, edges.length);
+            size += edges.length;
+        }
+        Arrays.sort(all);
+
+        int unique = 0;
+        for (int i = 0; i < all.length; i++) {
+            if (i == 0 || all[i] != all[i - 1]) {
+                unique++;
+            }
+        }
+
+        int columns = dictionary.columnCount();
+        int[] newDownstreamOffsets = new int[columns + 1];
+        int[] newDownstreamTargets = new int[unique];
+        int[] newDownstreamCounts = new int[unique];
+        int[] newUpstreamOffsets = new int[columns + 1];
+        int index = -1;
+        for (int i = 0; i < all.length; i++) {
+            if (i > 0 && all[i] == all[i - 1]) {
+                newDownstreamCounts[index]++;
+                continue;
+            }
+            index++;
+            int target = low(all[i]);
+            newDownstreamTargets[index] = target;
+            newDownstreamCounts[index] = 1;
+            newDownstreamOffsets[high(all[i]) + 1]++;
+            newUpstreamOffsets[target + 1]++;
+        }
+        for (int i = 0; i < columns; i++) {
+            newDownstreamOffsets[i + 1] += newDownstreamOffsets[i];
+            newUpstreamOffsets[i + 1] += newUpstreamOffsets[i];
+        }
+
+        // sources are visited in increasing order, so the upstream rows come out sorted as well
+        int[] newUpstreamSources = new int[unique];
+        int[] newUpstreamCounts = new int[unique];
+        int[] cursor = Arrays.copyOf(newUpstreamOffsets, columns);
+        for (int source = 0; source < columns; source++) {
+            for (int i = newDownstreamOffsets[source]; i < newDownstreamOffsets[source + 1]; i++) {
+                int position = cursor[newDownstreamTargets[i]]++;
+                newUpstreamSources[position] = source;
+                newUpstreamCounts[position] = newDownstreamCounts[i];
+            }
+        }
+
+        downstreamOffsets = newDownstreamOffsets;
+        downstreamTargets = newDownstreamTargets;
+        downstreamCounts = newDownstreamCounts;
+        upstreamOffsets = newUpstreamOffsets;
+        upstreamSources = newUpstreamSources;
+        upstreamCounts = newUpstreamCounts;
+        compactedColumns = columns;
+        edgeCount = unique;
+        delta.clear();
+        addedDownstream.clear();
+        addedUpstream.clear();
+    }
+
+    @Override
+    public String toString() {
+        lock.readLock().lock();
+        try {
+            return toStringHelper(this)
+                    .add("statements", statementEdges.size())
+                    .add("columns", dictionary.columnCount())
+                    .add("edges", edgeCount)
+                    .add("pendingEdges", delta.size())
+                    .toString();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Notified under the write lock when an edge gets its first contributing statement or loses its last one.
+     */
+    interface EdgeListener {
+        void added(int source, int target);
+
+        void removed(int source, int target);
+
+        /**
+         * The edges were replaced in bulk without individual notifications.
+         */
+        void rebuilt();
+    }
+}
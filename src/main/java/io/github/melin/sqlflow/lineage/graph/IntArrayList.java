@@ -0,0 +1,59 @@
+package io.github.melin.sqlflow.lineage.graph;
+
+import java.util.Arrays;
+
+/**
+ * Growable list of primitive ints, used where boxing every element would dominate the footprint.
+ */
+final class IntArrayList {
+    private int[] elements;
+    private int size;
+
+    IntArrayList() {
+        this(4);
+    }
+
+    IntArrayList(int capacity) {
+        this.elements = new int[Math.max(1, capacity)];
+    }
+
+    void add(int value) {
+        if (size == elements.length) {
+            elements = Arrays.copyOf(elements, elements.length * 2);
+        }
+        elements[size++] = value;
+    }
+
+    int get(int index) {
+        return elements[index];
+    }
+
+    boolean contains(int value) {
+        for (int i = 0; i < size; i++) {
+            if (elements[i] == value) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    int size() {
+        return size;
+    }
+
+    boolean isEmpty() {
+        return size == 0;
+    }
+
+    void clear() {
+        size = 0;
+    }
+
+    int[] toArray() {
+        return Arrays.copyOf(elements, size);
+    }
+
+    long estimatedBytes() {
+        return 16 + 16 + 4L * elements.length;
+    }
+}
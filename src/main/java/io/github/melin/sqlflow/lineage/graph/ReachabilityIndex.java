@@ -0,0 +1,668 @@
+package io.github.melin.sqlflow.lineage.graph;
+
+import io.github.melin.sqlflow.analyzer.Analysis;
+import com.google.common.collect.ImmutableSet;
+
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.locks.Lock;
+
+import static com.google.common.base.MoreObjects.toStringHelper;
+import static io.github.melin.sqlflow.lineage.graph.LongIntHashMap.high;
+import static io.github.melin.sqlflow.lineage.graph.LongIntHashMap.low;
+import static io.github.melin.sqlflow.lineage.graph.LongIntHashMap.pack;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Precomputed reachability over a {@link ColumnLineageGraph}, answering "does column X reach column Y" and
+ * "which raw columns does Y ultimately come from" without traversing the graph.
+ *
+ * <p>The graph is condensed into its strongly connected components, numbered in reverse topological
+ * order, so a component only reaches components with a smaller number. Every component gets the
+ * interval labels of a few randomized depth first traversals of the condensation: a component whose
+ * intervals do not all contain those of another cannot reach it, which rejects almost every negative
+ * query in constant time. The spanning tree of the first traversal answers the positive queries along
+ * tree edges, the rest are resolved by a search pruned with the same labels. The ultimate sources, the
+ * components without incoming edges, are materialized for the components reached by a few of them: this
+ * is the transitive closure restricted to the first layer of the lineage. Columns mixing many sources
+ * collect them from the nearest materialized ancestors instead, so the closure cannot grow quadratic.
+ *
+ * <p>The index follows the graph: added edges are kept aside and joined with the labels at query time,
+ * while a removed edge, an added edge closing a new cycle, or too many added edges make the next query
+ * rebuild the index in linear time.
+ * Replacing a statement with lineage that keeps its edges changes nothing. Thread-safe.
+ */
+public class ReachabilityIndex implements AutoCloseable {
+
+    private static final int TRAVERSALS = 2;
+    private static final int MAX_PENDING_EDGES = 256;
+    private static final int MAX_MATERIALIZED_SOURCES = 32;
+
+    private final ColumnLineageGraph graph;
+    private final ColumnLineageGraph.EdgeListener listener = new Listener();
+
+    // guarded by this, everything below describes the first indexedColumns columns of the graph
+    private boolean stale = true;
+    private long rebuildCount;
+    private int indexedColumns;
+    private int[] component = new int[0];
+    private int[] memberOffsets = new int[1];
+    private int[] members = new int[0];
+    private int[] dagOffsets = new int[1];
+    private int[] dagTargets = new int[0];
+    private int[] upstreamOffsets = new int[1];
+    private int[] upstream = new int[0];
+    private int[][] lowRanks = new int[TRAVERSALS][0];
+    private int[][] postRanks = new int[TRAVERSALS][0];
+    private int[] treeStart = new int[0];
+    private int[] treeEnd = new int[0];
+    private int[][] sourceComponents = new int[0][];
+
+    private int[] searchStack = new int[0];
+    private int[] visitMarks = new int[0];
+    private int epoch;
+
+    // edges added to the graph since the index was built
+    private long[] pendingEdges = new long[MAX_PENDING_EDGES];
+    private int pendingCount;
+
+    public ReachabilityIndex(ColumnLineageGraph graph) {
+        this.graph = requireNonNull(graph, "graph is null");
+        graph.addListener(listener);
+    }
+
+    /**
+     * Returns whether the lineage of {@code to} includes {@code from}, through any number of statements.
+     * A column reaches itself.
+     */
+    public boolean reaches(Analysis.SourceColumn from, Analysis.SourceColumn to) {
+        requireNonNull(from, "from is null");
+        requireNonNull(to, "to is null");
+        Lock readLock = graph.readLock();
+        readLock.lock();
+        try {
+            int source = graph.findColumn(from);
+            int target = graph.findColumn(to);
+            if (source < 0 || target < 0) {
+                return from.equals(to);
+            }
+            synchronized (this) {
+                ensureCurrent();
+                return reaches(source, target);
+            }
+        } finally {
+            readLock.unlock();
+        }
+    }
+
+    /**
+     * Returns the columns without lineage of their own that the column is derived from. Columns in a cycle
+     * fed by no other column, e.g. one only updated from itself, count as such sources.
+     */
+    public Set<Analysis.SourceColumn> getUltimateSources(Analysis.SourceColumn column) {
+        requireNonNull(column, "column is null");
+        Lock readLock = graph.readLock();
+        readLock.lock();
+        try {
+            int columnId = graph.findColumn(column);
+            if (columnId < 0) {
+                return ImmutableSet.of();
+            }
+            Set<Integer> sources;
+            synchronized (this) {
+                ensureCurrent();
+                sources = ultimateSources(columnId);
+            }
+            ImmutableSet.Builder<Analysis.SourceColumn> result = ImmutableSet.builder();
+            for (int source : sources) {
+                result.add(graph.column(source));
+            }
+            return result.build();
+        } finally {
+            readLock.unlock();
+        }
+    }
+
+    /**
+     * Rebuilds the index now instead of on the next query that needs it.
+     */
+    public void refresh() {
+        Lock readLock = graph.readLock();
+        readLock.lock();
+        try {
+            synchronized (this) {
+                build();
+            }
+        } finally {
+            readLock.unlock();
+        }
+    }
+
+    public synchronized int getComponentCount() {
+        return memberOffsets.length - 1;
+    }
+
+    public synchronized int getPendingEdgeCount() {
+        return pendingCount;
+    }
+
+    public synchronized long getRebuildCount() {
+        return rebuildCount;
+    }
+
+    public synchronized boolean isStale() {
+        return stale;
+    }
+
+    /**
+     * Stops following the graph.
+     */
+    @Override
+    public void close() {
+        graph.removeListener(listener);
+    }
+
+    private void ensureCurrent() {
+        if (stale) {
+            build();
+        }
+    }
+
+    private boolean reaches(int source, int target) {
+        if (reachesIndexed(source, target)) {
+            return true;
+        }
+        if (pendingCount == 0) {
+            return false;
+        }
+        // follow the added edges whose tail is reachable, a chain of added edges needs one step per edge
+        boolean[] used = new boolean[pendingCount];
+        IntArrayList queue = new IntArrayList();
+        queue.add(source);
+        for (int i = 0; i < queue.size(); i++) {
+            int column = queue.get(i);
+            for (int edge = 0; edge < pendingCount; edge++) {
+                if (!used[edge] && reachesIndexed(column, high(pendingEdges[edge]))) {
+                    used[edge] = true;
+                    int head = low(pendingEdges[edge]);
+                    if (reachesIndexed(head, target)) {
+                        return true;
+                    }
+                    queue.add(head);
+                }
+            }
+        }
+        return false;
+    }
+
+    private Set<Integer> ultimateSources(int columnId) {
+        Set<Integer> result = new LinkedHashSet<>();
+        boolean[] used = new boolean[pendingCount];
+        IntArrayList queue = new IntArrayList();
+        queue.add(columnId);
+        for (int i = 0; i < queue.size(); i++) {
+            int column = queue.get(i);
+            for (int source : indexedSources(column)) {
+                if (!hasExternalPendingInput(source)) {
+                    result.add(source);
+                }
+            }
+            // an added edge into the lineage of the column brings the sources of its tail
+            for (int edge = 0; edge < pendingCount; edge++) {
+                int tail = high(pendingEdges[edge]);
+                int head = low(pendingEdges[edge]);
+                if (!used[edge] && reachesIndexed(head, column)) {
+                    used[edge] = true;
+                    queue.add(tail);
+                }
+            }
+        }
+        result.remove(columnId);
+        return result;
+    }
+
+    private boolean hasExternalPendingInput(int columnId) {
+        for (int edge = 0; edge < pendingCount; edge++) {
+            int tail = high(pendingEdges[edge]);
+            int head = low(pendingEdges[edge]);
+            if (sameComponent(head, columnId) && !sameComponent(tail, columnId)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private boolean sameComponent(int first, int second) {
+        return first == second || (first < indexedColumns && second < indexedColumns && component[first] == component[second]);
+    }
+
+    /**
+     * Columns of the source components reaching the column, the column itself for a column the index does not cover.
+     */
+    private int[] indexedSources(int columnId) {
+        if (columnId >= indexedColumns) {
+            return new int[] {columnId};
+        }
+        IntArrayList columns = new IntArrayList();
+        for (int source : sourcesOf(component[columnId])) {
+            for (int i = memberOffsets[source]; i < memberOffsets[source + 1]; i++) {
+                columns.add(members[i]);
+            }
+        }
+        return columns.toArray();
+    }
+
+    private boolean reachesIndexed(int source, int target) {
+        if (source == target) {
+            return true;
+        }
+        if (source >= indexedColumns || target >= indexedColumns) {
+            return false;
+        }
+        return reachesComponent(component[source], component[target]);
+    }
+
+    private boolean reachesComponent(int source, int target) {
+        if (source == target) {
+            return true;
+        }
+        if (source < target || !contains(source, target)) {
+            return false;
+        }
+        if (treeStart[source] <= treeStart[target] && treeStart[target] < treeEnd[source]) {
+            return true;
+        }
+
+        nextEpoch();
+        int size = 0;
+        searchStack[size++] = source;
+        visitMarks[source] = epoch;
+        while (size > 0) {
+            int current = searchStack[--size];
+            for (int i = dagOffsets[current]; i < dagOffsets[current + 1]; i++) {
+                int next = dagTargets[i];
+                if (next == target) {
+                    return true;
+                }
+                if (next > target && visitMarks[next] != epoch && contains(next, target)) {
+                    visitMarks[next] = epoch;
+                    searchStack[size++] = next;
+                }
+            }
+        }
+        return false;
+    }
+
+    private void nextEpoch() {
+        if (++epoch == Integer.MAX_VALUE) {
+            Arrays.fill(visitMarks, 0);
+            epoch = 1;
+        }
+    }
+
+    private boolean contains(int source, int target) {
+        for (int traversal = 0; traversal < TRAVERSALS; traversal++) {
+            if (lowRanks[traversal][source] > lowRanks[traversal][target] || postRanks[traversal][target] > postRanks[traversal][source]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void build() {
+        int columns = graph.columnCount();
+        int[] offsets = new int[columns + 1];
+        int[] targets = new int[Math.toIntExact(graph.edgeCount())];
+        int[] size = {0};
+        for (int column = 0; column < columns; column++) {
+            graph.forEachNeighbor(column, true, neighbor -> {
+                targets[size[0]++] = neighbor;
+                return true;
+            });
+            offsets[column + 1] = size[0];
+        }
+
+        int[] newComponent = findComponents(columns, offsets, targets);
+        int components = 0;
+        for (int value : newComponent) {
+            components = Math.max(components, value + 1);
+        }
+
+        int[] newMemberOffsets = new int[components + 1];
+        for (int column = 0; column < columns; column++) {
+            newMemberOffsets[newComponent[column] + 1]++;
+        }
+        for (int i = 0; i < components; i++) {
+            newMemberOffsets[i + 1] += newMemberOffsets[i];
+        }
+        int[] newMembers = new int[columns];
+        int[] cursor = Arrays.copyOf(newMemberOffsets, components);
+        for (int column = 0; column < columns; column++) {
+            newMembers[cursor[newComponent[column]]++] = column;
+        }
+
+        // condensation edges, deduplicated
+        long[] edges = new long[targets.length];
+        int edgeCount = 0;
+        for (int column = 0; column < columns; column++) {
+            for (int i = offsets[column]; i < offsets[column + 1]; i++) {
+                if (newComponent[column] != newComponent[targets[i]]) {
+                    edges[edgeCount++] = pack(newComponent[column], newComponent[targets[i]]);
+                }
+            }
+        }
+        Arrays.sort(edges, 0, edgeCount);
+        int[] newDagOffsets = new int[components + 1];
+        IntArrayList newDagTargets = new IntArrayList(edgeCount);
+        int[] inDegree = new int[components];
+        for (int i = 0; i < edgeCount; i++) {
+            if (i == 0 || edges[i] != edges[i - 1]) {
+                newDagOffsets[high(edges[i]) + 1]++;
+                newDagTargets.add(low(edges[i]));
+                inDegree[low(edges[i])]++;
+            }
+        }
+        for (int i = 0; i < components; i++) {
+            newDagOffsets[i + 1] += newDagOffsets[i];
+        }
+
+        component = newComponent;
+        memberOffsets = newMemberOffsets;
+        members = newMembers;
+        dagOffsets = newDagOffsets;
+        dagTargets = newDagTargets.toArray();
+        upstreamOffsets = new int[components + 1];
+        for (int target : dagTargets) {
+            upstreamOffsets[target + 1]++;
+        }
+        for (int i = 0; i < components; i++) {
+            upstreamOffsets[i + 1] += upstreamOffsets[i];
+        }
+        upstream = new int[dagTargets.length];
+        cursor = Arrays.copyOf(upstreamOffsets, components);
+        for (int source = 0; source < components; source++) {
+            for (int i = dagOffsets[source]; i < dagOffsets[source + 1]; i++) {
+                upstream[cursor[dagTargets[i]]++] = source;
+            }
+        }
+        for (int traversal = 0; traversal < TRAVERSALS; traversal++) {
+            label(traversal, components, inDegree);
+        }
+        sourceComponents = closeSources(components, inDegree);
+        searchStack = new int[components];
+        visitMarks = new int[components];
+        epoch = 0;
+        indexedColumns = columns;
+        pendingCount = 0;
+        stale = false;
+        rebuildCount++;
+    }
+
+    /**
+     * Iterative Tarjan, components are numbered in the order they complete, i.e. in reverse topological order.
+     */
+    private static int[] findComponents(int columns, int[] offsets, int[] targets) {
+        int[] index = new int[columns];
+        int[] lowLink = new int[columns];
+        int[] result = new int[columns];
+        int[] edgePosition = new int[columns];
+        int[] stack = new int[columns];
+        int[] callStack = new int[columns];
+        Arrays.fill(index, -1);
+        Arrays.fill(result, -1);
+        int counter = 0;
+        int components = 0;
+        int stackSize = 0;
+        for (int root = 0; root < columns; root++) {
+            if (index[root] >= 0) {
+                continue;
+            }
+            int callSize = 0;
+            index[root] = lowLink[root] = counter++;
+            stack[stackSize++] = root;
+            edgePosition[root] = offsets[root];
+            callStack[callSize++] = root;
+            while (callSize > 0) {
+                int column = callStack[callSize - 1];
+                if (edgePosition[column] < offsets[column + 1]) {
+                    int next = targets[edgePosition[column]++];
+                    if (index[next] < 0) {
+                        index[next] = lowLink[next] = counter++;
+                        stack[stackSize++] = next;
+                        edgePosition[next] = offsets[next];
+                        callStack[callSize++] = next;
+                    } else if (result[next] < 0) {
+                        lowLink[column] = Math.min(lowLink[column], index[next]);
+                    }
+                    continue;
+                }
+                callSize--;
+                if (lowLink[column] == index[column]) {
+                    int member;
+                    do {
+                        member = stack[--stackSize];
+                        result[member] = components;
+                    } while (member != column);
+                    components++;
+                }
+                if (callSize > 0) {
+                    int parent = callStack[callSize - 1];
+                    lowLink[parent] = Math.min(lowLink[parent], lowLink[column]);
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Post order interval labels of one depth first traversal: a component reaching another has an interval
+     * containing the other's. The first traversal also records its spanning tree.
+     */
+    private void label(int traversal, int components, int[] inDegree) {
+        int[] roots = new int[components];
+        int rootCount = 0;
+        for (int i = components - 1; i >= 0; i--) {
+            if (inDegree[i] == 0) {
+                roots[rootCount++] = i;
+            }
+        }
+        boolean reversed = traversal % 2 == 1;
+        if (traversal > 0) {
+            Random random = new Random(traversal);
+            for (int i = rootCount - 1; i > 0; i--) {
+                int j = random.nextInt(i + 1);
+                int root = roots[i];
+                roots[i] = roots[j];
+                roots[j] = root;
+            }
+        }
+
+        int[] lowRank = new int[components];
+        int[] postRank = new int[components];
+        int[] start = traversal == 0 ? new int[components] : null;
+        int[] end = traversal == 0 ? new int[components] : null;
+        boolean[] visited = new boolean[components];
+        int[] edgePosition = new int[components];
+        int[] callStack = new int[components];
+        int rank = 0;
+        int preorder = 0;
+        for (int r = 0; r < rootCount; r++) {
+            int root = roots[r];
+            if (visited[root]) {
+                continue;
+            }
+            int callSize = 0;
+            visited[root] = true;
+            edgePosition[root] = 0;
+            callStack[callSize++] = root;
+            if (start != null) {
+                start[root] = preorder++;
+            }
+            while (callSize > 0) {
+                int current = callStack[callSize - 1];
+                int degree = dagOffsets[current + 1] - dagOffsets[current];
+                if (edgePosition[current] < degree) {
+                    int position = edgePosition[current]++;
+                    int next = dagTargets[reversed ? dagOffsets[current + 1] - 1 - position : dagOffsets[current] + position];
+                    if (!visited[next]) {
+                        visited[next] = true;
+                        edgePosition[next] = 0;
+                        callStack[callSize++] = next;
+                        if (start != null) {
+                            start[next] = preorder++;
+                        }
+                    }
+                    continue;
+                }
+                callSize--;
+                int lowest = rank;
+                for (int i = dagOffsets[current]; i < dagOffsets[current + 1]; i++) {
+                    lowest = Math.min(lowest, lowRank[dagTargets[i]]);
+                }
+                lowRank[current] = lowest;
+                postRank[current] = rank++;
+                if (end != null) {
+                    end[current] = preorder;
+                }
+            }
+        }
+        lowRanks[traversal] = lowRank;
+        postRanks[traversal] = postRank;
+        if (traversal == 0) {
+            treeStart = start;
+            treeEnd = end;
+        }
+    }
+
+    /**
+     * Sorted source components reaching every component, or null for a component with more than
+     * {@link #MAX_MATERIALIZED_SOURCES}: those are computed by {@link #sourcesOf(int)} when queried.
+     * Components are visited in topological order, and a component with a single predecessor shares its array.
+     */
+    private int[][] closeSources(int components, int[] inDegree) {
+        int[][] sources = new int[components][];
+        for (int current = components - 1; current >= 0; current--) {
+            int from = upstreamOffsets[current];
+            int to = upstreamOffsets[current + 1];
+            if (inDegree[current] == 0) {
+                sources[current] = new int[] {current};
+            } else if (to - from == 1) {
+                sources[current] = sources[upstream[from]];
+            } else {
+                IntArrayList merged = new IntArrayList();
+                for (int i = from; i < to && merged.size() <= 4 * MAX_MATERIALIZED_SOURCES; i++) {
+                    int[] predecessorSources = sources[upstream[i]];
+                    if (predecessorSources == null) {
+                        merged = null;
+                        break;
+                    }
+                    for (int source : predecessorSources) {
+                        merged.add(source);
+                    }
+                }
+                int[] values = merged == null ? null : sortedUnique(merged);
+                sources[current] = values == null || values.length > MAX_MATERIALIZED_SOURCES ? null : values;
+            }
+        }
+        return sources;
+    }
+
+    private int[] sourcesOf(int componentId) {
+        int[] sources = sourceComponents[componentId];
+        if (sources != null) {
+            return sources;
+        }
+        // search upstream through the components over the limit, down to those with materialized sources
+        nextEpoch();
+        IntArrayList collected = new IntArrayList();
+        int size = 0;
+        searchStack[size++] = componentId;
+        while (size > 0) {
+            int current = searchStack[--size];
+            for (int i = upstreamOffsets[current]; i < upstreamOffsets[current + 1]; i++) {
+                int predecessor = upstream[i];
+                if (visitMarks[predecessor] == epoch) {
+                    continue;
+                }
+                visitMarks[predecessor] = epoch;
+                if (sourceComponents[predecessor] == null) {
+                    searchStack[size++] = predecessor;
+                } else {
+                    for (int source : sourceComponents[predecessor]) {
+                        collected.add(source);
+                    }
+                }
+            }
+        }
+        return sortedUnique(collected);
+    }
+
+    private static int[] sortedUnique(IntArrayList list) {
+        int[] values = list.toArray();
+        Arrays.sort(values);
+        int unique = 0;
+        for (int i = 0; i < values.length; i++) {
+            if (i == 0 || values[i] != values[i - 1]) {
+                values[unique++] = values[i];
+            }
+        }
+        return unique == values.length ? values : Arrays.copyOf(values, unique);
+    }
+
+    @Override
+    public synchronized String toString() {
+        return toStringHelper(this)
+                .add("columns", indexedColumns)
+                .add("components", memberOffsets.length - 1)
+                .add("pendingEdges", pendingCount)
+                .add("stale", stale)
+                .toString();
+    }
+
+    private final class Listener implements ColumnLineageGraph.EdgeListener {
+        @Override
+        public void added(int source, int target) {
+            synchronized (ReachabilityIndex.this) {
+                if (stale) {
+                    return;
+                }
+                // an edge closing a new cycle merges components, which may take the source status of other columns
+                if (pendingCount == MAX_PENDING_EDGES || (!sameComponent(source, target) && reaches(target, source))) {
+                    stale = true;
+                    pendingCount = 0;
+                    return;
+                }
+                pendingEdges[pendingCount++] = pack(source, target);
+            }
+        }
+
+        @Override
+        public void removed(int source, int target) {
+            synchronized (ReachabilityIndex.this) {
+                if (stale) {
+                    return;
+                }
+                long edge = pack(source, target);
+                for (int i = 0; i < pendingCount; i++) {
+                    if (pendingEdges[i] == edge) {
+                        pendingEdges[i] = pendingEdges[--pendingCount];
+                        return;
+                    }
+                }
+                // the edge may have been the only path between two columns, the labels cannot tell
+                stale = true;
+                pendingCount = 0;
+            }
+        }
+
+        @Override
+        public void rebuilt() {
+            synchronized (ReachabilityIndex.this) {
+                stale = true;
+                pendingCount = 0;
+            }
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package io.github.melin.sqlflow.lineage.graph;
+
+import io.github.melin.sqlflow.analyzer.Analysis;
+import com.google.common.collect.ImmutableMap;
+
+import javax.annotation.concurrent.Immutable;
+import java.util.Map;
+import java.util.Set;
+
+import static com.google.common.base.MoreObjects.toStringHelper;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Columns reached by a traversal of a {@link ColumnLineageGraph}, in breadth first order with the number of
+ * edges from the start. A truncated result stopped at the depth or fan-out limit while columns were left.
+ */
+@Immutable
+public final class TraversalResult {
+    private final Map<Analysis.SourceColumn, Integer> depths;
+    private final boolean truncated;
+
+    public TraversalResult(Map<Analysis.SourceColumn, Integer> depths, boolean truncated) {
+        this.depths = ImmutableMap.copyOf(requireNonNull(depths, "depths is null"));
+        this.truncated = truncated;
+    }
+
+    public Set<Analysis.SourceColumn> getColumns() {
+        return depths.keySet();
+    }
+
+    public Map<Analysis.SourceColumn, Integer> getDepths() {
+        return depths;
+    }
+
+    public boolean isTruncated() {
+        return truncated;
+    }
+
+    @Override
+    public String toString() {
+        return toStringHelper(this)
+                .add("columns", depths.size())
+                .add("truncated", truncated)
+                .toString();
+    }
+}
@@ -0,0 +1,268 @@
+package io.github.melin.sqlflow.lineage.store;
+
+import io.github.melin.sqlflow.analyzer.Analysis;
+import io.github.melin.sqlflow.analyzer.OutputColumn;
+import io.github.melin.sqlflow.metadata.QualifiedObjectName;
+import io.github.melin.sqlflow.tree.NodeLocation;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static io.github.melin.sqlflow.lineage.store.SegmentFormat.DICTIONARY;
+import static io.github.melin.sqlflow.lineage.store.SegmentFormat.REMOVAL;
+import static io.github.melin.sqlflow.lineage.store.SegmentFormat.STATEMENT;
+import static java.nio.file.StandardOpenOption.CREATE_NEW;
+import static java.nio.file.StandardOpenOption.WRITE;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Appends statements and removals to one segment file, see {@link SegmentFormat} for the layout. Names are
+ * written once per segment: an entry introducing new ones is preceded by a dictionary block, and both
+ * blocks are written together. Not thread-safe.
+ */
+public class LineageSegmentWriter implements Closeable {
+
+    private final Path path;
+    private final FileChannel channel;
+
+    private final Map<String, Integer> stringIds = new HashMap<>();
+    private final Map<QualifiedObjectName, Integer> tableIds = new HashMap<>();
+    private final Map<Long, Integer> columnIds = new HashMap<>();
+
+    // names introduced by the entry being encoded
+    private final List<String> newStrings = new ArrayList<>();
+    private final List<QualifiedObjectName> newTables = new ArrayList<>();
+    private final List<Long> newColumns = new ArrayList<>();
+    private final SegmentFormat.BlockOutput newColumnIds = new SegmentFormat.BlockOutput();
+
+    private long size;
+
+    private LineageSegmentWriter(Path path, FileChannel channel, long size) {
+        this.path = path;
+        this.channel = channel;
+        this.size = size;
+    }
+
+    /**
+     * Opens a segment for appending, creating it if missing. A tail left by an interrupted append is cut off.
+     */
+    public static LineageSegmentWriter open(Path path) throws IOException {
+        requireNonNull(path, "path is null");
+        if (!Files.exists(path)) {
+            return create(path, 0);
+        }
+        SegmentDecoder decoder = new SegmentDecoder();
+        long validLength = decoder.decode(path, new SegmentVisitor() {
+            @Override
+            public void statement(StoredStatement statement) {
+            }
+
+            @Override
+            public void removed(String statementId) {
+            }
+        });
+        FileChannel channel = FileChannel.open(path, WRITE);
+        try {
+            if (validLength == 0) {
+                channel.truncate(0);
+                writeFully(channel, SegmentFormat.header(0), 0);
+                validLength = SegmentFormat.HEADER_SIZE;
+            } else if (channel.size() > validLength) {
+                channel.truncate(validLength);
+            }
+        } catch (IOException e) {
+            channel.close();
+            throw e;
+        }
+        LineageSegmentWriter writer = new LineageSegmentWriter(path, channel, validLength);
+        List<String> strings = decoder.getStrings();
+        for (int i = 0; i < strings.size(); i++) {
+            writer.stringIds.put(strings.get(i), i);
+        }
+        List<QualifiedObjectName> tables = decoder.getTables();
+        for (int i = 0; i < tables.size(); i++) {
+            writer.tableIds.put(tables.get(i), i);
+        }
+        List<Analysis.SourceColumn> columns = decoder.getColumns();
+        for (int i = 0; i < columns.size(); i++) {
+            Analysis.SourceColumn column = columns.get(i);
+            writer.columnIds.put(SegmentFormat.columnKey(writer.tableIds.get(column.getTableName()), writer.stringIds.get(column.getColumnName())), i);
+        }
+        return writer;
+    }
+
+    static LineageSegmentWriter create(Path path, int flags) throws IOException {
+        FileChannel channel = FileChannel.open(path, CREATE_NEW, WRITE);
+        try {
+            writeFully(channel, SegmentFormat.header(flags), 0);
+        } catch (IOException e) {
+            channel.close();
+            throw e;
+        }
+        return new LineageSegmentWriter(path, channel, SegmentFormat.HEADER_SIZE);
+    }
+
+    public void append(StoredStatement statement) throws IOException {
+        requireNonNull(statement, "statement is null");
+        SegmentFormat.BlockOutput payload = new SegmentFormat.BlockOutput();
+        payload.writeVarInt(string(statement.getStatementId()));
+        payload.writeVarInt(table(new QualifiedObjectName(
+                statement.getTarget().getCatalogName(),
+                statement.getTarget().getSchema(),
+                statement.getTarget().getTable())));
+
+        if (statement.getTarget().getColumns().isPresent()) {
+            List<OutputColumn> columns = statement.getTarget().getColumns().get();
+            payload.writeVarInt(columns.size() + 1);
+            for (OutputColumn column : columns) {
+                payload.writeVarInt(string(column.getColumn()));
+                payload.writeVarInt(column.getSourceColumns().size());
+                for (Analysis.SourceColumn sourceColumn : column.getSourceColumns()) {
+                    payload.writeVarInt(column(sourceColumn));
+                }
+            }
+        } else {
+            payload.writeVarInt(0);
+        }
+
+        payload.writeVarInt(statement.getOriginLocations().size());
+        for (Map.Entry<Analysis.SourceColumn, Set<NodeLocation>> entry : statement.getOriginLocations().entrySet()) {
+            payload.writeVarInt(column(entry.getKey()));
+            payload.writeVarInt(entry.getValue().size());
+            for (NodeLocation location : entry.getValue()) {
+                payload.writeVarInt(location.getLineNumber());
+                payload.writeVarInt(location.getColumnNumber());
+                payload.writeSignedVarInt(location.getStartIndex());
+                payload.writeSignedVarInt(location.getStopIndex());
+            }
+        }
+        write(STATEMENT, payload);
+    }
+
+    public void remove(String statementId) throws IOException {
+        requireNonNull(statementId, "statementId is null");
+        SegmentFormat.BlockOutput payload = new SegmentFormat.BlockOutput();
+        payload.writeVarInt(string(statementId));
+        write(REMOVAL, payload);
+    }
+
+    /**
+     * Forces the appended entries to the storage device.
+     */
+    public void sync() throws IOException {
+        channel.force(false);
+    }
+
+    public Path getPath() {
+        return path;
+    }
+
+    /**
+     * Length of the segment in bytes.
+     */
+    public long size() {
+        return size;
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    private void write(byte type, SegmentFormat.BlockOutput payload) throws IOException {
+        SegmentFormat.BlockOutput blocks = new SegmentFormat.BlockOutput();
+        if (!newStrings.isEmpty() || !newTables.isEmpty() || !newColumns.isEmpty()) {
+            SegmentFormat.BlockOutput dictionary = new SegmentFormat.BlockOutput();
+            dictionary.writeVarInt(newStrings.size());
+            for (String value : newStrings) {
+                dictionary.writeString(value);
+            }
+            dictionary.writeVarInt(newTables.size());
+            for (QualifiedObjectName table : newTables) {
+                dictionary.writeVarInt(table.getCatalogName() == null ? 0 : stringIds.get(table.getCatalogName()) + 1);
+                dictionary.writeVarInt(stringIds.get(table.getSchemaName()));
+                dictionary.writeVarInt(stringIds.get(table.getObjectName()));
+            }
+            dictionary.writeVarInt(newColumns.size());
+            newColumnIds.writeTo(dictionary);
+            dictionary.writeBlock(DICTIONARY, blocks);
+        }
+        payload.writeBlock(type, blocks);
+
+        try {
+            writeFully(channel, blocks.toByteBuffer(), size);
+        } catch (IOException e) {
+            // forget the names of the lost entry, the next open cuts off whatever reached the file
+            newStrings.forEach(stringIds::remove);
+            newTables.forEach(tableIds::remove);
+            newColumns.forEach(columnIds::remove);
+            clearNewNames();
+            throw e;
+        }
+        size += blocks.size();
+        clearNewNames();
+    }
+
+    private void clearNewNames() {
+        newStrings.clear();
+        newTables.clear();
+        newColumns.clear();
+        newColumnIds.reset();
+    }
+
+    private int string(String value) {
+        Integer id = stringIds.get(value);
+        if (id == null) {
+            id = stringIds.size();
+            stringIds.put(value, id);
+            newStrings.add(value);
+        }
+        return id;
+    }
+
+    private int table(QualifiedObjectName table) {
+        Integer id = tableIds.get(table);
+        if (id == null) {
+            if (table.getCatalogName() != null) {
+                string(table.getCatalogName());
+            }
+            string(table.getSchemaName());
+            string(table.getObjectName());
+            id = tableIds.size();
+            tableIds.put(table, id);
+            newTables.add(table);
+        }
+        return id;
+    }
+
+    private int column(Analysis.SourceColumn column) {
+        int tableId = table(column.getTableName());
+        int nameId = string(column.getColumnName());
+        Long key = SegmentFormat.columnKey(tableId, nameId);
+        Integer id = columnIds.get(key);
+        if (id == null) {
+            id = columnIds.size();
+            columnIds.put(key, id);
+            newColumns.add(key);
+            newColumnIds.writeVarInt(tableId);
+            newColumnIds.writeVarInt(nameId);
+        }
+        return id;
+    }
+
+    private static void writeFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        long offset = position;
+        while (buffer.hasRemaining()) {
+            offset += channel.write(buffer, offset);
+        }
+    }
+}
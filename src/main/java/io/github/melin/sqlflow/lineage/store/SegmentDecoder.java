@@ -0,0 +1,188 @@
+package io.github.melin.sqlflow.lineage.store;
+
+import io.github.melin.sqlflow.analyzer.Analysis;
+import io.github.melin.sqlflow.analyzer.Output;
+import io.github.melin.sqlflow.analyzer.OutputColumn;
+import io.github.melin.sqlflow.metadata.QualifiedObjectName;
+import io.github.melin.sqlflow.tree.NodeLocation;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.zip.CRC32;
+
+import static io.github.melin.sqlflow.lineage.store.SegmentFormat.BLOCK_HEADER_SIZE;
+import static io.github.melin.sqlflow.lineage.store.SegmentFormat.DICTIONARY;
+import static io.github.melin.sqlflow.lineage.store.SegmentFormat.HEADER_SIZE;
+import static io.github.melin.sqlflow.lineage.store.SegmentFormat.MAGIC;
+import static io.github.melin.sqlflow.lineage.store.SegmentFormat.REMOVAL;
+import static io.github.melin.sqlflow.lineage.store.SegmentFormat.STATEMENT;
+import static io.github.melin.sqlflow.lineage.store.SegmentFormat.VERSION;
+import static io.github.melin.sqlflow.lineage.store.SegmentFormat.limit;
+import static io.github.melin.sqlflow.lineage.store.SegmentFormat.position;
+import static io.github.melin.sqlflow.lineage.store.SegmentFormat.readSignedVarInt;
+import static io.github.melin.sqlflow.lineage.store.SegmentFormat.readString;
+import static io.github.melin.sqlflow.lineage.store.SegmentFormat.readVarInt;
+import static java.nio.file.StandardOpenOption.READ;
+
+/**
+ * Reads one memory mapped segment, keeping its dictionaries. Source columns are decoded once per segment
+ * and shared by every statement referencing them.
+ */
+final class SegmentDecoder {
+
+    private final List<String> strings = new ArrayList<>();
+    private final List<QualifiedObjectName> tables = new ArrayList<>();
+    private final List<Analysis.SourceColumn> columns = new ArrayList<>();
+
+    private int flags;
+
+    /**
+     * Passes the entries of the segment to the visitor and returns the length of its valid prefix. Reading
+     * stops at the first block cut short or failing its checksum, the tail left by an interrupted append.
+     */
+    long decode(Path path, SegmentVisitor visitor) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, READ)) {
+            long size = channel.size();
+            if (size < HEADER_SIZE) {
+                return 0;
+            }
+            if (size > Integer.MAX_VALUE) {
+                throw new IOException("Segment is too large: " + path);
+            }
+            // typed as ByteBuffer, MappedByteBuffer overrides slice() since Java 13
+            ByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            if (buffer.getInt() != MAGIC) {
+                throw new IOException("Not a lineage segment: " + path);
+            }
+            int version = buffer.getInt();
+            if (version != VERSION) {
+                throw new IOException("Unsupported lineage segment version " + version + ": " + path);
+            }
+            flags = buffer.getInt();
+
+            long validLength = HEADER_SIZE;
+            CRC32 crc = new CRC32();
+            while (buffer.remaining() >= BLOCK_HEADER_SIZE) {
+                int start = buffer.position();
+                byte type = buffer.get();
+                int length = buffer.getInt();
+                int checksum = buffer.getInt();
+                if (length < 0 || length > buffer.remaining()) {
+                    break;
+                }
+                ByteBuffer payload = buffer.slice();
+                limit(payload, length);
+                crc.reset();
+                crc.update(payload.duplicate());
+                if ((int) crc.getValue() != checksum) {
+                    break;
+                }
+                decodeBlock(path, start, type, payload, visitor);
+                position(buffer, start + BLOCK_HEADER_SIZE + length);
+                validLength = buffer.position();
+            }
+            return validLength;
+        }
+    }
+
+    int getFlags() {
+        return flags;
+    }
+
+    List<String> getStrings() {
+        return strings;
+    }
+
+    List<QualifiedObjectName> getTables() {
+        return tables;
+    }
+
+    List<Analysis.SourceColumn> getColumns() {
+        return columns;
+    }
+
+    private void decodeBlock(Path path, int offset, byte type, ByteBuffer payload, SegmentVisitor visitor) throws IOException {
+        StoredStatement statement = null;
+        String removed = null;
+        try {
+            switch (type) {
+                case DICTIONARY:
+                    decodeDictionary(payload);
+                    return;
+                case STATEMENT:
+                    statement = decodeStatement(payload);
+                    break;
+                case REMOVAL:
+                    removed = strings.get(readVarInt(payload));
+                    break;
+                default:
+                    throw new IOException("Unknown block type " + type + " at offset " + offset + " of " + path);
+            }
+        } catch (BufferUnderflowException | IndexOutOfBoundsException | IllegalArgumentException e) {
+            throw new IOException("Corrupt block at offset " + offset + " of " + path, e);
+        }
+        if (statement != null) {
+            visitor.statement(statement);
+        } else {
+            visitor.removed(removed);
+        }
+    }
+
+    private void decodeDictionary(ByteBuffer payload) {
+        for (int count = readVarInt(payload); count > 0; count--) {
+            strings.add(readString(payload));
+        }
+        for (int count = readVarInt(payload); count > 0; count--) {
+            int catalog = readVarInt(payload);
+            String schema = strings.get(readVarInt(payload));
+            String name = strings.get(readVarInt(payload));
+            tables.add(new QualifiedObjectName(catalog == 0 ? null : strings.get(catalog - 1), schema, name));
+        }
+        for (int count = readVarInt(payload); count > 0; count--) {
+            QualifiedObjectName table = tables.get(readVarInt(payload));
+            columns.add(new Analysis.SourceColumn(table, strings.get(readVarInt(payload))));
+        }
+    }
+
+    private StoredStatement decodeStatement(ByteBuffer payload) {
+        String statementId = strings.get(readVarInt(payload));
+        QualifiedObjectName target = tables.get(readVarInt(payload));
+        int columnCount = readVarInt(payload);
+        Optional<List<OutputColumn>> outputColumns = Optional.empty();
+        if (columnCount > 0) {
+            ImmutableList.Builder<OutputColumn> builder = ImmutableList.builder();
+            for (int i = 1; i < columnCount; i++) {
+                String name = strings.get(readVarInt(payload));
+                ImmutableSet.Builder<Analysis.SourceColumn> sources = ImmutableSet.builder();
+                for (int count = readVarInt(payload); count > 0; count--) {
+                    sources.add(columns.get(readVarInt(payload)));
+                }
+                builder.add(new OutputColumn(name, sources.build()));
+            }
+            outputColumns = Optional.of(builder.build());
+        }
+
+        Map<Analysis.SourceColumn, Set<NodeLocation>> origins = new LinkedHashMap<>();
+        for (int count = readVarInt(payload); count > 0; count--) {
+            Analysis.SourceColumn column = columns.get(readVarInt(payload));
+            ImmutableSet.Builder<NodeLocation> locations = ImmutableSet.builder();
+            for (int locationCount = readVarInt(payload); locationCount > 0; locationCount--) {
+                locations.add(new NodeLocation(readVarInt(payload), readVarInt(payload), readSignedVarInt(payload), readSignedVarInt(payload)));
+            }
+            origins.put(column, locations.build());
+        }
+        Output output = new Output(target.getCatalogName(), target.getSchemaName(), target.getObjectName(), outputColumns);
+        return new StoredStatement(statementId, output, origins);
+    }
+}
@@ -0,0 +1,142 @@
+package io.github.melin.sqlflow.lineage.store;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.util.zip.CRC32;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * Layout of a lineage segment file. A segment starts with a header of magic, version and flags, followed
+ * by blocks of a type byte, the payload length, the CRC32 of the payload and the payload. Integers inside
+ * payloads are unsigned LEB128 varints, zigzag encoded when they may be negative.
+ *
+ * <ul>
+ * <li>{@link #DICTIONARY}: strings, tables as catalog (string id + 1, 0 for none), schema and name string
+ *     ids, then columns as table and name ids. Ids continue those of the previous dictionary blocks of
+ *     the segment.</li>
+ * <li>{@link #STATEMENT}: statement id, target table and column count (0 when the columns are unknown,
+ *     otherwise count + 1), every column as name and source column ids, then the origin locations of the
+ *     source columns as column id, count and line, column, start and stop.</li>
+ * <li>{@link #REMOVAL}: statement id.</li>
+ * </ul>
+ *
+ * Blocks are only appended, a block cut short by a crash fails its checksum and ends the segment.
+ */
+final class SegmentFormat {
+
+    static final int MAGIC = 0x53514c46;
+    static final int VERSION = 1;
+    static final int HEADER_SIZE = 12;
+    static final int BLOCK_HEADER_SIZE = 9;
+
+    // a base segment holds the state of every older segment, which are obsolete
+    static final int FLAG_BASE = 1;
+
+    static final byte DICTIONARY = 1;
+    static final byte STATEMENT = 2;
+    static final byte REMOVAL = 3;
+
+    private SegmentFormat() {
+    }
+
+    static ByteBuffer header(int flags) {
+        return ByteBuffer.wrap(ByteBuffer.allocate(HEADER_SIZE).putInt(MAGIC).putInt(VERSION).putInt(flags).array());
+    }
+
+    // Buffer methods return ByteBuffer since Java 9, calling them through Buffer keeps the class files Java 8 compatible
+    /**
+     * Unique key of a column of the dictionary. The ids are mixed, since the hash of a packed long is
+     * the xor of its halves and small ids would collide.
+     */
+    static long columnKey(int tableId, int nameId) {
+        long key = ((long) tableId << 32) | (nameId & 0xffffffffL);
+        key ^= key >>> 33;
+        key *= 0xff51afd7ed558ccdL;
+        key ^= key >>> 33;
+        return key;
+    }
+
+    static void position(ByteBuffer buffer, int position) {
+        ((Buffer) buffer).position(position);
+    }
+
+    static void limit(ByteBuffer buffer, int limit) {
+        ((Buffer) buffer).limit(limit);
+    }
+
+    static int readVarInt(ByteBuffer buffer) {
+        int value = 0;
+        for (int shift = 0; shift < 35; shift += 7) {
+            byte current = buffer.get();
+            value |= (current & 0x7F) << shift;
+            if (current >= 0) {
+                return value;
+            }
+        }
+        throw new IllegalArgumentException("malformed varint");
+    }
+
+    static int readSignedVarInt(ByteBuffer buffer) {
+        int value = readVarInt(buffer);
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    static String readString(ByteBuffer buffer) {
+        int length = readVarInt(buffer);
+        byte[] bytes = new byte[length];
+        buffer.get(bytes);
+        return new String(bytes, UTF_8);
+    }
+
+    /**
+     * Payload of one block, written to the channel with its block header.
+     */
+    static final class BlockOutput extends ByteArrayOutputStream {
+        BlockOutput() {
+            super(256);
+        }
+
+        void writeVarInt(int value) {
+            while ((value & ~0x7F) != 0) {
+                write((value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+            write(value);
+        }
+
+        void writeSignedVarInt(int value) {
+            writeVarInt((value << 1) ^ (value >> 31));
+        }
+
+        void writeString(String value) {
+            byte[] bytes = value.getBytes(UTF_8);
+            writeVarInt(bytes.length);
+            write(bytes, 0, bytes.length);
+        }
+
+        /**
+         * Appends the block, header included, to the given buffer.
+         */
+        void writeBlock(byte type, BlockOutput target) {
+            CRC32 crc = new CRC32();
+            crc.update(buf, 0, count);
+            target.write(type);
+            target.writeInt(count);
+            target.writeInt((int) crc.getValue());
+            target.write(buf, 0, count);
+        }
+
+        private void writeInt(int value) {
+            write(value >>> 24);
+            write(value >>> 16);
+            write(value >>> 8);
+            write(value);
+        }
+
+        ByteBuffer toByteBuffer() {
+            return ByteBuffer.wrap(buf, 0, count);
+        }
+    }
+}
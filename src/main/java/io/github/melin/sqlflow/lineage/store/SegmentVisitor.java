@@ -0,0 +1,13 @@
+package io.github.melin.sqlflow.lineage.store;
+
+/**
+ * Receives the entries of lineage segments in the order they were written.
+ */
+public interface SegmentVisitor {
+    /**
+     * The lineage of a statement, replacing any earlier entry with the same statement id.
+     */
+    void statement(StoredStatement statement);
+
+    void removed(String statementId);
+}
@@ -0,0 +1,100 @@
+package io.github.melin.sqlflow.lineage.store;
+
+import io.github.melin.sqlflow.analyzer.Analysis;
+import io.github.melin.sqlflow.analyzer.Output;
+import io.github.melin.sqlflow.analyzer.OutputColumn;
+import io.github.melin.sqlflow.tree.NodeLocation;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+
+import javax.annotation.concurrent.Immutable;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+
+import static com.google.common.base.MoreObjects.toStringHelper;
+import static com.google.common.base.Preconditions.checkArgument;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * The persisted lineage of one statement: its target with the source columns of every target column, and
+ * where the source columns were referenced in the statement.
+ */
+@Immutable
+public final class StoredStatement {
+    private final String statementId;
+    private final Output target;
+    private final Map<Analysis.SourceColumn, Set<NodeLocation>> originLocations;
+
+    public StoredStatement(String statementId, Output target, Map<Analysis.SourceColumn, Set<NodeLocation>> originLocations) {
+        this.statementId = requireNonNull(statementId, "statementId is null");
+        this.target = requireNonNull(target, "target is null");
+        ImmutableMap.Builder<Analysis.SourceColumn, Set<NodeLocation>> locations = ImmutableMap.builder();
+        requireNonNull(originLocations, "originLocations is null").forEach((column, columnLocations) -> locations.put(column, ImmutableSet.copyOf(columnLocations)));
+        this.originLocations = locations.build();
+    }
+
+    /**
+     * Returns the lineage of an analyzed statement, empty when the statement writes no table. The analysis must
+     * use the {@link io.github.melin.sqlflow.analyzer.AnalysisProfile#FULL full} profile, the only one recording
+     * origin locations.
+     */
+    public static Optional<StoredStatement> of(String statementId, Analysis analysis) {
+        checkArgument(analysis.getProfile().recordsPlanningState(), "origin locations are not recorded by the %s profile", analysis.getProfile());
+        Optional<Output> target = analysis.getTarget();
+        if (!target.isPresent()) {
+            return Optional.empty();
+        }
+        Map<Analysis.SourceColumn, Set<NodeLocation>> locations = new LinkedHashMap<>();
+        for (OutputColumn column : target.get().getColumns().orElse(ImmutableList.of())) {
+            for (Analysis.SourceColumn sourceColumn : column.getSourceColumns()) {
+                Set<NodeLocation> columnLocations = analysis.getOriginField(sourceColumn);
+                if (!columnLocations.isEmpty()) {
+                    locations.put(sourceColumn, columnLocations);
+                }
+            }
+        }
+        return Optional.of(new StoredStatement(statementId, target.get(), locations));
+    }
+
+    public String getStatementId() {
+        return statementId;
+    }
+
+    public Output getTarget() {
+        return target;
+    }
+
+    public Map<Analysis.SourceColumn, Set<NodeLocation>> getOriginLocations() {
+        return originLocations;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        StoredStatement that = (StoredStatement) o;
+        return statementId.equals(that.statementId) && target.equals(that.target) && originLocations.equals(that.originLocations);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(statementId, target, originLocations);
+    }
+
+    @Override
+    public String toString() {
+        return toStringHelper(this)
+                .add("statementId", statementId)
+                .add("target", target)
+                .add("originLocations", originLocations)
+                .toString();
+    }
+}
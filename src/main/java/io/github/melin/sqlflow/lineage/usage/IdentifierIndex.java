@@ -0,0 +1,258 @@
+package io.github.melin.sqlflow.lineage.usage;
+
+import io.github.melin.sqlflow.analyzer.Analysis;
+import io.github.melin.sqlflow.metadata.QualifiedObjectName;
+import io.github.melin.sqlflow.parser.SqlIdentifiers;
+import com.google.common.collect.ImmutableSortedSet;
+import com.google.common.hash.BloomFilter;
+import com.google.common.hash.Funnel;
+import com.google.common.hash.Funnels;
+import com.google.common.hash.Hashing;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.OptionalLong;
+import java.util.Set;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+import static com.google.common.base.MoreObjects.toStringHelper;
+import static com.google.common.base.Preconditions.checkArgument;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.nio.file.StandardCopyOption.ATOMIC_MOVE;
+import static java.nio.file.StandardCopyOption.REPLACE_EXISTING;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Bloom filters of the names each source mentions, see {@link SqlIdentifiers}, to narrow a corpus down to
+ * the few sources that may use a table or column before anything is parsed or analyzed. Candidates can be
+ * false positives, at the configured rate per source, but a source mentioning a name is never missed.
+ * Only direct mentions are seen: a source reading a table through a view is found by the view name.
+ *
+ * <p>Every source keeps the checksum of its content, so indexing an unchanged source again skips the
+ * lexer. The index is saved to a single file, replaced atomically. Thread-safe.
+ */
+public class IdentifierIndex {
+
+    public static final double DEFAULT_FALSE_POSITIVE_RATE = 0.01;
+
+    private static final int MAGIC = 0x53514c49;
+    private static final int VERSION = 1;
+    private static final Funnel<CharSequence> FUNNEL = Funnels.stringFunnel(UTF_8);
+    private static final int MIN_EXPECTED_NAMES = 16;
+
+    private final boolean caseSensitive;
+    private final double falsePositiveRate;
+    private final Map<String, Entry> sources = new HashMap<>();
+
+    public IdentifierIndex() {
+        this(false, DEFAULT_FALSE_POSITIVE_RATE);
+    }
+
+    public IdentifierIndex(boolean caseSensitive, double falsePositiveRate) {
+        checkArgument(falsePositiveRate > 0 && falsePositiveRate < 1, "falsePositiveRate must be between 0 and 1");
+        this.caseSensitive = caseSensitive;
+        this.falsePositiveRate = falsePositiveRate;
+    }
+
+    /**
+     * Indexes the script of a source, returns false when the same content is already indexed.
+     */
+    public boolean put(String source, String sql) {
+        requireNonNull(source, "source is null");
+        requireNonNull(sql, "sql is null");
+        return put(source, Hashing.murmur3_128().hashString(sql, UTF_8).asLong(), () -> sql);
+    }
+
+    /**
+     * Indexes a file under its path, returns false when the same content is already indexed.
+     */
+    public boolean putFile(Path file, Charset charset) throws IOException {
+        requireNonNull(charset, "charset is null");
+        byte[] content = Files.readAllBytes(file);
+        return put(file.toString(), Hashing.murmur3_128().hashBytes(content).asLong(), () -> new String(content, charset));
+    }
+
+    /**
+     * Indexes the files, returns the number of files whose content changed.
+     */
+    public int putFiles(Iterable<Path> files, Charset charset) throws IOException {
+        int changed = 0;
+        for (Path file : files) {
+            if (putFile(file, charset)) {
+                changed++;
+            }
+        }
+        return changed;
+    }
+
+    private boolean put(String source, long checksum, Supplier<String> content) {
+        synchronized (this) {
+            Entry entry = sources.get(source);
+            if (entry != null && entry.checksum == checksum) {
+                return false;
+            }
+        }
+        // lexing runs outside the lock, concurrent puts of the same source keep either result
+        Set<String> names = SqlIdentifiers.extract(content.get(), caseSensitive);
+        BloomFilter<CharSequence> filter = BloomFilter.create(FUNNEL, Math.max(MIN_EXPECTED_NAMES, names.size()), falsePositiveRate);
+        names.forEach(filter::put);
+        synchronized (this) {
+            sources.put(source, new Entry(checksum, filter));
+        }
+        return true;
+    }
+
+    public synchronized boolean remove(String source) {
+        return sources.remove(source) != null;
+    }
+
+    /**
+     * Drops the sources that are not in the given collection, e.g. deleted files. Returns the number removed.
+     */
+    public synchronized int retainAll(Collection<String> existing) {
+        requireNonNull(existing, "existing is null");
+        int removed = 0;
+        for (Iterator<String> iterator = sources.keySet().iterator(); iterator.hasNext(); ) {
+            if (!existing.contains(iterator.next())) {
+                iterator.remove();
+                removed++;
+            }
+        }
+        return removed;
+    }
+
+    public synchronized boolean contains(String source) {
+        return sources.containsKey(source);
+    }
+
+    public synchronized OptionalLong getChecksum(String source) {
+        Entry entry = sources.get(source);
+        return entry == null ? OptionalLong.empty() : OptionalLong.of(entry.checksum);
+    }
+
+    /**
+     * Sources that may mention the name, a plain identifier or a dotted one such as {@code db.t}.
+     */
+    public Set<String> getCandidates(String name) {
+        requireNonNull(name, "name is null");
+        String normalized = SqlIdentifiers.normalize(name, caseSensitive);
+        return candidates(filter -> filter.mightContain(normalized));
+    }
+
+    /**
+     * Sources that may read the table. Only the table name is checked, since a script may rely on the
+     * default schema.
+     */
+    public Set<String> getCandidates(QualifiedObjectName table) {
+        return getCandidates(requireNonNull(table, "table is null").getObjectName());
+    }
+
+    /**
+     * Sources that may read the column: they mention the table and either the column or a {@code *}.
+     */
+    public Set<String> getCandidates(Analysis.SourceColumn column) {
+        requireNonNull(column, "column is null");
+        String table = SqlIdentifiers.normalize(column.getTableName().getObjectName(), caseSensitive);
+        String name = SqlIdentifiers.normalize(column.getColumnName(), caseSensitive);
+        return candidates(filter -> filter.mightContain(table)
+                && (filter.mightContain(name) || filter.mightContain(SqlIdentifiers.ASTERISK)));
+    }
+
+    private synchronized Set<String> candidates(Predicate<BloomFilter<CharSequence>> test) {
+        ImmutableSortedSet.Builder<String> candidates = ImmutableSortedSet.naturalOrder();
+        sources.forEach((source, entry) -> {
+            if (test.test(entry.filter)) {
+                candidates.add(source);
+            }
+        });
+        return candidates.build();
+    }
+
+    public synchronized int getSourceCount() {
+        return sources.size();
+    }
+
+    public boolean isCaseSensitive() {
+        return caseSensitive;
+    }
+
+    /**
+     * Writes the index to a temporary file moved over the target, so a reader never sees a partial index.
+     */
+    public synchronized void save(Path file) throws IOException {
+        Path temporary = file.resolveSibling(file.getFileName() + ".tmp");
+        try (DataOutputStream output = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temporary)))) {
+            output.writeInt(MAGIC);
+            output.writeInt(VERSION);
+            output.writeBoolean(caseSensitive);
+            output.writeDouble(falsePositiveRate);
+            output.writeInt(sources.size());
+            ByteArrayOutputStream filter = new ByteArrayOutputStream();
+            for (Map.Entry<String, Entry> entry : sources.entrySet()) {
+                filter.reset();
+                entry.getValue().filter.writeTo(filter);
+                output.writeUTF(entry.getKey());
+                output.writeLong(entry.getValue().checksum);
+                output.writeInt(filter.size());
+                filter.writeTo(output);
+            }
+        }
+        Files.move(temporary, file, REPLACE_EXISTING, ATOMIC_MOVE);
+    }
+
+    public static IdentifierIndex load(Path file) throws IOException {
+        try (DataInputStream input = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            if (input.readInt() != MAGIC) {
+                throw new IOException("Not an identifier index: " + file);
+            }
+            int version = input.readInt();
+            if (version != VERSION) {
+                throw new IOException("Unsupported identifier index version " + version + ": " + file);
+            }
+            IdentifierIndex index = new IdentifierIndex(input.readBoolean(), input.readDouble());
+            for (int count = input.readInt(); count > 0; count--) {
+                String source = input.readUTF();
+                long checksum = input.readLong();
+                byte[] filter = new byte[input.readInt()];
+                input.readFully(filter);
+                index.sources.put(source, new Entry(checksum, BloomFilter.readFrom(new ByteArrayInputStream(filter), FUNNEL)));
+            }
+            return index;
+        } catch (EOFException e) {
+            throw new IOException("Truncated identifier index: " + file, e);
+        }
+    }
+
+    @Override
+    public synchronized String toString() {
+        return toStringHelper(this)
+                .add("sources", sources.size())
+                .add("caseSensitive", caseSensitive)
+                .add("falsePositiveRate", falsePositiveRate)
+                .toString();
+    }
+
+    private static final class Entry {
+        private final long checksum;
+        private final BloomFilter<CharSequence> filter;
+
+        private Entry(long checksum, BloomFilter<CharSequence> filter) {
+            this.checksum = checksum;
+            this.filter = filter;
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package io.github.melin.sqlflow.lineage.usage;
+
+import io.github.melin.sqlflow.analyzer.Analysis;
+import io.github.melin.sqlflow.metadata.QualifiedObjectName;
+import io.github.melin.sqlflow.tree.NodeLocation;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+
+import javax.annotation.concurrent.Immutable;
+import java.util.Collection;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+import static com.google.common.base.MoreObjects.toStringHelper;
+import static com.google.common.base.Preconditions.checkArgument;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * The columns and tables one statement reads, with the locations of their references. Extracted from the
+ * analysis so the analysis can be dropped before the usages are indexed.
+ */
+@Immutable
+public final class StatementUsages {
+    private final Map<Analysis.SourceColumn, Set<NodeLocation>> columns;
+    private final Map<QualifiedObjectName, Set<NodeLocation>> tables;
+
+    public StatementUsages(Map<Analysis.SourceColumn, ? extends Collection<NodeLocation>> columns,
+                           Map<QualifiedObjectName, ? extends Collection<NodeLocation>> tables) {
+        this.columns = copy(requireNonNull(columns, "columns is null"));
+        this.tables = copy(requireNonNull(tables, "tables is null"));
+    }
+
+    /**
+     * Returns the usages recorded by the analysis, which must use the
+     * {@link io.github.melin.sqlflow.analyzer.AnalysisProfile#FULL full} profile: the lineage profile does not
+     * record the locations of references, so its usages would silently be empty.
+     */
+    public static StatementUsages of(Analysis analysis) {
+        checkArgument(analysis.getProfile().recordsPlanningState(), "usages are not recorded by the %s profile", analysis.getProfile());
+        return new StatementUsages(analysis.getOriginFields().asMap(), analysis.getOriginTables().asMap());
+    }
+
+    public Map<Analysis.SourceColumn, Set<NodeLocation>> getColumns() {
+        return columns;
+    }
+
+    public Map<QualifiedObjectName, Set<NodeLocation>> getTables() {
+        return tables;
+    }
+
+    private static <K> Map<K, Set<NodeLocation>> copy(Map<K, ? extends Collection<NodeLocation>> usages) {
+        ImmutableMap.Builder<K, Set<NodeLocation>> builder = ImmutableMap.builder();
+        usages.forEach((key, locations) -> builder.put(key, ImmutableSet.copyOf(locations)));
+        return builder.build();
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        StatementUsages that = (StatementUsages) o;
+        return columns.equals(that.columns) && tables.equals(that.tables);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(columns, tables);
+    }
+
+    @Override
+    public String toString() {
+        return toStringHelper(this)
+                .add("columns", columns.keySet())
+                .add("tables", tables.keySet())
+                .toString();
+    }
+}
@@ -0,0 +1,59 @@
+package io.github.melin.sqlflow.lineage.usage;
+
+import io.github.melin.sqlflow.tree.NodeLocation;
+
+import javax.annotation.concurrent.Immutable;
+import java.util.Objects;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * One reference to a column or table: the source (e.g. a file name), the index of the statement in that
+ * source and the location of the reference in the statement.
+ */
+@Immutable
+public final class Usage {
+    private final String source;
+    private final int index;
+    private final NodeLocation location;
+
+    public Usage(String source, int index, NodeLocation location) {
+        this.source = requireNonNull(source, "source is null");
+        this.index = index;
+        this.location = requireNonNull(location, "location is null");
+    }
+
+    public String getSource() {
+        return source;
+    }
+
+    public int getIndex() {
+        return index;
+    }
+
+    public NodeLocation getLocation() {
+        return location;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        Usage that = (Usage) o;
+        return index == that.index && source.equals(that.source) && location.equals(that.location);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(source, index, location);
+    }
+
+    @Override
+    public String toString() {
+        return source + "#" + index + " " + location;
+    }
+}
@@ -0,0 +1,470 @@
+package io.github.melin.sqlflow.lineage.usage;
+
+import io.github.melin.sqlflow.analyzer.Analysis;
+import io.github.melin.sqlflow.metadata.QualifiedObjectName;
+import io.github.melin.sqlflow.tree.NodeLocation;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSortedSet;
+
+import java.io.ByteArrayOutputStream;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Function;
+
+import static com.google.common.base.MoreObjects.toStringHelper;
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkState;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Inverted index from columns and tables to the statements reading them across a corpus of sources, e.g. to
+ * find every script using a column before changing it. A source is indexed and replaced as a whole, so a
+ * changed file is analyzed again on its own instead of scanning the corpus.
+ *
+ * <p>Every column and table keeps the sorted ids of the sources using it. The locations are kept per source,
+ * grouped by column and table into one varint encoded array, and only decoded for the sources a query
+ * returns. Names stay in the dictionary once seen. Thread-safe.
+ */
+public class UsageIndex {
+
+    private static final Comparator<NodeLocation> LOCATION_ORDER = Comparator.comparingInt(NodeLocation::getLineNumber)
+            .thenComparingInt(NodeLocation::getColumnNumber)
+            .thenComparingInt(NodeLocation::getStartIndex)
+            .thenComparingInt(NodeLocation::getStopIndex);
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private final Postings<Analysis.SourceColumn> columns = new Postings<>();
+    private final Postings<QualifiedObjectName> tables = new Postings<>();
+
+    private final Map<String, Integer> sourceIds = new HashMap<>();
+    // indexed by source id, null for the ids of removed sources until they are reused
+    private final List<SourceEntry> sources = new ArrayList<>();
+    private final Deque<Integer> freeIds = new ArrayDeque<>();
+    private long usageCount;
+
+    /**
+     * Replaces the usages of a source with those of its statements, keyed by the index of the statement in
+     * the source.
+     */
+    public void putSource(String source, Map<Integer, StatementUsages> statements) {
+        requireNonNull(source, "source is null");
+        requireNonNull(statements, "statements is null");
+        statements.keySet().forEach(index -> checkArgument(index >= 0, "statement index is negative: %s", index));
+        lock.writeLock().lock();
+        try {
+            removeLocked(source);
+            int id = freeIds.isEmpty() ? sources.size() : freeIds.pop();
+            SourceEntry entry = new SourceEntry(source,
+                    encode(columns, id, statements, StatementUsages::getColumns),
+                    encode(tables, id, statements, StatementUsages::getTables));
+            if (id == sources.size()) {
+                sources.add(entry);
+            } else {
+                sources.set(id, entry);
+            }
+            sourceIds.put(source, id);
+            usageCount += entry.columns.usages + entry.tables.usages;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Collects the statements of a source, which replace its indexed usages on {@link SourceBuilder#commit()}.
+     */
+    public SourceBuilder updateSource(String source) {
+        return new SourceBuilder(requireNonNull(source, "source is null"));
+    }
+
+    public boolean removeSource(String source) {
+        requireNonNull(source, "source is null");
+        lock.writeLock().lock();
+        try {
+            return removeLocked(source);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public boolean containsSource(String source) {
+        lock.readLock().lock();
+        try {
+            return sourceIds.containsKey(source);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Sources with a statement reading the column, in name order.
+     */
+    public Set<String> getSources(Analysis.SourceColumn column) {
+        return sourcesOf(columns, requireNonNull(column, "column is null"));
+    }
+
+    /**
+     * Sources with a statement reading the table, in name order.
+     */
+    public Set<String> getSources(QualifiedObjectName table) {
+        return sourcesOf(tables, requireNonNull(table, "table is null"));
+    }
+
+    /**
+     * References to the column, ordered by source, statement and location.
+     */
+    public List<Usage> getUsages(Analysis.SourceColumn column) {
+        return usagesOf(columns, requireNonNull(column, "column is null"), entry -> entry.columns);
+    }
+
+    /**
+     * References to the table, ordered by source, statement and location.
+     */
+    public List<Usage> getUsages(QualifiedObjectName table) {
+        return usagesOf(tables, requireNonNull(table, "table is null"), entry -> entry.tables);
+    }
+
+    public int getSourceCount() {
+        lock.readLock().lock();
+        try {
+            return sourceIds.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Number of column and table references indexed.
+     */
+    public long getUsageCount() {
+        lock.readLock().lock();
+        try {
+            return usageCount;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Approximate heap used by the postings and encoded locations, not counting the names.
+     */
+    public long getEstimatedBytes() {
+        lock.readLock().lock();
+        try {
+            long bytes = columns.estimatedBytes() + tables.estimatedBytes();
+            for (SourceEntry entry : sources) {
+                if (entry != null) {
+                    bytes += entry.columns.estimatedBytes() + entry.tables.estimatedBytes();
+                }
+            }
+            return bytes;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private <K> Set<String> sourcesOf(Postings<K> postings, K key) {
+        lock.readLock().lock();
+        try {
+            int term = postings.find(key);
+            if (term < 0) {
+                return ImmutableSortedSet.of();
+            }
+            ImmutableSortedSet.Builder<String> names = ImmutableSortedSet.naturalOrder();
+            for (int id : postings.sourcesOf(term)) {
+                names.add(sources.get(id).name);
+            }
+            return names.build();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private <K> List<Usage> usagesOf(Postings<K> postings, K key, Function<SourceEntry, Block> block) {
+        lock.readLock().lock();
+        try {
+            int term = postings.find(key);
+            if (term < 0) {
+                return ImmutableList.of();
+            }
+            int[] ids = postings.sourcesOf(term);
+            SourceEntry[] entries = new SourceEntry[ids.length];
+            for (int i = 0; i < ids.length; i++) {
+                entries[i] = sources.get(ids[i]);
+            }
+            Arrays.sort(entries, Comparator.comparing(entry -> entry.name));
+
+            ImmutableList.Builder<Usage> usages = ImmutableList.builder();
+            for (SourceEntry entry : entries) {
+                block.apply(entry).decode(entry.name, term, usages);
+            }
+            return usages.build();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private boolean removeLocked(String source) {
+        Integer id = sourceIds.remove(source);
+        if (id == null) {
+            return false;
+        }
+        SourceEntry entry = sources.set(id, null);
+        for (int term : entry.columns.terms) {
+            columns.remove(term, id);
+        }
+        for (int term : entry.tables.terms) {
+            tables.remove(term, id);
+        }
+        usageCount -= entry.columns.usages + entry.tables.usages;
+        freeIds.push(id);
+        return true;
+    }
+
+    private static <K> Block encode(Postings<K> postings, int sourceId, Map<Integer, StatementUsages> statements,
+                                    Function<StatementUsages, Map<K, Set<NodeLocation>>> usages) {
+        // term id, then statement index, then the locations in order
+        Map<Integer, TreeMap<Integer, NodeLocation[]>> references = new TreeMap<>();
+        statements.forEach((index, statement) -> {
+            usages.apply(statement).forEach((key, locations) -> {
+                if (locations.isEmpty()) {
+                    return;
+                }
+                NodeLocation[] sorted = locations.toArray(new NodeLocation[0]);
+                Arrays.sort(sorted, LOCATION_ORDER);
+                references.computeIfAbsent(postings.intern(key), term -> new TreeMap<>()).put(index, sorted);
+            });
+        });
+
+        int[] terms = new int[references.size()];
+        int[] offsets = new int[references.size() + 1];
+        ByteArrayOutputStream data = new ByteArrayOutputStream();
+        int count = 0;
+        int term = 0;
+        for (Map.Entry<Integer, TreeMap<Integer, NodeLocation[]>> entry : references.entrySet()) {
+            terms[term] = entry.getKey();
+            writeVarInt(data, entry.getValue().size());
+            int previousIndex = 0;
+            for (Map.Entry<Integer, NodeLocation[]> statement : entry.getValue().entrySet()) {
+                writeVarInt(data, statement.getKey() - previousIndex);
+                writeVarInt(data, statement.getValue().length);
+                int previousLine = 0;
+                for (NodeLocation location : statement.getValue()) {
+                    writeVarInt(data, location.getLineNumber() - previousLine);
+                    writeVarInt(data, location.getColumnNumber());
+                    writeVarInt(data, zigzag(location.getStartIndex()));
+                    writeVarInt(data, zigzag(location.getStopIndex() - location.getStartIndex()));
+                    previousLine = location.getLineNumber();
+                }
+                count += statement.getValue().length;
+                previousIndex = statement.getKey();
+            }
+            postings.add(entry.getKey(), sourceId);
+            offsets[++term] = data.size();
+        }
+        return new Block(terms, offsets, data.toByteArray(), count);
+    }
+
+    private static void writeVarInt(ByteArrayOutputStream output, int value) {
+        while ((value & ~0x7f) != 0) {
+            output.write((value & 0x7f) | 0x80);
+            value >>>= 7;
+        }
+        output.write(value);
+    }
+
+    private static int zigzag(int value) {
+        return (value << 1) ^ (value >> 31);
+    }
+
+    @Override
+    public String toString() {
+        lock.readLock().lock();
+        try {
+            return toStringHelper(this)
+                    .add("sources", sourceIds.size())
+                    .add("columns", columns.size())
+                    .add("tables", tables.size())
+                    .add("usages", usageCount)
+                    .toString();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Statements of one source, collected while it is analyzed. Not thread-safe.
+     */
+    public final class SourceBuilder {
+        private final String source;
+        private final Map<Integer, StatementUsages> statements = new LinkedHashMap<>();
+        private boolean committed;
+
+        private SourceBuilder(String source) {
+            this.source = source;
+        }
+
+        public SourceBuilder add(int index, Analysis analysis) {
+            return add(index, StatementUsages.of(requireNonNull(analysis, "analysis is null")));
+        }
+
+        public SourceBuilder add(int index, StatementUsages usages) {
+            checkState(!committed, "source %s is already committed", source);
+            checkArgument(index >= 0, "index is negative");
+            statements.put(index, requireNonNull(usages, "usages is null"));
+            return this;
+        }
+
+        /**
+         * Replaces the indexed usages of the source with the statements added.
+         */
+        public void commit() {
+            checkState(!committed, "source %s is already committed", source);
+            committed = true;
+            putSource(source, statements);
+        }
+    }
+
+    private static final class SourceEntry {
+        private final String name;
+        private final Block columns;
+        private final Block tables;
+
+        private SourceEntry(String name, Block columns, Block tables) {
+            this.name = name;
+            this.columns = columns;
+            this.tables = tables;
+        }
+    }
+
+    /**
+     * The references of one source to one kind of name: sorted term ids, and for each the range of its
+     * references in the encoded data.
+     */
+    private static final class Block {
+        private final int[] terms;
+        private final int[] offsets;
+        private final byte[] data;
+        private final int usages;
+
+        private Block(int[] terms, int[] offsets, byte[] data, int usages) {
+            this.terms = terms;
+            this.offsets = offsets;
+            this.data = data;
+            this.usages = usages;
+        }
+
+        void decode(String source, int term, ImmutableList.Builder<Usage> output) {
+            int slot = Arrays.binarySearch(terms, term);
+            checkState(slot >= 0, "term %s is not used by %s", term, source);
+            int[] position = {offsets[slot]};
+            int index = 0;
+            for (int statements = readVarInt(position); statements > 0; statements--) {
+                index += readVarInt(position);
+                int line = 0;
+                for (int count = readVarInt(position); count > 0; count--) {
+                    line += readVarInt(position);
+                    int column = readVarInt(position);
+                    int start = unzigzag(readVarInt(position));
+                    int stop = start + unzigzag(readVarInt(position));
+                    output.add(new Usage(source, index, new NodeLocation(line, column, start, stop)));
+                }
+            }
+        }
+
+        private int readVarInt(int[] position) {
+            int value = 0;
+            for (int shift = 0; ; shift += 7) {
+                byte next = data[position[0]++];
+                value |= (next & 0x7f) << shift;
+                if (next >= 0) {
+                    return value;
+                }
+            }
+        }
+
+        private static int unzigzag(int value) {
+            return (value >>> 1) ^ -(value & 1);
+        }
+
+        long estimatedBytes() {
+            return 48 + 4L * terms.length + 4L * offsets.length + data.length;
+        }
+    }
+
+    /**
+     * Dictionary of one kind of name, with the sorted ids of the sources using each.
+     */
+    private static final class Postings<K> {
+        private final Map<K, Integer> ids = new HashMap<>();
+        private int[][] sources = new int[16][];
+        private int[] counts = new int[16];
+
+        int intern(K key) {
+            Integer id = ids.get(key);
+            if (id == null) {
+                id = ids.size();
+                if (id == counts.length) {
+                    sources = Arrays.copyOf(sources, id * 2);
+                    counts = Arrays.copyOf(counts, id * 2);
+                }
+                sources[id] = new int[2];
+                ids.put(key, id);
+            }
+            return id;
+        }
+
+        int find(K key) {
+            Integer id = ids.get(key);
+            return id == null ? -1 : id;
+        }
+
+        int size() {
+            return ids.size();
+        }
+
+        int[] sourcesOf(int term) {
+            return Arrays.copyOf(sources[term], counts[term]);
+        }
+
+        void add(int term, int source) {
+            int[] row = sources[term];
+            int count = counts[term];
+            int slot = -Arrays.binarySearch(row, 0, count, source) - 1;
+            if (count == row.length) {
+                row = Arrays.copyOf(row, count * 2);
+                sources[term] = row;
+            }
+            System.arraycopy(row, slot, row, slot + 1, count - slot);
+            row[slot] = source;
+            counts[term] = count + 1;
+        }
+
+        void remove(int term, int source) {
+            int[] row = sources[term];
+            int count = counts[term];
+            int slot = Arrays.binarySearch(row, 0, count, source);
+            System.arraycopy(row, slot + 1, row, slot, count - slot - 1);
+            counts[term] = count - 1;
+        }
+
+        long estimatedBytes() {
+            long bytes = 16L * sources.length + 4L * counts.length;
+            for (int i = 0; i < ids.size(); i++) {
+                bytes += 16 + 4L * sources[i].length;
+            }
+            return bytes;
+        }
+    }
+}
@@ -0,0 +1,334 @@
+package io.github.melin.sqlflow.lineage.wire;
+
+import io.github.melin.sqlflow.analyzer.Analysis;
+import io.github.melin.sqlflow.analyzer.Output;
+import io.github.melin.sqlflow.analyzer.OutputColumn;
+import io.github.melin.sqlflow.metadata.QualifiedObjectName;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * Compact binary messages: every table and column name is written once in a dictionary at the start of the
+ * message and referenced by varint id, and the edges of an output are written column by column. A message
+ * is laid out as
+ * <ul>
+ * <li>magic and version, then the strings and the tables as catalog (string id + 1, 0 for none), schema
+ *     and name string ids;</li>
+ * <li>the number of outputs, and for each its target table id and column count (0 when the columns are
+ *     unknown, otherwise count + 1), the name ids of all columns, their source counts, the table ids of
+ *     all their sources and finally the column name ids of all their sources.</li>
+ * </ul>
+ * A message is self-delimiting: {@link #read} and {@link #readEdges} consume exactly one message, so several
+ * can follow each other on a stream. The codec holds no state and is thread-safe.
+ */
+public class BinaryLineageCodec implements LineageCodec {
+
+    public static final String CONTENT_TYPE = "application/x-sqlflow-lineage";
+
+    private static final int MAGIC = 0x53514c57;
+    private static final int VERSION = 1;
+
+    @Override
+    public String getContentType() {
+        return CONTENT_TYPE;
+    }
+
+    @Override
+    public void write(List<Output> outputs, OutputStream output) throws IOException {
+        Dictionary dictionary = new Dictionary();
+        Buffer body = new Buffer();
+        body.writeVarInt(outputs.size());
+        for (Output value : outputs) {
+            body.writeVarInt(dictionary.table(new QualifiedObjectName(value.getCatalogName(), value.getSchema(), value.getTable())));
+            if (!value.getColumns().isPresent()) {
+                body.writeVarInt(0);
+                continue;
+            }
+            List<OutputColumn> columns = value.getColumns().get();
+            body.writeVarInt(columns.size() + 1);
+            for (OutputColumn column : columns) {
+                body.writeVarInt(dictionary.string(column.getColumn()));
+            }
+            for (OutputColumn column : columns) {
+                body.writeVarInt(column.getSourceColumns().size());
+            }
+            for (OutputColumn column : columns) {
+                for (Analysis.SourceColumn source : column.getSourceColumns()) {
+                    body.writeVarInt(dictionary.table(source.getTableName()));
+                }
+            }
+            for (OutputColumn column : columns) {
+                for (Analysis.SourceColumn source : column.getSourceColumns()) {
+                    body.writeVarInt(dictionary.string(source.getColumnName()));
+                }
+            }
+        }
+
+        Buffer header = new Buffer();
+        header.writeInt(MAGIC);
+        header.writeVarInt(VERSION);
+        header.writeVarInt(dictionary.strings.size());
+        for (String value : dictionary.strings) {
+            header.writeString(value);
+        }
+        header.writeVarInt(dictionary.tables.size());
+        for (QualifiedObjectName table : dictionary.tables) {
+            header.writeVarInt(table.getCatalogName() == null ? 0 : dictionary.stringIds.get(table.getCatalogName()) + 1);
+            header.writeVarInt(dictionary.stringIds.get(table.getSchemaName()));
+            header.writeVarInt(dictionary.stringIds.get(table.getObjectName()));
+        }
+        header.writeTo(output);
+        body.writeTo(output);
+    }
+
+    @Override
+    public List<Output> read(InputStream input) throws IOException {
+        Reader reader = new Reader(input);
+        int count = reader.count();
+        List<Output> outputs = new ArrayList<>(Math.min(count, 1024));
+        for (int i = 0; i < count; i++) {
+            outputs.add(reader.output());
+        }
+        return outputs;
+    }
+
+    /**
+     * Streams the edges of one message to the visitor without building the outputs, returns the number of edges.
+     */
+    public long readEdges(InputStream input, EdgeVisitor visitor) throws IOException {
+        Reader reader = new Reader(input);
+        long edges = 0;
+        for (int count = reader.count(); count > 0; count--) {
+            edges += reader.edges(visitor);
+        }
+        return edges;
+    }
+
+    private static final class Dictionary {
+        private final List<String> strings = new ArrayList<>();
+        private final Map<String, Integer> stringIds = new HashMap<>();
+        private final List<QualifiedObjectName> tables = new ArrayList<>();
+        private final Map<QualifiedObjectName, Integer> tableIds = new HashMap<>();
+
+        int string(String value) {
+            Integer id = stringIds.get(value);
+            if (id == null) {
+                id = strings.size();
+                strings.add(value);
+                stringIds.put(value, id);
+            }
+            return id;
+        }
+
+        int table(QualifiedObjectName table) {
+            Integer id = tableIds.get(table);
+            if (id == null) {
+                if (table.getCatalogName() != null) {
+                    string(table.getCatalogName());
+                }
+                string(table.getSchemaName());
+                string(table.getObjectName());
+                id = tables.size();
+                tables.add(table);
+                tableIds.put(table, id);
+            }
+            return id;
+        }
+    }
+
+    private static final class Buffer extends ByteArrayOutputStream {
+        Buffer() {
+            super(1024);
+        }
+
+        void writeInt(int value) {
+            write(value >>> 24);
+            write(value >>> 16);
+            write(value >>> 8);
+            write(value);
+        }
+
+        void writeVarInt(int value) {
+            while ((value & ~0x7f) != 0) {
+                write((value & 0x7f) | 0x80);
+                value >>>= 7;
+            }
+            write(value);
+        }
+
+        void writeString(String value) {
+            byte[] bytes = value.getBytes(UTF_8);
+            writeVarInt(bytes.length);
+            write(bytes, 0, bytes.length);
+        }
+    }
+
+    /**
+     * Reads the dictionary of a message, then its outputs on demand.
+     */
+    private static final class Reader {
+        private final DataInputStream input;
+        private final String[] strings;
+        private final QualifiedObjectName[] tables;
+        private int[] edgeTables = new int[64];
+
+        Reader(InputStream input) throws IOException {
+            this.input = new DataInputStream(input);
+            if (this.input.readInt() != MAGIC) {
+                throw new IOException("Not a lineage message");
+            }
+            int version = readVarInt();
+            if (version != VERSION) {
+                throw new IOException("Unsupported lineage message version " + version);
+            }
+            strings = new String[count()];
+            for (int i = 0; i < strings.length; i++) {
+                byte[] bytes = new byte[count()];
+                this.input.readFully(bytes);
+                strings[i] = new String(bytes, UTF_8);
+            }
+            tables = new QualifiedObjectName[count()];
+            for (int i = 0; i < tables.length; i++) {
+                int catalog = readVarInt();
+                String schema = string();
+                String name = string();
+                tables[i] = new QualifiedObjectName(catalog == 0 ? null : strings[check(catalog - 1, strings.length)], schema, name);
+            }
+        }
+
+        Output output() throws IOException {
+            QualifiedObjectName target = table();
+            int columnCount = readVarInt();
+            if (columnCount == 0) {
+                return new Output(target.getCatalogName(), target.getSchemaName(), target.getObjectName(), Optional.empty());
+            }
+            String[] names = columnNames(columnCount - 1);
+            int[] sourceCounts = sourceCounts(names.length);
+            int edges = readEdgeTables(sourceCounts);
+
+            ImmutableList.Builder<OutputColumn> columns = ImmutableList.builder();
+            int edge = 0;
+            for (int i = 0; i < names.length; i++) {
+                ImmutableSet.Builder<Analysis.SourceColumn> sources = ImmutableSet.builder();
+                for (int end = edge + sourceCounts[i]; edge < end; edge++) {
+                    sources.add(new Analysis.SourceColumn(tables[edgeTables[edge]], string()));
+                }
+                columns.add(new OutputColumn(names[i], sources.build()));
+            }
+            checkEdges(edge, edges);
+            return new Output(target.getCatalogName(), target.getSchemaName(), target.getObjectName(), Optional.of(columns.build()));
+        }
+
+        int edges(EdgeVisitor visitor) throws IOException {
+            QualifiedObjectName target = table();
+            int columnCount = readVarInt();
+            if (columnCount == 0) {
+                return 0;
+            }
+            String[] names = columnNames(columnCount - 1);
+            int[] sourceCounts = sourceCounts(names.length);
+            int edges = readEdgeTables(sourceCounts);
+
+            int edge = 0;
+            for (int i = 0; i < names.length; i++) {
+                for (int end = edge + sourceCounts[i]; edge < end; edge++) {
+                    visitor.edge(target, names[i], tables[edgeTables[edge]], string());
+                }
+            }
+            checkEdges(edge, edges);
+            return edges;
+        }
+
+        private String[] columnNames(int count) throws IOException {
+            checkCount(count);
+            String[] names = new String[Math.min(count, 4096)];
+            for (int i = 0; i < count; i++) {
+                if (i == names.length) {
+                    names = Arrays.copyOf(names, Math.min(count, names.length * 2));
+                }
+                names[i] = string();
+            }
+            return names;
+        }
+
+        private int[] sourceCounts(int columns) throws IOException {
+            int[] counts = new int[columns];
+            for (int i = 0; i < columns; i++) {
+                counts[i] = count();
+            }
+            return counts;
+        }
+
+        private int readEdgeTables(int[] sourceCounts) throws IOException {
+            int edges = 0;
+            for (int count : sourceCounts) {
+                edges = Math.addExact(edges, count);
+            }
+            for (int i = 0; i < edges; i++) {
+                if (i == edgeTables.length) {
+                    edgeTables = Arrays.copyOf(edgeTables, edgeTables.length * 2);
+                }
+                edgeTables[i] = check(readVarInt(), tables.length);
+            }
+            return edges;
+        }
+
+        private static void checkEdges(int read, int expected) throws IOException {
+            if (read != expected) {
+                throw new IOException("Corrupt lineage message: " + read + " edges instead of " + expected);
+            }
+        }
+
+        int count() throws IOException {
+            return checkCount(readVarInt());
+        }
+
+        private String string() throws IOException {
+            return strings[check(readVarInt(), strings.length)];
+        }
+
+        private QualifiedObjectName table() throws IOException {
+            return tables[check(readVarInt(), tables.length)];
+        }
+
+        private int readVarInt() throws IOException {
+            int value = 0;
+            for (int shift = 0; shift < 35; shift += 7) {
+                byte next = input.readByte();
+                value |= (next & 0x7f) << shift;
+                if (next >= 0) {
+                    return value;
+                }
+            }
+            throw new IOException("Corrupt lineage message: varint is too long");
+        }
+
+        private static int checkCount(int count) throws IOException {
+            if (count < 0) {
+                throw new IOException("Corrupt lineage message: negative count " + count);
+            }
+            return count;
+        }
+
+        private static int check(int id, int size) throws IOException {
+            if (id < 0 || id >= size) {
+                throw new IOException("Corrupt lineage message: id " + id + " out of " + size);
+            }
+            return id;
+        }
+    }
+}
@@ -0,0 +1,12 @@
+package io.github.melin.sqlflow.lineage.wire;
+
+import io.github.melin.sqlflow.metadata.QualifiedObjectName;
+
+/**
+ * Receives the column edges of a message without the outputs being built. Names come from the dictionary
+ * of the message, so the same instances are passed for every edge sharing them.
+ */
+@FunctionalInterface
+public interface EdgeVisitor {
+    void edge(QualifiedObjectName target, String targetColumn, QualifiedObjectName sourceTable, String sourceColumn);
+}
@@ -0,0 +1,47 @@
+package io.github.melin.sqlflow.lineage.wire;
+
+import io.github.melin.sqlflow.analyzer.Output;
+import io.github.melin.sqlflow.lineage.LineageJson;
+import io.github.melin.sqlflow.util.JsonUtils;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectReader;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.List;
+
+/**
+ * Messages as a JSON array of outputs, in the format of {@link JsonUtils}.
+ */
+public class JsonLineageCodec implements LineageCodec {
+
+    public static final String CONTENT_TYPE = "application/json";
+
+    private static final ObjectReader READER = JsonUtils.getInstance()
+            .readerFor(new TypeReference<List<Output>>() {})
+            .without(JsonParser.Feature.AUTO_CLOSE_SOURCE);
+
+    @Override
+    public String getContentType() {
+        return CONTENT_TYPE;
+    }
+
+    @Override
+    public void write(List<Output> outputs, OutputStream output) throws IOException {
+        try (JsonGenerator generator = LineageJson.createGenerator(output)) {
+            generator.writeStartArray();
+            for (Output value : outputs) {
+                LineageJson.writeOutput(generator, value);
+            }
+            generator.writeEndArray();
+        }
+    }
+
+    @Override
+    public List<Output> read(InputStream input) throws IOException {
+        return READER.readValue(input);
+    }
+}
@@ -0,0 +1,33 @@
+package io.github.melin.sqlflow.lineage.wire;
+
+import io.github.melin.sqlflow.analyzer.Output;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.List;
+
+/**
+ * Encoding of lineage exchanged between services, e.g. {@link JsonLineageCodec} or the more compact
+ * {@link BinaryLineageCodec}. A message holds a list of outputs.
+ */
+public interface LineageCodec {
+
+    String getContentType();
+
+    void write(List<Output> outputs, OutputStream output) throws IOException;
+
+    List<Output> read(InputStream input) throws IOException;
+
+    default byte[] encode(List<Output> outputs) throws IOException {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        write(outputs, output);
+        return output.toByteArray();
+    }
+
+    default List<Output> decode(byte[] message) throws IOException {
+        return read(new ByteArrayInputStream(message));
+    }
+}
@@ -0,0 +1,97 @@
+package io.github.melin.sqlflow.metadata;
+
+import io.github.melin.sqlflow.tree.QualifiedName;
+import com.google.common.base.Throwables;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.util.concurrent.ExecutionError;
+import com.google.common.util.concurrent.UncheckedExecutionException;
+
+import java.util.Optional;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Thread-safe memoizing wrapper around a {@link MetadataService}, so that concurrent analyses of many
+ * statements look each table, view and function up only once. The delegate must be safe to call from
+ * several threads.
+ */
+public class CachingMetadataService implements MetadataService {
+
+    private final MetadataService delegate;
+
+    private final Cache<QualifiedObjectName, Optional<SchemaTable>> tableSchemas;
+
+    private final Cache<QualifiedObjectName, Optional<ViewDefinition>> views;
+
+    private final Cache<QualifiedName, Boolean> aggregationFunctions;
+
+    public CachingMetadataService(MetadataService delegate, long maximumSize) {
+        this.delegate = requireNonNull(delegate, "delegate is null");
+        this.tableSchemas = CacheBuilder.newBuilder().maximumSize(maximumSize).build();
+        this.views = CacheBuilder.newBuilder().maximumSize(maximumSize).build();
+        this.aggregationFunctions = CacheBuilder.newBuilder().maximumSize(maximumSize).build();
+    }
+
+    public MetadataService getDelegate() {
+        return delegate;
+    }
+
+    @Override
+    public Optional<String> getSchema() {
+        return delegate.getSchema();
+    }
+
+    @Override
+    public Optional<String> getCatalog() {
+        return delegate.getCatalog();
+    }
+
+    @Override
+    public boolean isAggregationFunction(QualifiedName name) {
+        return get(aggregationFunctions, name, () -> delegate.isAggregationFunction(name));
+    }
+
+    @Override
+    public Optional<SchemaTable> getTableSchema(QualifiedObjectName targetTable) {
+        return get(tableSchemas, targetTable, () -> delegate.getTableSchema(targetTable));
+    }
+
+    @Override
+    public Optional<ViewDefinition> getView(QualifiedObjectName viewName) {
+        return get(views, viewName, () -> delegate.getView(viewName));
+    }
+
+    /**
+     * Not cached, versions are how callers notice that cached metadata must be invalidated.
+     */
+    @Override
+    public Optional<String> getVersion(QualifiedObjectName name) {
+        return delegate.getVersion(name);
+    }
+
+    /**
+     * Drops the cached table and view metadata of one object, e.g. after it was altered.
+     */
+    public void invalidate(QualifiedObjectName name) {
+        tableSchemas.invalidate(name);
+        views.invalidate(name);
+    }
+
+    public void invalidateAll() {
+        tableSchemas.invalidateAll();
+        views.invalidateAll();
+        aggregationFunctions.invalidateAll();
+    }
+
+    private static <K, V> V get(Cache<K, V> cache, K key, Callable<V> loader) {
+        try {
+            return cache.get(key, loader);
+        } catch (ExecutionException | UncheckedExecutionException | ExecutionError e) {
+            Throwables.throwIfUnchecked(e.getCause());
+            throw new RuntimeException(e.getCause());
+        }
+    }
+}
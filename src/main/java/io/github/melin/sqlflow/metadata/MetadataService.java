@@ -22,4 +22,13 @@ public interface MetadataService {
     Optional<SchemaTable> getTableSchema(QualifiedObjectName targetTable);
 
     Optional<ViewDefinition> getView(QualifiedObjectName viewName);
+
+    /**
+     * Version or etag of the table or view metadata, which must change whenever its definition changes.
+     * Cached views and lineage results compare it to detect stale entries, an empty result means the
+     * object is not versioned and its cache entries only go away when explicitly invalidated.
+     */
+    default Optional<String> getVersion(QualifiedObjectName name) {
+        return Optional.empty();
+    }
 }
@@ -4,9 +4,14 @@ import io.github.melin.sqlflow.SqlFlowException;
 import io.github.melin.sqlflow.tree.Node;
 import io.github.melin.sqlflow.tree.QualifiedName;
 import io.github.melin.sqlflow.analyzer.SemanticExceptions;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Lists;
 
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
 
 import static com.google.common.base.Preconditions.checkArgument;
 import static java.lang.String.format;
@@ -33,4 +38,28 @@ public class MetadataUtil {
 
         return new QualifiedObjectName(catalogName, schemaName, objectName);
     }
+
+    /**
+     * Current metadata versions of the given objects, see {@link MetadataService#getVersion(QualifiedObjectName)}.
+     */
+    public static Map<QualifiedObjectName, Optional<String>> getVersions(MetadataService metadataService, Set<QualifiedObjectName> names) {
+        ImmutableMap.Builder<QualifiedObjectName, Optional<String>> versions = ImmutableMap.builder();
+        for (QualifiedObjectName name : names) {
+            versions.put(name, metadataService.getVersion(name));
+        }
+        return versions.buildKeepingLast();
+    }
+
+    /**
+     * Returns the objects whose current version differs from the recorded one.
+     */
+    public static Set<QualifiedObjectName> findChangedObjects(MetadataService metadataService, Map<QualifiedObjectName, Optional<String>> versions) {
+        ImmutableSet.Builder<QualifiedObjectName> changed = ImmutableSet.builder();
+        for (Map.Entry<QualifiedObjectName, Optional<String>> entry : versions.entrySet()) {
+            if (!metadataService.getVersion(entry.getKey()).equals(entry.getValue())) {
+                changed.add(entry.getKey());
+            }
+        }
+        return changed.build();
+    }
 }
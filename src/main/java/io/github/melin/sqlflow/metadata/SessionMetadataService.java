@@ -0,0 +1,101 @@
+package io.github.melin.sqlflow.metadata;
+
+import io.github.melin.sqlflow.tree.QualifiedName;
+import com.google.common.collect.ImmutableList;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static java.util.Locale.ENGLISH;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Script scoped catalog layered over another {@link MetadataService}. Tables and views created earlier in a
+ * script are registered here and shadow objects of the same name in the delegate, so a whole job can be
+ * analyzed in one pass without external lookups for objects it creates itself.
+ *
+ * <p>Views are registered with their column list only: the analyzer stops lineage at a view's columns
+ * anyway, so re-parsing the view body on every reference would not change the result. Not thread-safe,
+ * use one instance per script.
+ */
+public class SessionMetadataService implements MetadataService {
+
+    private final MetadataService delegate;
+
+    private final Map<String, SchemaTable> tables = new LinkedHashMap<>();
+
+    public SessionMetadataService(MetadataService delegate) {
+        this.delegate = requireNonNull(delegate, "delegate is null");
+    }
+
+    public MetadataService getDelegate() {
+        return delegate;
+    }
+
+    /**
+     * Registers a table created by the script, e.g. from the column list of a CREATE TABLE statement
+     * parsed elsewhere. Replaces an earlier registration of the same name.
+     */
+    public SessionMetadataService registerTable(SchemaTable schemaTable) {
+        requireNonNull(schemaTable, "schemaTable is null");
+        tables.put(schemaTable.toString().toLowerCase(ENGLISH), schemaTable);
+        return this;
+    }
+
+    public boolean unregisterTable(QualifiedObjectName name) {
+        return tables.remove(name.toString().toLowerCase(ENGLISH)) != null;
+    }
+
+    public boolean hasRegisteredTables() {
+        return !tables.isEmpty();
+    }
+
+    public List<SchemaTable> getRegisteredTables() {
+        return ImmutableList.copyOf(tables.values());
+    }
+
+    @Override
+    public Optional<String> getSchema() {
+        return delegate.getSchema();
+    }
+
+    @Override
+    public Optional<String> getCatalog() {
+        return delegate.getCatalog();
+    }
+
+    @Override
+    public boolean isAggregationFunction(QualifiedName name) {
+        return delegate.isAggregationFunction(name);
+    }
+
+    @Override
+    public Optional<SchemaTable> getTableSchema(QualifiedObjectName targetTable) {
+        SchemaTable schemaTable = tables.get(targetTable.toString().toLowerCase(ENGLISH));
+        if (schemaTable != null) {
+            return Optional.of(schemaTable);
+        }
+        return delegate.getTableSchema(targetTable);
+    }
+
+    @Override
+    public Optional<ViewDefinition> getView(QualifiedObjectName viewName) {
+        if (tables.containsKey(viewName.toString().toLowerCase(ENGLISH))) {
+            return Optional.empty();
+        }
+        return delegate.getView(viewName);
+    }
+
+    /**
+     * Objects created by the script are not versioned.
+     */
+    @Override
+    public Optional<String> getVersion(QualifiedObjectName name) {
+        if (tables.containsKey(name.toString().toLowerCase(ENGLISH))) {
+            return Optional.empty();
+        }
+        return delegate.getVersion(name);
+    }
+}
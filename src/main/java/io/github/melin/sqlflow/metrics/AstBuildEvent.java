@@ -0,0 +1,13 @@
+package io.github.melin.sqlflow.metrics;
+
+/**
+ * Conversion of a parse tree to the AST by {@link io.github.melin.sqlflow.parser.AstBuilder}.
+ */
+public interface AstBuildEvent extends FlightRecorderEvent {
+
+    void setFingerprint(String fingerprint);
+
+    void setStatementKind(String statementKind);
+
+    void setNodeCount(int nodeCount);
+}
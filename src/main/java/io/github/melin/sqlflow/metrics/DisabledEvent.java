@@ -0,0 +1,109 @@
+package io.github.melin.sqlflow.metrics;
+
+/**
+ * The events on a runtime without the flight recorder. Holds no state, so one instance serves every event.
+ */
+final class DisabledEvent implements SqlParseEvent, AstBuildEvent, StatementAnalysisEvent, ViewExpansionEvent,
+        MetadataLookupEvent {
+
+    private static final DisabledEvent INSTANCE = new DisabledEvent();
+
+    static final FlightRecorder.EventFactory FACTORY = new FlightRecorder.EventFactory() {
+        @Override
+        public SqlParseEvent newSqlParseEvent() {
+            return INSTANCE;
+        }
+
+        @Override
+        public AstBuildEvent newAstBuildEvent() {
+            return INSTANCE;
+        }
+
+        @Override
+        public StatementAnalysisEvent newStatementAnalysisEvent() {
+            return INSTANCE;
+        }
+
+        @Override
+        public ViewExpansionEvent newViewExpansionEvent() {
+            return INSTANCE;
+        }
+
+        @Override
+        public MetadataLookupEvent newMetadataLookupEvent() {
+            return INSTANCE;
+        }
+    };
+
+    private DisabledEvent() {
+    }
+
+    @Override
+    public void begin() {
+    }
+
+    @Override
+    public void end() {
+    }
+
+    @Override
+    public boolean shouldCommit() {
+        return false;
+    }
+
+    @Override
+    public void commit() {
+    }
+
+    @Override
+    public void setFingerprint(String fingerprint) {
+    }
+
+    @Override
+    public void setStatementKind(String statementKind) {
+    }
+
+    @Override
+    public void setPredictionMode(String predictionMode) {
+    }
+
+    @Override
+    public void setSuccess(boolean success) {
+    }
+
+    @Override
+    public void setTokenCount(int tokenCount) {
+    }
+
+    @Override
+    public void setNodeCount(int nodeCount) {
+    }
+
+    @Override
+    public void setOutputColumns(int outputColumns) {
+    }
+
+    @Override
+    public void setEstimatedBytes(long estimatedBytes) {
+    }
+
+    @Override
+    public void setView(String view) {
+    }
+
+    @Override
+    public void setCached(boolean cached) {
+    }
+
+    @Override
+    public void setLookup(String lookup) {
+    }
+
+    @Override
+    public void setObjectName(String objectName) {
+    }
+
+    @Override
+    public void setFound(boolean found) {
+    }
+}
@@ -0,0 +1,62 @@
+package io.github.melin.sqlflow.metrics;
+
+/**
+ * Creates the flight recorder events of parsing and analysis. Whether the runtime has the flight recorder,
+ * which a Java 8 runtime before 8u262 does not, is checked once; without it the events do nothing, and no class
+ * referencing {@code jdk.jfr} is loaded.
+ */
+public final class FlightRecorder {
+
+    private static final EventFactory FACTORY = createFactory();
+
+    private FlightRecorder() {
+    }
+
+    public static boolean isAvailable() {
+        return FACTORY != DisabledEvent.FACTORY;
+    }
+
+    public static SqlParseEvent newSqlParseEvent() {
+        return FACTORY.newSqlParseEvent();
+    }
+
+    public static AstBuildEvent newAstBuildEvent() {
+        return FACTORY.newAstBuildEvent();
+    }
+
+    public static StatementAnalysisEvent newStatementAnalysisEvent() {
+        return FACTORY.newStatementAnalysisEvent();
+    }
+
+    public static ViewExpansionEvent newViewExpansionEvent() {
+        return FACTORY.newViewExpansionEvent();
+    }
+
+    public static MetadataLookupEvent newMetadataLookupEvent() {
+        return FACTORY.newMetadataLookupEvent();
+    }
+
+    private static EventFactory createFactory() {
+        ClassLoader classLoader = FlightRecorder.class.getClassLoader();
+        try {
+            Class.forName("jdk.jfr.Event", false, classLoader);
+            return (EventFactory) Class.forName(FlightRecorder.class.getPackage().getName() + ".JfrEventFactory", true, classLoader)
+                    .getDeclaredConstructor()
+                    .newInstance();
+        } catch (ReflectiveOperationException | LinkageError e) {
+            return DisabledEvent.FACTORY;
+        }
+    }
+
+    interface EventFactory {
+        SqlParseEvent newSqlParseEvent();
+
+        AstBuildEvent newAstBuildEvent();
+
+        StatementAnalysisEvent newStatementAnalysisEvent();
+
+        ViewExpansionEvent newViewExpansionEvent();
+
+        MetadataLookupEvent newMetadataLookupEvent();
+    }
+}
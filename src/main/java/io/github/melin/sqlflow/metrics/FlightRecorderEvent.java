@@ -0,0 +1,19 @@
+package io.github.melin.sqlflow.metrics;
+
+/**
+ * An event of the flight recorder, created by {@link FlightRecorder}. On a runtime without the flight recorder
+ * the events do nothing and never ask to be committed.
+ */
+public interface FlightRecorderEvent {
+
+    void begin();
+
+    void end();
+
+    /**
+     * @return whether a recording wants the event, checked before computing expensive fields
+     */
+    boolean shouldCommit();
+
+    void commit();
+}
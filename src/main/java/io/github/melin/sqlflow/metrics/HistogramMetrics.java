@@ -0,0 +1,155 @@
+package io.github.melin.sqlflow.metrics;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Default {@link SqlFlowMetrics}: a lock-free {@link Histogram} per timing and size, and counters for the
+ * events. Times are in nanoseconds. Meant to be polled by a monitoring exporter, all getters can be called
+ * while statements are being parsed and analyzed.
+ */
+public class HistogramMetrics implements SqlFlowMetrics {
+
+    private final Histogram parseTime = new Histogram();
+    private final Histogram astBuildTime = new Histogram();
+    private final Histogram astNodeCount = new Histogram();
+    private final Histogram analysisTime = new Histogram();
+    private final Histogram fieldsCreated = new Histogram();
+    private final Histogram sourceColumns = new Histogram();
+    private final Histogram footprint = new Histogram();
+    private final Map<MetadataLookup, Histogram> metadataLookupTimes = new EnumMap<>(MetadataLookup.class);
+
+    private final LongAdder llFallbacks = new LongAdder();
+    private final LongAdder viewExpansions = new LongAdder();
+    private final LongAdder cachedViewExpansions = new LongAdder();
+
+    public HistogramMetrics() {
+        for (MetadataLookup lookup : MetadataLookup.values()) {
+            metadataLookupTimes.put(lookup, new Histogram());
+        }
+    }
+
+    @Override
+    public void recordParse(long nanos, boolean llFallback) {
+        parseTime.record(nanos);
+        if (llFallback) {
+            llFallbacks.increment();
+        }
+    }
+
+    @Override
+    public void recordAstBuild(long nanos, int nodeCount) {
+        astBuildTime.record(nanos);
+        astNodeCount.record(nodeCount);
+    }
+
+    @Override
+    public void recordAnalysis(long nanos) {
+        analysisTime.record(nanos);
+    }
+
+    @Override
+    public void recordFieldsCreated(int count) {
+        fieldsCreated.record(count);
+    }
+
+    @Override
+    public void recordSourceColumns(int count) {
+        sourceColumns.record(count);
+    }
+
+    @Override
+    public void recordFootprint(long bytes) {
+        footprint.record(bytes);
+    }
+
+    @Override
+    public void recordMetadataLookup(MetadataLookup lookup, long nanos) {
+        metadataLookupTimes.get(lookup).record(nanos);
+    }
+
+    @Override
+    public void recordViewExpansion(boolean cached) {
+        viewExpansions.increment();
+        if (cached) {
+            cachedViewExpansions.increment();
+        }
+    }
+
+    /**
+     * Lex and parse time of every parsed statement, {@link Histogram#getCount()} is the number of statements.
+     */
+    public Histogram getParseTime() {
+        return parseTime;
+    }
+
+    /**
+     * Statements parsed in SLL mode only.
+     */
+    public long getSllParseCount() {
+        return parseTime.getCount() - llFallbacks.sum();
+    }
+
+    /**
+     * Statements whose SLL parse failed and were parsed again in LL mode.
+     */
+    public long getLlFallbackCount() {
+        return llFallbacks.sum();
+    }
+
+    public Histogram getAstBuildTime() {
+        return astBuildTime;
+    }
+
+    public Histogram getAstNodeCount() {
+        return astNodeCount;
+    }
+
+    public Histogram getAnalysisTime() {
+        return analysisTime;
+    }
+
+    public Histogram getFieldsCreated() {
+        return fieldsCreated;
+    }
+
+    /**
+     * Number of source columns per column of the lineage targets.
+     */
+    public Histogram getSourceColumns() {
+        return sourceColumns;
+    }
+
+    /**
+     * Estimated heap footprint per analyzed statement, in bytes.
+     */
+    public Histogram getFootprint() {
+        return footprint;
+    }
+
+    /**
+     * Latency of the lookups of one kind, {@link Histogram#getCount()} is the number of lookups.
+     */
+    public Histogram getMetadataLookupTime(MetadataLookup lookup) {
+        return metadataLookupTimes.get(lookup);
+    }
+
+    public long getViewExpansionCount() {
+        return viewExpansions.sum();
+    }
+
+    public long getCachedViewExpansionCount() {
+        return cachedViewExpansions.sum();
+    }
+
+    @Override
+    public String toString() {
+        return "parse: " + parseTime + " llFallbacks=" + llFallbacks.sum()
+                + "\nast: " + astBuildTime + " nodes " + astNodeCount
+                + "\nanalysis: " + analysisTime + " fields " + fieldsCreated + " sourceColumns " + sourceColumns
+                + " footprint " + footprint
+                + "\nmetadata: " + metadataLookupTimes
+                + "\nviews: expanded=" + viewExpansions.sum() + " cached=" + cachedViewExpansions.sum();
+    }
+}
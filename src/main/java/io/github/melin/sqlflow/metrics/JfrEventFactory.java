@@ -0,0 +1,230 @@
+package io.github.melin.sqlflow.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Creates the events as {@link Event}s of the flight recorder. The only class referencing {@code jdk.jfr}, loaded
+ * by {@link FlightRecorder} once it has found the flight recorder on the runtime.
+ */
+final class JfrEventFactory implements FlightRecorder.EventFactory {
+
+    @Override
+    public SqlParseEvent newSqlParseEvent() {
+        return new JfrSqlParseEvent();
+    }
+
+    @Override
+    public AstBuildEvent newAstBuildEvent() {
+        return new JfrAstBuildEvent();
+    }
+
+    @Override
+    public StatementAnalysisEvent newStatementAnalysisEvent() {
+        return new JfrStatementAnalysisEvent();
+    }
+
+    @Override
+    public ViewExpansionEvent newViewExpansionEvent() {
+        return new JfrViewExpansionEvent();
+    }
+
+    @Override
+    public MetadataLookupEvent newMetadataLookupEvent() {
+        return new JfrMetadataLookupEvent();
+    }
+
+    @Name("io.github.melin.sqlflow.SqlParse")
+    @Label("SQL Parse")
+    @Category("SQL Flow")
+    @StackTrace(false)
+    static final class JfrSqlParseEvent extends Event implements SqlParseEvent {
+
+        @Label("Fingerprint")
+        @Description("Hash of the statement tokens with literals removed, empty if the statement did not parse")
+        private String fingerprint = "";
+
+        @Label("Statement Kind")
+        private String statementKind = "";
+
+        @Label("Prediction Mode")
+        private String predictionMode;
+
+        @Label("Success")
+        private boolean success;
+
+        @Label("Token Count")
+        private int tokenCount;
+
+        @Override
+        public void setFingerprint(String fingerprint) {
+            this.fingerprint = fingerprint;
+        }
+
+        @Override
+        public void setStatementKind(String statementKind) {
+            this.statementKind = statementKind;
+        }
+
+        @Override
+        public void setPredictionMode(String predictionMode) {
+            this.predictionMode = predictionMode;
+        }
+
+        @Override
+        public void setSuccess(boolean success) {
+            this.success = success;
+        }
+
+        @Override
+        public void setTokenCount(int tokenCount) {
+            this.tokenCount = tokenCount;
+        }
+    }
+
+    @Name("io.github.melin.sqlflow.AstBuild")
+    @Label("AST Build")
+    @Category("SQL Flow")
+    @StackTrace(false)
+    static final class JfrAstBuildEvent extends Event implements AstBuildEvent {
+
+        @Label("Fingerprint")
+        private String fingerprint = "";
+
+        @Label("Statement Kind")
+        private String statementKind = "";
+
+        @Label("Node Count")
+        private int nodeCount;
+
+        @Override
+        public void setFingerprint(String fingerprint) {
+            this.fingerprint = fingerprint;
+        }
+
+        @Override
+        public void setStatementKind(String statementKind) {
+            this.statementKind = statementKind;
+        }
+
+        @Override
+        public void setNodeCount(int nodeCount) {
+            this.nodeCount = nodeCount;
+        }
+    }
+
+    @Name("io.github.melin.sqlflow.StatementAnalysis")
+    @Label("Statement Analysis")
+    @Category("SQL Flow")
+    @StackTrace(false)
+    static final class JfrStatementAnalysisEvent extends Event implements StatementAnalysisEvent {
+
+        @Label("Fingerprint")
+        @Description("Fingerprint given to the analysis, empty if it was not given one")
+        private String fingerprint = "";
+
+        @Label("Statement Kind")
+        private String statementKind = "";
+
+        @Label("Node Count")
+        private int nodeCount;
+
+        @Label("Output Columns")
+        private int outputColumns;
+
+        @Label("Estimated Bytes")
+        @DataAmount
+        private long estimatedBytes;
+
+        @Label("Success")
+        private boolean success;
+
+        @Override
+        public void setFingerprint(String fingerprint) {
+            this.fingerprint = fingerprint;
+        }
+
+        @Override
+        public void setStatementKind(String statementKind) {
+            this.statementKind = statementKind;
+        }
+
+        @Override
+        public void setNodeCount(int nodeCount) {
+            this.nodeCount = nodeCount;
+        }
+
+        @Override
+        public void setOutputColumns(int outputColumns) {
+            this.outputColumns = outputColumns;
+        }
+
+        @Override
+        public void setEstimatedBytes(long estimatedBytes) {
+            this.estimatedBytes = estimatedBytes;
+        }
+
+        @Override
+        public void setSuccess(boolean success) {
+            this.success = success;
+        }
+    }
+
+    @Name("io.github.melin.sqlflow.ViewExpansion")
+    @Label("View Expansion")
+    @Category("SQL Flow")
+    @StackTrace(false)
+    static final class JfrViewExpansionEvent extends Event implements ViewExpansionEvent {
+
+        @Label("View")
+        private String view;
+
+        @Label("Cached")
+        private boolean cached;
+
+        @Override
+        public void setView(String view) {
+            this.view = view;
+        }
+
+        @Override
+        public void setCached(boolean cached) {
+            this.cached = cached;
+        }
+    }
+
+    @Name("io.github.melin.sqlflow.MetadataLookup")
+    @Label("Metadata Lookup")
+    @Category("SQL Flow")
+    static final class JfrMetadataLookupEvent extends Event implements MetadataLookupEvent {
+
+        @Label("Lookup")
+        private String lookup;
+
+        @Label("Object Name")
+        private String objectName;
+
+        @Label("Found")
+        private boolean found;
+
+        @Override
+        public void setLookup(String lookup) {
+            this.lookup = lookup;
+        }
+
+        @Override
+        public void setObjectName(String objectName) {
+            this.objectName = objectName;
+        }
+
+        @Override
+        public void setFound(boolean found) {
+            this.found = found;
+        }
+    }
+}
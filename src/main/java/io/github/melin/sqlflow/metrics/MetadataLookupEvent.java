@@ -0,0 +1,14 @@
+package io.github.melin.sqlflow.metrics;
+
+/**
+ * A call of the {@link io.github.melin.sqlflow.metadata.MetadataService} during analysis. Has a stack trace,
+ * so slow lookups can be traced back to the statement clause that needed them.
+ */
+public interface MetadataLookupEvent extends FlightRecorderEvent {
+
+    void setLookup(String lookup);
+
+    void setObjectName(String objectName);
+
+    void setFound(boolean found);
+}
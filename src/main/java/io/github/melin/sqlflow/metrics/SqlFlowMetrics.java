@@ -0,0 +1,77 @@
+package io.github.melin.sqlflow.metrics;
+
+/**
+ * Listener that {@link io.github.melin.sqlflow.parser.SqlFlowParser} and
+ * {@link io.github.melin.sqlflow.analyzer.StatementAnalyzer} report per statement timings and sizes to. It is
+ * passed to the parser, and the analyzers using that parser report to it as well. Implementations are called
+ * from every thread parsing or analyzing and must be thread-safe; {@link HistogramMetrics} is the default one,
+ * {@link #NOOP} turns the calls and the clock reads around them off.
+ */
+public interface SqlFlowMetrics {
+
+    SqlFlowMetrics NOOP = new SqlFlowMetrics() {
+        @Override
+        public boolean isEnabled() {
+            return false;
+        }
+    };
+
+    /**
+     * When false, the parser and analyzer skip the timing and counting done only for the listener.
+     */
+    default boolean isEnabled() {
+        return true;
+    }
+
+    /**
+     * A statement was lexed and parsed. The lexer runs on demand of the parser, so both are in the time.
+     *
+     * @param llFallback the SLL parse failed and the statement was parsed again in LL mode
+     */
+    default void recordParse(long nanos, boolean llFallback) {
+    }
+
+    /**
+     * The parse tree of a statement was converted to an AST of the given number of nodes.
+     */
+    default void recordAstBuild(long nanos, int nodeCount) {
+    }
+
+    /**
+     * A statement was analyzed, including the subqueries and views it contains.
+     */
+    default void recordAnalysis(long nanos) {
+    }
+
+    /**
+     * Number of fields the analysis of a statement created for its relations.
+     */
+    default void recordFieldsCreated(int count) {
+    }
+
+    /**
+     * Number of source columns of one column of the lineage target.
+     */
+    default void recordSourceColumns(int count) {
+    }
+
+    /**
+     * Estimated heap footprint of the ASTs, analysis and lineage of a statement, at the end of its analysis.
+     */
+    default void recordFootprint(long bytes) {
+    }
+
+    default void recordMetadataLookup(MetadataLookup lookup, long nanos) {
+    }
+
+    /**
+     * A view was expanded during analysis, from the view cache or by parsing and analyzing its definition.
+     */
+    default void recordViewExpansion(boolean cached) {
+    }
+
+    enum MetadataLookup {
+        TABLE_SCHEMA,
+        VIEW,
+    }
+}
@@ -0,0 +1,19 @@
+package io.github.melin.sqlflow.metrics;
+
+/**
+ * One attempt of {@link io.github.melin.sqlflow.parser.SqlFlowParser} to parse a statement. A statement the
+ * SLL prediction mode fails on has a second, LL event; the lexer runs on demand of the parser, so lexing is
+ * part of the duration.
+ */
+public interface SqlParseEvent extends FlightRecorderEvent {
+
+    void setFingerprint(String fingerprint);
+
+    void setStatementKind(String statementKind);
+
+    void setPredictionMode(String predictionMode);
+
+    void setSuccess(boolean success);
+
+    void setTokenCount(int tokenCount);
+}
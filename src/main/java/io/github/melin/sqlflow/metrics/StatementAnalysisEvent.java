@@ -0,0 +1,20 @@
+package io.github.melin.sqlflow.metrics;
+
+/**
+ * Analysis of a statement by {@link io.github.melin.sqlflow.analyzer.StatementAnalyzer}, including its
+ * subqueries and the views it expands, which have events of their own.
+ */
+public interface StatementAnalysisEvent extends FlightRecorderEvent {
+
+    void setFingerprint(String fingerprint);
+
+    void setStatementKind(String statementKind);
+
+    void setNodeCount(int nodeCount);
+
+    void setOutputColumns(int outputColumns);
+
+    void setEstimatedBytes(long estimatedBytes);
+
+    void setSuccess(boolean success);
+}
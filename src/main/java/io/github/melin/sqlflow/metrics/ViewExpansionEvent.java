@@ -0,0 +1,12 @@
+package io.github.melin.sqlflow.metrics;
+
+/**
+ * Expansion of a view referenced by a statement, the parse and analysis of its definition unless the view
+ * cache had it.
+ */
+public interface ViewExpansionEvent extends FlightRecorderEvent {
+
+    void setView(String view);
+
+    void setCached(boolean cached);
+}
@@ -52,6 +52,9 @@ import static java.util.stream.Collectors.toList;
 
 public class AstBuilder extends SqlFlowParserBaseVisitor<Node> {
 
+    // IN lists and VALUES tables of at least this many literals are kept packed instead of one node per value
+    private static final int MIN_PACKED_LITERALS = 64;
+
     private int parameterPosition;
 
     private final ParsingOptions parsingOptions;
@@ -462,23 +465,65 @@ public class AstBuilder extends SqlFlowParserBaseVisitor<Node> {
 
     @Override
     public Node visitSetOperation(SqlFlowParser.SetOperationContext context) {
-        QueryBody left = (QueryBody) visit(context.left);
-        QueryBody right = (QueryBody) visit(context.right);
+        // queryTerm is left recursive, so "q1 UNION ALL q2 UNION ALL q3 ..." is a left-deep chain. Walk it with a loop
+        // and collect consecutive branches of the same operator and quantifier into a single n-ary Union or Intersect.
+        Deque<SqlFlowParser.SetOperationContext> spine = new ArrayDeque<>();
+        SqlFlowParser.QueryTermContext current = context;
+        while (current instanceof SqlFlowParser.SetOperationContext) {
+            SqlFlowParser.SetOperationContext setOperation = (SqlFlowParser.SetOperationContext) current;
+            spine.push(setOperation);
+            current = setOperation.left;
+        }
+
+        QueryBody result = (QueryBody) visit(current);
+        SqlFlowParser.SetOperationContext group = null;
+        List<Relation> relations = new ArrayList<>();
+        while (!spine.isEmpty()) {
+            SqlFlowParser.SetOperationContext setOperation = spine.pop();
+            QueryBody right = (QueryBody) visit(setOperation.right);
+
+            if (setOperation.operator.getType() == SqlFlowLexer.EXCEPT) {
+                if (group != null) {
+                    result = createSetOperation(group, relations);
+                    group = null;
+                }
+                result = new Except(getLocation(setOperation.EXCEPT()), result, right, isDistinct(setOperation));
+                continue;
+            }
+
+            if (group != null && (group.operator.getType() != setOperation.operator.getType() || isDistinct(group) != isDistinct(setOperation))) {
+                result = createSetOperation(group, relations);
+                group = null;
+            }
+            if (group == null) {
+                group = setOperation;
+                relations = new ArrayList<>();
+                relations.add(result);
+            }
+            relations.add(right);
+        }
 
-        boolean distinct = context.setQuantifier() == null || context.setQuantifier().DISTINCT() != null;
+        if (group != null) {
+            result = createSetOperation(group, relations);
+        }
+        return result;
+    }
 
+    private SetOperation createSetOperation(SqlFlowParser.SetOperationContext context, List<Relation> relations) {
         switch (context.operator.getType()) {
             case SqlFlowLexer.UNION:
-                return new Union(getLocation(context.UNION()), ImmutableList.of(left, right), distinct);
+                return new Union(getLocation(context.UNION()), relations, isDistinct(context));
             case SqlFlowLexer.INTERSECT:
-                return new Intersect(getLocation(context.INTERSECT()), ImmutableList.of(left, right), distinct);
-            case SqlFlowLexer.EXCEPT:
-                return new Except(getLocation(context.EXCEPT()), left, right, distinct);
+                return new Intersect(getLocation(context.INTERSECT()), relations, isDistinct(context));
         }
 
         throw new IllegalArgumentException("Unsupported set operation: " + context.operator.getText());
     }
 
+    private static boolean isDistinct(SqlFlowParser.SetOperationContext context) {
+        return context.setQuantifier() == null || context.setQuantifier().DISTINCT() != null;
+    }
+
     @Override
     public Node visitSelectAll(SqlFlowParser.SelectAllContext context) {
         List<Identifier> aliases = ImmutableList.of();
@@ -512,9 +557,54 @@ public class AstBuilder extends SqlFlowParserBaseVisitor<Node> {
 
     @Override
     public Node visitInlineTable(SqlFlowParser.InlineTableContext context) {
+        Values packed = packInlineTable(context);
+        if (packed != null) {
+            return packed;
+        }
         return new Values(getLocation(context), visit(context.expression(), Expression.class));
     }
 
+    private Values packInlineTable(SqlFlowParser.InlineTableContext context) {
+        List<SqlFlowParser.ExpressionContext> rows = context.expression();
+        if (rows.size() < MIN_PACKED_LITERALS) {
+            return null;
+        }
+
+        SqlFlowParser.PrimaryExpressionContext first = asPrimaryExpression(rows.get(0));
+        if (!(first instanceof SqlFlowParser.RowConstructorContext)) {
+            LiteralArray literals = packLiterals(rows);
+            return literals == null ? null : LiteralValues.ofLiterals(getLocation(context), literals);
+        }
+
+        int columnCount = ((SqlFlowParser.RowConstructorContext) first).expression().size();
+        LiteralArray.Builder literals = LiteralArray.builder(rows.size() * columnCount);
+        int[] rowLocations = new int[rows.size() * 4];
+        for (int i = 0; i < rows.size(); i++) {
+            SqlFlowParser.PrimaryExpressionContext row = asPrimaryExpression(rows.get(i));
+            if (!(row instanceof SqlFlowParser.RowConstructorContext)) {
+                return null;
+            }
+
+            List<SqlFlowParser.ExpressionContext> items = ((SqlFlowParser.RowConstructorContext) row).expression();
+            if (items.size() != columnCount) {
+                return null;
+            }
+            for (SqlFlowParser.ExpressionContext item : items) {
+                if (!addLiteral(literals, item)) {
+                    return null;
+                }
+            }
+
+            Token start = row.getStart();
+            rowLocations[i * 4] = start.getLine();
+            rowLocations[i * 4 + 1] = start.getCharPositionInLine() + 1;
+            rowLocations[i * 4 + 2] = start.getStartIndex();
+            rowLocations[i * 4 + 3] = start.getTokenIndex();
+        }
+
+        return LiteralValues.ofRows(getLocation(context), literals.build(), columnCount, rowLocations);
+    }
+
     // ***************** boolean expressions ******************
 
     @Override
@@ -530,7 +620,7 @@ public class AstBuilder extends SqlFlowParserBaseVisitor<Node> {
                 return Optional.of(or.booleanExpression());
             }
 
-            return Optional.empty();
+            return unwrapParenthesized(element, SqlFlowParser.OrContext.class);
         });
 
         return new LogicalExpression(getLocation(context), LogicalExpression.Operator.OR, visit(terms, Expression.class));
@@ -544,12 +634,40 @@ public class AstBuilder extends SqlFlowParserBaseVisitor<Node> {
                 return Optional.of(and.booleanExpression());
             }
 
-            return Optional.empty();
+            return unwrapParenthesized(element, SqlFlowParser.AndContext.class);
         });
 
         return new LogicalExpression(getLocation(context), LogicalExpression.Operator.AND, visit(terms, Expression.class));
     }
 
+    /**
+     * Sees through redundant parentheses around a nested chain of the same logical operator,
+     * e.g. {@code ((a OR b) OR c)}, so that generated predicates are flattened into a single term list.
+     */
+    private static Optional<List<? extends ParserRuleContext>> unwrapParenthesized(
+            ParserRuleContext element,
+            Class<? extends SqlFlowParser.BooleanExpressionContext> operatorClass) {
+        ParserRuleContext current = element;
+        while (current instanceof SqlFlowParser.PredicatedContext) {
+            SqlFlowParser.PredicatedContext predicated = (SqlFlowParser.PredicatedContext) current;
+            if (predicated.predicate() != null || !(predicated.valueExpression() instanceof SqlFlowParser.ValueExpressionDefaultContext)) {
+                return Optional.empty();
+            }
+
+            SqlFlowParser.PrimaryExpressionContext primary = ((SqlFlowParser.ValueExpressionDefaultContext) predicated.valueExpression()).primaryExpression();
+            if (!(primary instanceof SqlFlowParser.ParenthesizedExpressionContext)) {
+                return Optional.empty();
+            }
+
+            current = ((SqlFlowParser.ParenthesizedExpressionContext) primary).expression().booleanExpression();
+            if (operatorClass.isInstance(current)) {
+                return Optional.of(ImmutableList.of(current));
+            }
+        }
+
+        return Optional.empty();
+    }
+
     private static List<ParserRuleContext> flatten(ParserRuleContext root, Function<ParserRuleContext, Optional<List<? extends ParserRuleContext>>> extractChildren) {
         List<ParserRuleContext> result = new ArrayList<>();
         Deque<ParserRuleContext> pending = new ArrayDeque<>();
@@ -856,10 +974,13 @@ public class AstBuilder extends SqlFlowParserBaseVisitor<Node> {
 
     @Override
     public Node visitInList(SqlFlowParser.InListContext context) {
-        Expression result = new InPredicate(
-                getLocation(context),
-                (Expression) visit(context.value),
-                new InListExpression(getLocation(context), visit(context.expression(), Expression.class)));
+        Expression value = (Expression) visit(context.value);
+        LiteralArray literals = context.expression().size() < MIN_PACKED_LITERALS ? null : packLiterals(context.expression());
+        InListExpression valueList = literals == null ?
+                new InListExpression(getLocation(context), visit(context.expression(), Expression.class)) :
+                new LiteralInListExpression(getLocation(context), literals);
+
+        Expression result = new InPredicate(getLocation(context), value, valueList);
 
         if (context.NOT() != null) {
             result = new NotExpression(getLocation(context), result);
@@ -915,20 +1036,44 @@ public class AstBuilder extends SqlFlowParserBaseVisitor<Node> {
 
     @Override
     public Node visitArithmeticBinary(SqlFlowParser.ArithmeticBinaryContext context) {
-        return new ArithmeticBinaryExpression(
-                getLocation(context.operator),
-                getArithmeticBinaryOperator(context.operator),
-                (Expression) visit(context.left),
-                (Expression) visit(context.right));
+        // the grammar is left recursive, so a long chain like "a + b - c + ..." is a left-deep tree.
+        // Walk down the left spine with a loop and rebuild it bottom up, only the right operands are visited recursively.
+        Deque<SqlFlowParser.ArithmeticBinaryContext> spine = new ArrayDeque<>();
+        SqlFlowParser.ValueExpressionContext current = context;
+        while (current instanceof SqlFlowParser.ArithmeticBinaryContext) {
+            SqlFlowParser.ArithmeticBinaryContext binary = (SqlFlowParser.ArithmeticBinaryContext) current;
+            spine.push(binary);
+            current = binary.left;
+        }
+
+        Expression result = (Expression) visit(current);
+        while (!spine.isEmpty()) {
+            SqlFlowParser.ArithmeticBinaryContext binary = spine.pop();
+            result = new ArithmeticBinaryExpression(
+                    getLocation(binary.operator),
+                    getArithmeticBinaryOperator(binary.operator),
+                    result,
+                    (Expression) visit(binary.right));
+        }
+        return result;
     }
 
     @Override
     public Node visitConcatenation(SqlFlowParser.ConcatenationContext context) {
+        // concat is variadic, so "a || b || c" becomes a single concat(a, b, c) call instead of nested calls
+        List<ParserRuleContext> operands = flatten(context, element -> {
+            if (element instanceof SqlFlowParser.ConcatenationContext) {
+                SqlFlowParser.ConcatenationContext concatenation = (SqlFlowParser.ConcatenationContext) element;
+                return Optional.of(ImmutableList.of(concatenation.left, concatenation.right));
+            }
+
+            return Optional.empty();
+        });
+
         return new FunctionCall(
                 getLocation(context.CONCAT()),
-                QualifiedName.of("concat"), ImmutableList.of(
-                (Expression) visit(context.left),
-                (Expression) visit(context.right)));
+                QualifiedName.of("concat"),
+                visit(operands, Expression.class));
     }
 
     @Override
@@ -939,6 +1084,11 @@ public class AstBuilder extends SqlFlowParserBaseVisitor<Node> {
                 (Expression) visit(context.timeZoneSpecifier()));
     }
 
+    @Override
+    public Node visitPgCastType(SqlFlowParser.PgCastTypeContext context) {
+        return new Cast(getLocation(context.TYPECAST()), (Expression) visit(context.valueExpression()), (DataType) visit(context.type()), false);
+    }
+
     @Override
     public Node visitTimeZoneInterval(SqlFlowParser.TimeZoneIntervalContext context) {
         return visit(context.interval());
@@ -1164,10 +1314,40 @@ public class AstBuilder extends SqlFlowParserBaseVisitor<Node> {
 
     @Override
     public Node visitSearchedCase(SqlFlowParser.SearchedCaseContext context) {
+        // CASE WHEN a THEN x ELSE CASE WHEN b THEN y ELSE z END END is the same as
+        // CASE WHEN a THEN x WHEN b THEN y ELSE z END, merge such else chains into a single node
+        ImmutableList.Builder<WhenClause> whenClauses = ImmutableList.builder();
+        SqlFlowParser.SearchedCaseContext current = context;
+        while (true) {
+            whenClauses.addAll(visit(current.whenClause(), WhenClause.class));
+            SqlFlowParser.SearchedCaseContext nested = asSearchedCase(current.elseExpression);
+            if (nested == null) {
+                break;
+            }
+            current = nested;
+        }
+
         return new SearchedCaseExpression(
                 getLocation(context),
-                visit(context.whenClause(), WhenClause.class),
-                visitIfPresent(context.elseExpression, Expression.class));
+                whenClauses.build(),
+                visitIfPresent(current.elseExpression, Expression.class));
+    }
+
+    private static SqlFlowParser.SearchedCaseContext asSearchedCase(SqlFlowParser.ExpressionContext expression) {
+        if (expression == null || !(expression.booleanExpression() instanceof SqlFlowParser.PredicatedContext)) {
+            return null;
+        }
+
+        SqlFlowParser.PredicatedContext predicated = (SqlFlowParser.PredicatedContext) expression.booleanExpression();
+        if (predicated.predicate() != null || !(predicated.valueExpression() instanceof SqlFlowParser.ValueExpressionDefaultContext)) {
+            return null;
+        }
+
+        SqlFlowParser.PrimaryExpressionContext primary = ((SqlFlowParser.ValueExpressionDefaultContext) predicated.valueExpression()).primaryExpression();
+        if (primary instanceof SqlFlowParser.SearchedCaseContext) {
+            return (SqlFlowParser.SearchedCaseContext) primary;
+        }
+        return null;
     }
 
     @Override
@@ -1511,6 +1691,89 @@ public class AstBuilder extends SqlFlowParserBaseVisitor<Node> {
 
     // ************** literals **************
 
+    /**
+     * Packs the expressions when every one of them is a simple literal, returns null otherwise.
+     */
+    private LiteralArray packLiterals(List<SqlFlowParser.ExpressionContext> expressions) {
+        LiteralArray.Builder literals = LiteralArray.builder(expressions.size());
+        for (SqlFlowParser.ExpressionContext expression : expressions) {
+            if (!addLiteral(literals, expression)) {
+                return null;
+            }
+        }
+        return literals.build();
+    }
+
+    /**
+     * Appends the expression if it is a NULL, boolean, numeric or basic string literal, producing
+     * the same values and locations as the corresponding visit methods.
+     */
+    private boolean addLiteral(LiteralArray.Builder literals, SqlFlowParser.ExpressionContext expression) {
+        SqlFlowParser.PrimaryExpressionContext primary = asPrimaryExpression(expression);
+        LiteralArray.Kind kind;
+        String value;
+        if (primary instanceof SqlFlowParser.NullLiteralContext) {
+            kind = LiteralArray.Kind.NULL;
+            value = "";
+        } else if (primary instanceof SqlFlowParser.BooleanLiteralContext) {
+            kind = LiteralArray.Kind.BOOLEAN;
+            value = primary.getText();
+        } else if (primary instanceof SqlFlowParser.StringLiteralContext) {
+            SqlFlowParser.StringContext string = ((SqlFlowParser.StringLiteralContext) primary).string();
+            if (!(string instanceof SqlFlowParser.BasicStringLiteralContext)) {
+                return false;
+            }
+            kind = LiteralArray.Kind.STRING;
+            value = unquote(((SqlFlowParser.BasicStringLiteralContext) string).STRING().getText());
+        } else if (primary instanceof SqlFlowParser.NumericLiteralContext) {
+            SqlFlowParser.NumberContext number = ((SqlFlowParser.NumericLiteralContext) primary).number();
+            if (number instanceof SqlFlowParser.IntegerLiteralContext) {
+                kind = LiteralArray.Kind.LONG;
+            } else if (number instanceof SqlFlowParser.DoubleLiteralContext) {
+                kind = LiteralArray.Kind.DOUBLE;
+            } else {
+                switch (parsingOptions.getDecimalLiteralTreatment()) {
+                    case AS_DOUBLE:
+                        kind = LiteralArray.Kind.DOUBLE;
+                        break;
+                    case AS_DECIMAL:
+                        kind = LiteralArray.Kind.DECIMAL;
+                        break;
+                    case REJECT:
+                        throw new ParsingException("Unexpected decimal literal: " + number.getText());
+                    default:
+                        throw new AssertionError("Unreachable");
+                }
+            }
+            value = number.getText();
+        } else {
+            return false;
+        }
+
+        Token start = primary.getStart();
+        literals.add(kind, value, start.getLine(), start.getCharPositionInLine() + 1, start.getStartIndex(), start.getTokenIndex());
+        return true;
+    }
+
+    /**
+     * Returns the primary expression of a plain value expression, looking through parentheses.
+     */
+    private static SqlFlowParser.PrimaryExpressionContext asPrimaryExpression(SqlFlowParser.ExpressionContext expression) {
+        while (expression.booleanExpression() instanceof SqlFlowParser.PredicatedContext) {
+            SqlFlowParser.PredicatedContext predicated = (SqlFlowParser.PredicatedContext) expression.booleanExpression();
+            if (predicated.predicate() != null || !(predicated.valueExpression() instanceof SqlFlowParser.ValueExpressionDefaultContext)) {
+                return null;
+            }
+
+            SqlFlowParser.PrimaryExpressionContext primary = ((SqlFlowParser.ValueExpressionDefaultContext) predicated.valueExpression()).primaryExpression();
+            if (!(primary instanceof SqlFlowParser.ParenthesizedExpressionContext)) {
+                return primary;
+            }
+            expression = ((SqlFlowParser.ParenthesizedExpressionContext) primary).expression();
+        }
+        return null;
+    }
+
     @Override
     public Node visitNullLiteral(SqlFlowParser.NullLiteralContext context) {
         return new NullLiteral(getLocation(context));
@@ -0,0 +1,73 @@
+package io.github.melin.sqlflow.parser;
+
+import io.github.melin.sqlflow.parser.antlr4.SqlFlowLexer;
+import org.antlr.v4.runtime.BufferedTokenStream;
+import org.antlr.v4.runtime.CommonToken;
+import org.antlr.v4.runtime.Token;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+
+/**
+ * Flattens searched CASE expressions nested as the whole ELSE branch of another searched CASE before the
+ * statement is parsed: CASE WHEN a THEN x ELSE CASE WHEN b THEN y ELSE z END END is the same as
+ * CASE WHEN a THEN x WHEN b THEN y ELSE z END. BI tools generate thousands of such levels, which the
+ * recursive descent parser would otherwise descend into once per level. The ELSE, CASE and END tokens of
+ * a merged level are moved to {@link #FLATTENED_CHANNEL}, so the parser skips them while their positions,
+ * and the fingerprint of the statement, stay the same.
+ */
+final class CaseChainFlattener {
+
+    static final int FLATTENED_CHANNEL = 2;
+
+    private CaseChainFlattener() {
+    }
+
+    static void flatten(BufferedTokenStream tokenStream) {
+        tokenStream.fill();
+        List<CommonToken> tokens = new ArrayList<>();
+        for (Token token : tokenStream.getTokens()) {
+            if (token.getChannel() == Token.DEFAULT_CHANNEL && token.getType() != Token.EOF) {
+                tokens.add((CommonToken) token);
+            }
+        }
+
+        Deque<OpenCase> openCases = new ArrayDeque<>();
+        for (int i = 0; i < tokens.size(); i++) {
+            int type = tokens.get(i).getType();
+            if (type == SqlFlowLexer.CASE) {
+                boolean searched = isType(tokens, i + 1, SqlFlowLexer.WHEN);
+                // the ELSE before the CASE belongs to the enclosing CASE, the innermost one still open
+                boolean inSearchedElse = searched && isType(tokens, i - 1, SqlFlowLexer.ELSE)
+                        && !openCases.isEmpty() && openCases.peek().searched;
+                openCases.push(new OpenCase(i, searched, inSearchedElse));
+            } else if (type == SqlFlowLexer.END && !openCases.isEmpty()) {
+                OpenCase openCase = openCases.pop();
+                // the enclosing CASE ends right after this one, so this CASE is its whole ELSE branch
+                if (openCase.inSearchedElse && isType(tokens, i + 1, SqlFlowLexer.END)) {
+                    tokens.get(openCase.start - 1).setChannel(FLATTENED_CHANNEL);
+                    tokens.get(openCase.start).setChannel(FLATTENED_CHANNEL);
+                    tokens.get(i).setChannel(FLATTENED_CHANNEL);
+                }
+            }
+        }
+    }
+
+    private static boolean isType(List<CommonToken> tokens, int index, int type) {
+        return index >= 0 && index < tokens.size() && tokens.get(index).getType() == type;
+    }
+
+    private static final class OpenCase {
+        private final int start;
+        private final boolean searched;
+        private final boolean inSearchedElse;
+
+        private OpenCase(int start, boolean searched, boolean inSearchedElse) {
+            this.start = start;
+            this.searched = searched;
+            this.inSearchedElse = inSearchedElse;
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package io.github.melin.sqlflow.parser;
+
+import io.github.melin.sqlflow.metrics.AstBuildEvent;
+import io.github.melin.sqlflow.metrics.FlightRecorder;
+import io.github.melin.sqlflow.metrics.SqlParseEvent;
+import io.github.melin.sqlflow.tree.Node;
+import org.antlr.v4.runtime.CommonTokenStream;
+import org.antlr.v4.runtime.atn.PredictionMode;
+
+import javax.annotation.Nullable;
+
+import static io.github.melin.sqlflow.util.AstUtils.nodeCount;
+
+/**
+ * The flight recorder events of parsing one statement. They are committed together once the statement is
+ * parsed, so the fingerprint of the statement is computed at most once, and only when a recording wants one
+ * of the events.
+ */
+final class ParseEvents {
+    private final SqlParseEvent sllEvent = FlightRecorder.newSqlParseEvent();
+    private final AstBuildEvent astBuildEvent = FlightRecorder.newAstBuildEvent();
+    private SqlParseEvent llEvent;
+    private SqlParseEvent current;
+
+    void beginAttempt(PredictionMode mode) {
+        if (current != null) {
+            current.end();
+        }
+        if (mode == PredictionMode.SLL) {
+            current = sllEvent;
+        } else {
+            llEvent = FlightRecorder.newSqlParseEvent();
+            current = llEvent;
+        }
+        current.setPredictionMode(mode.name());
+        current.begin();
+    }
+
+    void endAttempt() {
+        current.end();
+    }
+
+    void beginAstBuild() {
+        astBuildEvent.begin();
+    }
+
+    void endAstBuild() {
+        astBuildEvent.end();
+    }
+
+    /**
+     * @param statement the AST of the statement, null if it did not parse
+     */
+    void commit(CommonTokenStream tokenStream, @Nullable Node statement) {
+        boolean sll = sllEvent.shouldCommit();
+        boolean ll = llEvent != null && llEvent.shouldCommit();
+        boolean astBuild = statement != null && astBuildEvent.shouldCommit();
+        if (!sll && !ll && !astBuild) {
+            return;
+        }
+
+        String fingerprint = "";
+        String statementKind = "";
+        int tokenCount = 0;
+        if (statement != null) {
+            SqlFingerprint sqlFingerprint = SqlFingerprint.of(tokenStream.getTokens());
+            fingerprint = sqlFingerprint.toString();
+            tokenCount = sqlFingerprint.getTokenCount();
+            statementKind = statement.getClass().getSimpleName();
+        }
+        if (sll) {
+            commit(sllEvent, fingerprint, statementKind, tokenCount, statement != null && llEvent == null);
+        }
+        if (ll) {
+            commit(llEvent, fingerprint, statementKind, tokenCount, statement != null);
+        }
+        if (astBuild) {
+            astBuildEvent.setFingerprint(fingerprint);
+            astBuildEvent.setStatementKind(statementKind);
+            astBuildEvent.setNodeCount(nodeCount(statement));
+            astBuildEvent.commit();
+        }
+    }
+
+    private static void commit(SqlParseEvent event, String fingerprint, String statementKind, int tokenCount, boolean success) {
+        event.setFingerprint(fingerprint);
+        event.setStatementKind(statementKind);
+        event.setTokenCount(tokenCount);
+        event.setSuccess(success);
+        event.commit();
+    }
+}
@@ -0,0 +1,119 @@
+package io.github.melin.sqlflow.parser;
+
+import io.github.melin.sqlflow.parser.antlr4.SqlFlowLexer;
+import com.google.common.hash.HashCode;
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
+import org.antlr.v4.runtime.CharStreams;
+import org.antlr.v4.runtime.Token;
+
+import javax.annotation.concurrent.Immutable;
+
+import java.util.List;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Hash of the shape of a statement, computed from the lexer tokens only. Whitespace and comments are
+ * dropped and every literal is reduced to its token type, so statements rendered from the same template
+ * with different dates, ids or strings share a fingerprint. All other tokens, identifiers and keywords
+ * included, are hashed with their exact text.
+ */
+@Immutable
+public final class SqlFingerprint {
+    private final HashCode hash;
+    private final int tokenCount;
+
+    private SqlFingerprint(HashCode hash, int tokenCount) {
+        this.hash = requireNonNull(hash, "hash is null");
+        this.tokenCount = tokenCount;
+    }
+
+    public static SqlFingerprint of(String sql) {
+        SqlFlowLexer lexer = new SqlFlowLexer(new UpperCaseCharStream(CharStreams.fromString(sql)));
+        lexer.removeErrorListeners();
+
+        Hasher hasher = Hashing.murmur3_128().newHasher();
+        int tokenCount = 0;
+        for (Token token = lexer.nextToken(); token.getType() != Token.EOF; token = lexer.nextToken()) {
+            tokenCount += hash(hasher, token);
+        }
+        return new SqlFingerprint(hasher.hash(), tokenCount);
+    }
+
+    /**
+     * Fingerprints the tokens a parser has already read, equal to {@link #of(String)} of the statement text.
+     */
+    static SqlFingerprint of(List<Token> tokens) {
+        Hasher hasher = Hashing.murmur3_128().newHasher();
+        int tokenCount = 0;
+        for (Token token : tokens) {
+            if (token.getType() == Token.EOF) {
+                break;
+            }
+            tokenCount += hash(hasher, token);
+        }
+        return new SqlFingerprint(hasher.hash(), tokenCount);
+    }
+
+    private static int hash(Hasher hasher, Token token) {
+        // tokens flattened away for the parser are still part of the statement
+        if (token.getChannel() != Token.DEFAULT_CHANNEL && token.getChannel() != CaseChainFlattener.FLATTENED_CHANNEL) {
+            return 0;
+        }
+        hasher.putInt(token.getType());
+        if (!isLiteral(token.getType())) {
+            String text = token.getText();
+            hasher.putInt(text.length()).putString(text, UTF_8);
+        }
+        return 1;
+    }
+
+    private static boolean isLiteral(int tokenType) {
+        switch (tokenType) {
+            case SqlFlowLexer.STRING:
+            case SqlFlowLexer.UNICODE_STRING:
+            case SqlFlowLexer.BINARY_LITERAL:
+            case SqlFlowLexer.INTEGER_VALUE:
+            case SqlFlowLexer.DECIMAL_VALUE:
+            case SqlFlowLexer.DOUBLE_VALUE:
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    public HashCode getHash() {
+        return hash;
+    }
+
+    /**
+     * Number of tokens of the statement, not counting whitespace and comments.
+     */
+    public int getTokenCount() {
+        return tokenCount;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        SqlFingerprint that = (SqlFingerprint) o;
+        return tokenCount == that.tokenCount && hash.equals(that.hash);
+    }
+
+    @Override
+    public int hashCode() {
+        return hash.hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return hash.toString();
+    }
+}
@@ -1,5 +1,6 @@
 package io.github.melin.sqlflow.parser;
 
+import io.github.melin.sqlflow.metrics.SqlFlowMetrics;
 import io.github.melin.sqlflow.parser.antlr4.SqlFlowLexer;
 import io.github.melin.sqlflow.parser.antlr4.SqlFlowParserBaseListener;
 import io.github.melin.sqlflow.tree.Node;
@@ -17,6 +18,7 @@ import java.util.function.Function;
 
 import static io.github.melin.sqlflow.parser.AntlrCaches.RELEASE_ANTLR_CACHE_AFTER_PARSING;
 import static io.github.melin.sqlflow.parser.ParsingOptions.DecimalLiteralTreatment.AS_DECIMAL;
+import static io.github.melin.sqlflow.util.AstUtils.nodeCount;
 import static java.util.Objects.requireNonNull;
 
 /**
@@ -29,12 +31,42 @@ public class SqlFlowParser {
 
     private final BiConsumer<SqlFlowLexer, io.github.melin.sqlflow.parser.antlr4.SqlFlowParser> initializer;
 
+    private final boolean releaseCachesAfterParsing;
+
+    private final SqlFlowMetrics metrics;
+
     public SqlFlowParser() {
         this(DEFAULT_PARSER_INITIALIZER);
     }
 
     public SqlFlowParser(BiConsumer<SqlFlowLexer, io.github.melin.sqlflow.parser.antlr4.SqlFlowParser> initializer) {
+        this(initializer, releaseCachesByDefault());
+    }
+
+    /**
+     * @param releaseCachesAfterParsing drop the shared ANTLR DFA caches after every statement. Keeping them
+     * makes later statements parse faster and lets concurrent parsers share what was learned, at the cost of memory.
+     */
+    public SqlFlowParser(BiConsumer<SqlFlowLexer, io.github.melin.sqlflow.parser.antlr4.SqlFlowParser> initializer, boolean releaseCachesAfterParsing) {
+        this(initializer, releaseCachesAfterParsing, SqlFlowMetrics.NOOP);
+    }
+
+    /**
+     * @param metrics receives the timings of this parser and of the analyzers using it
+     */
+    public SqlFlowParser(BiConsumer<SqlFlowLexer, io.github.melin.sqlflow.parser.antlr4.SqlFlowParser> initializer, boolean releaseCachesAfterParsing, SqlFlowMetrics metrics) {
         this.initializer = requireNonNull(initializer, "initializer is null");
+        this.releaseCachesAfterParsing = releaseCachesAfterParsing;
+        this.metrics = requireNonNull(metrics, "metrics is null");
+    }
+
+    public SqlFlowMetrics getMetrics() {
+        return metrics;
+    }
+
+    private static boolean releaseCachesByDefault() {
+        String releaseAntlrCache = System.getenv(RELEASE_ANTLR_CACHE_AFTER_PARSING);
+        return releaseAntlrCache == null || "true".equals(releaseAntlrCache);
     }
 
     public Statement createStatement(String sql) {
@@ -55,60 +87,91 @@ public class SqlFlowParser {
                               Function<io.github.melin.sqlflow.parser.antlr4.SqlFlowParser, ParserRuleContext> parseFunction,
                               ParsingOptions parsingOptions) {
         try {
-            UpperCaseCharStream charStream = new UpperCaseCharStream(CharStreams.fromString(sql));
-            SqlFlowLexer lexer = new SqlFlowLexer(charStream);
-            CommonTokenStream tokenStream = new CommonTokenStream(lexer);
-            io.github.melin.sqlflow.parser.antlr4.SqlFlowParser parser = new io.github.melin.sqlflow.parser.antlr4.SqlFlowParser(tokenStream);
-            AbstractSqlParser.installCaches(parser);
-            initializer.accept(lexer, parser);
-
-            // Override the default error strategy to not attempt inserting or deleting a token.
-            // Otherwise, it messes up error reporting
-            parser.setErrorHandler(new DefaultErrorStrategy() {
-                @Override
-                public Token recoverInline(Parser recognizer)
-                        throws RecognitionException {
-                    if (nextTokensContext == null) {
-                        throw new InputMismatchException(recognizer);
-                    } else {
-                        throw new InputMismatchException(recognizer, nextTokensState, nextTokensContext);
+            io.github.melin.sqlflow.parser.antlr4.SqlFlowParser parser = createParser(sql);
+            CommonTokenStream tokenStream = (CommonTokenStream) parser.getTokenStream();
+
+            boolean enabled = metrics.isEnabled();
+            long start = enabled ? System.nanoTime() : 0;
+            boolean llFallback = false;
+            ParseEvents events = new ParseEvents();
+            Node node = null;
+            try {
+                ParserRuleContext tree;
+                try {
+                    // first, try parsing with potentially faster SLL mode
+                    parser.getInterpreter().setPredictionMode(PredictionMode.SLL);
+                    events.beginAttempt(PredictionMode.SLL);
+                    CaseChainFlattener.flatten(tokenStream);
+                    tree = parseFunction.apply(parser);
+                } catch (Exception ex) {
+                    // if we fail, parse with LL mode
+                    llFallback = true;
+                    tokenStream.seek(0); // rewind input stream
+                    parser.reset();
+
+                    parser.getInterpreter().setPredictionMode(PredictionMode.LL);
+                    events.beginAttempt(PredictionMode.LL);
+                    tree = parseFunction.apply(parser);
+                } finally {
+                    events.endAttempt();
+                    if (releaseCachesAfterParsing) {
+                        AbstractSqlParser.refreshParserCaches();
                     }
                 }
-            });
-
-            parser.addParseListener(new PostProcessor(Arrays.asList(parser.getRuleNames()), parser));
-
-            lexer.removeErrorListeners();
-            lexer.addErrorListener(new ParseErrorListener());
 
-            parser.removeErrorListeners();
-            parser.addErrorListener(new ParseErrorListener());
-
-            ParserRuleContext tree;
-            try {
-                // first, try parsing with potentially faster SLL mode
-                parser.getInterpreter().setPredictionMode(PredictionMode.SLL);
-                tree = parseFunction.apply(parser);
-            } catch (Exception ex) {
-                // if we fail, parse with LL mode
-                tokenStream.seek(0); // rewind input stream
-                parser.reset();
-
-                parser.getInterpreter().setPredictionMode(PredictionMode.LL);
-                tree = parseFunction.apply(parser);
-            } finally {
-                String releaseAntlrCache = System.getenv(RELEASE_ANTLR_CACHE_AFTER_PARSING);
-                if (releaseAntlrCache == null || "true".equals(releaseAntlrCache)) {
-                    AbstractSqlParser.refreshParserCaches();
+                long parsed = enabled ? System.nanoTime() : 0;
+                events.beginAstBuild();
+                node = new AstBuilder(parsingOptions).visit(tree);
+                events.endAstBuild();
+                if (enabled) {
+                    metrics.recordParse(parsed - start, llFallback);
+                    metrics.recordAstBuild(System.nanoTime() - parsed, nodeCount(node));
                 }
+            } finally {
+                events.commit(tokenStream, node);
             }
-
-            return new AstBuilder(parsingOptions).visit(tree);
+            return node;
         } catch (StackOverflowError e) {
             throw new ParsingException(name + " is too large (stack overflow while parsing)");
         }
     }
 
+    /**
+     * Creates a parser for the statement, set up the way {@link #createStatement} uses it but without choosing
+     * the prediction mode. Used by the benchmarks to time lexing, parsing and AST building separately.
+     */
+    io.github.melin.sqlflow.parser.antlr4.SqlFlowParser createParser(String sql) {
+        UpperCaseCharStream charStream = new UpperCaseCharStream(CharStreams.fromString(sql));
+        SqlFlowLexer lexer = new SqlFlowLexer(charStream);
+        CommonTokenStream tokenStream = new CommonTokenStream(lexer);
+        io.github.melin.sqlflow.parser.antlr4.SqlFlowParser parser = new io.github.melin.sqlflow.parser.antlr4.SqlFlowParser(tokenStream);
+        AbstractSqlParser.installCaches(parser);
+        initializer.accept(lexer, parser);
+
+        // Override the default error strategy to not attempt inserting or deleting a token.
+        // Otherwise, it messes up error reporting
+        parser.setErrorHandler(new DefaultErrorStrategy() {
+            @Override
+            public Token recoverInline(Parser recognizer)
+                    throws RecognitionException {
+                if (nextTokensContext == null) {
+                    throw new InputMismatchException(recognizer);
+                } else {
+                    throw new InputMismatchException(recognizer, nextTokensState, nextTokensContext);
+                }
+            }
+        });
+
+        parser.addParseListener(new PostProcessor(Arrays.asList(parser.getRuleNames()), parser));
+
+        lexer.removeErrorListeners();
+        lexer.addErrorListener(new ParseErrorListener());
+
+        parser.removeErrorListeners();
+        parser.addErrorListener(new ParseErrorListener());
+        return parser;
+    }
+
     private static class PostProcessor extends SqlFlowParserBaseListener {
         private final List<String> ruleNames;
         private final io.github.melin.sqlflow.parser.antlr4.SqlFlowParser parser;
@@ -0,0 +1,109 @@
+package io.github.melin.sqlflow.parser;
+
+import io.github.melin.sqlflow.parser.antlr4.SqlFlowLexer;
+import com.google.common.collect.ImmutableSet;
+import org.antlr.v4.runtime.CharStreams;
+import org.antlr.v4.runtime.Token;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static java.util.Locale.ENGLISH;
+
+/**
+ * Names a script mentions, collected from the lexer tokens only, so a corpus can be narrowed down before
+ * anything is parsed. Every identifier is returned on its own and every dotted chain of identifiers with
+ * all its contiguous parts, e.g. {@code cat.db.t} gives {@code cat}, {@code db}, {@code t}, {@code cat.db},
+ * {@code db.t} and {@code cat.db.t}. Keywords are included as well since non-reserved ones can name tables
+ * and columns, and {@link #ASTERISK} is included when the script contains a {@code *}, which may select
+ * columns without naming them.
+ */
+public final class SqlIdentifiers {
+
+    public static final String ASTERISK = "*";
+
+    private SqlIdentifiers() {
+    }
+
+    /**
+     * Names mentioned by the script, normalized with {@link #normalize}.
+     */
+    public static ImmutableSet<String> extract(String sql, boolean caseSensitive) {
+        SqlFlowLexer lexer = new SqlFlowLexer(new UpperCaseCharStream(CharStreams.fromString(sql)));
+        lexer.removeErrorListeners();
+
+        ImmutableSet.Builder<String> names = ImmutableSet.builder();
+        List<String> chain = new ArrayList<>();
+        boolean afterDot = false;
+        for (Token token = lexer.nextToken(); token.getType() != Token.EOF; token = lexer.nextToken()) {
+            if (token.getChannel() != Token.DEFAULT_CHANNEL) {
+                continue;
+            }
+            String name = identifier(token);
+            if (name != null) {
+                name = normalize(name, caseSensitive);
+                names.add(name);
+                if (!afterDot) {
+                    addChain(names, chain);
+                    chain.clear();
+                }
+                chain.add(name);
+                afterDot = false;
+            } else if (token.getType() == SqlFlowLexer.DOT && !chain.isEmpty() && !afterDot) {
+                afterDot = true;
+            } else {
+                if (token.getType() == SqlFlowLexer.ASTERISK) {
+                    names.add(ASTERISK);
+                }
+                addChain(names, chain);
+                chain.clear();
+                afterDot = false;
+            }
+        }
+        addChain(names, chain);
+        return names.build();
+    }
+
+    /**
+     * Normalizes a name the way the analyzer compares identifiers: lower case unless case-sensitive.
+     */
+    public static String normalize(String name, boolean caseSensitive) {
+        return caseSensitive ? name : name.toLowerCase(ENGLISH);
+    }
+
+    private static String identifier(Token token) {
+        String text = token.getText();
+        switch (token.getType()) {
+            case SqlFlowLexer.IDENTIFIER:
+            case SqlFlowLexer.DIGIT_IDENTIFIER:
+                return text;
+            case SqlFlowLexer.QUOTED_IDENTIFIER:
+                return text.length() > 2 ? text.substring(1, text.length() - 1).replace("\"\"", "\"") : null;
+            case SqlFlowLexer.BACKQUOTED_IDENTIFIER:
+                return text.length() > 2 ? text.substring(1, text.length() - 1) : null;
+            default:
+                // keywords, the non-reserved ones can be identifiers
+                return !text.isEmpty() && Character.isLetter(text.charAt(0)) && isWord(text) ? text : null;
+        }
+    }
+
+    private static boolean isWord(String text) {
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (!Character.isLetterOrDigit(c) && c != '_') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static void addChain(ImmutableSet.Builder<String> names, List<String> chain) {
+        for (int start = 0; start < chain.size(); start++) {
+            StringBuilder name = new StringBuilder(chain.get(start));
+            for (int end = start + 1; end < chain.size(); end++) {
+                name.append('.').append(chain.get(end));
+                names.add(name.toString());
+            }
+        }
+    }
+}
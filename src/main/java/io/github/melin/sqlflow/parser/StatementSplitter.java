@@ -0,0 +1,61 @@
+package io.github.melin.sqlflow.parser;
+
+import io.github.melin.sqlflow.parser.antlr4.SqlFlowLexer;
+import com.google.common.collect.ImmutableList;
+import org.antlr.v4.runtime.CharStreams;
+import org.antlr.v4.runtime.Token;
+
+import java.util.List;
+
+/**
+ * Splits a SQL script into statements on top level semicolons, using the lexer so that semicolons
+ * inside string literals, quoted identifiers and comments are not mistaken for separators.
+ */
+public final class StatementSplitter {
+    private StatementSplitter() {
+    }
+
+    /**
+     * Returns the text of every statement in the script, without the terminating semicolon.
+     * Statements made only of whitespace and comments are dropped.
+     */
+    public static List<String> split(String script) {
+        SqlFlowLexer lexer = new SqlFlowLexer(new UpperCaseCharStream(CharStreams.fromString(script)));
+        lexer.removeErrorListeners();
+
+        // token indexes count code points, which only differ from char indexes when the script has surrogate pairs
+        boolean codePointIndexes = script.length() != script.codePointCount(0, script.length());
+
+        ImmutableList.Builder<String> statements = ImmutableList.builder();
+        int start = -1;
+        int stop = -1;
+        for (Token token = lexer.nextToken(); token.getType() != Token.EOF; token = lexer.nextToken()) {
+            if (token.getChannel() != Token.DEFAULT_CHANNEL) {
+                continue;
+            }
+            if (token.getType() == SqlFlowLexer.SEMICOLON) {
+                if (start >= 0) {
+                    statements.add(substring(script, start, stop + 1, codePointIndexes));
+                }
+                start = -1;
+                continue;
+            }
+            if (start < 0) {
+                start = token.getStartIndex();
+            }
+            stop = token.getStopIndex();
+        }
+        if (start >= 0) {
+            statements.add(substring(script, start, stop + 1, codePointIndexes));
+        }
+        return statements.build();
+    }
+
+    private static String substring(String script, int start, int end, boolean codePointIndexes) {
+        if (!codePointIndexes) {
+            return script.substring(start, end);
+        }
+        int startOffset = script.offsetByCodePoints(0, start);
+        return script.substring(startOffset, script.offsetByCodePoints(startOffset, end - start));
+    }
+}
@@ -55,7 +55,7 @@ public class AllColumns extends SelectItem {
     }
 
     @Override
-    public List<? extends Node> getChildren() {
+    protected List<? extends Node> computeChildren() {
         return target.map(ImmutableList::<Node>of)
                 .orElse(ImmutableList.of());
     }
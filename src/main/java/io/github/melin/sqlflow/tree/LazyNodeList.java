@@ -0,0 +1,64 @@
+package io.github.melin.sqlflow.tree;
+
+import java.util.AbstractList;
+import java.util.RandomAccess;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.IntFunction;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkElementIndex;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Immutable list of nodes that are created on first access. Created nodes are kept,
+ * so every traversal observes the same instances and {@link NodeRef} keys stay stable.
+ */
+public final class LazyNodeList<T extends Node> extends AbstractList<T> implements RandomAccess {
+    private final int size;
+    private final IntFunction<? extends T> factory;
+
+    private volatile AtomicReferenceArray<T> nodes;
+
+    public LazyNodeList(int size, IntFunction<? extends T> factory) {
+        checkArgument(size >= 0, "size is negative");
+        this.size = size;
+        this.factory = requireNonNull(factory, "factory is null");
+    }
+
+    @Override
+    public T get(int index) {
+        checkElementIndex(index, size);
+
+        AtomicReferenceArray<T> nodes = this.nodes;
+        if (nodes == null) {
+            synchronized (this) {
+                nodes = this.nodes;
+                if (nodes == null) {
+                    nodes = new AtomicReferenceArray<>(size);
+                    this.nodes = nodes;
+                }
+            }
+        }
+
+        T node = nodes.get(index);
+        if (node == null) {
+            node = requireNonNull(factory.apply(index), "factory returned null");
+            if (!nodes.compareAndSet(index, null, node)) {
+                node = nodes.get(index);
+            }
+        }
+        return node;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns whether any element was accessed, so its nodes are being created.
+     */
+    public boolean isMaterialized() {
+        return nodes != null;
+    }
+}
@@ -50,7 +50,7 @@ public final class LikeClause extends TableElement {
     }
 
     @Override
-    public List<Node> getChildren() {
+    protected List<Node> computeChildren() {
         return ImmutableList.of();
     }
 
@@ -0,0 +1,94 @@
+package io.github.melin.sqlflow.tree;
+
+import io.github.melin.sqlflow.tree.expression.Expression;
+import io.github.melin.sqlflow.tree.expression.Row;
+import io.github.melin.sqlflow.tree.literal.LiteralArray;
+import com.google.common.collect.ImmutableList;
+
+import java.util.List;
+import java.util.Optional;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * VALUES table made only of simple literals. The cells are kept packed row by row in a
+ * {@link LiteralArray} and {@link #getRows()} materializes row and literal nodes on access.
+ */
+public final class LiteralValues extends Values {
+    private static final int LOCATION_SLOTS = 4;
+
+    private final LiteralArray literals;
+    private final int columnCount;
+    // line, column, startIndex, stopIndex of each row constructor, empty when every row is a bare literal
+    private final Optional<int[]> rowLocations;
+
+    private LiteralValues(NodeLocation location, LiteralArray literals, int columnCount, Optional<int[]> rowLocations, int rowCount) {
+        super(location, new LazyNodeList<>(rowCount, row -> createRow(literals, columnCount, rowLocations, row)));
+        this.literals = literals;
+        this.columnCount = columnCount;
+        this.rowLocations = rowLocations;
+    }
+
+    /**
+     * Single column table whose rows are the literals themselves, e.g. {@code VALUES 1, 2, 3}.
+     */
+    public static LiteralValues ofLiterals(NodeLocation location, LiteralArray literals) {
+        requireNonNull(literals, "literals is null");
+        return new LiteralValues(location, literals, 1, Optional.empty(), literals.size());
+    }
+
+    /**
+     * Table whose rows are row constructors, with the cells stored row by row in {@code literals}
+     * and the line, column, startIndex and stopIndex of each row in {@code rowLocations}.
+     */
+    public static LiteralValues ofRows(NodeLocation location, LiteralArray literals, int columnCount, int[] rowLocations) {
+        requireNonNull(literals, "literals is null");
+        requireNonNull(rowLocations, "rowLocations is null");
+        checkArgument(columnCount > 0, "columnCount must be positive");
+        checkArgument(literals.size() % columnCount == 0, "literals do not fill the last row");
+        int rowCount = literals.size() / columnCount;
+        checkArgument(rowLocations.length == rowCount * LOCATION_SLOTS, "rowLocations does not match the row count");
+        return new LiteralValues(location, literals, columnCount, Optional.of(rowLocations), rowCount);
+    }
+
+    public LiteralArray getLiterals() {
+        return literals;
+    }
+
+    public int getColumnCount() {
+        return columnCount;
+    }
+
+    public int getRowCount() {
+        return literals.size() / columnCount;
+    }
+
+    /**
+     * Whether the rows are row constructors, as opposed to the bare literals of {@link #ofLiterals}.
+     */
+    public boolean hasRowConstructors() {
+        return rowLocations.isPresent();
+    }
+
+    @Override
+    public List<? extends Node> getChildren() {
+        // the rows are already an immutable list, copying it would materialize every row
+        return getRows();
+    }
+
+    private static Expression createRow(LiteralArray literals, int columnCount, Optional<int[]> rowLocations, int row) {
+        if (!rowLocations.isPresent()) {
+            return literals.get(row);
+        }
+
+        int slot = row * LOCATION_SLOTS;
+        int[] locations = rowLocations.get();
+        NodeLocation location = new NodeLocation(locations[slot], locations[slot + 1], locations[slot + 2], locations[slot + 3]);
+        ImmutableList.Builder<Expression> items = ImmutableList.builderWithExpectedSize(columnCount);
+        for (int index = row * columnCount; index < (row + 1) * columnCount; index++) {
+            items.add(literals.get(index));
+        }
+        return new Row(location, items.build());
+    }
+}
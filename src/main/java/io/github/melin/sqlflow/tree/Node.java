@@ -1,5 +1,6 @@
 package io.github.melin.sqlflow.tree;
 
+import com.google.common.collect.ImmutableList;
 import io.github.melin.sqlflow.AstVisitor;
 
 import java.util.List;
@@ -13,6 +14,10 @@ import static java.util.Objects.requireNonNull;
 public abstract class Node {
     private final Optional<NodeLocation> location;
 
+    // nodes are immutable, so the children list is computed on first access and reused afterwards.
+    // A racy double computation is harmless: ImmutableList is safely published through its final fields.
+    private List<? extends Node> children;
+
     protected Node(Optional<NodeLocation> location) {
         this.location = requireNonNull(location, "location is null");
     }
@@ -28,7 +33,19 @@ public abstract class Node {
         return location;
     }
 
-    public abstract List<? extends Node> getChildren();
+    public List<? extends Node> getChildren() {
+        List<? extends Node> result = children;
+        if (result == null) {
+            result = ImmutableList.copyOf(computeChildren());
+            children = result;
+        }
+        return result;
+    }
+
+    /**
+     * Builds the children of this node, called at most once per node (modulo races) by {@link #getChildren()}.
+     */
+    protected abstract List<? extends Node> computeChildren();
 
     // Force subclasses to have a proper equals and hashcode implementation
     @Override
@@ -43,7 +43,7 @@ public class OrderBy
     }
 
     @Override
-    public List<? extends Node> getChildren() {
+    protected List<? extends Node> computeChildren() {
         return sortItems;
     }
 
@@ -52,7 +52,7 @@ public final class PathElement extends Node {
     }
 
     @Override
-    public List<? extends Node> getChildren() {
+    protected List<? extends Node> computeChildren() {
         return ImmutableList.of();
     }
 
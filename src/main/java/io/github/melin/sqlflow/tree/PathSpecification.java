@@ -37,7 +37,7 @@ public final class PathSpecification extends Node {
     }
 
     @Override
-    public List<? extends Node> getChildren() {
+    protected List<? extends Node> computeChildren() {
         return path;
     }
 
@@ -36,7 +36,7 @@ public final class ProcessingMode
     }
 
     @Override
-    public List<? extends Node> getChildren() {
+    protected List<? extends Node> computeChildren() {
         return ImmutableList.of();
     }
 
@@ -48,7 +48,7 @@ public class Property
     }
 
     @Override
-    public List<? extends Node> getChildren() {
+    protected List<? extends Node> computeChildren() {
         return ImmutableList.of(name, value);
     }
 
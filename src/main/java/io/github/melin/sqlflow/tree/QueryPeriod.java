@@ -36,7 +36,7 @@ public class QueryPeriod extends Node {
     }
 
     @Override
-    public List<? extends Node> getChildren() {
+    protected List<? extends Node> computeChildren() {
         ImmutableList.Builder<Node> nodes = ImmutableList.builder();
         if (start.isPresent()) {
             nodes.add(start.get());
@@ -46,7 +46,7 @@ public class Select
     }
 
     @Override
-    public List<? extends Node> getChildren() {
+    protected List<? extends Node> computeChildren() {
         return selectItems;
     }
 
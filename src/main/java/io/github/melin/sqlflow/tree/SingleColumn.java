@@ -84,7 +84,7 @@ public class SingleColumn
     }
 
     @Override
-    public List<? extends Node> getChildren() {
+    protected List<? extends Node> computeChildren() {
         return ImmutableList.of(expression);
     }
 
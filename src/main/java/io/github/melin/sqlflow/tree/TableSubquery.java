@@ -40,7 +40,7 @@ public class TableSubquery extends QueryBody {
     }
 
     @Override
-    public List<? extends Node> getChildren() {
+    protected List<? extends Node> computeChildren() {
         return ImmutableList.of(query);
     }
 
@@ -47,7 +47,7 @@ public class UpdateAssignment extends Node {
     }
 
     @Override
-    public List<? extends Node> getChildren() {
+    protected List<? extends Node> computeChildren() {
         return ImmutableList.of(name, value);
     }
 
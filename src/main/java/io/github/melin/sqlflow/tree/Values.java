@@ -15,7 +15,7 @@ import static java.util.Objects.requireNonNull;
 /**
  * huaixin 2021/12/21 1:11 PM
  */
-public final class Values extends QueryBody {
+public class Values extends QueryBody {
     private final List<Expression> rows;
 
     public Values(List<Expression> rows) {
@@ -32,6 +32,14 @@ public final class Values extends QueryBody {
         this.rows = ImmutableList.copyOf(rows);
     }
 
+    /**
+     * For subclasses that supply their own immutable, possibly lazily materialized, list of rows.
+     */
+    protected Values(NodeLocation location, LazyNodeList<Expression> rows) {
+        super(Optional.of(location));
+        this.rows = requireNonNull(rows, "rows is null");
+    }
+
     public List<Expression> getRows() {
         return rows;
     }
@@ -42,7 +50,7 @@ public final class Values extends QueryBody {
     }
 
     @Override
-    public List<? extends Node> getChildren() {
+    protected List<? extends Node> computeChildren() {
         return rows;
     }
 
@@ -50,7 +50,7 @@ public class With
     }
 
     @Override
-    public List<? extends Node> getChildren() {
+    protected List<? extends Node> computeChildren() {
         return queries;
     }
 
@@ -54,7 +54,7 @@ public class WithQuery
     }
 
     @Override
-    public List<? extends Node> getChildren() {
+    protected List<? extends Node> computeChildren() {
         return ImmutableList.of(query);
     }
 
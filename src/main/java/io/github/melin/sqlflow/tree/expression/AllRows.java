@@ -31,7 +31,7 @@ public class AllRows
     }
 
     @Override
-    public List<? extends Node> getChildren() {
+    protected List<? extends Node> computeChildren() {
         return ImmutableList.of();
     }
 
@@ -68,7 +68,7 @@ public class ArithmeticBinaryExpression extends Expression {
     }
 
     @Override
-    public List<? extends Node> getChildren() {
+    protected List<? extends Node> computeChildren() {
         return ImmutableList.of(left, right);
     }
 
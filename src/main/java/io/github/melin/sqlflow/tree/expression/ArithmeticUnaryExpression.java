@@ -70,7 +70,7 @@ public class ArithmeticUnaryExpression extends Expression {
     }
 
     @Override
-    public List<? extends Node> getChildren() {
+    protected List<? extends Node> computeChildren() {
         return ImmutableList.of(value);
     }
 
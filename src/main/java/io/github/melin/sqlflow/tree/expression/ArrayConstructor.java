@@ -43,7 +43,7 @@ public class ArrayConstructor extends Expression {
     }
 
     @Override
-    public List<? extends Node> getChildren() {
+    protected List<? extends Node> computeChildren() {
         return values;
     }
 
@@ -51,7 +51,7 @@ public class AtTimeZone
     }
 
     @Override
-    public List<? extends Node> getChildren() {
+    protected List<? extends Node> computeChildren() {
         return ImmutableList.of(value, timeZone);
     }
 
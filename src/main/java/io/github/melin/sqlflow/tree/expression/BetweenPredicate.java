@@ -57,7 +57,7 @@ public class BetweenPredicate
     }
 
     @Override
-    public List<? extends Node> getChildren() {
+    protected List<? extends Node> computeChildren() {
         return ImmutableList.of(value, min, max);
     }
 
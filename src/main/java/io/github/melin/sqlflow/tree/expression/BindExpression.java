@@ -48,7 +48,7 @@ public class BindExpression extends Expression {
     }
 
     @Override
-    public List<? extends Node> getChildren() {
+    protected List<? extends Node> computeChildren() {
         ImmutableList.Builder<Node> nodes = ImmutableList.builder();
         return nodes.addAll(values)
                 .add(function)
@@ -73,7 +73,7 @@ public final class Cast extends Expression {
     }
 
     @Override
-    public List<? extends Node> getChildren() {
+    protected List<? extends Node> computeChildren() {
         return ImmutableList.of(expression, type);
     }
 
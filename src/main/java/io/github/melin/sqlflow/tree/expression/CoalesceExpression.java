@@ -51,7 +51,7 @@ public class CoalesceExpression extends Expression {
     }
 
     @Override
-    public List<? extends Node> getChildren() {
+    protected List<? extends Node> computeChildren() {
         return operands;
     }
 
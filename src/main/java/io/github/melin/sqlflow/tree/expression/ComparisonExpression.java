@@ -56,7 +56,7 @@ public class ComparisonExpression extends Expression {
     }
 
     @Override
-    public List<? extends Node> getChildren() {
+    protected List<? extends Node> computeChildren() {
         return ImmutableList.of(left, right);
     }
 
@@ -21,7 +21,7 @@ public class CurrentPath extends Expression {
     }
 
     @Override
-    public List<? extends Node> getChildren() {
+    protected List<? extends Node> computeChildren() {
         return ImmutableList.of();
     }
 
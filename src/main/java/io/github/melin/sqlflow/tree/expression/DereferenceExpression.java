@@ -51,7 +51,7 @@ public class DereferenceExpression
     }
 
     @Override
-    public List<? extends Node> getChildren() {
+    protected List<? extends Node> computeChildren() {
         ImmutableList.Builder<Node> children = ImmutableList.builder();
         children.add(base);
         field.ifPresent(children::add);
@@ -71,7 +71,7 @@ public class Extract extends Expression {
     }
 
     @Override
-    public List<? extends Node> getChildren() {
+    protected List<? extends Node> computeChildren() {
         return ImmutableList.of(expression);
     }
 
@@ -33,7 +33,7 @@ public class FieldReference
     }
 
     @Override
-    public List<Node> getChildren() {
+    protected List<Node> computeChildren() {
         return ImmutableList.of();
     }
 
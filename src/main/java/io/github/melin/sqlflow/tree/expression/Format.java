@@ -43,7 +43,7 @@ public class Format extends Expression {
     }
 
     @Override
-    public List<? extends Node> getChildren() {
+    protected List<? extends Node> computeChildren() {
         return arguments;
     }
 
@@ -105,7 +105,7 @@ public class FunctionCall
     }
 
     @Override
-    public List<? extends Node> getChildren() {
+    protected List<? extends Node> computeChildren() {
         ImmutableList.Builder<Node> nodes = ImmutableList.builder();
         window.ifPresent(window -> nodes.add((Node) window));
         filter.ifPresent(nodes::add);
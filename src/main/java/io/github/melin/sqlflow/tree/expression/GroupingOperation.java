@@ -39,7 +39,7 @@ public class GroupingOperation
     }
 
     @Override
-    public List<? extends Node> getChildren() {
+    protected List<? extends Node> computeChildren() {
         return groupingColumns;
     }
 
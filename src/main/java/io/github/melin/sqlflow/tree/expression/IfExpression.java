@@ -52,7 +52,7 @@ public class IfExpression extends Expression {
     }
 
     @Override
-    public List<? extends Node> getChildren() {
+    protected List<? extends Node> computeChildren() {
         ImmutableList.Builder<Node> nodes = ImmutableList.builder();
         falseValue.ifPresent(nodes::add);
         return nodes.add(condition)
@@ -1,6 +1,7 @@
 package io.github.melin.sqlflow.tree.expression;
 
 import io.github.melin.sqlflow.AstVisitor;
+import io.github.melin.sqlflow.tree.LazyNodeList;
 import io.github.melin.sqlflow.tree.Node;
 import io.github.melin.sqlflow.tree.NodeLocation;
 import com.google.common.collect.ImmutableList;
@@ -33,6 +34,16 @@ public class InListExpression extends Expression {
         this.values = ImmutableList.copyOf(values);
     }
 
+    /**
+     * For subclasses that supply their own immutable, possibly lazily materialized, list of values.
+     */
+    protected InListExpression(NodeLocation location, LazyNodeList<Expression> values) {
+        super(Optional.of(location));
+        requireNonNull(values, "values is null");
+        checkArgument(!values.isEmpty(), "values cannot be empty");
+        this.values = values;
+    }
+
     public List<Expression> getValues() {
         return values;
     }
@@ -43,7 +54,7 @@ public class InListExpression extends Expression {
     }
 
     @Override
-    public List<? extends Node> getChildren() {
+    protected List<? extends Node> computeChildren() {
         return values;
     }
 
@@ -44,7 +44,7 @@ public class InPredicate extends Expression {
     }
 
     @Override
-    public List<? extends Node> getChildren() {
+    protected List<? extends Node> computeChildren() {
         return ImmutableList.of(value, valueList);
     }
 
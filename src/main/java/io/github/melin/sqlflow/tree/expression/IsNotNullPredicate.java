@@ -41,7 +41,7 @@ public class IsNotNullPredicate extends Expression {
     }
 
     @Override
-    public List<? extends Node> getChildren() {
+    protected List<? extends Node> computeChildren() {
         return ImmutableList.of(value);
     }
 
@@ -45,7 +45,7 @@ public class LabelDereference extends Expression {
     }
 
     @Override
-    public List<? extends Node> getChildren() {
+    protected List<? extends Node> computeChildren() {
         return reference.<List<Node>>map(ImmutableList::of).orElseGet(ImmutableList::of);
     }
 
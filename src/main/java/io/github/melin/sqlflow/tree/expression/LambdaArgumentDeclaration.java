@@ -30,7 +30,7 @@ public class LambdaArgumentDeclaration
     }
 
     @Override
-    public List<? extends Node> getChildren() {
+    protected List<? extends Node> computeChildren() {
         return ImmutableList.of();
     }
 
@@ -47,7 +47,7 @@ public class LambdaExpression
     }
 
     @Override
-    public List<? extends Node> getChildren() {
+    protected List<? extends Node> computeChildren() {
         ImmutableList.Builder<Node> nodes = ImmutableList.builder();
         nodes.addAll(arguments);
         nodes.add(body);
@@ -60,7 +60,7 @@ public class LikePredicate extends Expression {
     }
 
     @Override
-    public List<? extends Node> getChildren() {
+    protected List<? extends Node> computeChildren() {
         ImmutableList.Builder<Node> result = ImmutableList.<Node>builder()
                 .add(value)
                 .add(pattern);
@@ -0,0 +1,37 @@
+package io.github.melin.sqlflow.tree.expression;
+
+import io.github.melin.sqlflow.tree.LazyNodeList;
+import io.github.melin.sqlflow.tree.Node;
+import io.github.melin.sqlflow.tree.NodeLocation;
+import io.github.melin.sqlflow.tree.literal.LiteralArray;
+
+import java.util.List;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * IN list made only of simple literals. The values are kept packed in a {@link LiteralArray}
+ * and {@link #getValues()} materializes literal nodes on access.
+ */
+public final class LiteralInListExpression extends InListExpression {
+    private final LiteralArray literals;
+
+    public LiteralInListExpression(NodeLocation location, LiteralArray literals) {
+        this(location, requireNonNull(literals, "literals is null"), new LazyNodeList<>(literals.size(), literals::get));
+    }
+
+    private LiteralInListExpression(NodeLocation location, LiteralArray literals, LazyNodeList<Expression> values) {
+        super(location, values);
+        this.literals = literals;
+    }
+
+    public LiteralArray getLiterals() {
+        return literals;
+    }
+
+    @Override
+    public List<? extends Node> getChildren() {
+        // the values are already an immutable list, copying it would materialize every literal
+        return getValues();
+    }
+}
@@ -64,7 +64,7 @@ public class LogicalExpression extends Expression {
     }
 
     @Override
-    public List<? extends Node> getChildren() {
+    protected List<? extends Node> computeChildren() {
         return ImmutableList.copyOf(terms);
     }
 
@@ -44,7 +44,7 @@ public class NullIfExpression extends Expression {
     }
 
     @Override
-    public List<? extends Node> getChildren() {
+    protected List<? extends Node> computeChildren() {
         return ImmutableList.of(first, second);
     }
 
@@ -41,7 +41,7 @@ public final class Row extends Expression {
     }
 
     @Override
-    public List<? extends Node> getChildren() {
+    protected List<? extends Node> computeChildren() {
         return items;
     }
 
@@ -49,7 +49,7 @@ public class SearchedCaseExpression
     }
 
     @Override
-    public List<? extends Node> getChildren() {
+    protected List<? extends Node> computeChildren() {
         ImmutableList.Builder<Node> nodes = ImmutableList.builder();
         nodes.addAll(whenClauses);
         defaultValue.ifPresent(nodes::add);
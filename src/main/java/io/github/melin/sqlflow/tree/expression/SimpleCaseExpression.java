@@ -56,7 +56,7 @@ public class SimpleCaseExpression
     }
 
     @Override
-    public List<? extends Node> getChildren() {
+    protected List<? extends Node> computeChildren() {
         ImmutableList.Builder<Node> nodes = ImmutableList.builder();
         nodes.add(operand);
         nodes.addAll(whenClauses);
@@ -40,7 +40,7 @@ public class SubqueryExpression
     }
 
     @Override
-    public List<? extends Node> getChildren() {
+    protected List<? extends Node> computeChildren() {
         return ImmutableList.of(query);
     }
 
@@ -38,7 +38,7 @@ public class SubscriptExpression extends Expression {
     }
 
     @Override
-    public List<? extends Node> getChildren() {
+    protected List<? extends Node> computeChildren() {
         return ImmutableList.of(base, index);
     }
 
@@ -41,7 +41,7 @@ public class TryExpression
     }
 
     @Override
-    public List<? extends Node> getChildren() {
+    protected List<? extends Node> computeChildren() {
         return ImmutableList.of(innerExpression);
     }
 
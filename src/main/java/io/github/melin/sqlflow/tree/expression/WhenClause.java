@@ -45,7 +45,7 @@ public class WhenClause
     }
 
     @Override
-    public List<? extends Node> getChildren() {
+    protected List<? extends Node> computeChildren() {
         return ImmutableList.of(operand, result);
     }
 
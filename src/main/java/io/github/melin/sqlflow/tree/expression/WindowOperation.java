@@ -55,7 +55,7 @@ public class WindowOperation
     }
 
     @Override
-    public List<? extends Node> getChildren() {
+    protected List<? extends Node> computeChildren() {
         return ImmutableList.of(name, (Node) window);
     }
 
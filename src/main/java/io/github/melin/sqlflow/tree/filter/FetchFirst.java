@@ -61,7 +61,7 @@ public class FetchFirst extends Node {
     }
 
     @Override
-    public List<? extends Node> getChildren() {
+    protected List<? extends Node> computeChildren() {
         return rowCount.map(ImmutableList::of).orElse(ImmutableList.of());
     }
 
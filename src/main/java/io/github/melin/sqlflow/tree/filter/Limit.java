@@ -50,7 +50,7 @@ public class Limit
     }
 
     @Override
-    public List<? extends Node> getChildren() {
+    protected List<? extends Node> computeChildren() {
         return ImmutableList.of(rowCount);
     }
 
@@ -46,7 +46,7 @@ public class Offset extends Node {
     }
 
     @Override
-    public List<? extends Node> getChildren() {
+    protected List<? extends Node> computeChildren() {
         return ImmutableList.of(rowCount);
     }
 
@@ -43,7 +43,7 @@ public final class Cube extends GroupingElement {
     }
 
     @Override
-    public List<? extends Node> getChildren() {
+    protected List<? extends Node> computeChildren() {
         return ImmutableList.of();
     }
 
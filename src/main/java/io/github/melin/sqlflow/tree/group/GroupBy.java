@@ -48,7 +48,7 @@ public class GroupBy
     }
 
     @Override
-    public List<? extends Node> getChildren() {
+    protected List<? extends Node> computeChildren() {
         return groupingElements;
     }
 
@@ -54,7 +54,7 @@ public final class GroupingSets extends GroupingElement {
     }
 
     @Override
-    public List<? extends Node> getChildren() {
+    protected List<? extends Node> computeChildren() {
         return ImmutableList.of();
     }
 
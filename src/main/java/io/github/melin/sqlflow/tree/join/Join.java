@@ -74,7 +74,7 @@ public class Join
     }
 
     @Override
-    public List<? extends Node> getChildren() {
+    protected List<? extends Node> computeChildren() {
         ImmutableList.Builder<Node> nodes = ImmutableList.builder();
         nodes.add(left);
         nodes.add(right);
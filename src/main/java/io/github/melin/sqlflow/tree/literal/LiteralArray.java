@@ -0,0 +1,172 @@
+package io.github.melin.sqlflow.tree.literal;
+
+import io.github.melin.sqlflow.parser.ParsingException;
+import io.github.melin.sqlflow.tree.NodeLocation;
+
+import javax.annotation.concurrent.Immutable;
+import java.util.Arrays;
+
+import static com.google.common.base.Preconditions.checkElementIndex;
+import static com.google.common.base.Preconditions.checkState;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Packed sequence of simple literals (NULL, boolean, numeric and string) with their locations.
+ * Values share one text buffer and locations are kept in a flat int array, literal nodes are
+ * only created by {@link #get(int)}.
+ */
+@Immutable
+public final class LiteralArray {
+    public enum Kind {
+        NULL,
+        BOOLEAN,
+        LONG,
+        DECIMAL,
+        DOUBLE,
+        STRING
+    }
+
+    private static final Kind[] KINDS = Kind.values();
+    private static final int LOCATION_SLOTS = 4;
+
+    private final int size;
+    private final byte[] kinds;
+    private final String text;
+    private final int[] offsets;
+    private final int[] locations;
+
+    private LiteralArray(int size, byte[] kinds, String text, int[] offsets, int[] locations) {
+        this.size = size;
+        this.kinds = kinds;
+        this.text = text;
+        this.offsets = offsets;
+        this.locations = locations;
+    }
+
+    public static Builder builder(int expectedSize) {
+        return new Builder(expectedSize);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public Kind getKind(int index) {
+        checkElementIndex(index, size);
+        return KINDS[kinds[index]];
+    }
+
+    /**
+     * Returns the literal text, which is the unquoted value for strings and empty for NULL.
+     */
+    public String getValue(int index) {
+        checkElementIndex(index, size);
+        return text.substring(offsets[index], offsets[index + 1]);
+    }
+
+    public NodeLocation getLocation(int index) {
+        checkElementIndex(index, size);
+        int slot = index * LOCATION_SLOTS;
+        return new NodeLocation(locations[slot], locations[slot + 1], locations[slot + 2], locations[slot + 3]);
+    }
+
+    /**
+     * Creates a new literal node for the value at the given index.
+     */
+    public Literal get(int index) {
+        NodeLocation location = getLocation(index);
+        switch (getKind(index)) {
+            case NULL:
+                return new NullLiteral(location);
+            case BOOLEAN:
+                return new BooleanLiteral(location, getValue(index));
+            case LONG:
+                return new LongLiteral(location, getValue(index));
+            case DECIMAL:
+                return new DecimalLiteral(location, getValue(index));
+            case DOUBLE:
+                return new DoubleLiteral(location, getValue(index));
+            case STRING:
+                return new StringLiteral(location, getValue(index));
+        }
+        throw new AssertionError("Unreachable");
+    }
+
+    public static final class Builder {
+        private final StringBuilder text = new StringBuilder();
+        private byte[] kinds;
+        private int[] offsets;
+        private int[] locations;
+        private int size;
+        private boolean built;
+
+        private Builder(int expectedSize) {
+            int capacity = Math.max(expectedSize, 1);
+            this.kinds = new byte[capacity];
+            this.offsets = new int[capacity + 1];
+            this.locations = new int[capacity * LOCATION_SLOTS];
+        }
+
+        /**
+         * Appends a literal, values are checked eagerly so that errors are reported while parsing
+         * rather than when the node is materialized.
+         */
+        public Builder add(Kind kind, String value, int line, int column, int startIndex, int stopIndex) {
+            requireNonNull(kind, "kind is null");
+            requireNonNull(value, "value is null");
+            checkState(!built, "builder already used");
+            validate(kind, value);
+
+            if (size == kinds.length) {
+                int capacity = size + (size >> 1) + 1;
+                kinds = Arrays.copyOf(kinds, capacity);
+                offsets = Arrays.copyOf(offsets, capacity + 1);
+                locations = Arrays.copyOf(locations, capacity * LOCATION_SLOTS);
+            }
+
+            kinds[size] = (byte) kind.ordinal();
+            text.append(value);
+            offsets[size + 1] = text.length();
+
+            int slot = size * LOCATION_SLOTS;
+            locations[slot] = line;
+            locations[slot + 1] = column;
+            locations[slot + 2] = startIndex;
+            locations[slot + 3] = stopIndex;
+            size++;
+            return this;
+        }
+
+        public int size() {
+            return size;
+        }
+
+        public LiteralArray build() {
+            checkState(!built, "builder already used");
+            built = true;
+            return new LiteralArray(
+                    size,
+                    Arrays.copyOf(kinds, size),
+                    text.toString(),
+                    Arrays.copyOf(offsets, size + 1),
+                    Arrays.copyOf(locations, size * LOCATION_SLOTS));
+        }
+
+        private static void validate(Kind kind, String value) {
+            switch (kind) {
+                case LONG:
+                    try {
+                        Long.parseLong(value);
+                    } catch (NumberFormatException e) {
+                        throw new ParsingException("Invalid numeric literal: " + value);
+                    }
+                    break;
+                case DOUBLE:
+                    Double.parseDouble(value);
+                    break;
+                default:
+                    break;
+            }
+        }
+    }
+}
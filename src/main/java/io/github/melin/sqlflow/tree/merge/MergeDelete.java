@@ -46,7 +46,7 @@ public class MergeDelete
     }
 
     @Override
-    public List<? extends Node> getChildren() {
+    protected List<? extends Node> computeChildren() {
         return expression.map(ImmutableList::of).orElseGet(ImmutableList::of);
     }
 
@@ -59,7 +59,7 @@ public class MergeInsert extends MergeCase {
     }
 
     @Override
-    public List<? extends Node> getChildren() {
+    protected List<? extends Node> computeChildren() {
         ImmutableList.Builder<Node> builder = ImmutableList.builder();
         expression.ifPresent(builder::add);
         builder.addAll(columns);
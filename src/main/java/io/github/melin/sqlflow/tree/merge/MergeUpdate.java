@@ -58,7 +58,7 @@ public class MergeUpdate extends MergeCase {
     }
 
     @Override
-    public List<? extends Node> getChildren() {
+    protected List<? extends Node> computeChildren() {
         ImmutableList.Builder<Node> builder = ImmutableList.builder();
         expression.ifPresent(builder::add);
         assignments.forEach(assignment -> {
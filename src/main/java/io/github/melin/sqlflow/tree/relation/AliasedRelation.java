@@ -58,7 +58,7 @@ public class AliasedRelation
     }
 
     @Override
-    public List<? extends Node> getChildren() {
+    protected List<? extends Node> computeChildren() {
         return ImmutableList.of(relation);
     }
 
@@ -50,7 +50,7 @@ public class Except extends SetOperation {
     }
 
     @Override
-    public List<? extends Node> getChildren() {
+    protected List<? extends Node> computeChildren() {
         return ImmutableList.of(left, right);
     }
 
@@ -41,7 +41,7 @@ public final class Lateral extends Relation {
     }
 
     @Override
-    public List<? extends Node> getChildren() {
+    protected List<? extends Node> computeChildren() {
         return ImmutableList.of(query);
     }
 
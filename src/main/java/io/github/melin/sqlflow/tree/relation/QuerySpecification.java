@@ -143,7 +143,7 @@ public class QuerySpecification extends QueryBody {
     }
 
     @Override
-    public List<? extends Node> getChildren() {
+    protected List<? extends Node> computeChildren() {
         ImmutableList.Builder<Node> nodes = ImmutableList.builder();
         nodes.add(select);
         from.ifPresent(nodes::add);
@@ -60,7 +60,7 @@ public class SampledRelation
     }
 
     @Override
-    public List<? extends Node> getChildren() {
+    protected List<? extends Node> computeChildren() {
         return ImmutableList.of(relation, samplePercentage);
     }
 
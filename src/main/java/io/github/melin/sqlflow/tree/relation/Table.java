@@ -48,7 +48,7 @@ public class Table extends QueryBody {
     }
 
     @Override
-    public List<? extends Node> getChildren() {
+    protected List<? extends Node> computeChildren() {
         if (queryPeriod.isPresent()) {
             return ImmutableList.of(queryPeriod.get());
         }
@@ -44,7 +44,7 @@ public class Union extends SetOperation {
     }
 
     @Override
-    public List<? extends Node> getChildren() {
+    protected List<? extends Node> computeChildren() {
         return relations;
     }
 
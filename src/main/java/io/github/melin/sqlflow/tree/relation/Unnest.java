@@ -49,7 +49,7 @@ public final class Unnest extends Relation {
     }
 
     @Override
-    public List<? extends Node> getChildren() {
+    protected List<? extends Node> computeChildren() {
         return expressions;
     }
 
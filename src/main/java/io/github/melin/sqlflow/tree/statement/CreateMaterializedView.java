@@ -72,7 +72,7 @@ public class CreateMaterializedView extends Statement {
     }
 
     @Override
-    public List<? extends Node> getChildren() {
+    protected List<? extends Node> computeChildren() {
         return ImmutableList.of(query);
     }
 
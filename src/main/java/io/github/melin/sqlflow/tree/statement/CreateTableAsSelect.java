@@ -82,7 +82,7 @@ public class CreateTableAsSelect
     }
 
     @Override
-    public List<? extends Node> getChildren() {
+    protected List<? extends Node> computeChildren() {
         return ImmutableList.<Node>builder()
                 .add(query)
                 .addAll(properties)
@@ -49,7 +49,7 @@ public class Delete extends Statement {
     }
 
     @Override
-    public List<? extends Node> getChildren() {
+    protected List<? extends Node> computeChildren() {
         ImmutableList.Builder<Node> nodes = ImmutableList.builder();
         nodes.add(table);
         where.ifPresent(nodes::add);
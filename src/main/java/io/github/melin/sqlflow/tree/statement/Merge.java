@@ -88,7 +88,7 @@ public final class Merge extends Statement {
     }
 
     @Override
-    public List<? extends Node> getChildren() {
+    protected List<? extends Node> computeChildren() {
         ImmutableList.Builder<Node> builder = ImmutableList.builder();
         builder.add(table);
         builder.add(relation);
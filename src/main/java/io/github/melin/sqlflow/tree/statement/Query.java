@@ -96,7 +96,7 @@ public class Query extends Statement {
     }
 
     @Override
-    public List<? extends Node> getChildren() {
+    protected List<? extends Node> computeChildren() {
         ImmutableList.Builder<Node> nodes = ImmutableList.builder();
         with.ifPresent(nodes::add);
         nodes.add(queryBody);
@@ -51,7 +51,7 @@ public class Update extends Statement {
     }
 
     @Override
-    public List<? extends Node> getChildren() {
+    protected List<? extends Node> computeChildren() {
         ImmutableList.Builder<Node> nodes = ImmutableList.builder();
         nodes.addAll(assignments);
         where.ifPresent(nodes::add);
@@ -40,7 +40,7 @@ public class GenericDataType extends DataType {
     }
 
     @Override
-    public List<? extends Node> getChildren() {
+    protected List<? extends Node> computeChildren() {
         return ImmutableList.<Node>builder()
                 .add(name)
                 .addAll(arguments)
@@ -51,7 +51,7 @@ public class IntervalDayTimeDataType extends DataType {
     }
 
     @Override
-    public List<? extends Node> getChildren() {
+    protected List<? extends Node> computeChildren() {
         return ImmutableList.of();
     }
 
@@ -36,7 +36,7 @@ public class NumericParameter extends DataTypeParameter {
     }
 
     @Override
-    public List<? extends Node> getChildren() {
+    protected List<? extends Node> computeChildren() {
         return ImmutableList.of();
     }
 
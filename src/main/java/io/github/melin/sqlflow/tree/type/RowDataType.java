@@ -34,7 +34,7 @@ public class RowDataType
     }
 
     @Override
-    public List<? extends Node> getChildren() {
+    protected List<? extends Node> computeChildren() {
         return fields;
     }
 
@@ -88,7 +88,7 @@ public class RowDataType
         }
 
         @Override
-        public List<? extends Node> getChildren() {
+        protected List<? extends Node> computeChildren() {
             ImmutableList.Builder<Node> children = ImmutableList.builder();
             name.ifPresent(children::add);
             children.add(type);
@@ -31,7 +31,7 @@ public class TypeParameter extends DataTypeParameter {
     }
 
     @Override
-    public List<? extends Node> getChildren() {
+    protected List<? extends Node> computeChildren() {
         return ImmutableList.of(type);
     }
 
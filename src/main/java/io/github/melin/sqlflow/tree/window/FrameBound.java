@@ -68,7 +68,7 @@ public class FrameBound extends Node {
     }
 
     @Override
-    public List<? extends Node> getChildren() {
+    protected List<? extends Node> computeChildren() {
         ImmutableList.Builder<Node> nodes = ImmutableList.builder();
         value.ifPresent(nodes::add);
         return nodes.build();
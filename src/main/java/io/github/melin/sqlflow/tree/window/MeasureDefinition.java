@@ -55,7 +55,7 @@ public class MeasureDefinition extends Node {
     }
 
     @Override
-    public List<? extends Node> getChildren()
+    protected List<? extends Node> computeChildren()
     {
         return ImmutableList.of(expression);
     }
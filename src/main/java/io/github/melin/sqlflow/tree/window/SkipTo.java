@@ -102,7 +102,7 @@ public class SkipTo extends Node {
     }
 
     @Override
-    public List<? extends Node> getChildren() {
+    protected List<? extends Node> computeChildren() {
         return identifier.map(ImmutableList::of).orElse(ImmutableList.of());
     }
 
@@ -50,7 +50,7 @@ public class SubsetDefinition extends Node {
     }
 
     @Override
-    public List<? extends Node> getChildren() {
+    protected List<? extends Node> computeChildren() {
         return identifiers;
     }
 
@@ -49,7 +49,7 @@ public class VariableDefinition extends Node {
     }
 
     @Override
-    public List<? extends Node> getChildren() {
+    protected List<? extends Node> computeChildren() {
         return ImmutableList.of(expression);
     }
 
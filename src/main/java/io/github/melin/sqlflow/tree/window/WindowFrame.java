@@ -140,7 +140,7 @@ public class WindowFrame
     }
 
     @Override
-    public List<? extends Node> getChildren()
+    protected List<? extends Node> computeChildren()
     {
         ImmutableList.Builder<Node> nodes = ImmutableList.builder();
         nodes.add(start);
@@ -42,7 +42,7 @@ public class WindowReference extends Node implements Window {
     }
 
     @Override
-    public List<? extends Node> getChildren() {
+    protected List<? extends Node> computeChildren() {
         return ImmutableList.of(name);
     }
 
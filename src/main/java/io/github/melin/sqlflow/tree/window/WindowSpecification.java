@@ -63,7 +63,7 @@ public class WindowSpecification extends Node implements Window {
     }
 
     @Override
-    public List<? extends Node> getChildren() {
+    protected List<? extends Node> computeChildren() {
         ImmutableList.Builder<Node> nodes = ImmutableList.builder();
         existingWindowName.ifPresent(nodes::add);
         nodes.addAll(partitionBy);
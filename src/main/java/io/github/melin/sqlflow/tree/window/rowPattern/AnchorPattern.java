@@ -42,7 +42,7 @@ public class AnchorPattern extends RowPattern {
     }
 
     @Override
-    public List<? extends Node> getChildren() {
+    protected List<? extends Node> computeChildren() {
         return ImmutableList.of();
     }
 
@@ -28,7 +28,7 @@ public class EmptyPattern extends RowPattern {
     }
 
     @Override
-    public List<? extends Node> getChildren() {
+    protected List<? extends Node> computeChildren() {
         return ImmutableList.of();
     }
 
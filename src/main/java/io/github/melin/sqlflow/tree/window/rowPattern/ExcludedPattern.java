@@ -38,7 +38,7 @@ public class ExcludedPattern extends RowPattern {
     }
 
     @Override
-    public List<? extends Node> getChildren() {
+    protected List<? extends Node> computeChildren() {
         return ImmutableList.of(pattern);
     }
 
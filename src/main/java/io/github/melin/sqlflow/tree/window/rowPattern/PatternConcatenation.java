@@ -39,7 +39,7 @@ public class PatternConcatenation extends RowPattern {
     }
 
     @Override
-    public List<? extends Node> getChildren() {
+    protected List<? extends Node> computeChildren() {
         return ImmutableList.copyOf(patterns);
     }
 
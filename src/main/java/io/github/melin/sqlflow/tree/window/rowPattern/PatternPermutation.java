@@ -43,7 +43,7 @@ public class PatternPermutation extends RowPattern {
     }
 
     @Override
-    public List<? extends Node> getChildren()
+    protected List<? extends Node> computeChildren()
     {
         return ImmutableList.copyOf(patterns);
     }
@@ -32,7 +32,7 @@ public abstract class PatternQuantifier extends Node {
     }
 
     @Override
-    public List<? extends Node> getChildren() {
+    protected List<? extends Node> computeChildren() {
         return ImmutableList.of();
     }
 
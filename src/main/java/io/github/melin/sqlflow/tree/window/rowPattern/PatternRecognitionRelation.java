@@ -138,7 +138,7 @@ public class PatternRecognitionRelation extends Relation {
     }
 
     @Override
-    public List<? extends Node> getChildren() {
+    protected List<? extends Node> computeChildren() {
         ImmutableList.Builder<Node> builder = ImmutableList.builder();
         builder.add(input);
         builder.addAll(partitionBy);
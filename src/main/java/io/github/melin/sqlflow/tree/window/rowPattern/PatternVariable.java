@@ -38,7 +38,7 @@ public class PatternVariable extends RowPattern {
     }
 
     @Override
-    public List<? extends Node> getChildren() {
+    protected List<? extends Node> computeChildren() {
         return ImmutableList.of(name);
     }
 
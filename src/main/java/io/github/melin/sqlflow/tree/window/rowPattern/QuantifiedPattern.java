@@ -43,7 +43,7 @@ public class QuantifiedPattern extends RowPattern {
     }
 
     @Override
-    public List<? extends Node> getChildren() {
+    protected List<? extends Node> computeChildren() {
         return ImmutableList.of(pattern, patternQuantifier);
     }
 
@@ -48,7 +48,7 @@ public class RangeQuantifier extends PatternQuantifier {
     }
 
     @Override
-    public List<? extends Node> getChildren() {
+    protected List<? extends Node> computeChildren() {
         ImmutableList.Builder<Node> children = ImmutableList.builder();
         atLeast.ifPresent(children::add);
         atMost.ifPresent(children::add);
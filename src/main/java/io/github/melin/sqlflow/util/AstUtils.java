@@ -1,13 +1,16 @@
 package io.github.melin.sqlflow.util;
 
+import io.github.melin.sqlflow.tree.LiteralValues;
 import io.github.melin.sqlflow.tree.Node;
-import com.google.common.graph.SuccessorsFunction;
-import com.google.common.graph.Traverser;
+import io.github.melin.sqlflow.tree.expression.LiteralInListExpression;
+import com.google.common.collect.AbstractIterator;
 
-import java.util.List;
+import java.util.Arrays;
 import java.util.OptionalInt;
 import java.util.function.BiFunction;
+import java.util.function.Consumer;
 import java.util.function.Function;
+import java.util.function.Predicate;
 import java.util.stream.Stream;
 
 import static com.google.common.collect.Streams.stream;
@@ -15,9 +18,121 @@ import static java.util.Objects.requireNonNull;
 
 public final class AstUtils {
     public static Stream<Node> preOrder(Node node) {
-        return stream(
-                Traverser.forTree((SuccessorsFunction<Node>) Node::getChildren)
-                        .depthFirstPreOrder(requireNonNull(node, "node is null")));
+        requireNonNull(node, "node is null");
+        return stream(() -> new AbstractIterator<Node>() {
+            private TraversalStack stack;
+
+            @Override
+            protected Node computeNext() {
+                if (stack == null) {
+                    stack = new TraversalStack();
+                    stack.push(node);
+                    return node;
+                }
+                while (!stack.isEmpty()) {
+                    Node child = stack.nextChild();
+                    if (child != null) {
+                        stack.push(child);
+                        return child;
+                    }
+                    stack.pop();
+                }
+                return endOfData();
+            }
+        });
+    }
+
+    /**
+     * Number of nodes of the tree, counted without recursion. The literals of packed IN lists and VALUES
+     * tables are counted from their size, without creating their nodes.
+     */
+    public static int nodeCount(Node node) {
+        int[] count = new int[1];
+        visitPreOrder(node, child -> {
+            count[0]++;
+            if (child instanceof LiteralInListExpression) {
+                count[0] += ((LiteralInListExpression) child).getLiterals().size();
+                return false;
+            }
+            if (child instanceof LiteralValues) {
+                LiteralValues values = (LiteralValues) child;
+                count[0] += values.getLiterals().size() + (values.hasRowConstructors() ? values.getRowCount() : 0);
+                return false;
+            }
+            return true;
+        });
+        return count[0];
+    }
+
+    /**
+     * <p>Visits the nodes of the tree in pre-order like {@link #forEachPreOrder(Node, Consumer)}, but only
+     * descends into the children of a node when the visitor returns true for it.</p>
+     *
+     * <p>Used to skip subtrees that do not matter to the caller, e.g. the literals of a packed IN list
+     * which would otherwise be created by the traversal.</p>
+     */
+    public static void visitPreOrder(Node node, Predicate<? super Node> visitor) {
+        requireNonNull(node, "node is null");
+        requireNonNull(visitor, "visitor is null");
+
+        if (!visitor.test(node)) {
+            return;
+        }
+        TraversalStack stack = new TraversalStack();
+        stack.push(node);
+        while (!stack.isEmpty()) {
+            Node child = stack.nextChild();
+            if (child == null) {
+                stack.pop();
+            } else if (visitor.test(child)) {
+                stack.push(child);
+            }
+        }
+    }
+
+    /**
+     * <p>Visits every node of the tree in pre-order (parents before children).</p>
+     *
+     * <p>Uses an explicit stack instead of recursion, so the depth of the tree is not limited by the
+     * thread stack size, and no objects are allocated per visited node.</p>
+     */
+    public static void forEachPreOrder(Node node, Consumer<? super Node> action) {
+        requireNonNull(node, "node is null");
+        requireNonNull(action, "action is null");
+
+        TraversalStack stack = new TraversalStack();
+        action.accept(node);
+        stack.push(node);
+        while (!stack.isEmpty()) {
+            Node child = stack.nextChild();
+            if (child == null) {
+                stack.pop();
+            } else {
+                action.accept(child);
+                stack.push(child);
+            }
+        }
+    }
+
+    /**
+     * <p>Visits every node of the tree in post-order (children before parents).</p>
+     *
+     * <p>Like {@link #forEachPreOrder(Node, Consumer)}, the traversal does not recurse.</p>
+     */
+    public static void forEachPostOrder(Node node, Consumer<? super Node> action) {
+        requireNonNull(node, "node is null");
+        requireNonNull(action, "action is null");
+
+        TraversalStack stack = new TraversalStack();
+        stack.push(node);
+        while (!stack.isEmpty()) {
+            Node child = stack.nextChild();
+            if (child == null) {
+                action.accept(stack.pop());
+            } else {
+                stack.push(child);
+            }
+        }
     }
 
     public static String checkNotEmpty(String value, String name) {
@@ -43,18 +158,33 @@ public final class AstUtils {
         if (equal != null) {
             return equal;
         }
-
-        List<? extends Node> leftChildren = left.getChildren();
-        List<? extends Node> rightChildren = right.getChildren();
-
-        if (leftChildren.size() != rightChildren.size()) {
+        if (left.getChildren().size() != right.getChildren().size()) {
             return false;
         }
 
-        for (int i = 0; i < leftChildren.size(); i++) {
-            if (!treeEqual(leftChildren.get(i), rightChildren.get(i), subtreeComparator)) {
+        // left and right are walked in lockstep, right nodes are kept as peers of the left ones
+        TraversalStack stack = new TraversalStack();
+        stack.push(left, right);
+        while (!stack.isEmpty()) {
+            int index = stack.nextIndex();
+            if (index < 0) {
+                stack.pop();
+                continue;
+            }
+
+            Node leftChild = stack.top().getChildren().get(index);
+            Node rightChild = stack.topPeer().getChildren().get(index);
+            equal = subtreeComparator.apply(leftChild, rightChild);
+            if (equal != null) {
+                if (!equal) {
+                    return false;
+                }
+                continue;
+            }
+            if (leftChild.getChildren().size() != rightChild.getChildren().size()) {
                 return false;
             }
+            stack.push(leftChild, rightChild);
         }
 
         return true;
@@ -73,14 +203,112 @@ public final class AstUtils {
             return hash.getAsInt();
         }
 
-        List<? extends Node> children = node.getChildren();
+        TraversalStack stack = new TraversalStack();
+        stack.push(node);
+        stack.setHash(node.getClass().hashCode());
+        while (true) {
+            Node child = stack.nextChild();
+            if (child == null) {
+                int result = stack.getHash();
+                stack.pop();
+                if (stack.isEmpty()) {
+                    return result;
+                }
+                stack.setHash(31 * stack.getHash() + result);
+                continue;
+            }
+
+            hash = subtreeHasher.apply(child);
+            if (hash.isPresent()) {
+                stack.setHash(31 * stack.getHash() + hash.getAsInt());
+            } else {
+                stack.push(child);
+                stack.setHash(child.getClass().hashCode());
+            }
+        }
+    }
+
+    /**
+     * Explicit stack of (node, next child index) frames backed by parallel arrays, so walking a tree
+     * only allocates when the stack grows.
+     */
+    private static final class TraversalStack {
+        private Node[] nodes = new Node[16];
+        private Node[] peers = new Node[16];
+        private int[] nextIndexes = new int[16];
+        private int[] hashes = new int[16];
+        private int size;
+
+        void push(Node node) {
+            push(node, null);
+        }
+
+        void push(Node node, Node peer) {
+            if (size == nodes.length) {
+                int capacity = size * 2;
+                nodes = Arrays.copyOf(nodes, capacity);
+                peers = Arrays.copyOf(peers, capacity);
+                nextIndexes = Arrays.copyOf(nextIndexes, capacity);
+                hashes = Arrays.copyOf(hashes, capacity);
+            }
+            nodes[size] = node;
+            peers[size] = peer;
+            nextIndexes[size] = 0;
+            hashes[size] = 0;
+            size++;
+        }
 
-        int result = node.getClass().hashCode();
-        for (Node element : children) {
-            result = 31 * result + treeHash(element, subtreeHasher);
+        Node pop() {
+            size--;
+            Node node = nodes[size];
+            nodes[size] = null;
+            peers[size] = null;
+            return node;
         }
 
-        return result;
+        boolean isEmpty() {
+            return size == 0;
+        }
+
+        Node top() {
+            return nodes[size - 1];
+        }
+
+        Node topPeer() {
+            return peers[size - 1];
+        }
+
+        /**
+         * Returns the index of the next unvisited child of the top node and advances past it, or -1 when done.
+         */
+        int nextIndex() {
+            int top = size - 1;
+            int index = nextIndexes[top];
+            if (index >= nodes[top].getChildren().size()) {
+                return -1;
+            }
+            nextIndexes[top] = index + 1;
+            return index;
+        }
+
+        /**
+         * Returns the next unvisited child of the top node and advances past it, or null when done.
+         */
+        Node nextChild() {
+            int index = nextIndex();
+            if (index < 0) {
+                return null;
+            }
+            return top().getChildren().get(index);
+        }
+
+        int getHash() {
+            return hashes[size - 1];
+        }
+
+        void setHash(int hash) {
+            hashes[size - 1] = hash;
+        }
     }
 
     private AstUtils() {
@@ -1,15 +1,20 @@
 package io.github.melin.sqlflow.util;
 
 import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.core.JsonGenerator;
 import com.fasterxml.jackson.core.JsonParser;
 import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.DeserializationFeature;
 import com.fasterxml.jackson.databind.JavaType;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
 import com.fasterxml.jackson.databind.SerializationFeature;
 import com.fasterxml.jackson.datatype.jdk8.Jdk8Module;
 
 import java.io.IOException;
+import java.io.OutputStream;
+import java.io.Writer;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
@@ -21,11 +26,25 @@ import java.util.Map;
 public class JsonUtils {
     private static final ObjectMapper objectMapper = new ObjectMapper();
 
+    // mappers are expensive to build, everything below is created once and shared, readers and writers are immutable
+    private static final ObjectMapper plainMapper = new ObjectMapper();
+    private static final ObjectWriter compactWriter;
+    private static final ObjectWriter streamWriter;
+    private static final ObjectWriter ignoreNullWriter;
+    private static final ObjectReader plainMapReader;
+
     static {
         objectMapper.registerModule(new Jdk8Module());
         objectMapper.enable(SerializationFeature.INDENT_OUTPUT);
         objectMapper.configure(JsonParser.Feature.ALLOW_SINGLE_QUOTES, true);
         objectMapper.configure(JsonParser.Feature.ALLOW_UNQUOTED_FIELD_NAMES, true);
+        objectMapper.configure(DeserializationFeature.ACCEPT_SINGLE_VALUE_AS_ARRAY, true);
+        compactWriter = objectMapper.writer().without(SerializationFeature.INDENT_OUTPUT);
+        streamWriter = compactWriter.without(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+
+        plainMapper.setSerializationInclusion(JsonInclude.Include.NON_NULL);
+        ignoreNullWriter = plainMapper.writer();
+        plainMapReader = plainMapper.readerFor(Map.class);
     }
 
     public static ObjectMapper getInstance() {
@@ -42,6 +61,27 @@ public class JsonUtils {
         return objectMapper.writeValueAsString(obj);
     }
 
+    /**
+     * 转换为单行 JSON 字符串
+     */
+    public static String toCompactJSONString(Object obj) throws IOException {
+        return compactWriter.writeValueAsString(obj);
+    }
+
+    /**
+     * 以单行 JSON 写入输出流，不关闭输出流
+     */
+    public static void writeJSON(OutputStream output, Object obj) throws IOException {
+        streamWriter.writeValue(output, obj);
+    }
+
+    /**
+     * 以单行 JSON 写入 Writer，不关闭 Writer
+     */
+    public static void writeJSON(Writer writer, Object obj) throws IOException {
+        streamWriter.writeValue(writer, obj);
+    }
+
     /**
      * 转换为 JSON 字符串，忽略空值
      *
@@ -49,9 +89,7 @@ public class JsonUtils {
      * @throws Exception
      */
     public static String toJSONStringIgnoreNull(Object obj) throws IOException {
-        ObjectMapper mapper = new ObjectMapper();
-        mapper.setSerializationInclusion(JsonInclude.Include.NON_NULL);
-        return mapper.writeValueAsString(obj);
+        return ignoreNullWriter.writeValueAsString(obj);
     }
 
     /**
@@ -62,7 +100,6 @@ public class JsonUtils {
      * @throws Exception
      */
     public static <T> T toJavaObject(String jsonString, Class<T> clazz) throws IOException {
-        objectMapper.configure(DeserializationFeature.ACCEPT_SINGLE_VALUE_AS_ARRAY, true);
         return objectMapper.readValue(jsonString, clazz);
     }
 
@@ -73,9 +110,7 @@ public class JsonUtils {
      * @throws Exception
      */
     public static <T> Map<String, Object> toJavaMap(String jsonString) throws IOException {
-        ObjectMapper mapper = new ObjectMapper();
-        mapper.setSerializationInclusion(JsonInclude.Include.NON_NULL);
-        return mapper.readValue(jsonString, Map.class);
+        return plainMapReader.readValue(jsonString);
     }
 
     /**
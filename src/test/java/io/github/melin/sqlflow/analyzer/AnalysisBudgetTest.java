@@ -0,0 +1,175 @@
+package io.github.melin.sqlflow.analyzer;
+
+import io.github.melin.sqlflow.lineage.BatchLineageEngine;
+import io.github.melin.sqlflow.lineage.LineageJson;
+import io.github.melin.sqlflow.lineage.LineageRecord;
+import io.github.melin.sqlflow.metadata.MetadataService;
+import io.github.melin.sqlflow.metadata.QualifiedObjectName;
+import io.github.melin.sqlflow.metadata.SchemaTable;
+import io.github.melin.sqlflow.metadata.SimpleMetadataService;
+import io.github.melin.sqlflow.metadata.ViewColumn;
+import io.github.melin.sqlflow.metadata.ViewDefinition;
+import io.github.melin.sqlflow.parser.SqlFlowParser;
+import io.github.melin.sqlflow.parser.SqlWorkloadGenerator;
+import io.github.melin.sqlflow.parser.SqlWorkloadGenerator.Axis;
+import io.github.melin.sqlflow.parser.SqlWorkloadGenerator.Workload;
+import io.github.melin.sqlflow.tree.LazyNodeList;
+import io.github.melin.sqlflow.tree.expression.InPredicate;
+import io.github.melin.sqlflow.tree.expression.LiteralInListExpression;
+import io.github.melin.sqlflow.tree.relation.QuerySpecification;
+import io.github.melin.sqlflow.tree.statement.Insert;
+import io.github.melin.sqlflow.tree.statement.Statement;
+import io.github.melin.sqlflow.type.UnknownType;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import org.junit.Test;
+
+import java.io.StringWriter;
+import java.time.Duration;
+import java.util.Optional;
+
+import static java.util.Collections.emptyMap;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class AnalysisBudgetTest {
+
+    private static final SqlFlowParser SQL_PARSER = new SqlFlowParser();
+
+    @Test
+    public void testMaxFields() {
+        Workload workload = SqlWorkloadGenerator.generate(Axis.TABLE_WIDTH, 64);
+        assertThat(analyze(workload.getSql(), workload.getMetadataService(), AnalysisBudget.builder().withMaxFields(10_000).build())
+                .getTarget()).isPresent();
+
+        assertThatThrownBy(() -> analyze(workload.getSql(), workload.getMetadataService(), AnalysisBudget.builder().withMaxFields(100).build()))
+                .hasMessage("Analysis created more than 100 fields")
+                .isInstanceOfSatisfying(AnalysisBudgetExceededException.class, e -> assertThat(e.getLimit()).isEqualTo(AnalysisBudget.Limit.FIELDS));
+    }
+
+    @Test
+    public void testMaxSourceColumns() {
+        Workload workload = SqlWorkloadGenerator.generate(Axis.CASE_SIZE, 16);
+        assertThat(analyze(workload.getSql(), workload.getMetadataService(), AnalysisBudget.builder().withMaxSourceColumns(8).build())
+                .getTarget()).isPresent();
+
+        assertThatThrownBy(() -> analyze(workload.getSql(), workload.getMetadataService(), AnalysisBudget.builder().withMaxSourceColumns(4).build()))
+                .isInstanceOfSatisfying(AnalysisBudgetExceededException.class, e -> assertThat(e.getLimit()).isEqualTo(AnalysisBudget.Limit.SOURCE_COLUMNS));
+    }
+
+    @Test
+    public void testMaxViewDepth() {
+        String sql = "insert into target select id, uid from v3";
+        MetadataService metadataService = new NestedViewMetadataService(4);
+        assertThat(analyze(sql, metadataService, AnalysisBudget.builder().withMaxViewDepth(4).build()).getTarget()).isPresent();
+
+        // the limit is not hidden behind the semantic exception of the failing view
+        assertThatThrownBy(() -> analyze(sql, metadataService, AnalysisBudget.builder().withMaxViewDepth(3).build()))
+                .hasMessage("Views are nested more than 3 deep")
+                .isInstanceOfSatisfying(AnalysisBudgetExceededException.class, e -> assertThat(e.getLimit()).isEqualTo(AnalysisBudget.Limit.VIEW_DEPTH));
+    }
+
+    @Test
+    public void testTimeout() {
+        Workload workload = SqlWorkloadGenerator.generate(Axis.JOIN_FAN_OUT, 64);
+        assertThatThrownBy(() -> analyze(workload.getSql(), workload.getMetadataService(), AnalysisBudget.builder().withTimeout(Duration.ofNanos(1)).build()))
+                .isInstanceOfSatisfying(AnalysisBudgetExceededException.class, e -> assertThat(e.getLimit()).isEqualTo(AnalysisBudget.Limit.TIME));
+    }
+
+    @Test
+    public void testInterrupted() {
+        Workload workload = SqlWorkloadGenerator.generate(Axis.JOIN_FAN_OUT, 8);
+        Thread.currentThread().interrupt();
+        try {
+            assertThatThrownBy(() -> analyze(workload.getSql(), workload.getMetadataService(), AnalysisBudget.UNLIMITED))
+                    .isInstanceOfSatisfying(AnalysisBudgetExceededException.class, e -> assertThat(e.getLimit()).isEqualTo(AnalysisBudget.Limit.INTERRUPTED));
+            assertThat(Thread.currentThread().isInterrupted()).isTrue();
+        } finally {
+            Thread.interrupted();
+        }
+    }
+
+    @Test
+    public void testTableLevelFallback() throws Exception {
+        String sql = "insert into target with w as (select id, uid from v1) select w.id, o.uid from w join orders o on w.id = o.id";
+        try (BatchLineageEngine engine = BatchLineageEngine.builder(new NestedViewMetadataService(2))
+                .withAnalysisBudget(AnalysisBudget.builder().withMaxFields(4).build())
+                .build()) {
+            LineageRecord record = engine.analyze("job", 0, sql);
+            assertThat(record.isSuccess()).isTrue();
+            assertThat(record.isDegraded()).isTrue();
+            assertThat(record.getError().get()).startsWith(AnalysisBudgetExceededException.class.getName());
+
+            Output target = record.getResult().get().getTarget().get();
+            assertThat(target.getTable()).isEqualTo("target");
+            assertThat(target.getColumns().get()).isEqualTo(ImmutableList.of(new OutputColumn("*", ImmutableSet.of(
+                    new Analysis.SourceColumn(QualifiedObjectName.valueOf("default.v1"), "*"),
+                    new Analysis.SourceColumn(QualifiedObjectName.valueOf("default.orders"), "*")))));
+
+            // degraded results are not cached
+            assertThat(engine.getStatementCache().get().size()).isEqualTo(0);
+
+            StringWriter json = new StringWriter();
+            try (JsonGenerator generator = new JsonFactory().createGenerator(json)) {
+                LineageJson.writeLineageRecord(generator, record);
+            }
+            assertThat(json.toString()).contains("\"result\":", "\"error\":\"" + AnalysisBudgetExceededException.class.getName());
+        }
+    }
+
+    @Test
+    public void testTableLevelFallbackSkipsPackedLiterals() {
+        StringBuilder sql = new StringBuilder("insert into target select id, uid from orders where id in (");
+        for (int i = 0; i < 100000; i++) {
+            sql.append(i == 0 ? "" : ", ").append(i);
+        }
+        sql.append(")");
+        Statement statement = SQL_PARSER.createStatement(sql.toString());
+        QuerySpecification specification = (QuerySpecification) ((Insert) statement).getQuery().getQueryBody();
+        LiteralInListExpression inList = (LiteralInListExpression) ((InPredicate) specification.getWhere().get()).getValueList();
+        LazyNodeList<?> values = (LazyNodeList<?>) inList.getValues();
+
+        LineageResult result = TableLineageAnalyzer.analyze(statement, new NestedViewMetadataService(0));
+        assertThat(values.isMaterialized()).isFalse();
+        assertThat(result.getTarget().get().getColumns().get()).isEqualTo(ImmutableList.of(new OutputColumn("*", ImmutableSet.of(
+                new Analysis.SourceColumn(QualifiedObjectName.valueOf("default.orders"), "*")))));
+    }
+
+    private static Analysis analyze(String sql, MetadataService metadataService, AnalysisBudget budget) {
+        Statement statement = SQL_PARSER.createStatement(sql);
+        Analysis analysis = new Analysis(statement, emptyMap());
+        analysis.setBudget(budget);
+        new StatementAnalyzer(analysis, metadataService, SQL_PARSER).analyze(statement, Optional.empty());
+        return analysis;
+    }
+
+    /**
+     * View {@code v0} reads {@code orders} and every other view {@code vN} reads {@code vN-1}.
+     */
+    private static class NestedViewMetadataService extends SimpleMetadataService {
+        private final int views;
+
+        NestedViewMetadataService(int views) {
+            super("default");
+            this.views = views;
+            addTableMetadata(ImmutableList.of(
+                    new SchemaTable("default", "orders", ImmutableList.of("id", "uid", "amount")),
+                    new SchemaTable("default", "target", ImmutableList.of("x", "y"))));
+        }
+
+        @Override
+        public Optional<ViewDefinition> getView(QualifiedObjectName viewName) {
+            for (int i = 0; i < views; i++) {
+                if (viewName.getObjectName().equals("v" + i)) {
+                    String sql = "select id, uid from " + (i == 0 ? "orders" : "v" + (i - 1));
+                    return Optional.of(new ViewDefinition(sql, Optional.of("hive"), Optional.of("default"),
+                            ImmutableList.of(new ViewColumn("id", UnknownType.UNKNOWN), new ViewColumn("uid", UnknownType.UNKNOWN)),
+                            Optional.empty()));
+                }
+            }
+            return Optional.empty();
+        }
+    }
+}
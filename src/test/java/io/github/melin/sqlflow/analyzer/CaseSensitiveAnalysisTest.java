@@ -0,0 +1,65 @@
+package io.github.melin.sqlflow.analyzer;
+
+import io.github.melin.sqlflow.metadata.QualifiedObjectName;
+import io.github.melin.sqlflow.metadata.SchemaTable;
+import io.github.melin.sqlflow.metadata.SimpleMetadataService;
+import io.github.melin.sqlflow.metadata.ViewColumn;
+import io.github.melin.sqlflow.metadata.ViewDefinition;
+import io.github.melin.sqlflow.parser.SqlFlowParser;
+import io.github.melin.sqlflow.tree.statement.Statement;
+import io.github.melin.sqlflow.type.UnknownType;
+import com.google.common.collect.ImmutableList;
+import org.junit.Test;
+
+import java.util.Optional;
+
+import static java.util.Collections.emptyMap;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class CaseSensitiveAnalysisTest {
+
+    private static final SqlFlowParser SQL_PARSER = new SqlFlowParser();
+
+    // the WITH query names differ only in case
+    private static final String QUERY = "with A as (select 1 x), a as (select 2 x) select x from a";
+
+    @Test
+    public void testNestedQueriesKeepCaseSensitivity() {
+        assertCaseSensitivity("insert into target select x, x from (" + QUERY + ") t");
+    }
+
+    @Test
+    public void testViewsKeepCaseSensitivity() {
+        assertCaseSensitivity("insert into target select x, x from v");
+    }
+
+    private static void assertCaseSensitivity(String sql) {
+        assertThatThrownBy(() -> analyze(sql, false))
+                .hasMessageContaining("WITH query name 'a' specified more than once");
+        assertThat(analyze(sql, true).getTarget()).isPresent();
+    }
+
+    private static Analysis analyze(String sql, boolean caseSensitive) {
+        Statement statement = SQL_PARSER.createStatement(sql);
+        Analysis analysis = new Analysis(statement, emptyMap());
+        new StatementAnalyzer(analysis, new ViewMetadataService(), SQL_PARSER, caseSensitive).analyze(statement, Optional.empty());
+        return analysis;
+    }
+
+    private static class ViewMetadataService extends SimpleMetadataService {
+        ViewMetadataService() {
+            super("default");
+            addTableMetadata(ImmutableList.of(new SchemaTable("default", "target", ImmutableList.of("x", "y"))));
+        }
+
+        @Override
+        public Optional<ViewDefinition> getView(QualifiedObjectName viewName) {
+            if (viewName.equals(QualifiedObjectName.valueOf("default.v"))) {
+                return Optional.of(new ViewDefinition(QUERY, Optional.of("hive"), Optional.of("default"),
+                        ImmutableList.of(new ViewColumn("x", UnknownType.UNKNOWN)), Optional.empty()));
+            }
+            return Optional.empty();
+        }
+    }
+}
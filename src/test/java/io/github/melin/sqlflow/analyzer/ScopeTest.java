@@ -0,0 +1,56 @@
+package io.github.melin.sqlflow.analyzer;
+
+import org.junit.Test;
+
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class ScopeTest {
+
+    @Test
+    public void testAncestry() {
+        Scope outer = Scope.create();
+        Scope outerChild = child(outer, 2);
+
+        Scope boundary = Scope.builder()
+                .withOuterQueryParent(outerChild)
+                .withRelationType(RelationId.anonymous(), relation(3))
+                .build();
+        Scope local = child(boundary, 1);
+        Scope innermost = child(local, 4);
+
+        assertThat(innermost.getQueryBoundaryScope()).isSameAs(boundary);
+        assertThat(innermost.getOuterQueryParent()).isEqualTo(Optional.of(outerChild));
+        assertThat(outerChild.getOuterQueryParent()).isEqualTo(Optional.empty());
+        assertThat(innermost.getLocalScopeFieldCount()).isEqualTo(8);
+        assertThat(outerChild.getLocalScopeFieldCount()).isEqualTo(2);
+
+        assertThat(innermost.hasLocalAncestor(local)).isTrue();
+        assertThat(innermost.hasLocalAncestor(boundary)).isTrue();
+        assertThat(innermost.hasLocalAncestor(innermost)).isFalse();
+        assertThat(local.hasLocalAncestor(innermost)).isFalse();
+        // the outer query is behind the query boundary
+        assertThat(innermost.hasLocalAncestor(outerChild)).isFalse();
+        // a sibling at the same depth is not an ancestor
+        assertThat(child(child(boundary, 1), 1).hasLocalAncestor(local)).isFalse();
+
+        assertThat(innermost.isLocalScope(boundary)).isTrue();
+        assertThat(innermost.isLocalScope(outer)).isFalse();
+    }
+
+    private static Scope child(Scope parent, int fieldCount) {
+        return Scope.builder()
+                .withParent(parent)
+                .withRelationType(RelationId.anonymous(), relation(fieldCount))
+                .build();
+    }
+
+    private static RelationType relation(int fieldCount) {
+        Field[] fields = new Field[fieldCount];
+        for (int i = 0; i < fieldCount; i++) {
+            fields[i] = Field.newUnqualified("c" + i);
+        }
+        return new RelationType(fields);
+    }
+}
@@ -0,0 +1,56 @@
+package io.github.melin.sqlflow.analyzer;
+
+import io.github.melin.sqlflow.metadata.QualifiedObjectName;
+import com.google.common.collect.ImmutableSet;
+import org.junit.Test;
+
+import static java.util.Collections.emptyMap;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class SourceColumnReferenceTest {
+
+    private static final Analysis.SourceColumn A = column("a");
+    private static final Analysis.SourceColumn B = column("b");
+    private static final Analysis.SourceColumn C = column("c");
+
+    @Test
+    public void testReferencesResolveThroughChains() {
+        Analysis analysis = new Analysis(null, emptyMap());
+        Field owner = Field.newUnqualified("a");
+        Field first = Field.newUnqualified("a");
+        Field second = Field.newUnqualified("a");
+        analysis.addSourceColumns(owner, ImmutableSet.of(A));
+        analysis.addSourceColumns(first, owner);
+        analysis.addSourceColumns(second, first);
+        assertThat(analysis.getSourceColumns(second)).isEqualTo(ImmutableSet.of(A));
+
+        // a field that is not referenced can still get columns of its own, after the referenced ones
+        analysis.addSourceColumns(second, ImmutableSet.of(B));
+        assertThat(analysis.getSourceColumns(second)).containsExactly(A, B);
+        analysis.addSourceColumns(second, ImmutableSet.of(C));
+        assertThat(analysis.getSourceColumns(second)).containsExactly(A, B, C);
+
+        Field third = Field.newUnqualified("a");
+        analysis.addSourceColumns(third, second);
+        assertThat(analysis.getSourceColumns(third)).containsExactly(A, B, C);
+    }
+
+    @Test
+    public void testReferencedFieldsCannotChange() {
+        Analysis analysis = new Analysis(null, emptyMap());
+        Field owner = Field.newUnqualified("a");
+        Field reference = Field.newUnqualified("a");
+        analysis.addSourceColumns(owner, ImmutableSet.of(A));
+        analysis.addSourceColumns(reference, owner);
+
+        assertThatThrownBy(() -> analysis.addSourceColumns(owner, ImmutableSet.of(B)))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageStartingWith("Source columns of field");
+        assertThat(analysis.getSourceColumns(reference)).isEqualTo(ImmutableSet.of(A));
+    }
+
+    private static Analysis.SourceColumn column(String name) {
+        return new Analysis.SourceColumn(QualifiedObjectName.valueOf("default.t"), name);
+    }
+}
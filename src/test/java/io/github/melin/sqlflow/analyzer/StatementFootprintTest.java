@@ -0,0 +1,108 @@
+package io.github.melin.sqlflow.analyzer;
+
+import io.github.melin.sqlflow.metrics.HistogramMetrics;
+import io.github.melin.sqlflow.parser.SqlFlowParser;
+import io.github.melin.sqlflow.parser.SqlWorkloadGenerator;
+import io.github.melin.sqlflow.parser.SqlWorkloadGenerator.Axis;
+import io.github.melin.sqlflow.parser.SqlWorkloadGenerator.Workload;
+import io.github.melin.sqlflow.tree.statement.Statement;
+import org.junit.Assume;
+import org.junit.Test;
+import org.openjdk.jol.info.GraphLayout;
+
+import java.util.Optional;
+
+import static java.util.Collections.emptyMap;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class StatementFootprintTest {
+
+    private static final SqlFlowParser SQL_PARSER = new SqlFlowParser();
+
+    /**
+     * Compares the estimates with the retained size JOL measures. Needs {@code --add-opens} of
+     * {@code java.base} on Java 9 and later, which the {@code jdk9+} profile adds to the test JVM.
+     */
+    @Test
+    public void testEstimatesMatchMeasuredFootprint() {
+        Assume.assumeTrue("JOL cannot walk JDK objects", canMeasure());
+
+        for (Axis axis : Axis.values()) {
+            for (int size : new int[] {4, 32}) {
+                Workload workload = SqlWorkloadGenerator.generate(axis, axis == Axis.TABLE_WIDTH ? size * 8 : size);
+                Statement statement = SQL_PARSER.createStatement(workload.getSql());
+                assertWithinFactorOfTwo(axis + " AST", StatementFootprint.estimateAst(statement),
+                        GraphLayout.parseInstance(statement).totalSize());
+
+                for (AnalysisProfile profile : AnalysisProfile.values()) {
+                    Analysis analysis = analyze(statement, workload, profile);
+                    // the analysis retains the statement
+                    assertWithinFactorOfTwo(axis + " " + profile + " analysis", analysis.getEstimatedBytes(),
+                            GraphLayout.parseInstance(analysis).totalSize());
+
+                    LineageResult result = analysis.toLineageResult();
+                    assertWithinFactorOfTwo(axis + " " + profile + " lineage", StatementFootprint.estimateLineage(result),
+                            GraphLayout.parseInstance(result).totalSize());
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testMemoryLimit() {
+        Workload workload = SqlWorkloadGenerator.generate(Axis.JOIN_FAN_OUT, 32);
+        Statement statement = SQL_PARSER.createStatement(workload.getSql());
+        long estimatedBytes = analyze(statement, workload, AnalysisProfile.LINEAGE).getEstimatedBytes();
+
+        Analysis analysis = new Analysis(statement, emptyMap(), AnalysisProfile.LINEAGE);
+        analysis.setMemoryLimit(estimatedBytes);
+        new StatementAnalyzer(analysis, workload.getMetadataService(), SQL_PARSER).analyze(statement, Optional.empty());
+        assertThat(analysis.getTarget()).isPresent();
+
+        Analysis limited = new Analysis(statement, emptyMap(), AnalysisProfile.LINEAGE);
+        limited.setMemoryLimit(estimatedBytes / 2);
+        assertThatThrownBy(() -> new StatementAnalyzer(limited, workload.getMetadataService(), SQL_PARSER).analyze(statement, Optional.empty()))
+                .hasMessageStartingWith("Statement is too large to analyze: estimated memory")
+                .isInstanceOfSatisfying(ExceededMemoryLimitException.class, e -> {
+                    assertThat(e.getLimitBytes()).isEqualTo(estimatedBytes / 2);
+                    assertThat(e.getEstimatedBytes()).isGreaterThan(estimatedBytes / 2);
+                });
+    }
+
+    @Test
+    public void testFootprintMetrics() {
+        HistogramMetrics metrics = new HistogramMetrics();
+        SqlFlowParser parser = new SqlFlowParser((lexer, p) -> {}, false, metrics);
+        Workload workload = SqlWorkloadGenerator.generate(Axis.TABLE_WIDTH, 64);
+        Statement statement = parser.createStatement(workload.getSql());
+        Analysis analysis = new Analysis(statement, emptyMap());
+        new StatementAnalyzer(analysis, workload.getMetadataService(), parser).analyze(statement, Optional.empty());
+
+        assertThat(metrics.getFootprint().getCount()).isEqualTo(1);
+        // the lineage of the 64 target columns is added to the analysis
+        assertThat(metrics.getFootprint().getMax()).isGreaterThan(analysis.getEstimatedBytes());
+    }
+
+    private static Analysis analyze(Statement statement, Workload workload, AnalysisProfile profile) {
+        Analysis analysis = new Analysis(statement, emptyMap(), profile);
+        new StatementAnalyzer(analysis, workload.getMetadataService(), SQL_PARSER).analyze(statement, Optional.empty());
+        return analysis;
+    }
+
+    private static void assertWithinFactorOfTwo(String description, long estimated, long measured) {
+        double ratio = (double) estimated / measured;
+        assertThat(ratio >= 0.5 && ratio <= 2)
+                .as("%s estimated %s bytes, measured %s", description, estimated, measured)
+                .isTrue();
+    }
+
+    private static boolean canMeasure() {
+        try {
+            GraphLayout.parseInstance(new java.util.ArrayList<>(java.util.Collections.singleton("x"))).totalSize();
+            return true;
+        } catch (RuntimeException e) {
+            return false;
+        }
+    }
+}
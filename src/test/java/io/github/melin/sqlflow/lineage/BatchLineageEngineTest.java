@@ -0,0 +1,173 @@
+package io.github.melin.sqlflow.lineage;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import io.github.melin.sqlflow.analyzer.Analysis;
+import io.github.melin.sqlflow.metadata.QualifiedObjectName;
+import io.github.melin.sqlflow.metadata.SchemaTable;
+import io.github.melin.sqlflow.metadata.SimpleMetadataService;
+import io.github.melin.sqlflow.parser.ParseException;
+import io.github.melin.sqlflow.parser.SqlFingerprint;
+import io.github.melin.sqlflow.parser.StatementSplitter;
+import org.junit.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class BatchLineageEngineTest {
+
+    @Test
+    public void testAnalyzeIsolatesFailures() throws Exception {
+        List<LineageTask> tasks = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            String sql = i % 50 == 7 ? "insert into target select a, from t1" : "insert into target select a, b from t1 where a > " + i;
+            tasks.add(new LineageTask("batch", i, sql));
+        }
+
+        List<LineageRecord> records = new ArrayList<>();
+        BatchSummary summary;
+        try (BatchLineageEngine engine = BatchLineageEngine.builder(createMetadataService())
+                .withParallelism(4)
+                .withMaxPendingTasks(8)
+                .build()) {
+            summary = engine.analyze(tasks, records::add);
+        }
+
+        assertThat(summary.getSucceeded()).isEqualTo(196);
+        assertThat(summary.getFailed()).isEqualTo(4);
+        assertThat(records).hasSize(200);
+
+        records.sort(Comparator.comparingInt(LineageRecord::getIndex));
+        assertThat(records.get(7).isSuccess()).isFalse();
+        assertThat(records.get(7).getError().get()).startsWith(ParseException.class.getName());
+        assertThat(records.get(8).getResult().get().getTarget().get().getTable()).isEqualTo("target");
+        assertThat(records.get(8).getResult().get().getWhereColumns()).isEqualTo(ImmutableSet.of(
+                new Analysis.SourceColumn(QualifiedObjectName.valueOf("default.t1"), "a")));
+    }
+
+    @Test
+    public void testAnalyzeFiles() throws Exception {
+        Path dir = Files.createTempDirectory("lineage");
+        Path script = dir.resolve("script.sql");
+        Files.write(script, ("-- load; target\n" +
+                "insert into target select a, b from t1;\n" +
+                "insert into target select ';', d from t2;;\n" +
+                "insert into target select a, b from missing").getBytes(StandardCharsets.UTF_8));
+        Path missing = dir.resolve("missing.sql");
+
+        List<LineageRecord> records = new ArrayList<>();
+        BatchSummary summary;
+        try (BatchLineageEngine engine = BatchLineageEngine.builder(createMetadataService()).build()) {
+            summary = engine.analyzeFiles(ImmutableList.of(script, missing), StandardCharsets.UTF_8, records::add);
+        }
+
+        assertThat(summary.getStatements()).isEqualTo(4);
+        assertThat(summary.getFailed()).isEqualTo(2);
+        assertThat(records.stream().filter(record -> record.getSource().equals(missing.toString())).findFirst().get().getIndex())
+                .isEqualTo(-1);
+
+        List<LineageRecord> scriptRecords = new ArrayList<>();
+        records.stream().filter(record -> record.getSource().equals(script.toString())).forEach(scriptRecords::add);
+        assertThat(scriptRecords).hasSize(3);
+        assertThat(scriptRecords.get(0).isSuccess()).isTrue();
+        assertThat(scriptRecords.get(1).isSuccess()).isTrue();
+        assertThat(scriptRecords.get(2).isSuccess()).isFalse();
+    }
+
+    @Test
+    public void testInterruptCancelsFile() throws Exception {
+        Path script = Files.createTempFile("lineage", ".sql");
+        Files.write(script, ("insert into target select a, b from t1;\n" +
+                "insert into target select c, d from t2;\n" +
+                "insert into target select a, b from t1").getBytes(StandardCharsets.UTF_8));
+
+        List<LineageRecord> records = new ArrayList<>();
+        try (BatchLineageEngine engine = BatchLineageEngine.builder(createMetadataService()).build()) {
+            // records of a file are delivered on the thread analyzing it
+            engine.analyzeFiles(ImmutableList.of(script), StandardCharsets.UTF_8, record -> {
+                records.add(record);
+                Thread.currentThread().interrupt();
+            });
+        } finally {
+            Files.delete(script);
+        }
+
+        assertThat(records).hasSize(1);
+        assertThat(records.get(0).isSuccess()).isTrue();
+    }
+
+    @Test
+    public void testStatementCache() throws Exception {
+        List<LineageTask> tasks = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            tasks.add(new LineageTask("batch", i, "insert into target select a, b from t1 where b = '2024-01-" + i + "'"));
+        }
+        List<LineageRecord> records = new ArrayList<>();
+        try (BatchLineageEngine engine = BatchLineageEngine.builder(createMetadataService()).withParallelism(1).build()) {
+            engine.analyze(tasks, records::add);
+
+            StatementCache statementCache = engine.getStatementCache().get();
+            assertThat(statementCache.size()).isEqualTo(1);
+            assertThat(statementCache.stats().hitCount()).isEqualTo(99);
+            assertThat(statementCache.getEstimatedBytes()).isGreaterThan(0L);
+        }
+        assertThat(records.stream().map(record -> record.getResult().get()).distinct().count()).isEqualTo(1);
+    }
+
+    @Test
+    public void testMetadataVersionInvalidatesCachedLineage() throws Exception {
+        Map<String, String> versions = new HashMap<>();
+        versions.put("default.t1", "v1");
+        SimpleMetadataService metadataService = new SimpleMetadataService("default") {
+            @Override
+            public Optional<String> getVersion(QualifiedObjectName name) {
+                return Optional.ofNullable(versions.get(name.toString()));
+            }
+        };
+        SchemaTable t1 = new SchemaTable("default", "t1", ImmutableList.of("a", "b"));
+        metadataService.addTableMetadata(ImmutableList.of(t1, new SchemaTable("default", "target", ImmutableList.of("x", "y"))));
+
+        String sql = "insert into target select * from t1";
+        try (BatchLineageEngine engine = BatchLineageEngine.builder(metadataService).build()) {
+            assertThat(engine.analyze("job", 0, sql).isSuccess()).isTrue();
+            assertThat(engine.analyze("job", 0, sql).isSuccess()).isTrue();
+            StatementCache statementCache = engine.getStatementCache().get();
+            assertThat(statementCache.get(SqlFingerprint.of(sql)).get().getDependencyVersions().keySet()).isEqualTo(ImmutableSet.of(
+                    QualifiedObjectName.valueOf("default.target"), QualifiedObjectName.valueOf("default.t1")));
+            assertThat(statementCache.stats().hitCount()).isEqualTo(2);
+
+            t1.setColumns(ImmutableList.of("a", "c"));
+            versions.put("default.t1", "v2");
+            LineageRecord record = engine.analyze("job", 0, sql);
+            assertThat(statementCache.getStaleCount()).isEqualTo(1);
+            assertThat(record.getResult().get().getTarget().get().getColumns().get().get(1).getSourceColumns()).isEqualTo(ImmutableSet.of(
+                    new Analysis.SourceColumn(QualifiedObjectName.valueOf("default.t1"), "c")));
+            assertThat(engine.analyze("job", 0, sql).getResult()).isEqualTo(record.getResult());
+            assertThat(statementCache.getHitRatio()).isEqualTo(0.6);
+        }
+    }
+
+    @Test
+    public void testStatementSplitter() {
+        assertThat(StatementSplitter.split("select 1; /* ; */ select ';' ;; -- x;\n select \"a;b\" from t"))
+                .isEqualTo(ImmutableList.of("select 1", "select ';'", "select \"a;b\" from t"));
+    }
+
+    private SimpleMetadataService createMetadataService() {
+        SimpleMetadataService metadataService = new SimpleMetadataService("default");
+        metadataService.addTableMetadata(ImmutableList.of(
+                new SchemaTable("default", "t1", ImmutableList.of("a", "b")),
+                new SchemaTable("default", "t2", ImmutableList.of("c", "d")),
+                new SchemaTable("default", "target", ImmutableList.of("x", "y"))));
+        return metadataService;
+    }
+}
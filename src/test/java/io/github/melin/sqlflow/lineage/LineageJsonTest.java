@@ -0,0 +1,63 @@
+package io.github.melin.sqlflow.lineage;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import io.github.melin.sqlflow.analyzer.Analysis;
+import io.github.melin.sqlflow.analyzer.LineageResult;
+import io.github.melin.sqlflow.analyzer.Output;
+import io.github.melin.sqlflow.analyzer.OutputColumn;
+import io.github.melin.sqlflow.metadata.QualifiedObjectName;
+import io.github.melin.sqlflow.util.JsonUtils;
+import org.junit.Test;
+
+import java.io.StringWriter;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class LineageJsonTest {
+
+    @Test
+    public void testMatchesObjectMapper() throws Exception {
+        Analysis.SourceColumn id = new Analysis.SourceColumn(QualifiedObjectName.valueOf("ods.orders"), "id");
+        Analysis.SourceColumn amount = new Analysis.SourceColumn(new QualifiedObjectName("hive", "ods", "orders"), "amount");
+        Output output = new Output(null, "dw", "orders", Optional.of(ImmutableList.of(
+                new OutputColumn("id", ImmutableSet.of(id)),
+                new OutputColumn("total", ImmutableSet.of(id, amount)),
+                new OutputColumn("\"quoted\"\n", ImmutableSet.of()))));
+        LineageResult result = new LineageResult(Optional.of("INSERT"), Optional.of(output), ImmutableSet.of(amount), ImmutableSet.of());
+        LineageResult withoutTarget = new LineageResult(Optional.empty(), Optional.empty(), ImmutableSet.of(), ImmutableSet.of(id));
+
+        assertThat(LineageJson.toJson(output)).isEqualTo(JsonUtils.toCompactJSONString(output));
+        assertThat(LineageJson.toJson(new Output("hive", "dw", "t", Optional.empty())))
+                .isEqualTo(JsonUtils.toCompactJSONString(new Output("hive", "dw", "t", Optional.empty())));
+        assertThat(LineageJson.toJson(result)).isEqualTo(JsonUtils.toCompactJSONString(result));
+        assertThat(LineageJson.toJson(withoutTarget)).isEqualTo(JsonUtils.toCompactJSONString(withoutTarget));
+        List<?> columns = (List<?>) JsonUtils.toJavaMap(LineageJson.toJson(output)).get("columns");
+        assertThat(((Map<?, ?>) columns.get(2)).get("column")).isEqualTo("\"quoted\"\n");
+    }
+
+    @Test
+    public void testNdjsonSink() throws Exception {
+        LineageResult result = new LineageResult(Optional.of("INSERT"), Optional.empty(), ImmutableSet.of(), ImmutableSet.of());
+        StringWriter writer = new StringWriter();
+        try (NdjsonLineageSink sink = new NdjsonLineageSink(writer)) {
+            sink.accept(LineageRecord.success("a.sql", 0, result, 10));
+            sink.accept(LineageRecord.failure("a.sql", 1, new IllegalStateException("broken"), 20));
+            sink.accept(LineageRecord.success("b.sql", 0, result, 30));
+        }
+
+        String[] lines = writer.toString().split("\n");
+        assertThat(lines).hasSize(3);
+        assertThat(writer.toString()).endsWith("\n");
+        Map<String, Object> first = JsonUtils.toJavaMap(lines[0]);
+        assertThat(first.get("source")).isEqualTo("a.sql");
+        assertThat(((Map<?, ?>) first.get("result")).get("updateType")).isEqualTo("INSERT");
+        Map<String, Object> second = JsonUtils.toJavaMap(lines[1]);
+        assertThat(second.get("index")).isEqualTo(1);
+        assertThat(second.get("error")).isEqualTo(IllegalStateException.class.getName() + ": broken");
+        assertThat(JsonUtils.toJavaMap(lines[2]).get("source")).isEqualTo("b.sql");
+    }
+}
@@ -0,0 +1,196 @@
+package io.github.melin.sqlflow.lineage.graph;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import io.github.melin.sqlflow.analyzer.Analysis;
+import io.github.melin.sqlflow.analyzer.Output;
+import io.github.melin.sqlflow.analyzer.OutputColumn;
+import io.github.melin.sqlflow.metadata.QualifiedObjectName;
+import org.junit.Test;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Random;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class ColumnLineageGraphTest {
+
+    @Test
+    public void testTraversals() {
+        ColumnLineageGraph graph = new ColumnLineageGraph();
+        graph.putStatement("s1", output("ods.orders_clean", "id", column("ods.orders", "id"), "amount", column("ods.orders", "amount")));
+        graph.putStatement("s2", output("dw.orders", "id", column("ods.orders_clean", "id"), "total", column("ods.orders_clean", "amount")));
+        graph.putStatement("s3", output("dw.report", "total", column("dw.orders", "total")));
+
+        TraversalResult upstream = graph.upstream(column("dw.report", "total"), Integer.MAX_VALUE, 100);
+        assertThat(upstream.getDepths()).isEqualTo(ImmutableMap.of(
+                column("dw.orders", "total"), 1,
+                column("ods.orders_clean", "amount"), 2,
+                column("ods.orders", "amount"), 3));
+        assertThat(upstream.isTruncated()).isFalse();
+
+        TraversalResult limited = graph.upstream(column("dw.report", "total"), 2, 100);
+        assertThat(limited.getColumns()).hasSize(2);
+        assertThat(limited.isTruncated()).isTrue();
+
+        assertThat(graph.impact(QualifiedObjectName.valueOf("ods.orders"), Integer.MAX_VALUE, 100).getColumns()).isEqualTo(ImmutableSet.of(
+                column("ods.orders_clean", "id"),
+                column("ods.orders_clean", "amount"),
+                column("dw.orders", "id"),
+                column("dw.orders", "total"),
+                column("dw.report", "total")));
+        assertThat(graph.downstream(column("unknown.table", "id"), 10, 10).getColumns()).isEmpty();
+    }
+
+    @Test
+    public void testReplaceStatement() {
+        ColumnLineageGraph graph = new ColumnLineageGraph();
+        graph.putStatement("s1", output("dw.t", "a", column("ods.x", "a")));
+        graph.putStatement("s2", output("dw.t", "a", column("ods.x", "a")));
+        graph.compact();
+        assertThat(graph.getEdgeCount()).isEqualTo(1);
+        assertThat(graph.getStatementEdgeCount()).isEqualTo(2);
+
+        // the edge survives as long as one statement contributes it
+        graph.putStatement("s1", output("dw.t", "a", column("ods.y", "a")));
+        assertThat(graph.upstream(column("dw.t", "a"), 1, 10).getColumns())
+                .containsExactlyInAnyOrder(column("ods.x", "a"), column("ods.y", "a"));
+        assertThat(graph.removeStatement("s2")).isTrue();
+        assertThat(graph.upstream(column("dw.t", "a"), 1, 10).getColumns()).containsExactly(column("ods.y", "a"));
+        assertThat(graph.getEdgeCount()).isEqualTo(1);
+
+        graph.compact();
+        assertThat(graph.upstream(column("dw.t", "a"), 1, 10).getColumns()).containsExactly(column("ods.y", "a"));
+        assertThat(graph.removeStatements(id -> id.startsWith("s"))).isEqualTo(1);
+        assertThat(graph.getEdgeCount()).isZero();
+        assertThat(graph.downstream(column("ods.y", "a"), 1, 10).getColumns()).isEmpty();
+    }
+
+    @Test
+    public void testFanOutLimit() {
+        ColumnLineageGraph graph = new ColumnLineageGraph();
+        for (int i = 0; i < 10; i++) {
+            graph.putStatement("s" + i, output("dw.t" + i, "a", column("ods.x", "a")));
+        }
+        TraversalResult result = graph.downstream(column("ods.x", "a"), 5, 4);
+        assertThat(result.getColumns()).hasSize(4);
+        assertThat(result.isTruncated()).isTrue();
+    }
+
+    @Test
+    public void testBatchesMatchSingleStatements() {
+        Random random = new Random(7);
+        ColumnLineageGraph single = new ColumnLineageGraph();
+        ColumnLineageGraph batched = new ColumnLineageGraph();
+        try (ReachabilityIndex index = new ReachabilityIndex(batched)) {
+            // a large batch rebuilds the graph, the small ones go through the overlay
+            for (int size : new int[] {3000, 20, 5}) {
+                Map<String, Output> batch = new LinkedHashMap<>();
+                for (int i = 0; i < size; i++) {
+                    String id = "s" + random.nextInt(4000);
+                    Output output = new Output(null, "db", "t" + random.nextInt(500), Optional.of(ImmutableList.of(
+                            new OutputColumn("c", ImmutableSet.of(column("db.t" + random.nextInt(500), "c"))),
+                            new OutputColumn("d", ImmutableSet.of(column("db.t" + random.nextInt(500), "c"))))));
+                    single.putStatement(id, output);
+                    batch.put(id, output);
+                }
+                batched.putStatements(batch);
+
+                assertThat(batched.getEdgeCount()).isEqualTo(single.getEdgeCount());
+                assertThat(batched.getStatementEdgeCount()).isEqualTo(single.getStatementEdgeCount());
+                for (int t = 0; t < 500; t += 7) {
+                    Analysis.SourceColumn start = column("db.t" + t, "c");
+                    Set<Analysis.SourceColumn> expected = single.downstream(start, Integer.MAX_VALUE, Integer.MAX_VALUE).getColumns();
+                    assertThat(batched.downstream(start, Integer.MAX_VALUE, Integer.MAX_VALUE).getColumns()).isEqualTo(expected);
+                    for (Analysis.SourceColumn column : expected) {
+                        assertThat(index.reaches(start, column)).isTrue();
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testRandomUpdatesMatchRecomputedGraph() {
+        Random random = new Random(42);
+        ColumnLineageGraph graph = new ColumnLineageGraph();
+        Map<String, Output> statements = new HashMap<>();
+        for (int round = 0; round < 3000; round++) {
+            String id = "s" + random.nextInt(300);
+            if (random.nextInt(5) == 0) {
+                graph.removeStatement(id);
+                statements.remove(id);
+                continue;
+            }
+            int target = random.nextInt(40);
+            List<OutputColumn> columns = new ArrayList<>();
+            for (int i = 0; i < 3; i++) {
+                Set<Analysis.SourceColumn> sources = new HashSet<>();
+                for (int j = random.nextInt(4); j > 0; j--) {
+                    sources.add(column("db.t" + random.nextInt(40), "c" + random.nextInt(3)));
+                }
+                columns.add(new OutputColumn("c" + i, sources));
+            }
+            Output output = new Output(null, "db", "t" + target, Optional.of(columns));
+            graph.putStatement(id, output);
+            statements.put(id, output);
+            if (round % 1000 == 999) {
+                graph.compact();
+            }
+        }
+
+        Map<Analysis.SourceColumn, Set<Analysis.SourceColumn>> downstream = new HashMap<>();
+        for (Output output : statements.values()) {
+            for (OutputColumn column : output.getColumns().get()) {
+                for (Analysis.SourceColumn source : column.getSourceColumns()) {
+                    downstream.computeIfAbsent(source, key -> new HashSet<>()).add(column("db." + output.getTable(), column.getColumn()));
+                }
+            }
+        }
+        assertThat(graph.getEdgeCount()).isEqualTo(downstream.values().stream().mapToLong(Set::size).sum());
+        for (int t = 0; t < 40; t++) {
+            for (int c = 0; c < 3; c++) {
+                Analysis.SourceColumn start = column("db.t" + t, "c" + c);
+                assertThat(graph.downstream(start, Integer.MAX_VALUE, Integer.MAX_VALUE).getColumns())
+                        .isEqualTo(reachable(downstream, start));
+            }
+        }
+    }
+
+    private static Set<Analysis.SourceColumn> reachable(Map<Analysis.SourceColumn, Set<Analysis.SourceColumn>> edges, Analysis.SourceColumn start) {
+        Set<Analysis.SourceColumn> visited = new HashSet<>();
+        Deque<Analysis.SourceColumn> queue = new ArrayDeque<>();
+        queue.add(start);
+        while (!queue.isEmpty()) {
+            for (Analysis.SourceColumn next : edges.getOrDefault(queue.poll(), ImmutableSet.of())) {
+                if (!next.equals(start) && visited.add(next)) {
+                    queue.add(next);
+                }
+            }
+        }
+        return visited;
+    }
+
+    private static Analysis.SourceColumn column(String table, String column) {
+        return new Analysis.SourceColumn(QualifiedObjectName.valueOf(table), column);
+    }
+
+    private static Output output(String table, Object... columns) {
+        QualifiedObjectName name = QualifiedObjectName.valueOf(table);
+        ImmutableList.Builder<OutputColumn> outputColumns = ImmutableList.builder();
+        for (int i = 0; i < columns.length; i += 2) {
+            outputColumns.add(new OutputColumn((String) columns[i], ImmutableSet.of((Analysis.SourceColumn) columns[i + 1])));
+        }
+        return new Output(name.getCatalogName(), name.getSchemaName(), name.getObjectName(), Optional.of(outputColumns.build()));
+    }
+}
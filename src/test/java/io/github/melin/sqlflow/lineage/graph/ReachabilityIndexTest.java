@@ -0,0 +1,174 @@
+package io.github.melin.sqlflow.lineage.graph;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import io.github.melin.sqlflow.analyzer.Analysis;
+import io.github.melin.sqlflow.analyzer.Output;
+import io.github.melin.sqlflow.analyzer.OutputColumn;
+import io.github.melin.sqlflow.metadata.QualifiedObjectName;
+import org.junit.Test;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Random;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class ReachabilityIndexTest {
+
+    @Test
+    public void testReachesAndUltimateSources() {
+        ColumnLineageGraph graph = new ColumnLineageGraph();
+        graph.putStatement("s1", output("dw.orders", "total", column("ods.orders", "amount"), column("ods.rates", "rate")));
+        graph.putStatement("s2", output("dw.report", "total", column("dw.orders", "total")));
+        // incremental load reading its own target
+        graph.putStatement("s3", output("dw.report", "total", column("dw.report", "total")));
+
+        try (ReachabilityIndex index = new ReachabilityIndex(graph)) {
+            assertThat(index.reaches(column("ods.orders", "amount"), column("dw.report", "total"))).isTrue();
+            assertThat(index.reaches(column("dw.report", "total"), column("ods.orders", "amount"))).isFalse();
+            assertThat(index.reaches(column("ods.orders", "amount"), column("ods.rates", "rate"))).isFalse();
+            assertThat(index.getUltimateSources(column("dw.report", "total")))
+                    .isEqualTo(ImmutableSet.of(column("ods.orders", "amount"), column("ods.rates", "rate")));
+            assertThat(index.getUltimateSources(column("ods.orders", "amount"))).isEmpty();
+            assertThat(index.getRebuildCount()).isEqualTo(1);
+
+            // added edges are answered without a rebuild
+            graph.putStatement("s4", output("ods.orders", "amount", column("raw.orders", "amount")));
+            assertThat(index.reaches(column("raw.orders", "amount"), column("dw.report", "total"))).isTrue();
+            assertThat(index.getUltimateSources(column("dw.report", "total")))
+                    .isEqualTo(ImmutableSet.of(column("raw.orders", "amount"), column("ods.rates", "rate")));
+            assertThat(index.getPendingEdgeCount()).isEqualTo(1);
+
+            // replacing a statement by the same lineage keeps the index current
+            graph.putStatement("s1", output("dw.orders", "total", column("ods.orders", "amount"), column("ods.rates", "rate")));
+            assertThat(index.isStale()).isFalse();
+
+            graph.removeStatement("s2");
+            assertThat(index.isStale()).isTrue();
+            assertThat(index.reaches(column("raw.orders", "amount"), column("dw.report", "total"))).isFalse();
+            assertThat(index.getRebuildCount()).isEqualTo(2);
+        }
+    }
+
+    @Test
+    public void testRandomGraphsMatchTraversal() {
+        Random random = new Random(7);
+        for (int round = 0; round < 20; round++) {
+            ColumnLineageGraph graph = new ColumnLineageGraph();
+            Map<String, Output> statements = new HashMap<>();
+            ReachabilityIndex index = new ReachabilityIndex(graph);
+            for (int step = 0; step < 60; step++) {
+                String id = "s" + random.nextInt(40);
+                if (random.nextInt(8) == 0) {
+                    graph.removeStatement(id);
+                    statements.remove(id);
+                } else {
+                    Output output = randomOutput(random);
+                    graph.putStatement(id, output);
+                    statements.put(id, output);
+                }
+                if (step % 20 == 10) {
+                    index.refresh();
+                }
+                if (step % 5 == 4) {
+                    verify(index, statements);
+                }
+            }
+            index.close();
+        }
+    }
+
+    private static void verify(ReachabilityIndex index, Map<String, Output> statements) {
+        Map<Analysis.SourceColumn, Set<Analysis.SourceColumn>> edges = new HashMap<>();
+        Set<Analysis.SourceColumn> columns = new HashSet<>();
+        for (Output output : statements.values()) {
+            for (OutputColumn outputColumn : output.getColumns().get()) {
+                Analysis.SourceColumn target = column(output.getSchema() + "." + output.getTable(), outputColumn.getColumn());
+                columns.add(target);
+                for (Analysis.SourceColumn source : outputColumn.getSourceColumns()) {
+                    edges.computeIfAbsent(source, key -> new HashSet<>()).add(target);
+                    columns.add(source);
+                }
+            }
+        }
+        Map<Analysis.SourceColumn, Set<Analysis.SourceColumn>> reachable = new HashMap<>();
+        for (Analysis.SourceColumn column : columns) {
+            reachable.put(column, reachable(edges, column));
+        }
+        for (Analysis.SourceColumn from : columns) {
+            for (Analysis.SourceColumn to : columns) {
+                assertThat(index.reaches(from, to)).isEqualTo(reachable.get(from).contains(to));
+            }
+        }
+        for (Analysis.SourceColumn column : columns) {
+            Set<Analysis.SourceColumn> expected = new HashSet<>();
+            for (Analysis.SourceColumn source : columns) {
+                if (!source.equals(column) && reachable.get(source).contains(column) && isSourceComponent(source, edges, reachable)) {
+                    expected.add(source);
+                }
+            }
+            assertThat(index.getUltimateSources(column)).isEqualTo(expected);
+        }
+    }
+
+    private static boolean isSourceComponent(
+            Analysis.SourceColumn column,
+            Map<Analysis.SourceColumn, Set<Analysis.SourceColumn>> edges,
+            Map<Analysis.SourceColumn, Set<Analysis.SourceColumn>> reachable) {
+        for (Map.Entry<Analysis.SourceColumn, Set<Analysis.SourceColumn>> entry : edges.entrySet()) {
+            for (Analysis.SourceColumn target : entry.getValue()) {
+                boolean intoComponent = reachable.get(target).contains(column) && reachable.get(column).contains(target);
+                boolean fromComponent = reachable.get(entry.getKey()).contains(column) && reachable.get(column).contains(entry.getKey());
+                if (intoComponent && !fromComponent) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    private static Set<Analysis.SourceColumn> reachable(Map<Analysis.SourceColumn, Set<Analysis.SourceColumn>> edges, Analysis.SourceColumn start) {
+        Set<Analysis.SourceColumn> visited = new HashSet<>();
+        visited.add(start);
+        Deque<Analysis.SourceColumn> queue = new ArrayDeque<>();
+        queue.add(start);
+        while (!queue.isEmpty()) {
+            for (Analysis.SourceColumn next : edges.getOrDefault(queue.poll(), ImmutableSet.of())) {
+                if (visited.add(next)) {
+                    queue.add(next);
+                }
+            }
+        }
+        return visited;
+    }
+
+    private static Output randomOutput(Random random) {
+        List<OutputColumn> columns = new ArrayList<>();
+        for (int i = 0; i < 2; i++) {
+            Set<Analysis.SourceColumn> sources = new HashSet<>();
+            for (int j = random.nextInt(3); j > 0; j--) {
+                sources.add(column("db.t" + random.nextInt(12), "c" + random.nextInt(2)));
+            }
+            columns.add(new OutputColumn("c" + i, sources));
+        }
+        return new Output(null, "db", "t" + random.nextInt(12), Optional.of(columns));
+    }
+
+    private static Analysis.SourceColumn column(String table, String column) {
+        return new Analysis.SourceColumn(QualifiedObjectName.valueOf(table), column);
+    }
+
+    private static Output output(String table, String column, Analysis.SourceColumn... sources) {
+        QualifiedObjectName name = QualifiedObjectName.valueOf(table);
+        return new Output(name.getCatalogName(), name.getSchemaName(), name.getObjectName(),
+                Optional.of(ImmutableList.of(new OutputColumn(column, ImmutableSet.copyOf(sources)))));
+    }
+}
@@ -0,0 +1,155 @@
+package io.github.melin.sqlflow.lineage.store;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import io.github.melin.sqlflow.analyzer.Analysis;
+import io.github.melin.sqlflow.analyzer.AnalysisProfile;
+import io.github.melin.sqlflow.analyzer.Output;
+import io.github.melin.sqlflow.analyzer.OutputColumn;
+import io.github.melin.sqlflow.analyzer.StatementAnalyzer;
+import io.github.melin.sqlflow.lineage.graph.ColumnLineageGraph;
+import io.github.melin.sqlflow.metadata.QualifiedObjectName;
+import io.github.melin.sqlflow.metadata.SchemaTable;
+import io.github.melin.sqlflow.metadata.SimpleMetadataService;
+import io.github.melin.sqlflow.parser.SqlFlowParser;
+import io.github.melin.sqlflow.tree.NodeLocation;
+import io.github.melin.sqlflow.tree.statement.Statement;
+import org.junit.Test;
+
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+
+import static java.nio.file.StandardOpenOption.WRITE;
+import static java.util.Collections.emptyMap;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class LineageStoreTest {
+
+    @Test
+    public void testReloadAnalyzedStatements() throws Exception {
+        SimpleMetadataService metadataService = new SimpleMetadataService("default");
+        metadataService.addTableMetadata(ImmutableList.of(
+                new SchemaTable("default", "orders", ImmutableList.of("id", "amount")),
+                new SchemaTable("default", "target", ImmutableList.of("x", "y"))));
+        SqlFlowParser parser = new SqlFlowParser();
+        Statement statement = parser.createStatement("insert into target select id, amount * 2 from orders");
+        Analysis analysis = new Analysis(statement, emptyMap());
+        new StatementAnalyzer(analysis, metadataService, parser).analyze(statement, Optional.empty());
+        StoredStatement analyzed = StoredStatement.of("job.sql#0", analysis).get();
+        assertThat(analyzed.getOriginLocations()).isNotEmpty();
+
+        // the lineage profile has no origin locations to store
+        Analysis lineageAnalysis = new Analysis(statement, emptyMap(), AnalysisProfile.LINEAGE);
+        new StatementAnalyzer(lineageAnalysis, metadataService, parser).analyze(statement, Optional.empty());
+        assertThatThrownBy(() -> StoredStatement.of("job.sql#0", lineageAnalysis))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("origin locations are not recorded by the LINEAGE profile");
+
+        Path directory = Files.createTempDirectory("lineage-store");
+        try (LineageStore store = LineageStore.open(directory)) {
+            store.put(analyzed);
+            store.put(statement("s1", "dw.t", "a", "ods.x"));
+            store.put(statement("s2", "dw.t", "b", "ods.y"));
+            store.put(statement("s1", "dw.t", "a", "ods.z"));
+            store.remove("s2");
+        }
+
+        try (LineageStore store = LineageStore.open(directory)) {
+            assertThat(live(store)).isEqualTo(ImmutableMap.of(
+                    "job.sql#0", analyzed,
+                    "s1", statement("s1", "dw.t", "a", "ods.z")));
+
+            ColumnLineageGraph graph = new ColumnLineageGraph();
+            assertThat(store.loadInto(graph)).isEqualTo(4);
+            assertThat(graph.getStatementCount()).isEqualTo(2);
+            assertThat(graph.upstream(column("default.target", "y"), 1, 10).getColumns())
+                    .containsExactly(column("default.orders", "amount"));
+        }
+    }
+
+    @Test
+    public void testInterruptedAppendIsCutOff() throws Exception {
+        Path directory = Files.createTempDirectory("lineage-store");
+        Path segment;
+        try (LineageStore store = LineageStore.open(directory)) {
+            store.put(statement("s1", "dw.t", "a", "ods.x"));
+            store.put(statement("s2", "dw.t", "b", "ods.y"));
+            segment = store.getSegments().get(0);
+        }
+        try (FileChannel channel = FileChannel.open(segment, WRITE)) {
+            channel.truncate(channel.size() - 3);
+        }
+
+        try (LineageStore store = LineageStore.open(directory)) {
+            assertThat(live(store).keySet()).containsExactly("s1");
+            store.put(statement("s3", "dw.t", "c", "ods.y"));
+        }
+        try (LineageStore store = LineageStore.open(directory)) {
+            assertThat(live(store).keySet()).containsExactly("s1", "s3");
+        }
+    }
+
+    @Test
+    public void testCompaction() throws Exception {
+        Path directory = Files.createTempDirectory("lineage-store");
+        Map<String, StoredStatement> expected = new LinkedHashMap<>();
+        try (LineageStore store = LineageStore.open(directory, 1024)) {
+            for (int i = 0; i < 500; i++) {
+                StoredStatement statement = statement("s" + (i % 20), "dw.t" + (i % 7), "c" + (i % 3), "ods.x" + i);
+                store.put(statement);
+                expected.remove(statement.getStatementId());
+                expected.put(statement.getStatementId(), statement);
+            }
+            store.remove("s0");
+            expected.remove("s0");
+            assertThat(store.getSegments().size()).isGreaterThan(1);
+            long size = store.getSizeInBytes();
+
+            store.compact();
+            assertThat(store.getSegments()).hasSize(1);
+            assertThat(store.getSizeInBytes()).isLessThan(size);
+            assertThat(live(store)).isEqualTo(expected);
+
+            store.put(statement("s1", "dw.t", "a", "ods.y"));
+            expected.put("s1", statement("s1", "dw.t", "a", "ods.y"));
+        }
+        try (LineageStore store = LineageStore.open(directory, 1024)) {
+            assertThat(live(store)).isEqualTo(expected);
+        }
+    }
+
+    private static Map<String, StoredStatement> live(LineageStore store) throws Exception {
+        Map<String, StoredStatement> live = new LinkedHashMap<>();
+        store.load(new SegmentVisitor() {
+            @Override
+            public void statement(StoredStatement statement) {
+                live.remove(statement.getStatementId());
+                live.put(statement.getStatementId(), statement);
+            }
+
+            @Override
+            public void removed(String statementId) {
+                live.remove(statementId);
+            }
+        });
+        return live;
+    }
+
+    private static StoredStatement statement(String id, String table, String column, String sourceTable) {
+        QualifiedObjectName name = QualifiedObjectName.valueOf(table);
+        Analysis.SourceColumn source = column(sourceTable, column);
+        Output output = new Output(name.getCatalogName(), name.getSchemaName(), name.getObjectName(),
+                Optional.of(ImmutableList.of(new OutputColumn(column, ImmutableSet.of(source)))));
+        return new StoredStatement(id, output, ImmutableMap.of(source, ImmutableSet.of(new NodeLocation(1, 8, 7, 7 + column.length()))));
+    }
+
+    private static Analysis.SourceColumn column(String table, String column) {
+        return new Analysis.SourceColumn(QualifiedObjectName.valueOf(table), column);
+    }
+}
@@ -0,0 +1,54 @@
+package io.github.melin.sqlflow.lineage.usage;
+
+import io.github.melin.sqlflow.analyzer.Analysis;
+import io.github.melin.sqlflow.metadata.QualifiedObjectName;
+import io.github.melin.sqlflow.parser.SqlIdentifiers;
+import org.junit.Test;
+
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.nio.file.Path;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class IdentifierIndexTest {
+
+    @Test
+    public void testExtractIdentifiers() {
+        assertThat(SqlIdentifiers.extract("SELECT a.\"Col\" + 1 FROM Cat.Db.T a -- other_table\nWHERE `b` = 'c'", false))
+                .contains("select", "a", "col", "a.col", "cat", "db", "t", "cat.db", "db.t", "cat.db.t", "b")
+                .doesNotContain("other_table", "c", "1", "t.a", SqlIdentifiers.ASTERISK);
+        assertThat(SqlIdentifiers.extract("select * from T", true)).contains("T", SqlIdentifiers.ASTERISK).doesNotContain("t");
+    }
+
+    @Test
+    public void testCandidates() throws Exception {
+        IdentifierIndex index = new IdentifierIndex();
+        assertThat(index.put("a.sql", "insert into report select turbine, AVG_WIND_SPEED from ods.wind")).isTrue();
+        assertThat(index.put("b.sql", "insert into report select * from wind")).isTrue();
+        assertThat(index.put("c.sql", "insert into report select turbine, power from ods.generator")).isTrue();
+        assertThat(index.put("a.sql", "insert into report select turbine, AVG_WIND_SPEED from ods.wind")).isFalse();
+
+        Analysis.SourceColumn speed = new Analysis.SourceColumn(QualifiedObjectName.valueOf("ods.wind"), "avg_wind_speed");
+        assertThat(index.getCandidates(speed)).containsExactly("a.sql", "b.sql");
+        assertThat(index.getCandidates(QualifiedObjectName.valueOf("ods.generator"))).containsExactly("c.sql");
+        assertThat(index.getCandidates("ods.wind")).containsExactly("a.sql");
+        assertThat(index.getCandidates("report")).containsExactly("a.sql", "b.sql", "c.sql");
+
+        Path directory = Files.createTempDirectory("identifier-index");
+        Path script = directory.resolve("d.sql");
+        Files.write(script, "select avg_wind_speed from wind".getBytes(UTF_8));
+        assertThat(index.putFile(script, UTF_8)).isTrue();
+        assertThat(index.putFile(script, UTF_8)).isFalse();
+        assertThat(index.retainAll(Arrays.asList("a.sql", "b.sql", script.toString()))).isEqualTo(1);
+
+        Path saved = directory.resolve("identifiers.idx");
+        index.save(saved);
+        IdentifierIndex loaded = IdentifierIndex.load(saved);
+        assertThat(loaded.getSourceCount()).isEqualTo(3);
+        assertThat(loaded.getCandidates(speed)).containsExactly(script.toString(), "a.sql", "b.sql");
+        assertThat(loaded.getChecksum("a.sql")).isEqualTo(index.getChecksum("a.sql"));
+        assertThat(loaded.putFile(script, UTF_8)).isFalse();
+    }
+}
@@ -0,0 +1,154 @@
+package io.github.melin.sqlflow.lineage.usage;
+
+import com.google.common.collect.ImmutableList;
+import io.github.melin.sqlflow.analyzer.Analysis;
+import io.github.melin.sqlflow.analyzer.AnalysisProfile;
+import io.github.melin.sqlflow.analyzer.StatementAnalyzer;
+import io.github.melin.sqlflow.metadata.QualifiedObjectName;
+import io.github.melin.sqlflow.metadata.SchemaTable;
+import io.github.melin.sqlflow.metadata.SimpleMetadataService;
+import io.github.melin.sqlflow.parser.SqlFlowParser;
+import io.github.melin.sqlflow.tree.NodeLocation;
+import io.github.melin.sqlflow.tree.statement.Statement;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Random;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static java.util.Collections.emptyMap;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class UsageIndexTest {
+
+    @Test
+    public void testIndexAnalyzedScripts() {
+        SimpleMetadataService metadataService = new SimpleMetadataService("default");
+        metadataService.addTableMetadata(ImmutableList.of(
+                new SchemaTable("default", "wind", ImmutableList.of("turbine", "avg_wind_speed")),
+                new SchemaTable("default", "report", ImmutableList.of("turbine", "speed"))));
+        SqlFlowParser parser = new SqlFlowParser();
+        Analysis.SourceColumn speed = new Analysis.SourceColumn(QualifiedObjectName.valueOf("default.wind"), "avg_wind_speed");
+
+        UsageIndex index = new UsageIndex();
+        index.updateSource("a.sql")
+                .add(0, analyze(parser, metadataService, "insert into report select turbine, avg_wind_speed from wind"))
+                .add(1, analyze(parser, metadataService, "insert into report select turbine, 1 from wind"))
+                .commit();
+        index.updateSource("b.sql")
+                .add(0, analyze(parser, metadataService, "insert into report\nselect turbine,\n  avg_wind_speed * 2 from wind"))
+                .commit();
+
+        assertThat(index.getSources(speed)).containsExactly("a.sql", "b.sql");
+        assertThat(index.getSources(QualifiedObjectName.valueOf("default.wind"))).containsExactly("a.sql", "b.sql");
+        List<Usage> usages = index.getUsages(speed);
+        assertThat(usages).hasSize(2);
+        assertThat(usages.get(0).getSource()).isEqualTo("a.sql");
+        assertThat(usages.get(0).getIndex()).isEqualTo(0);
+        assertThat(usages.get(0).getLocation().getLineNumber()).isEqualTo(1);
+        assertThat(usages.get(1).getSource()).isEqualTo("b.sql");
+        assertThat(usages.get(1).getLocation().getLineNumber()).isEqualTo(3);
+        assertThat(usages.get(1).getLocation().getColumnNumber()).isEqualTo(3);
+
+        // replacing a source drops the usages it no longer has
+        index.updateSource("a.sql")
+                .add(0, analyze(parser, metadataService, "insert into report select turbine, 1 from wind"))
+                .commit();
+        assertThat(index.getSources(speed)).containsExactly("b.sql");
+        assertThat(index.removeSource("b.sql")).isTrue();
+        assertThat(index.getSources(speed)).isEmpty();
+        assertThat(index.getUsages(speed)).isEmpty();
+        assertThat(index.getSourceCount()).isEqualTo(1);
+    }
+
+    @Test
+    public void testRandomUpdatesMatchScan() {
+        Random random = new Random(3);
+        UsageIndex index = new UsageIndex();
+        Map<String, Map<Integer, StatementUsages>> corpus = new HashMap<>();
+        for (int round = 0; round < 2000; round++) {
+            String source = "f" + random.nextInt(100) + ".sql";
+            if (random.nextInt(6) == 0) {
+                assertThat(index.removeSource(source)).isEqualTo(corpus.remove(source) != null);
+                continue;
+            }
+            Map<Integer, StatementUsages> statements = new TreeMap<>();
+            for (int statement = random.nextInt(4); statement >= 0; statement--) {
+                Map<Analysis.SourceColumn, List<NodeLocation>> columns = new HashMap<>();
+                Map<QualifiedObjectName, List<NodeLocation>> tables = new HashMap<>();
+                for (int reference = random.nextInt(6); reference > 0; reference--) {
+                    QualifiedObjectName table = QualifiedObjectName.valueOf("db.t" + random.nextInt(20));
+                    int line = 1 + random.nextInt(300);
+                    int start = random.nextInt(10000);
+                    NodeLocation location = new NodeLocation(line, 1 + random.nextInt(80), start, start + random.nextInt(30));
+                    columns.computeIfAbsent(new Analysis.SourceColumn(table, "c" + random.nextInt(5)), key -> new ArrayList<>()).add(location);
+                    tables.computeIfAbsent(table, key -> new ArrayList<>()).add(location);
+                }
+                statements.put(random.nextInt(50), new StatementUsages(columns, tables));
+            }
+            index.putSource(source, statements);
+            corpus.put(source, statements);
+        }
+
+        assertThat(index.getSourceCount()).isEqualTo(corpus.size());
+        for (int t = 0; t < 20; t++) {
+            QualifiedObjectName table = QualifiedObjectName.valueOf("db.t" + t);
+            assertThat(index.getUsages(table)).isEqualTo(scan(corpus, usages -> usages.getTables().get(table)));
+            for (int c = 0; c < 5; c++) {
+                Analysis.SourceColumn column = new Analysis.SourceColumn(table, "c" + c);
+                List<Usage> expected = scan(corpus, usages -> usages.getColumns().get(column));
+                assertThat(index.getUsages(column)).isEqualTo(expected);
+                assertThat(new ArrayList<>(index.getSources(column)))
+                        .isEqualTo(expected.stream().map(Usage::getSource).distinct().collect(Collectors.toList()));
+            }
+        }
+    }
+
+    @Test
+    public void testRejectLineageProfile() {
+        SimpleMetadataService metadataService = new SimpleMetadataService("default");
+        metadataService.addTableMetadata(ImmutableList.of(new SchemaTable("default", "wind", ImmutableList.of("turbine"))));
+        SqlFlowParser parser = new SqlFlowParser();
+        Statement statement = parser.createStatement("select turbine from wind");
+        Analysis analysis = new Analysis(statement, emptyMap(), AnalysisProfile.LINEAGE);
+        new StatementAnalyzer(analysis, metadataService, parser).analyze(statement, Optional.empty());
+
+        assertThatThrownBy(() -> StatementUsages.of(analysis))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("usages are not recorded by the LINEAGE profile");
+    }
+
+    private static List<Usage> scan(Map<String, Map<Integer, StatementUsages>> corpus,
+                                    Function<StatementUsages, Set<NodeLocation>> locations) {
+        List<Usage> usages = new ArrayList<>();
+        corpus.forEach((source, statements) -> statements.forEach((index, usage) -> {
+            for (NodeLocation location : Optional.ofNullable(locations.apply(usage)).orElse(new HashSet<>())) {
+                usages.add(new Usage(source, index, location));
+            }
+        }));
+        usages.sort(Comparator.comparing(Usage::getSource)
+                .thenComparingInt(Usage::getIndex)
+                .thenComparingInt(usage -> usage.getLocation().getLineNumber())
+                .thenComparingInt(usage -> usage.getLocation().getColumnNumber())
+                .thenComparingInt(usage -> usage.getLocation().getStartIndex())
+                .thenComparingInt(usage -> usage.getLocation().getStopIndex()));
+        return usages;
+    }
+
+    private static Analysis analyze(SqlFlowParser parser, SimpleMetadataService metadataService, String sql) {
+        Statement statement = parser.createStatement(sql);
+        Analysis analysis = new Analysis(statement, emptyMap());
+        new StatementAnalyzer(analysis, metadataService, parser).analyze(statement, Optional.empty());
+        return analysis;
+    }
+}
@@ -0,0 +1,113 @@
+package io.github.melin.sqlflow.lineage.wire;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import io.github.melin.sqlflow.analyzer.Analysis;
+import io.github.melin.sqlflow.analyzer.Output;
+import io.github.melin.sqlflow.analyzer.OutputColumn;
+import io.github.melin.sqlflow.metadata.QualifiedObjectName;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class LineageCodecTest {
+
+    private final BinaryLineageCodec binary = new BinaryLineageCodec();
+
+    @Test
+    public void testRoundTrip() throws Exception {
+        List<Output> outputs = randomOutputs(new Random(42), 50);
+        assertThat(binary.decode(binary.encode(outputs))).isEqualTo(outputs);
+        JsonLineageCodec json = new JsonLineageCodec();
+        assertThat(json.decode(json.encode(outputs))).isEqualTo(outputs);
+
+        // messages are self-delimiting
+        ByteArrayOutputStream stream = new ByteArrayOutputStream();
+        binary.write(outputs.subList(0, 10), stream);
+        binary.write(outputs.subList(10, 50), stream);
+        ByteArrayInputStream input = new ByteArrayInputStream(stream.toByteArray());
+        assertThat(binary.read(input)).isEqualTo(outputs.subList(0, 10));
+        assertThat(binary.read(input)).isEqualTo(outputs.subList(10, 50));
+        assertThat(input.available()).isEqualTo(0);
+    }
+
+    @Test
+    public void testReadEdges() throws Exception {
+        List<Output> outputs = randomOutputs(new Random(7), 20);
+        List<String> expected = new ArrayList<>();
+        for (Output output : outputs) {
+            QualifiedObjectName target = new QualifiedObjectName(output.getCatalogName(), output.getSchema(), output.getTable());
+            for (OutputColumn column : output.getColumns().orElse(ImmutableList.of())) {
+                for (Analysis.SourceColumn source : column.getSourceColumns()) {
+                    expected.add(target + "." + column.getColumn() + " <- " + source.getTableName() + "." + source.getColumnName());
+                }
+            }
+        }
+
+        List<String> edges = new ArrayList<>();
+        long count = binary.readEdges(new ByteArrayInputStream(binary.encode(outputs)),
+                (target, targetColumn, sourceTable, sourceColumn) ->
+                        edges.add(target + "." + targetColumn + " <- " + sourceTable + "." + sourceColumn));
+        assertThat(edges).isEqualTo(expected);
+        assertThat(count).isEqualTo(expected.size());
+    }
+
+    @Test
+    public void testSmallerThanJson() throws Exception {
+        QualifiedObjectName source = new QualifiedObjectName("hive", "ods", "wide_source_table");
+        ImmutableList.Builder<OutputColumn> columns = ImmutableList.builder();
+        for (int i = 0; i < 500; i++) {
+            columns.add(new OutputColumn("column_" + i, ImmutableSet.of(new Analysis.SourceColumn(source, "column_" + i))));
+        }
+        List<Output> outputs = ImmutableList.of(new Output("hive", "dw", "wide_target_table", Optional.of(columns.build())));
+
+        int binarySize = binary.encode(outputs).length;
+        int jsonSize = new JsonLineageCodec().encode(outputs).length;
+        assertThat(binarySize * 4).isLessThan(jsonSize);
+    }
+
+    @Test
+    public void testTruncated() throws Exception {
+        byte[] message = binary.encode(randomOutputs(new Random(3), 5));
+        for (int length : new int[] {0, 3, 10, message.length / 2, message.length - 1}) {
+            assertThatThrownBy(() -> binary.decode(Arrays.copyOf(message, length)))
+                    .as("length %s", length)
+                    .isInstanceOf(IOException.class);
+        }
+    }
+
+    private static List<Output> randomOutputs(Random random, int count) {
+        List<QualifiedObjectName> tables = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            tables.add(new QualifiedObjectName(i % 3 == 0 ? null : "hive", "db" + (i % 2), "t" + i));
+        }
+        List<Output> outputs = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            QualifiedObjectName target = tables.get(random.nextInt(tables.size()));
+            if (random.nextInt(5) == 0) {
+                outputs.add(new Output(target.getCatalogName(), target.getSchemaName(), target.getObjectName(), Optional.empty()));
+                continue;
+            }
+            ImmutableList.Builder<OutputColumn> columns = ImmutableList.builder();
+            for (int c = random.nextInt(6); c >= 0; c--) {
+                ImmutableSet.Builder<Analysis.SourceColumn> sources = ImmutableSet.builder();
+                for (int s = random.nextInt(4); s > 0; s--) {
+                    sources.add(new Analysis.SourceColumn(tables.get(random.nextInt(tables.size())), "c" + random.nextInt(300) + (random.nextBoolean() ? "_名" : "")));
+                }
+                columns.add(new OutputColumn("col" + c, sources.build()));
+            }
+            outputs.add(new Output(target.getCatalogName(), target.getSchemaName(), target.getObjectName(), Optional.of(columns.build())));
+        }
+        return outputs;
+    }
+}
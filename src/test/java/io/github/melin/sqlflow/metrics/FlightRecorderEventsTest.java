@@ -0,0 +1,129 @@
+package io.github.melin.sqlflow.metrics;
+
+import com.google.common.collect.ImmutableList;
+import io.github.melin.sqlflow.analyzer.Analysis;
+import io.github.melin.sqlflow.analyzer.StatementAnalyzer;
+import io.github.melin.sqlflow.metadata.QualifiedObjectName;
+import io.github.melin.sqlflow.metadata.SchemaTable;
+import io.github.melin.sqlflow.metadata.SimpleMetadataService;
+import io.github.melin.sqlflow.metadata.ViewColumn;
+import io.github.melin.sqlflow.metadata.ViewDefinition;
+import io.github.melin.sqlflow.parser.SqlFingerprint;
+import io.github.melin.sqlflow.parser.SqlFlowParser;
+import io.github.melin.sqlflow.tree.statement.Statement;
+import io.github.melin.sqlflow.type.UnknownType;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.Test;
+
+import java.io.File;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Collectors;
+
+import static java.util.Collections.emptyMap;
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class FlightRecorderEventsTest {
+
+    private static final SqlFlowParser SQL_PARSER = new SqlFlowParser();
+
+    private static final String SQL = "insert into target select id, uid from v_orders where id > 10";
+
+    @Test
+    public void testEvents() throws Exception {
+        assertThat(FlightRecorder.isAvailable()).isTrue();
+
+        File file = File.createTempFile("sqlflow", ".jfr");
+        try (Recording recording = new Recording()) {
+            recording.enable("io.github.melin.sqlflow.SqlParse");
+            recording.enable("io.github.melin.sqlflow.AstBuild");
+            recording.enable("io.github.melin.sqlflow.StatementAnalysis");
+            recording.enable("io.github.melin.sqlflow.ViewExpansion");
+            recording.enable("io.github.melin.sqlflow.MetadataLookup");
+            recording.start();
+
+            Statement statement = SQL_PARSER.createStatement(SQL);
+            Analysis analysis = new Analysis(statement, emptyMap());
+            analysis.setFingerprint(SqlFingerprint.of(SQL));
+            new StatementAnalyzer(analysis, new ViewMetadataService(), SQL_PARSER).analyze(statement, Optional.empty());
+
+            recording.stop();
+            recording.dump(file.toPath());
+        }
+
+        List<RecordedEvent> events;
+        try {
+            events = RecordingFile.readAllEvents(file.toPath()).stream()
+                    .filter(event -> event.getThread() != null && event.getThread().getJavaThreadId() == Thread.currentThread().getId())
+                    .collect(Collectors.toList());
+        } finally {
+            file.delete();
+        }
+        String fingerprint = SqlFingerprint.of(SQL).toString();
+
+        // the statement and the view definition are parsed
+        List<RecordedEvent> parses = events(events, "io.github.melin.sqlflow.SqlParse");
+        assertThat(parses.size()).isEqualTo(2);
+        assertThat(parses.get(0).getString("fingerprint")).isEqualTo(fingerprint);
+        assertThat(parses.get(0).getString("statementKind")).isEqualTo("Insert");
+        assertThat(parses.get(0).getString("predictionMode")).isEqualTo("SLL");
+        assertThat(parses.get(0).getBoolean("success")).isTrue();
+        assertThat(parses.get(0).getInt("tokenCount")).isEqualTo(13);
+        assertThat(parses.get(1).getString("statementKind")).isEqualTo("Query");
+
+        List<RecordedEvent> astBuilds = events(events, "io.github.melin.sqlflow.AstBuild");
+        assertThat(astBuilds.size()).isEqualTo(2);
+        assertThat(astBuilds.get(0).getString("fingerprint")).isEqualTo(fingerprint);
+        assertThat(astBuilds.get(0).getInt("nodeCount")).isGreaterThan(10);
+
+        // nested analyzers of subqueries and views are part of the statement's event
+        List<RecordedEvent> analyses = events(events, "io.github.melin.sqlflow.StatementAnalysis");
+        assertThat(analyses.size()).isEqualTo(1);
+        assertThat(analyses.get(0).getString("fingerprint")).isEqualTo(fingerprint);
+        assertThat(analyses.get(0).getString("statementKind")).isEqualTo("Insert");
+        assertThat(analyses.get(0).getInt("outputColumns")).isEqualTo(2);
+        assertThat(analyses.get(0).getBoolean("success")).isTrue();
+
+        List<RecordedEvent> views = events(events, "io.github.melin.sqlflow.ViewExpansion");
+        assertThat(views.size()).isEqualTo(1);
+        assertThat(views.get(0).getString("view")).isEqualTo("default.v_orders");
+        assertThat(views.get(0).getBoolean("cached")).isFalse();
+
+        List<String> lookups = events(events, "io.github.melin.sqlflow.MetadataLookup").stream()
+                .map(event -> event.getString("lookup") + " " + event.getString("objectName") + " " + event.getBoolean("found"))
+                .collect(Collectors.toList());
+        assertThat(lookups).isEqualTo(ImmutableList.of(
+                "VIEW default.v_orders true",
+                "VIEW default.orders false",
+                "TABLE_SCHEMA default.orders true",
+                "TABLE_SCHEMA default.target true"));
+    }
+
+    private static List<RecordedEvent> events(List<RecordedEvent> events, String name) {
+        return events.stream()
+                .filter(event -> event.getEventType().getName().equals(name))
+                .sorted((left, right) -> left.getStartTime().compareTo(right.getStartTime()))
+                .collect(Collectors.toList());
+    }
+
+    private static class ViewMetadataService extends SimpleMetadataService {
+        ViewMetadataService() {
+            super("default");
+            addTableMetadata(ImmutableList.of(
+                    new SchemaTable("default", "orders", ImmutableList.of("id", "uid", "amount")),
+                    new SchemaTable("default", "target", ImmutableList.of("x", "y"))));
+        }
+
+        @Override
+        public Optional<ViewDefinition> getView(QualifiedObjectName viewName) {
+            if (viewName.equals(QualifiedObjectName.valueOf("default.v_orders"))) {
+                return Optional.of(new ViewDefinition("select id, uid from orders where amount > 0", Optional.of("hive"),
+                        Optional.of("default"), ImmutableList.of(new ViewColumn("id", UnknownType.UNKNOWN),
+                        new ViewColumn("uid", UnknownType.UNKNOWN)), Optional.empty()));
+            }
+            return Optional.empty();
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package io.github.melin.sqlflow.metrics;
+
+import io.github.melin.sqlflow.analyzer.Analysis;
+import io.github.melin.sqlflow.analyzer.StatementAnalyzer;
+import io.github.melin.sqlflow.metrics.SqlFlowMetrics.MetadataLookup;
+import io.github.melin.sqlflow.parser.SqlFlowParser;
+import io.github.melin.sqlflow.parser.SqlWorkloadGenerator;
+import io.github.melin.sqlflow.parser.SqlWorkloadGenerator.Axis;
+import io.github.melin.sqlflow.parser.SqlWorkloadGenerator.Workload;
+import io.github.melin.sqlflow.tree.statement.Statement;
+import org.junit.Test;
+
+import java.util.Optional;
+
+import static java.util.Collections.emptyMap;
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class HistogramMetricsTest {
+
+    @Test
+    public void testHistogramPercentiles() {
+        Histogram histogram = new Histogram();
+        assertThat(histogram.getValueAtPercentile(99)).isEqualTo(0);
+
+        for (long value = 1; value <= 100_000; value++) {
+            histogram.record(value);
+        }
+        assertThat(histogram.getCount()).isEqualTo(100_000);
+        assertThat(histogram.getMax()).isEqualTo(100_000);
+        assertThat(histogram.getMean()).isEqualTo(50_000.5);
+        assertThat((double) histogram.getValueAtPercentile(50)).isBetween(50_000.0, 50_000 * 1.016);
+        assertThat((double) histogram.getValueAtPercentile(99)).isBetween(99_000.0, 99_000 * 1.016);
+        assertThat(histogram.getValueAtPercentile(100)).isEqualTo(100_000);
+        assertThat(histogram.getValueAtPercentile(0)).isEqualTo(1);
+
+        for (long value : new long[] {0, 1, 127, 128, 1000, 1L << 40, Long.MAX_VALUE}) {
+            int index = Histogram.index(value);
+            assertThat(Histogram.highestValue(index)).isGreaterThanOrEqualTo(value);
+            if (index > 0) {
+                assertThat(Histogram.highestValue(index - 1)).isLessThan(value);
+            }
+        }
+    }
+
+    @Test
+    public void testParserAndAnalyzerReport() {
+        HistogramMetrics metrics = new HistogramMetrics();
+        SqlFlowParser parser = new SqlFlowParser((lexer, p) -> {}, false, metrics);
+        Workload workload = SqlWorkloadGenerator.generate(Axis.JOIN_FAN_OUT, 3);
+
+        Statement statement = parser.createStatement(workload.getSql());
+        Analysis analysis = new Analysis(statement, emptyMap());
+        new StatementAnalyzer(analysis, workload.getMetadataService(), parser).analyze(statement, Optional.empty());
+
+        assertThat(metrics.getParseTime().getCount()).isEqualTo(1);
+        assertThat(metrics.getSllParseCount() + metrics.getLlFallbackCount()).isEqualTo(1);
+        assertThat(metrics.getAstBuildTime().getCount()).isEqualTo(1);
+        assertThat(metrics.getAstNodeCount().getMax()).isGreaterThan(10L);
+        assertThat(metrics.getAnalysisTime().getCount()).isEqualTo(1);
+        assertThat(metrics.getFieldsCreated().getMax()).isGreaterThanOrEqualTo(3L * 8);
+        // one lookup per joined table and one for the target
+        assertThat(metrics.getMetadataLookupTime(MetadataLookup.TABLE_SCHEMA).getCount()).isEqualTo(4);
+        assertThat(metrics.getMetadataLookupTime(MetadataLookup.VIEW).getCount()).isEqualTo(3);
+        // target has 8 columns, the three selected ones each come from a single source column
+        assertThat(metrics.getSourceColumns().getCount()).isEqualTo(3);
+        assertThat(metrics.getSourceColumns().getMax()).isEqualTo(1);
+        assertThat(metrics.getViewExpansionCount()).isEqualTo(0);
+    }
+
+    @Test
+    public void testNoopParserHasNoMetrics() {
+        assertThat(new SqlFlowParser().getMetrics().isEnabled()).isFalse();
+    }
+}
@@ -2,7 +2,15 @@ package io.github.melin.sqlflow.parser;
 
 import io.github.melin.sqlflow.analyzer.Analysis;
 import io.github.melin.sqlflow.analyzer.OutputColumn;
+import io.github.melin.sqlflow.analyzer.StatementAnalyzer;
+import io.github.melin.sqlflow.metadata.SchemaTable;
+import io.github.melin.sqlflow.metadata.SimpleMetadataService;
+import io.github.melin.sqlflow.tree.statement.Statement;
 
+import java.util.List;
+import java.util.Optional;
+
+import static java.util.Collections.emptyMap;
 import static org.assertj.core.api.Assertions.assertThat;
 
 /**
@@ -10,6 +18,8 @@ import static org.assertj.core.api.Assertions.assertThat;
  */
 public abstract class AbstractSqlLineageTest {
 
+    protected static final SqlFlowParser SQL_PARSER = new SqlFlowParser();
+
     protected void assertLineage(Analysis analysis, OutputColumn... outputColumns)
             throws Exception {
 
@@ -18,4 +28,17 @@ public abstract class AbstractSqlLineageTest {
                     .containsExactly(outputColumns);
         }
     }
+
+    protected static Analysis analyze(Statement statement, List<SchemaTable> tables) {
+        Analysis analysis = new Analysis(statement, emptyMap());
+        StatementAnalyzer statementAnalyzer = new StatementAnalyzer(analysis, createMetadataService(tables), SQL_PARSER);
+        statementAnalyzer.analyze(statement, Optional.empty());
+        return analysis;
+    }
+
+    protected static SimpleMetadataService createMetadataService(List<SchemaTable> tables) {
+        SimpleMetadataService metadataService = new SimpleMetadataService("default");
+        metadataService.addTableMetadata(tables);
+        return metadataService;
+    }
 }
@@ -0,0 +1,113 @@
+package io.github.melin.sqlflow.parser;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import io.github.melin.sqlflow.analyzer.Analysis;
+import io.github.melin.sqlflow.analyzer.OutputColumn;
+import io.github.melin.sqlflow.metadata.QualifiedObjectName;
+import io.github.melin.sqlflow.metadata.SchemaTable;
+import io.github.melin.sqlflow.tree.expression.Cast;
+import io.github.melin.sqlflow.tree.expression.FunctionCall;
+import io.github.melin.sqlflow.tree.expression.LogicalExpression;
+import io.github.melin.sqlflow.tree.expression.SearchedCaseExpression;
+import io.github.melin.sqlflow.tree.expression.SimpleCaseExpression;
+import io.github.melin.sqlflow.tree.statement.Statement;
+import io.github.melin.sqlflow.util.AstUtils;
+import org.junit.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class DeepExpressionLineageTest extends AbstractSqlLineageTest {
+
+    private static final ImmutableList<SchemaTable> TABLES = ImmutableList.of(
+            new SchemaTable("default", "t", ImmutableList.of("a", "b")),
+            new SchemaTable("default", "t2", ImmutableList.of("x")));
+
+    private static final OutputColumn X_FROM_A_B = new OutputColumn("x", ImmutableSet.of(
+            new Analysis.SourceColumn(QualifiedObjectName.valueOf("default.t"), "a"),
+            new Analysis.SourceColumn(QualifiedObjectName.valueOf("default.t"), "b")));
+
+    @Test
+    public void testLongArithmeticChain() throws Exception {
+        StringBuilder sql = new StringBuilder("insert into t2 select a");
+        for (int i = 1; i < 5000; i++) {
+            sql.append(i % 3 == 0 ? " - " : " + ").append(i % 2 == 0 ? "a" : "b");
+        }
+        sql.append(" from t");
+
+        assertLineage(analyze(sql.toString()), X_FROM_A_B);
+    }
+
+    @Test
+    public void testLongConcatenationChain() throws Exception {
+        StringBuilder sql = new StringBuilder("insert into t2 select a");
+        for (int i = 1; i < 5000; i++) {
+            sql.append(" || ").append(i % 2 == 0 ? "a" : "b");
+        }
+        sql.append(" from t");
+
+        Statement statement = SQL_PARSER.createStatement(sql.toString());
+        FunctionCall concat = (FunctionCall) AstUtils.preOrder(statement)
+                .filter(FunctionCall.class::isInstance)
+                .findFirst()
+                .get();
+        assertThat(concat.getArguments()).hasSize(5000);
+
+        assertLineage(analyze(sql.toString()), X_FROM_A_B);
+    }
+
+    @Test
+    public void testParenthesizedOrChain() throws Exception {
+        Statement statement = SQL_PARSER.createStatement("select a from t where ((a = 1 or a = 2) or b = 3) or (b = 4)");
+
+        LogicalExpression or = (LogicalExpression) AstUtils.preOrder(statement)
+                .filter(LogicalExpression.class::isInstance)
+                .findFirst()
+                .get();
+        assertThat(or.getTerms()).hasSize(4);
+    }
+
+    @Test
+    public void testNestedSearchedCase() throws Exception {
+        StringBuilder sql = new StringBuilder("insert into t2 select ");
+        for (int i = 0; i < 5000; i++) {
+            sql.append("case when a = ").append(i).append(" then b else ");
+        }
+        sql.append("a");
+        for (int i = 0; i < 5000; i++) {
+            sql.append(" end");
+        }
+        sql.append(" from t");
+
+        Statement statement = SQL_PARSER.createStatement(sql.toString());
+        assertThat(AstUtils.preOrder(statement).filter(SearchedCaseExpression.class::isInstance).count())
+                .isEqualTo(1);
+
+        assertLineage(analyze(sql.toString()), X_FROM_A_B);
+    }
+
+    @Test
+    public void testTypecast() throws Exception {
+        // the cast is an operator on any value expression, so parsing it needs no lookahead past its operand
+        Statement statement = SQL_PARSER.createStatement("insert into t2 select (a + b)::varchar::int from t");
+        assertThat(AstUtils.preOrder(statement).filter(Cast.class::isInstance).count()).isEqualTo(2L);
+
+        assertLineage(analyze("insert into t2 select (a + b)::varchar::int from t"), X_FROM_A_B);
+    }
+
+    @Test
+    public void testCaseInsideElseExpressionIsKept() {
+        // the nested CASE is only part of the ELSE branch, or the enclosing CASE is a simple one
+        for (String sql : ImmutableList.of(
+                "select case when a = 1 then b else case when a = 2 then b end + 1 end from t",
+                "select case a when 1 then b else case when a = 2 then b end end from t")) {
+            Statement statement = SQL_PARSER.createStatement(sql);
+            assertThat(AstUtils.preOrder(statement).filter(node -> node instanceof SearchedCaseExpression || node instanceof SimpleCaseExpression).count())
+                    .isEqualTo(2L);
+        }
+    }
+
+    private static Analysis analyze(String sql) {
+        return analyze(SQL_PARSER.createStatement(sql), TABLES);
+    }
+}
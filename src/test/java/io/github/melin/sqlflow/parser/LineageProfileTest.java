@@ -0,0 +1,106 @@
+package io.github.melin.sqlflow.parser;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import io.github.melin.sqlflow.analyzer.Analysis;
+import io.github.melin.sqlflow.analyzer.AnalysisProfile;
+import io.github.melin.sqlflow.analyzer.Field;
+import io.github.melin.sqlflow.analyzer.LineageResult;
+import io.github.melin.sqlflow.analyzer.OutputColumn;
+import io.github.melin.sqlflow.analyzer.StatementAnalyzer;
+import io.github.melin.sqlflow.metadata.QualifiedObjectName;
+import io.github.melin.sqlflow.metadata.SchemaTable;
+import io.github.melin.sqlflow.metadata.SimpleMetadataService;
+import io.github.melin.sqlflow.tree.AllColumns;
+import io.github.melin.sqlflow.tree.statement.Statement;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.Optional;
+
+import static com.google.common.collect.ImmutableList.toImmutableList;
+import static io.github.melin.sqlflow.util.AstUtils.preOrder;
+import static java.util.Collections.emptyMap;
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class LineageProfileTest extends AbstractSqlLineageTest {
+
+    protected static final SqlFlowParser SQL_PARSER = new SqlFlowParser();
+
+    private static final String SQL = "insert into target " +
+            "select s.a, max(t2.c) over (partition by s.b order by t2.d) " +
+            "from (select a, b from t1 group by a, b having count(*) > 1) s join t2 on s.a = t2.c " +
+            "where t2.d > 0 " +
+            "order by s.a";
+
+    @Test
+    public void testLineageProfileMatchesFullAnalysis() throws Exception {
+        Statement statement = SQL_PARSER.createStatement(SQL);
+        SimpleMetadataService metadataService = createMetadataService();
+
+        Analysis fullAnalysis = new Analysis(statement, emptyMap());
+        new StatementAnalyzer(fullAnalysis, metadataService, SQL_PARSER).analyze(statement, Optional.empty());
+
+        Analysis lineageAnalysis = new Analysis(statement, emptyMap(), AnalysisProfile.LINEAGE);
+        new StatementAnalyzer(lineageAnalysis, metadataService, SQL_PARSER).analyze(statement, Optional.empty());
+
+        assertLineage(lineageAnalysis, new OutputColumn("x", ImmutableSet.of(
+                new Analysis.SourceColumn(QualifiedObjectName.valueOf("default.t1"), "a")
+        )), new OutputColumn("y", ImmutableSet.of(
+                new Analysis.SourceColumn(QualifiedObjectName.valueOf("default.t2"), "c")
+        )));
+        assertThat(lineageAnalysis.toLineageResult()).isEqualTo(fullAnalysis.toLineageResult());
+    }
+
+    @Test
+    public void testLazySelectAll() throws Exception {
+        Statement statement = SQL_PARSER.createStatement("insert into target " +
+                "select * from (select s.* from (select * from t1) s join t2 on s.a = t2.c) u");
+        SimpleMetadataService metadataService = createMetadataService();
+
+        Analysis fullAnalysis = new Analysis(statement, emptyMap());
+        new StatementAnalyzer(fullAnalysis, metadataService, SQL_PARSER).analyze(statement, Optional.empty());
+
+        Analysis lineageAnalysis = new Analysis(statement, emptyMap(), AnalysisProfile.LINEAGE);
+        new StatementAnalyzer(lineageAnalysis, metadataService, SQL_PARSER).analyze(statement, Optional.empty());
+
+        assertLineage(lineageAnalysis, new OutputColumn("x", ImmutableSet.of(
+                new Analysis.SourceColumn(QualifiedObjectName.valueOf("default.t1"), "a")
+        )), new OutputColumn("y", ImmutableSet.of(
+                new Analysis.SourceColumn(QualifiedObjectName.valueOf("default.t1"), "b")
+        )));
+        assertThat(lineageAnalysis.toLineageResult()).isEqualTo(fullAnalysis.toLineageResult());
+
+        // the expansion is only materialized on request, with the lineage of the relation fields
+        AllColumns innermost = (AllColumns) preOrder(statement).filter(AllColumns.class::isInstance).reduce((first, second) -> second).get();
+        assertThat(lineageAnalysis.getSelectAllRelationFields(innermost)).hasSize(2);
+        List<Field> fields = lineageAnalysis.getSelectAllResultFields(innermost);
+        assertThat(fields.stream().map(field -> field.getName().get()).collect(toImmutableList())).containsExactly("a", "b");
+        assertThat(lineageAnalysis.getSourceColumns(fields.get(1))).isEqualTo(ImmutableSet.of(
+                new Analysis.SourceColumn(QualifiedObjectName.valueOf("default.t1"), "b")));
+        assertThat(lineageAnalysis.getSelectAllResultFields(innermost)).isSameAs(fields);
+    }
+
+    @Test
+    public void testAnalyzeLineage() throws Exception {
+        Statement statement = SQL_PARSER.createStatement(SQL);
+        LineageResult result = StatementAnalyzer.analyzeLineage(statement, createMetadataService(), SQL_PARSER);
+
+        assertThat(result.getUpdateType()).isEqualTo(Optional.of("INSERT"));
+        assertThat(result.getTarget().get().getTable()).isEqualTo("target");
+        assertThat(result.getWhereColumns()).isEqualTo(ImmutableSet.of(
+                new Analysis.SourceColumn(QualifiedObjectName.valueOf("default.t2"), "d")));
+        assertThat(result.getJoinColumns()).isEqualTo(ImmutableSet.of(
+                new Analysis.SourceColumn(QualifiedObjectName.valueOf("default.t1"), "a"),
+                new Analysis.SourceColumn(QualifiedObjectName.valueOf("default.t2"), "c")));
+    }
+
+    private SimpleMetadataService createMetadataService() {
+        SimpleMetadataService metadataService = new SimpleMetadataService("default");
+        metadataService.addTableMetadata(ImmutableList.of(
+                new SchemaTable("default", "t1", ImmutableList.of("a", "b")),
+                new SchemaTable("default", "t2", ImmutableList.of("c", "d")),
+                new SchemaTable("default", "target", ImmutableList.of("x", "y"))));
+        return metadataService;
+    }
+}
@@ -0,0 +1,119 @@
+package io.github.melin.sqlflow.parser;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import io.github.melin.sqlflow.analyzer.Analysis;
+import io.github.melin.sqlflow.analyzer.AnalysisProfile;
+import io.github.melin.sqlflow.analyzer.OutputColumn;
+import io.github.melin.sqlflow.analyzer.StatementAnalyzer;
+import io.github.melin.sqlflow.metadata.QualifiedObjectName;
+import io.github.melin.sqlflow.metadata.SchemaTable;
+import io.github.melin.sqlflow.metadata.SimpleMetadataService;
+import io.github.melin.sqlflow.tree.LazyNodeList;
+import io.github.melin.sqlflow.tree.LiteralValues;
+import io.github.melin.sqlflow.tree.expression.InListExpression;
+import io.github.melin.sqlflow.tree.expression.InPredicate;
+import io.github.melin.sqlflow.tree.expression.LiteralInListExpression;
+import io.github.melin.sqlflow.tree.expression.Row;
+import io.github.melin.sqlflow.tree.literal.LongLiteral;
+import io.github.melin.sqlflow.tree.literal.NullLiteral;
+import io.github.melin.sqlflow.tree.literal.StringLiteral;
+import io.github.melin.sqlflow.tree.relation.QuerySpecification;
+import io.github.melin.sqlflow.tree.statement.Insert;
+import io.github.melin.sqlflow.tree.statement.Statement;
+import io.github.melin.sqlflow.util.AstUtils;
+import org.junit.Test;
+
+import java.util.Optional;
+
+import static java.util.Collections.emptyMap;
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class LiteralListLineageTest extends AbstractSqlLineageTest {
+
+    private static final ImmutableList<SchemaTable> TABLES = ImmutableList.of(
+            new SchemaTable("default", "t", ImmutableList.of("a", "b")),
+            new SchemaTable("default", "t2", ImmutableList.of("x", "y")));
+
+    @Test
+    public void testLargeInListIsPacked() throws Exception {
+        StringBuilder sql = new StringBuilder("insert into t2 select a, b from t where a in (");
+        for (int i = 0; i < 10000; i++) {
+            sql.append(i == 0 ? "" : ", ").append(i % 2 == 0 ? String.valueOf(i) : "'v" + i + "'");
+        }
+        sql.append(")");
+
+        Statement statement = SQL_PARSER.createStatement(sql.toString());
+        LiteralInListExpression inList = (LiteralInListExpression) AstUtils.preOrder(statement)
+                .filter(InListExpression.class::isInstance)
+                .findFirst()
+                .get();
+        assertThat(inList.getValues()).hasSize(10000);
+        assertThat(((LongLiteral) inList.getValues().get(10)).getValue()).isEqualTo(10L);
+        assertThat(((StringLiteral) inList.getValues().get(11)).getValue()).isEqualTo("v11");
+        assertThat(inList.getValues().get(11) == inList.getValues().get(11)).isTrue();
+
+        assertLineage(analyze(statement, TABLES), new OutputColumn("x", ImmutableSet.of(
+                new Analysis.SourceColumn(QualifiedObjectName.valueOf("default.t"), "a")
+        )), new OutputColumn("y", ImmutableSet.of(
+                new Analysis.SourceColumn(QualifiedObjectName.valueOf("default.t"), "b")
+        )));
+    }
+
+    @Test
+    public void testAnalysisDoesNotCreatePackedLiterals() throws Exception {
+        StringBuilder sql = new StringBuilder("insert into t2 select a, b from t where a in (");
+        for (int i = 0; i < 100000; i++) {
+            sql.append(i == 0 ? "" : ", ").append(i);
+        }
+        sql.append(")");
+        Statement statement = SQL_PARSER.createStatement(sql.toString());
+        QuerySpecification specification = (QuerySpecification) ((Insert) statement).getQuery().getQueryBody();
+        LiteralInListExpression inList = (LiteralInListExpression) ((InPredicate) specification.getWhere().get()).getValueList();
+        LazyNodeList<?> values = (LazyNodeList<?>) inList.getValues();
+        SimpleMetadataService metadataService = createMetadataService(TABLES);
+
+        // the literals are not created, with or without a memory limit
+        for (long memoryLimit : new long[] {Long.MAX_VALUE, 1L << 30}) {
+            Analysis analysis = new Analysis(statement, emptyMap(), AnalysisProfile.LINEAGE);
+            analysis.setMemoryLimit(memoryLimit);
+            new StatementAnalyzer(analysis, metadataService, SQL_PARSER).analyze(statement, Optional.empty());
+            assertThat(analysis.getTarget()).isPresent();
+            assertThat(values.isMaterialized()).isFalse();
+        }
+        assertThat(((LongLiteral) values.get(99999)).getValue()).isEqualTo(99999L);
+        assertThat(values.isMaterialized()).isTrue();
+    }
+
+    @Test
+    public void testSmallInListIsNotPacked() throws Exception {
+        Statement statement = SQL_PARSER.createStatement("select a from t where a in (1, 2, 3)");
+        InListExpression inList = (InListExpression) AstUtils.preOrder(statement)
+                .filter(InListExpression.class::isInstance)
+                .findFirst()
+                .get();
+        assertThat(inList instanceof LiteralInListExpression).isFalse();
+    }
+
+    @Test
+    public void testLargeValuesIsPacked() throws Exception {
+        StringBuilder sql = new StringBuilder("insert into t2 values ");
+        for (int i = 0; i < 10000; i++) {
+            sql.append(i == 0 ? "" : ", ").append("(").append(i).append(", ").append(i % 3 == 0 ? "null" : "'v" + i + "'").append(")");
+        }
+
+        Statement statement = SQL_PARSER.createStatement(sql.toString());
+        LiteralValues values = (LiteralValues) ((Insert) statement).getQuery().getQueryBody();
+        assertThat(values.getColumnCount()).isEqualTo(2);
+        assertThat(values.getRows()).hasSize(10000);
+
+        Row row = (Row) values.getRows().get(9999);
+        assertThat(((LongLiteral) row.getItems().get(0)).getValue()).isEqualTo(9999L);
+        assertThat(row.getItems().get(1) instanceof NullLiteral).isTrue();
+        assertThat(row.getLocation().get().getStartIndex()).isEqualTo(sql.lastIndexOf("("));
+
+        assertLineage(analyze(statement, TABLES),
+                new OutputColumn("x", ImmutableSet.of()),
+                new OutputColumn("y", ImmutableSet.of()));
+    }
+}
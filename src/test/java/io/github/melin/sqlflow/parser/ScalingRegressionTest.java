@@ -0,0 +1,177 @@
+package io.github.melin.sqlflow.parser;
+
+import io.github.melin.sqlflow.analyzer.Analysis;
+import io.github.melin.sqlflow.analyzer.StatementAnalyzer;
+import io.github.melin.sqlflow.parser.SqlWorkloadGenerator.Axis;
+import io.github.melin.sqlflow.parser.SqlWorkloadGenerator.Workload;
+import io.github.melin.sqlflow.tree.statement.Statement;
+import org.junit.Test;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import static java.util.Collections.emptyMap;
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Grows each {@link Axis} of {@link SqlWorkloadGenerator} eightfold and checks that parse and analysis
+ * allocated bytes grow no faster than the declared bound. The growth exponent is the slope between the
+ * smallest and the largest size on a log-log scale, so linear code measures about 1 and quadratic code 2.
+ *
+ * <p>Times are only reported, they are too noisy on shared machines to fail the build. Run with
+ * {@code -Dsqlflow.scaling.checkTime=true} to check their growth too.
+ */
+public class ScalingRegressionTest {
+
+    private static final SqlFlowParser SQL_PARSER = new SqlFlowParser((lexer, parser) -> {}, false);
+
+    private static final int RUNS = 10;
+
+    // time has a fixed cost at small sizes and is noisier than allocation, so it gets more slack
+    private static final double ALLOCATION_TOLERANCE = 0.3;
+    private static final double TIME_TOLERANCE = 0.5;
+
+    private static final boolean CHECK_TIME = Boolean.getBoolean("sqlflow.scaling.checkTime");
+
+    private static final com.sun.management.ThreadMXBean THREADS = allocationCounter();
+
+    @Test
+    public void testNestingDepth() {
+        assertScaling(Axis.NESTING_DEPTH, 8, 1);
+    }
+
+    @Test
+    public void testCteCount() {
+        assertScaling(Axis.CTE_COUNT, 25, 1);
+    }
+
+    @Test
+    public void testJoinFanOut() {
+        assertScaling(Axis.JOIN_FAN_OUT, 16, 1);
+    }
+
+    @Test
+    public void testTableWidth() {
+        assertScaling(Axis.TABLE_WIDTH, 250, 1);
+    }
+
+    @Test
+    public void testUnionBranches() {
+        assertScaling(Axis.UNION_BRANCHES, 25, 1);
+    }
+
+    @Test
+    public void testCaseSize() {
+        assertScaling(Axis.CASE_SIZE, 50, 1);
+    }
+
+    @Test
+    public void testInListLength() {
+        assertScaling(Axis.IN_LIST_LENGTH, 500, 1);
+    }
+
+    private static void assertScaling(Axis axis, int size, double bound) {
+        List<Measurement> measurements = new ArrayList<>();
+        for (int scale = 1; scale <= 8; scale *= 2) {
+            measurements.add(measure(SqlWorkloadGenerator.generate(axis, size * scale)));
+        }
+        Measurement first = measurements.get(0);
+        Measurement last = measurements.get(measurements.size() - 1);
+        for (Measurement measurement : measurements) {
+            System.out.println(axis + " " + measurement);
+        }
+
+        if (CHECK_TIME) {
+            assertGrowth(axis + " parse time", first.parseNanos, last.parseNanos, bound + TIME_TOLERANCE);
+            assertGrowth(axis + " analysis time", first.analyzeNanos, last.analyzeNanos, bound + TIME_TOLERANCE);
+        }
+        if (THREADS != null) {
+            assertGrowth(axis + " parse allocation", first.parseBytes, last.parseBytes, bound + ALLOCATION_TOLERANCE);
+            assertGrowth(axis + " analysis allocation", first.analyzeBytes, last.analyzeBytes, bound + ALLOCATION_TOLERANCE);
+        }
+    }
+
+    private static void assertGrowth(String description, long first, long last, double limit) {
+        double exponent = Math.log((double) Math.max(last, 1) / Math.max(first, 1)) / Math.log(8);
+        assertThat(exponent)
+                .as("%s grows with exponent %.2f (%s -> %s)", description, exponent, first, last)
+                .isLessThanOrEqualTo(limit);
+    }
+
+    /**
+     * Keeps the smallest of several runs after a warm up, the least disturbed by compilation and GC.
+     */
+    private static Measurement measure(Workload workload) {
+        Measurement best = null;
+        for (int run = 0; run < RUNS * 2; run++) {
+            long allocated = allocatedBytes();
+            long start = System.nanoTime();
+            Statement statement = SQL_PARSER.createStatement(workload.getSql());
+            long parsed = System.nanoTime();
+            long parseAllocated = allocatedBytes();
+
+            Analysis analysis = new Analysis(statement, emptyMap());
+            new StatementAnalyzer(analysis, workload.getMetadataService(), SQL_PARSER).analyze(statement, Optional.empty());
+            long analyzed = System.nanoTime();
+            long analyzeAllocated = allocatedBytes();
+            assertThat(analysis.getTarget()).isPresent();
+
+            if (run >= RUNS) {
+                Measurement measurement = new Measurement(workload.getSql().length(), parsed - start, analyzed - parsed,
+                        parseAllocated - allocated, analyzeAllocated - parseAllocated);
+                best = best == null ? measurement : best.min(measurement);
+            }
+        }
+        return best;
+    }
+
+    private static com.sun.management.ThreadMXBean allocationCounter() {
+        try {
+            java.lang.management.ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+            if (threads instanceof com.sun.management.ThreadMXBean
+                    && ((com.sun.management.ThreadMXBean) threads).isThreadAllocatedMemorySupported()) {
+                ((com.sun.management.ThreadMXBean) threads).setThreadAllocatedMemoryEnabled(true);
+                return (com.sun.management.ThreadMXBean) threads;
+            }
+        } catch (LinkageError | UnsupportedOperationException e) {
+            // not a HotSpot JVM, only time is checked
+        }
+        return null;
+    }
+
+    private static long allocatedBytes() {
+        return THREADS == null ? 0 : THREADS.getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+
+    private static final class Measurement {
+        private final int sqlLength;
+        private final long parseNanos;
+        private final long analyzeNanos;
+        private final long parseBytes;
+        private final long analyzeBytes;
+
+        Measurement(int sqlLength, long parseNanos, long analyzeNanos, long parseBytes, long analyzeBytes) {
+            this.sqlLength = sqlLength;
+            this.parseNanos = parseNanos;
+            this.analyzeNanos = analyzeNanos;
+            this.parseBytes = parseBytes;
+            this.analyzeBytes = analyzeBytes;
+        }
+
+        Measurement min(Measurement other) {
+            return new Measurement(sqlLength,
+                    Math.min(parseNanos, other.parseNanos),
+                    Math.min(analyzeNanos, other.analyzeNanos),
+                    Math.min(parseBytes, other.parseBytes),
+                    Math.min(analyzeBytes, other.analyzeBytes));
+        }
+
+        @Override
+        public String toString() {
+            return String.format("sql=%d chars parse=%d us/%d KB analyze=%d us/%d KB",
+                    sqlLength, parseNanos / 1000, parseBytes / 1024, analyzeNanos / 1000, analyzeBytes / 1024);
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package io.github.melin.sqlflow.parser;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import io.github.melin.sqlflow.analyzer.Analysis;
+import io.github.melin.sqlflow.analyzer.OutputColumn;
+import io.github.melin.sqlflow.analyzer.StatementAnalyzer;
+import io.github.melin.sqlflow.metadata.QualifiedObjectName;
+import io.github.melin.sqlflow.metadata.SchemaTable;
+import io.github.melin.sqlflow.metadata.SessionMetadataService;
+import io.github.melin.sqlflow.metadata.SimpleMetadataService;
+import io.github.melin.sqlflow.tree.statement.Statement;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.Optional;
+
+import static java.util.Collections.emptyMap;
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class SessionMetadataServiceTest extends AbstractSqlLineageTest {
+
+    protected static final SqlFlowParser SQL_PARSER = new SqlFlowParser();
+
+    @Test
+    public void testScriptObjectsFeedLaterStatements() throws Exception {
+        SimpleMetadataService metadataService = new SimpleMetadataService("default");
+        metadataService.addTableMetadata(ImmutableList.of(
+                new SchemaTable("default", "orders", ImmutableList.of("id", "amount")),
+                new SchemaTable("default", "target", ImmutableList.of("x", "y", "z"))));
+
+        SessionMetadataService session = new SessionMetadataService(metadataService);
+        session.registerTable(new SchemaTable("default", "users", ImmutableList.of("uid", "name")));
+
+        List<String> statements = StatementSplitter.split(
+                "create table tmp_orders as select id, amount * 2 as amount2 from orders;\n" +
+                "create temporary view v_users as select uid, name from users;\n" +
+                "create materialized view mv as select o.id, u.name from tmp_orders o join v_users u on o.id = u.uid;\n" +
+                "insert into target select m.id, m.name, t.amount2 from mv m join tmp_orders t on m.id = t.id");
+
+        Analysis analysis = null;
+        for (String sql : statements) {
+            Statement statement = SQL_PARSER.createStatement(sql);
+            analysis = new Analysis(statement, emptyMap());
+            new StatementAnalyzer(analysis, session, SQL_PARSER).analyze(statement, Optional.empty());
+            analysis.getCreatedTable().ifPresent(session::registerTable);
+        }
+
+        assertThat(session.getTableSchema(QualifiedObjectName.valueOf("default.TMP_ORDERS")).get().getColumns())
+                .isEqualTo(ImmutableList.of("id", "amount2"));
+        assertThat(session.getRegisteredTables()).hasSize(4);
+        assertLineage(analysis, new OutputColumn("x", ImmutableSet.of(
+                new Analysis.SourceColumn(QualifiedObjectName.valueOf("default.mv"), "id")
+        )), new OutputColumn("y", ImmutableSet.of(
+                new Analysis.SourceColumn(QualifiedObjectName.valueOf("default.mv"), "name")
+        )), new OutputColumn("z", ImmutableSet.of(
+                new Analysis.SourceColumn(QualifiedObjectName.valueOf("default.tmp_orders"), "amount2")
+        )));
+        assertThat(metadataService.getTableSchema(QualifiedObjectName.valueOf("default.tmp_orders")).isPresent()).isFalse();
+    }
+}
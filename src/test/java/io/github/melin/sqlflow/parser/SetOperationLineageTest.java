@@ -0,0 +1,68 @@
+package io.github.melin.sqlflow.parser;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import io.github.melin.sqlflow.analyzer.Analysis;
+import io.github.melin.sqlflow.analyzer.OutputColumn;
+import io.github.melin.sqlflow.metadata.QualifiedObjectName;
+import io.github.melin.sqlflow.metadata.SchemaTable;
+import io.github.melin.sqlflow.tree.relation.Except;
+import io.github.melin.sqlflow.tree.relation.Intersect;
+import io.github.melin.sqlflow.tree.relation.Union;
+import io.github.melin.sqlflow.tree.statement.Insert;
+import io.github.melin.sqlflow.tree.statement.Query;
+import io.github.melin.sqlflow.tree.statement.Statement;
+import org.junit.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class SetOperationLineageTest extends AbstractSqlLineageTest {
+
+    private static final ImmutableList<SchemaTable> TABLES = ImmutableList.of(
+            new SchemaTable("default", "t0", ImmutableList.of("a", "b")),
+            new SchemaTable("default", "t1", ImmutableList.of("a", "b")),
+            new SchemaTable("default", "t2", ImmutableList.of("a", "b")),
+            new SchemaTable("default", "target", ImmutableList.of("x", "y")));
+
+    @Test
+    public void testUnionAllChainIsFlattened() throws Exception {
+        StringBuilder sql = new StringBuilder("insert into target select a, b from t0");
+        for (int i = 1; i < 300; i++) {
+            sql.append(" union all select a, b from t").append(i % 3);
+        }
+
+        Statement statement = SQL_PARSER.createStatement(sql.toString());
+        Union union = (Union) ((Insert) statement).getQuery().getQueryBody();
+        assertThat(union.isDistinct()).isFalse();
+        assertThat(union.getRelations()).hasSize(300);
+
+        Analysis analysis = analyze(statement, TABLES);
+        assertLineage(analysis, new OutputColumn("x", ImmutableSet.of(
+                new Analysis.SourceColumn(QualifiedObjectName.valueOf("default.t0"), "a"),
+                new Analysis.SourceColumn(QualifiedObjectName.valueOf("default.t1"), "a"),
+                new Analysis.SourceColumn(QualifiedObjectName.valueOf("default.t2"), "a")
+        )), new OutputColumn("y", ImmutableSet.of(
+                new Analysis.SourceColumn(QualifiedObjectName.valueOf("default.t0"), "b"),
+                new Analysis.SourceColumn(QualifiedObjectName.valueOf("default.t1"), "b"),
+                new Analysis.SourceColumn(QualifiedObjectName.valueOf("default.t2"), "b")
+        )));
+    }
+
+    @Test
+    public void testMixedSetOperations() throws Exception {
+        Query query = (Query) SQL_PARSER.createStatement("select a from t0 union all select a from t1 union all select a from t2 " +
+                "union select a from t0 intersect select a from t1 intersect select a from t2 except select a from t1");
+
+        Except except = (Except) query.getQueryBody();
+        Union union = (Union) except.getLeft();
+        assertThat(union.isDistinct()).isTrue();
+        assertThat(union.getRelations()).hasSize(2);
+
+        Union unionAll = (Union) union.getRelations().get(0);
+        assertThat(unionAll.isDistinct()).isFalse();
+        assertThat(unionAll.getRelations()).hasSize(3);
+
+        Intersect intersect = (Intersect) union.getRelations().get(1);
+        assertThat(intersect.getRelations()).hasSize(3);
+    }
+}
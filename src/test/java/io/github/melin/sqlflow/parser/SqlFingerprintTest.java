@@ -0,0 +1,21 @@
+package io.github.melin.sqlflow.parser;
+
+import org.junit.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class SqlFingerprintTest {
+
+    @Test
+    public void testLiteralsWhitespaceAndComments() {
+        assertThat(SqlFingerprint.of("select a from t1 where dt = '20240101' and id > 1"))
+                .isEqualTo(SqlFingerprint.of("select a  from t1 -- daily\n where dt = '20240102' /* x */ and id > 20"));
+        assertThat(SqlFingerprint.of("select a from t1")).isNotEqualTo(SqlFingerprint.of("select b from t1"));
+        assertThat(SqlFingerprint.of("select a from t1 where id > 1")).isNotEqualTo(SqlFingerprint.of("select a from t1 where id > '1'"));
+    }
+
+    @Test
+    public void testTokenCount() {
+        assertThat(SqlFingerprint.of("select a  from t1 -- daily\n where id > 1").getTokenCount()).isEqualTo(8);
+    }
+}
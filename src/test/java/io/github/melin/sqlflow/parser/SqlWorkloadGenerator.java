@@ -0,0 +1,178 @@
+package io.github.melin.sqlflow.parser;
+
+import io.github.melin.sqlflow.metadata.MetadataService;
+import io.github.melin.sqlflow.metadata.QualifiedObjectName;
+import io.github.melin.sqlflow.metadata.SchemaTable;
+import io.github.melin.sqlflow.metadata.ViewDefinition;
+import io.github.melin.sqlflow.tree.QualifiedName;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Synthetic statements that grow along one axis at a time, for measuring how parsing and analysis scale.
+ * Every statement is an {@code INSERT INTO target SELECT ...} over tables {@code t0, t1, ...} whose columns
+ * are {@code c0, c1, ...}; {@link Workload#getMetadataService()} declares all of them.
+ */
+public final class SqlWorkloadGenerator {
+
+    private static final int DEFAULT_WIDTH = 8;
+
+    private SqlWorkloadGenerator() {
+    }
+
+    public enum Axis {
+        /** Subqueries nested in FROM, {@code size} levels deep. */
+        NESTING_DEPTH {
+            @Override
+            String sql(int size) {
+                String query = "SELECT c0, c1, c2, c3 FROM t0";
+                for (int i = 0; i < size; i++) {
+                    query = "SELECT c0, c1, c2, c3 FROM (" + query + ") s" + i;
+                }
+                return query;
+            }
+        },
+        /** A chain of {@code size} CTEs, each selecting from the previous one. */
+        CTE_COUNT {
+            @Override
+            String sql(int size) {
+                StringBuilder query = new StringBuilder("WITH w0 AS (SELECT c0, c1, c2, c3 FROM t0)");
+                for (int i = 1; i < size; i++) {
+                    query.append(", w").append(i).append(" AS (SELECT c0, c1, c2, c3 FROM w").append(i - 1).append(')');
+                }
+                return query.append(" SELECT c0, c1, c2, c3 FROM w").append(size - 1).toString();
+            }
+        },
+        /** {@code size} tables joined in a chain, selecting a column of each. */
+        JOIN_FAN_OUT {
+            @Override
+            String sql(int size) {
+                StringBuilder select = new StringBuilder("SELECT t0.c0");
+                StringBuilder from = new StringBuilder(" FROM t0");
+                for (int i = 1; i < size; i++) {
+                    select.append(", t").append(i).append(".c").append(i % DEFAULT_WIDTH);
+                    from.append(" JOIN t").append(i).append(" ON t").append(i - 1).append(".c0 = t").append(i).append(".c0");
+                }
+                return select.append(from).toString();
+            }
+        },
+        /** {@code SELECT *} over a table of {@code size} columns, expanded twice. */
+        TABLE_WIDTH {
+            @Override
+            String sql(int size) {
+                return "SELECT * FROM (SELECT * FROM t0) s";
+            }
+
+            @Override
+            int width(int size) {
+                return size;
+            }
+        },
+        /** {@code size} UNION ALL branches over distinct tables. */
+        UNION_BRANCHES {
+            @Override
+            String sql(int size) {
+                StringBuilder query = new StringBuilder("SELECT c0, c1, c2, c3 FROM t0");
+                for (int i = 1; i < size; i++) {
+                    query.append(" UNION ALL SELECT c0, c1, c2, c3 FROM t").append(i);
+                }
+                return query.toString();
+            }
+        },
+        /** A searched CASE with {@code size} WHEN clauses. */
+        CASE_SIZE {
+            @Override
+            String sql(int size) {
+                StringBuilder query = new StringBuilder("SELECT CASE");
+                for (int i = 0; i < size; i++) {
+                    query.append(" WHEN c0 = ").append(i).append(" THEN c").append(1 + i % (DEFAULT_WIDTH - 1));
+                }
+                return query.append(" ELSE c0 END AS x FROM t0").toString();
+            }
+        },
+        /** An IN predicate with {@code size} literals. */
+        IN_LIST_LENGTH {
+            @Override
+            String sql(int size) {
+                StringBuilder query = new StringBuilder("SELECT c0, c1 FROM t0 WHERE c2 IN (");
+                for (int i = 0; i < size; i++) {
+                    query.append(i == 0 ? "" : ", ").append(i);
+                }
+                return query.append(')').toString();
+            }
+        };
+
+        abstract String sql(int size);
+
+        int width(int size) {
+            return DEFAULT_WIDTH;
+        }
+    }
+
+    public static Workload generate(Axis axis, int size) {
+        if (size < 1) {
+            throw new IllegalArgumentException("size must be positive: " + size);
+        }
+        return new Workload("INSERT INTO target " + axis.sql(size), axis.width(size));
+    }
+
+    public static final class Workload {
+        private final String sql;
+        private final MetadataService metadataService;
+
+        private Workload(String sql, int width) {
+            this.sql = sql;
+            this.metadataService = new WorkloadMetadataService(width);
+        }
+
+        public String getSql() {
+            return sql;
+        }
+
+        public MetadataService getMetadataService() {
+            return metadataService;
+        }
+    }
+
+    /**
+     * Every table has the same columns, answered without a lookup so the metadata service does not add to
+     * the cost being measured.
+     */
+    private static final class WorkloadMetadataService implements MetadataService {
+        private final List<String> columns;
+
+        WorkloadMetadataService(int width) {
+            columns = new ArrayList<>(width);
+            for (int i = 0; i < width; i++) {
+                columns.add("c" + i);
+            }
+        }
+
+        @Override
+        public Optional<String> getSchema() {
+            return Optional.of("default");
+        }
+
+        @Override
+        public Optional<String> getCatalog() {
+            return Optional.empty();
+        }
+
+        @Override
+        public boolean isAggregationFunction(QualifiedName name) {
+            return false;
+        }
+
+        @Override
+        public Optional<SchemaTable> getTableSchema(QualifiedObjectName table) {
+            return Optional.of(new SchemaTable(table.getObjectName(), columns));
+        }
+
+        @Override
+        public Optional<ViewDefinition> getView(QualifiedObjectName viewName) {
+            return Optional.empty();
+        }
+    }
+}
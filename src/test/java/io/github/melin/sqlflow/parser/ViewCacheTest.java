@@ -0,0 +1,101 @@
+package io.github.melin.sqlflow.parser;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import io.github.melin.sqlflow.analyzer.Analysis;
+import io.github.melin.sqlflow.analyzer.AnalysisProfile;
+import io.github.melin.sqlflow.analyzer.LineageResult;
+import io.github.melin.sqlflow.analyzer.StatementAnalyzer;
+import io.github.melin.sqlflow.analyzer.ViewCache;
+import io.github.melin.sqlflow.metadata.QualifiedObjectName;
+import io.github.melin.sqlflow.metadata.SchemaTable;
+import io.github.melin.sqlflow.metadata.SimpleMetadataService;
+import io.github.melin.sqlflow.metadata.ViewColumn;
+import io.github.melin.sqlflow.metadata.ViewDefinition;
+import io.github.melin.sqlflow.tree.statement.Statement;
+import io.github.melin.sqlflow.type.UnknownType;
+import org.junit.Test;
+
+import java.util.Optional;
+
+import static java.util.Collections.emptyMap;
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class ViewCacheTest {
+
+    protected static final SqlFlowParser SQL_PARSER = new SqlFlowParser();
+
+    private static final QualifiedObjectName ORDERS_VIEW = QualifiedObjectName.valueOf("default.v_orders");
+
+    private static final QualifiedObjectName USERS_VIEW = QualifiedObjectName.valueOf("default.v_users");
+
+    private static final String SQL = "insert into target select o.id, u.name " +
+            "from v_orders o join v_users u on o.uid = u.uid where o.id > 10";
+
+    @Test
+    public void testCachedViewsKeepLineage() throws Exception {
+        ViewMetadataService metadataService = new ViewMetadataService();
+        LineageResult expected = analyze(metadataService, AnalysisProfile.LINEAGE, Optional.empty());
+
+        ViewCache viewCache = new ViewCache(100);
+        assertThat(analyze(metadataService, AnalysisProfile.LINEAGE, Optional.of(viewCache))).isEqualTo(expected);
+        assertThat(viewCache.size()).isEqualTo(2);
+        // v_orders is referenced by the statement and by v_users
+        assertThat(viewCache.stats().hitCount()).isEqualTo(1);
+
+        assertThat(analyze(metadataService, AnalysisProfile.LINEAGE, Optional.of(viewCache))).isEqualTo(expected);
+        assertThat(viewCache.stats().hitCount()).isEqualTo(3);
+        // a full analysis parses the views again rather than analyzing the cached nodes twice
+        assertThat(analyze(metadataService, AnalysisProfile.FULL, Optional.of(viewCache))).isEqualTo(expected);
+        assertThat(viewCache.stats().hitCount()).isEqualTo(3L);
+
+        // the nested view's predicate columns are part of the outer view's entry
+        ViewCache.CachedView users = viewCache.get(USERS_VIEW, metadataService.getView(USERS_VIEW).get().getOriginalSql()).get();
+        assertThat(users.getWhereColumns()).isEqualTo(ImmutableSet.of(
+                new Analysis.SourceColumn(QualifiedObjectName.valueOf("default.users"), "active"),
+                new Analysis.SourceColumn(QualifiedObjectName.valueOf("default.orders"), "amount")));
+        assertThat(expected.getWhereColumns()).contains(
+                new Analysis.SourceColumn(QualifiedObjectName.valueOf("default.users"), "active"));
+
+        viewCache.invalidate(USERS_VIEW);
+        assertThat(viewCache.size()).isEqualTo(1);
+        assertThat(viewCache.get(ORDERS_VIEW, "select * from orders").isPresent()).isFalse();
+    }
+
+    private LineageResult analyze(ViewMetadataService metadataService, AnalysisProfile profile, Optional<ViewCache> viewCache) {
+        Statement statement = SQL_PARSER.createStatement(SQL);
+        Analysis analysis = new Analysis(statement, emptyMap(), profile);
+        viewCache.ifPresent(analysis::setViewCache);
+        new StatementAnalyzer(analysis, metadataService, SQL_PARSER).analyze(statement, Optional.empty());
+        return analysis.toLineageResult();
+    }
+
+    private static class ViewMetadataService extends SimpleMetadataService {
+        ViewMetadataService() {
+            super("default");
+            addTableMetadata(ImmutableList.of(
+                    new SchemaTable("default", "orders", ImmutableList.of("id", "uid", "amount")),
+                    new SchemaTable("default", "users", ImmutableList.of("uid", "name", "active")),
+                    new SchemaTable("default", "target", ImmutableList.of("x", "y"))));
+        }
+
+        @Override
+        public Optional<ViewDefinition> getView(QualifiedObjectName viewName) {
+            if (viewName.equals(ORDERS_VIEW)) {
+                return Optional.of(view("select id, uid from orders where amount > 0", "id", "uid"));
+            }
+            if (viewName.equals(USERS_VIEW)) {
+                return Optional.of(view("select u.uid, u.name from users u join v_orders o on u.uid = o.uid where u.active = 1", "uid", "name"));
+            }
+            return Optional.empty();
+        }
+
+        private static ViewDefinition view(String sql, String... columns) {
+            ImmutableList.Builder<ViewColumn> viewColumns = ImmutableList.builder();
+            for (String column : columns) {
+                viewColumns.add(new ViewColumn(column, UnknownType.UNKNOWN));
+            }
+            return new ViewDefinition(sql, Optional.of("hive"), Optional.of("default"), viewColumns.build(), Optional.empty());
+        }
+    }
+}
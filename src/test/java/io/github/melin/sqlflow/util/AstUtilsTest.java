@@ -0,0 +1,182 @@
+package io.github.melin.sqlflow.util;
+
+import io.github.melin.sqlflow.tree.Node;
+import io.github.melin.sqlflow.tree.expression.ArithmeticBinaryExpression;
+import io.github.melin.sqlflow.tree.expression.ArithmeticUnaryExpression;
+import io.github.melin.sqlflow.tree.expression.Expression;
+import io.github.melin.sqlflow.tree.expression.Identifier;
+import io.github.melin.sqlflow.tree.literal.LongLiteral;
+import com.google.common.collect.ImmutableList;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.OptionalInt;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+
+import static io.github.melin.sqlflow.tree.expression.ArithmeticBinaryExpression.Operator.ADD;
+import static io.github.melin.sqlflow.tree.expression.ArithmeticBinaryExpression.Operator.MULTIPLY;
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class AstUtilsTest {
+
+    // deeper than a recursive traversal can go with the default thread stack
+    private static final int DEEP = 100_000;
+
+    private static final BiFunction<Node, Node, Boolean> SHALLOW = (left, right) ->
+            left.getClass() == right.getClass() && left.shallowEquals(right) ? null : false;
+    private static final BiFunction<Node, Node, Boolean> IDENTIFIERS_EQUAL = (left, right) ->
+            left instanceof Identifier && right instanceof Identifier ? Boolean.TRUE : SHALLOW.apply(left, right);
+    private static final BiFunction<Node, Node, Boolean> LITERALS_DIFFER = (left, right) ->
+            left instanceof LongLiteral ? Boolean.FALSE : SHALLOW.apply(left, right);
+
+    private static final Function<Node, OptionalInt> CHILDREN = node -> OptionalInt.empty();
+    private static final Function<Node, OptionalInt> IDENTIFIERS = node ->
+            node instanceof Identifier ? OptionalInt.of(((Identifier) node).getValue().hashCode()) : OptionalInt.empty();
+    private static final Function<Node, OptionalInt> CONSTANT = node -> OptionalInt.of(42);
+
+    @Test
+    public void testVisitOrder() {
+        Identifier a = new Identifier("a");
+        LongLiteral one = new LongLiteral("1");
+        Identifier b = new Identifier("b");
+        ArithmeticUnaryExpression negative = ArithmeticUnaryExpression.negative(b);
+        ArithmeticBinaryExpression multiply = new ArithmeticBinaryExpression(MULTIPLY, one, negative);
+        ArithmeticBinaryExpression root = new ArithmeticBinaryExpression(ADD, a, multiply);
+
+        List<Node> preOrder = new ArrayList<>();
+        AstUtils.forEachPreOrder(root, preOrder::add);
+        assertSameNodes(preOrder, root, a, multiply, one, negative, b);
+        assertSameNodes(AstUtils.preOrder(root).collect(ImmutableList.toImmutableList()), root, a, multiply, one, negative, b);
+
+        List<Node> postOrder = new ArrayList<>();
+        AstUtils.forEachPostOrder(root, postOrder::add);
+        assertSameNodes(postOrder, a, one, b, negative, multiply, root);
+
+        List<Node> visited = new ArrayList<>();
+        AstUtils.visitPreOrder(root, node -> visited.add(node) && node != multiply);
+        assertSameNodes(visited, root, a, multiply);
+
+        assertThat(AstUtils.nodeCount(root)).isEqualTo(6);
+    }
+
+    @Test
+    public void testDeepTree() {
+        Expression deep = deepTree(DEEP);
+        Expression other = deepTree(DEEP);
+
+        int[] count = new int[1];
+        AstUtils.forEachPreOrder(deep, node -> count[0]++);
+        assertThat(count[0]).isEqualTo(DEEP + 1);
+
+        List<Node> postOrder = new ArrayList<>();
+        AstUtils.forEachPostOrder(deep, postOrder::add);
+        assertThat(postOrder).hasSize(DEEP + 1);
+        assertThat(postOrder.get(0) instanceof Identifier).isTrue();
+        assertThat(postOrder.get(DEEP)).isSameAs(deep);
+
+        assertThat(AstUtils.preOrder(deep).count()).isEqualTo(DEEP + 1L);
+        assertThat(AstUtils.nodeCount(deep)).isEqualTo(DEEP + 1);
+        assertThat(AstUtils.treeEqual(deep, other, SHALLOW)).isTrue();
+        assertThat(AstUtils.treeEqual(deep, ArithmeticUnaryExpression.negative(other), SHALLOW)).isFalse();
+        assertThat(AstUtils.treeHash(deep, CHILDREN)).isEqualTo(AstUtils.treeHash(other, CHILDREN));
+    }
+
+    @Test
+    public void testTreeEqualMatchesRecursiveDefinition() {
+        List<Expression> trees = trees();
+        for (BiFunction<Node, Node, Boolean> comparator : ImmutableList.of(SHALLOW, IDENTIFIERS_EQUAL, LITERALS_DIFFER)) {
+            for (Expression left : trees) {
+                for (Expression right : trees) {
+                    assertThat(AstUtils.treeEqual(left, right, comparator))
+                            .as("%s = %s", left, right)
+                            .isEqualTo(recursiveTreeEqual(left, right, comparator));
+                }
+            }
+        }
+
+        Expression left = new ArithmeticBinaryExpression(ADD, new Identifier("a"), new LongLiteral("1"));
+        Expression right = new ArithmeticBinaryExpression(ADD, new Identifier("b"), new LongLiteral("1"));
+        assertThat(AstUtils.treeEqual(left, right, SHALLOW)).isFalse();
+        // the comparator short-circuits the identifiers to equal and the literals to different
+        assertThat(AstUtils.treeEqual(left, right, IDENTIFIERS_EQUAL)).isTrue();
+        assertThat(AstUtils.treeEqual(left, left, LITERALS_DIFFER)).isFalse();
+        assertThat(AstUtils.treeEqual(left, right, (l, r) -> Boolean.TRUE)).isTrue();
+    }
+
+    @Test
+    public void testTreeHashMatchesRecursiveDefinition() {
+        for (Function<Node, OptionalInt> hasher : ImmutableList.of(CHILDREN, IDENTIFIERS, CONSTANT)) {
+            for (Expression tree : trees()) {
+                assertThat(AstUtils.treeHash(tree, hasher))
+                        .as("hash of %s", tree)
+                        .isEqualTo(recursiveTreeHash(tree, hasher));
+            }
+        }
+        // a hasher returning a value at the root replaces the whole tree
+        assertThat(AstUtils.treeHash(trees().get(3), CONSTANT)).isEqualTo(42);
+    }
+
+    private static List<Expression> trees() {
+        return ImmutableList.of(
+                new Identifier("a"),
+                new LongLiteral("1"),
+                new ArithmeticBinaryExpression(ADD, new Identifier("a"), new LongLiteral("1")),
+                new ArithmeticBinaryExpression(ADD, new Identifier("a"),
+                        new ArithmeticBinaryExpression(MULTIPLY, new LongLiteral("1"), ArithmeticUnaryExpression.negative(new Identifier("b")))),
+                new ArithmeticBinaryExpression(ADD, new Identifier("b"),
+                        new ArithmeticBinaryExpression(MULTIPLY, new LongLiteral("1"), ArithmeticUnaryExpression.negative(new Identifier("b")))),
+                new ArithmeticBinaryExpression(ADD, new Identifier("a"),
+                        new ArithmeticBinaryExpression(MULTIPLY, new LongLiteral("2"), ArithmeticUnaryExpression.negative(new Identifier("b")))),
+                new ArithmeticBinaryExpression(MULTIPLY, new Identifier("a"), new LongLiteral("1")),
+                ArithmeticUnaryExpression.negative(new Identifier("a")));
+    }
+
+    private static Expression deepTree(int depth) {
+        Expression expression = new Identifier("a");
+        for (int i = 0; i < depth; i++) {
+            expression = ArithmeticUnaryExpression.negative(expression);
+        }
+        return expression;
+    }
+
+    private static void assertSameNodes(List<Node> actual, Node... expected) {
+        assertThat(actual).hasSize(expected.length);
+        for (int i = 0; i < expected.length; i++) {
+            assertThat(actual.get(i)).isSameAs(expected[i]);
+        }
+    }
+
+    // the recursive definitions the iterative traversals replaced
+
+    private static boolean recursiveTreeEqual(Node left, Node right, BiFunction<Node, Node, Boolean> subtreeComparator) {
+        Boolean equal = subtreeComparator.apply(left, right);
+        if (equal != null) {
+            return equal;
+        }
+        List<? extends Node> leftChildren = left.getChildren();
+        List<? extends Node> rightChildren = right.getChildren();
+        if (leftChildren.size() != rightChildren.size()) {
+            return false;
+        }
+        for (int i = 0; i < leftChildren.size(); i++) {
+            if (!recursiveTreeEqual(leftChildren.get(i), rightChildren.get(i), subtreeComparator)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static int recursiveTreeHash(Node node, Function<Node, OptionalInt> subtreeHasher) {
+        OptionalInt hash = subtreeHasher.apply(node);
+        if (hash.isPresent()) {
+            return hash.getAsInt();
+        }
+        int result = node.getClass().hashCode();
+        for (Node child : node.getChildren()) {
+            result = 31 * result + recursiveTreeHash(child, subtreeHasher);
+        }
+        return result;
+    }
+}